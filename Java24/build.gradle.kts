@@ -1,5 +1,6 @@
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "org.example"
@@ -18,3 +19,21 @@ dependencies {
 tasks.test {
     useJUnitPlatform()
 }
+
+// The examples compile on Java 17, but the benchmarks run the context propagation
+// patterns on real virtual threads, so the jmh source set uses a 24 toolchain.
+val jmhToolchain = javaToolchains.launcherFor {
+    languageVersion.set(JavaLanguageVersion.of(24))
+}
+
+tasks.named<JavaCompile>("compileJmhJava") {
+    javaCompiler.set(javaToolchains.compilerFor {
+        languageVersion.set(JavaLanguageVersion.of(24))
+    })
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    jvm.set(jmhToolchain.map { it.executablePath.asFile.absolutePath })
+    includes.set(listOfNotNull(project.findProperty("jmhIncludes")?.toString()))
+}
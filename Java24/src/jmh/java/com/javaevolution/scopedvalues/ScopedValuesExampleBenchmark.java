@@ -0,0 +1,85 @@
+package com.javaevolution.scopedvalues;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the ThreadLocal-based context patterns of {@link ScopedValuesExample}
+ * at 1, 4 and 64 levels of nesting.
+ *
+ * - nestedUserId: processWithUserId nested {@code depth} times, innermost reads the user
+ * - nestedRequestContext: executeInRequestContext nested {@code depth} times
+ * - nestedTrace: traceOperation nested {@code depth} times (one trace context per
+ *   level; no SpanRecorder, so spans are not recorded)
+ *
+ * The nested classes run the same benchmarks on platform and on virtual JMH worker
+ * threads. The scoped value numbers live in the Java25 module's
+ * PlatformThreadContextBenchmark and VirtualThreadContextBenchmark (per read and bind)
+ * and ContextForkBenchmark (per fork).
+ *
+ * Run with: ./gradlew :Java24:jmh -PjmhIncludes=ScopedValuesExampleBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public abstract class ScopedValuesExampleBenchmark {
+
+    @Param({"1", "4", "64"})
+    int depth;
+
+    ScopedValuesExample example;
+    ScopedValuesExample.RequestContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        example = new ScopedValuesExample();
+        context = new ScopedValuesExample.RequestContext("user-1", "request-1", "session-1");
+    }
+
+    @Benchmark
+    public String nestedUserId() throws Exception {
+        return nestUserId(depth);
+    }
+
+    private String nestUserId(int remaining) throws Exception {
+        if (remaining == 0) {
+            return example.getCurrentUserId();
+        }
+        return example.processWithUserId("user-1", () -> nestUserId(remaining - 1));
+    }
+
+    @Benchmark
+    public String nestedRequestContext() throws Exception {
+        return nestRequestContext(depth);
+    }
+
+    private String nestRequestContext(int remaining) throws Exception {
+        if (remaining == 0) {
+            return example.getRequestContext().getUserId();
+        }
+        return example.executeInRequestContext(context, () -> nestRequestContext(remaining - 1));
+    }
+
+    @Benchmark
+    public String nestedTrace() throws Exception {
+        return nestTrace(depth);
+    }
+
+    private String nestTrace(int remaining) throws Exception {
+        if (remaining == 0) {
+            return example.getCurrentTrace().getSpanId();
+        }
+        return example.traceOperation("level", () -> nestTrace(remaining - 1));
+    }
+
+    @Fork(2)
+    public static class PlatformThreads extends ScopedValuesExampleBenchmark {
+    }
+
+    @Fork(value = 2, jvmArgsAppend = "-Djmh.executor=VIRTUAL_TPE")
+    public static class VirtualThreads extends ScopedValuesExampleBenchmark {
+    }
+}
@@ -202,54 +202,169 @@ public class ScopedValuesExample {
 
     /**
      * Example: Scoped values for tracing
+     *
+     * IDs are random 128-bit trace and 64-bit span IDs drawn from the per-thread
+     * ThreadLocalRandom (no SecureRandom, no UUID). Hex strings are only built when
+     * a getter is called, never on the recording path.
      */
     public static class TraceContext {
-        private final String traceId;
-        private final String spanId;
-        private final String parentSpanId;
+        private final long traceIdHigh;
+        private final long traceIdLow;
+        private final long spanId;
+        private final long parentSpanId;
+        // The IDs as given to the String constructor, returned unchanged by the getters
+        private final String[] text;
+
+        public TraceContext(long traceIdHigh, long traceIdLow, long spanId, long parentSpanId) {
+            this(traceIdHigh, traceIdLow, spanId, parentSpanId, null);
+        }
 
+        /**
+         * IDs given as strings, e.g. UUIDs from an incoming request; the getters return
+         * them as given. Hex IDs (dashes ignored) keep their value in the long IDs that
+         * spans are recorded with, other strings are hashed to them.
+         */
         public TraceContext(String traceId, String spanId, String parentSpanId) {
-            this.traceId = traceId;
+            this(idBits(traceId, 16), idBits(traceId, 0), idBits(spanId, 0),
+                parentSpanId != null ? idBits(parentSpanId, 0) : 0L,
+                new String[]{traceId, spanId, parentSpanId});
+        }
+
+        private TraceContext(long traceIdHigh, long traceIdLow, long spanId, long parentSpanId, String[] text) {
+            this.traceIdHigh = traceIdHigh;
+            this.traceIdLow = traceIdLow;
             this.spanId = spanId;
             this.parentSpanId = parentSpanId;
+            this.text = text;
+        }
+
+        static TraceContext root() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            return new TraceContext(random.nextLong(), random.nextLong(), nonZeroId(random), 0L);
+        }
+
+        TraceContext child() {
+            return new TraceContext(traceIdHigh, traceIdLow, nonZeroId(ThreadLocalRandom.current()), spanId);
+        }
+
+        private static long nonZeroId(ThreadLocalRandom random) {
+            long id;
+            do {
+                id = random.nextLong();
+            } while (id == 0L);
+            return id;
         }
 
-        public String getTraceId() { return traceId; }
-        public String getSpanId() { return spanId; }
-        public String getParentSpanId() { return parentSpanId; }
+        /**
+         * 64 bits of a string ID: for hex, the digits {@code skip} digits from the
+         * right end (0 for the low half, 16 for the high half); otherwise a hash.
+         */
+        private static long idBits(String id, int skip) {
+            if (id == null) {
+                return 0L;
+            }
+            long bits = 0L;
+            int digits = 0;
+            for (int i = id.length() - 1; i >= 0; i--) {
+                char c = id.charAt(i);
+                if (c == '-') {
+                    continue;
+                }
+                int digit = Character.digit(c, 16);
+                if (digit < 0 || c > 'f' || ++digits > 32) {
+                    return hash(id, skip);
+                }
+                if (digits > skip && digits <= skip + 16) {
+                    bits |= (long) digit << (4 * (digits - skip - 1));
+                }
+            }
+            return bits;
+        }
+
+        private static long hash(String id, int seed) {
+            long hash = 0xcbf29ce484222325L ^ seed;
+            for (int i = 0; i < id.length(); i++) {
+                hash = (hash ^ id.charAt(i)) * 0x100000001b3L;
+            }
+            return hash;
+        }
+
+        public String getTraceId() { return text != null ? text[0] : hex(traceIdHigh) + hex(traceIdLow); }
+        public String getSpanId() { return text != null ? text[1] : hex(spanId); }
+        public String getParentSpanId() {
+            if (text != null) {
+                return text[2];
+            }
+            return parentSpanId != 0L ? hex(parentSpanId) : null;
+        }
+
+        public long getTraceIdHigh() { return traceIdHigh; }
+        public long getTraceIdLow() { return traceIdLow; }
+        public long getSpanIdValue() { return spanId; }
+        public long getParentSpanIdValue() { return parentSpanId; }
+
+        private static String hex(long value) {
+            String digits = Long.toHexString(value);
+            return "0".repeat(16 - digits.length()) + digits;
+        }
     }
 
     private static final ThreadLocal<TraceContext> TRACE_CONTEXT = new ThreadLocal<>();
 
+    private final SpanRecorder spanRecorder;
+
+    /**
+     * Traces without recording spans.
+     */
+    public ScopedValuesExample() {
+        this.spanRecorder = null;
+    }
+
+    /**
+     * Records every finished span into the recorder; the caller exports it.
+     */
+    public ScopedValuesExample(SpanRecorder spanRecorder) {
+        this.spanRecorder = Objects.requireNonNull(spanRecorder, "spanRecorder");
+    }
+
+    /**
+     * Runs the operation as a child span of the current one and records it when it ends.
+     * The parent span is restored afterwards, so later sibling spans keep their parent.
+     */
     public <T> T traceOperation(String operationName, Callable<T> operation) 
             throws Exception {
         TraceContext parent = TRACE_CONTEXT.get();
-        String traceId = parent != null ? parent.getTraceId() : generateTraceId();
-        String spanId = generateSpanId();
-        String parentSpanId = parent != null ? parent.getSpanId() : null;
+        TraceContext context = parent != null ? parent.child() : TraceContext.root();
+        SpanRecorder recorder = spanRecorder;
+        int nameId = recorder != null ? recorder.nameId(operationName) : -1;
 
-        TraceContext context = new TraceContext(traceId, spanId, parentSpanId);
-        
+        TRACE_CONTEXT.set(context);
+        long start = recorder != null ? System.nanoTime() : 0L;
         try {
-            TRACE_CONTEXT.set(context);
             return operation.call();
         } finally {
-            TRACE_CONTEXT.remove();
+            if (recorder != null) {
+                recorder.record(context, nameId, start, System.nanoTime());
+            }
+            if (parent != null) {
+                TRACE_CONTEXT.set(parent);
+            } else {
+                TRACE_CONTEXT.remove();
+            }
         }
     }
 
-    private String generateTraceId() {
-        return UUID.randomUUID().toString();
-    }
-
-    private String generateSpanId() {
-        return UUID.randomUUID().toString().substring(0, 8);
-    }
-
     public TraceContext getCurrentTrace() {
         return TRACE_CONTEXT.get();
     }
 
+    /**
+     * The recorder spans go to, or null when spans are not recorded.
+     */
+    public SpanRecorder getSpanRecorder() {
+        return spanRecorder;
+    }
+
     /**
      * Advantages of Scoped Values over ThreadLocal:
      * 1. Immutable - can't be changed after binding
@@ -0,0 +1,320 @@
+package com.javaevolution.scopedvalues;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Low-overhead recorder for finished tracing spans.
+ *
+ * Spans are written as seven longs into striped, preallocated buffers. A stripe is
+ * claimed with a single CAS (no lock, no ThreadLocal, so virtual threads do not each
+ * get a buffer). Full buffers are handed to a lock-free queue and exported in batches,
+ * so the traced thread never performs I/O.
+ *
+ * Memory is bounded by {@code maxBuffers}. When the exporter falls behind, new spans
+ * are dropped and counted instead of blocking the request.
+ *
+ * File format (big-endian), appended by {@link #exportTo(Path)}:
+ *
+ * - Header: int magic "SPN1"
+ * - Names block: byte 1, int count, then count x (int id, short length, UTF-8 bytes)
+ * - Spans block: byte 2, int count, then count x (long traceIdHigh, long traceIdLow,
+ *   long spanId, long parentSpanId, long startNanos, long durationNanos, int nameId)
+ */
+public final class SpanRecorder {
+
+    static final int MAGIC = 0x53504E31;
+    static final byte NAMES_BLOCK = 1;
+    static final byte SPANS_BLOCK = 2;
+    static final int RECORD_LONGS = 7;
+    static final int RECORD_BYTES = 6 * Long.BYTES + Integer.BYTES;
+
+    public record SpanRecord(String operation, long traceIdHigh, long traceIdLow,
+                             long spanId, long parentSpanId, long startNanos, long durationNanos) {}
+
+    private static final class Buffer {
+        final long[] data;
+        int count;
+
+        Buffer(int capacity) {
+            this.data = new long[capacity * RECORD_LONGS];
+        }
+    }
+
+    private static final class Stripe {
+        final AtomicInteger owner = new AtomicInteger();
+        Buffer current;
+    }
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final int bufferCapacity;
+    private final int maxBuffers;
+    private final AtomicInteger allocatedBuffers = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Buffer> fullBuffers = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Buffer> freeBuffers = new ConcurrentLinkedQueue<>();
+    private final LongAdder dropped = new LongAdder();
+
+    private final ConcurrentHashMap<String, Integer> nameIds = new ConcurrentHashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private int exportedNames;
+
+    public SpanRecorder() {
+        this(Runtime.getRuntime().availableProcessors() * 2, 1024, 256);
+    }
+
+    public SpanRecorder(int stripeCount, int bufferCapacity, int maxBuffers) {
+        if (bufferCapacity <= 0 || maxBuffers <= 0) {
+            throw new IllegalArgumentException("Buffer capacity and count must be positive");
+        }
+        int count = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = count - 1;
+        this.bufferCapacity = bufferCapacity;
+        this.maxBuffers = maxBuffers;
+    }
+
+    /**
+     * Interns an operation name. Cache the result for operations traced in a loop.
+     */
+    public int nameId(String operation) {
+        Integer id = nameIds.get(operation);
+        if (id != null) {
+            return id;
+        }
+        synchronized (names) {
+            id = nameIds.get(operation);
+            if (id == null) {
+                id = names.size();
+                names.add(operation);
+                nameIds.put(operation, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Records a finished span. Never blocks and never performs I/O.
+     */
+    public void record(ScopedValuesExample.TraceContext span, int nameId, long startNanos, long endNanos) {
+        Stripe stripe = acquire();
+        try {
+            Buffer buffer = stripe.current;
+            if (buffer == null) {
+                buffer = newBuffer();
+                if (buffer == null) {
+                    dropped.increment();
+                    return;
+                }
+                stripe.current = buffer;
+            }
+            long[] data = buffer.data;
+            int base = buffer.count * RECORD_LONGS;
+            data[base] = span.getTraceIdHigh();
+            data[base + 1] = span.getTraceIdLow();
+            data[base + 2] = span.getSpanIdValue();
+            data[base + 3] = span.getParentSpanIdValue();
+            data[base + 4] = startNanos;
+            data[base + 5] = endNanos - startNanos;
+            data[base + 6] = nameId;
+            if (++buffer.count == bufferCapacity) {
+                fullBuffers.offer(buffer);
+                stripe.current = null;
+            }
+        } finally {
+            stripe.owner.set(0);
+        }
+    }
+
+    public long droppedSpans() {
+        return dropped.sum();
+    }
+
+    /**
+     * Appends all recorded spans (and any new operation names) to the file.
+     *
+     * @return the number of spans written
+     */
+    public long exportTo(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(Integer.BYTES).putInt(MAGIC).flip();
+                writeFully(channel, header);
+                synchronized (this) {
+                    // A new file needs the full name table
+                    exportedNames = 0;
+                }
+            }
+            return exportTo(channel);
+        }
+    }
+
+    /**
+     * Writes recorded spans to the channel as one names block and one spans block.
+     */
+    public synchronized long exportTo(WritableByteChannel channel) throws IOException {
+        List<Buffer> batch = new ArrayList<>();
+        Buffer buffer;
+        while ((buffer = fullBuffers.poll()) != null) {
+            batch.add(buffer);
+        }
+        for (Stripe stripe : stripes) {
+            while (!stripe.owner.compareAndSet(0, 1)) {
+                Thread.onSpinWait();
+            }
+            try {
+                if (stripe.current != null && stripe.current.count > 0) {
+                    batch.add(stripe.current);
+                    stripe.current = null;
+                }
+            } finally {
+                stripe.owner.set(0);
+            }
+        }
+
+        long spans = 0;
+        for (Buffer b : batch) {
+            spans += b.count;
+        }
+        ByteBuffer out = ByteBuffer.allocate(1 + Integer.BYTES + (int) spans * RECORD_BYTES);
+        out.put(SPANS_BLOCK).putInt((int) spans);
+        for (Buffer b : batch) {
+            long[] data = b.data;
+            for (int i = 0; i < b.count; i++) {
+                int base = i * RECORD_LONGS;
+                for (int f = 0; f < 6; f++) {
+                    out.putLong(data[base + f]);
+                }
+                out.putInt((int) data[base + 6]);
+            }
+        }
+        try {
+            writeNames(channel);
+            writeFully(channel, out.flip());
+        } catch (IOException | RuntimeException e) {
+            // Keep the spans for the next export rather than losing them
+            fullBuffers.addAll(batch);
+            throw e;
+        }
+        // Only reused once the spans are written
+        for (Buffer b : batch) {
+            b.count = 0;
+            freeBuffers.offer(b);
+        }
+        return spans;
+    }
+
+    /**
+     * Reads every span of a file written by {@link #exportTo(Path)}.
+     */
+    public static List<SpanRecord> readAll(Path file) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (in.remaining() < Integer.BYTES || in.getInt() != MAGIC) {
+            throw new IOException("Not a span file: " + file);
+        }
+        Map<Integer, String> names = new HashMap<>();
+        List<SpanRecord> spans = new ArrayList<>();
+        while (in.hasRemaining()) {
+            byte type = in.get();
+            int count = in.getInt();
+            for (int i = 0; i < count; i++) {
+                if (type == NAMES_BLOCK) {
+                    int id = in.getInt();
+                    byte[] bytes = new byte[in.getShort() & 0xFFFF];
+                    in.get(bytes);
+                    names.put(id, new String(bytes, StandardCharsets.UTF_8));
+                } else if (type == SPANS_BLOCK) {
+                    long high = in.getLong();
+                    long low = in.getLong();
+                    long spanId = in.getLong();
+                    long parentId = in.getLong();
+                    long start = in.getLong();
+                    long duration = in.getLong();
+                    String name = names.get(in.getInt());
+                    spans.add(new SpanRecord(name, high, low, spanId, parentId, start, duration));
+                } else {
+                    throw new IOException("Unknown block type " + type + " in " + file);
+                }
+            }
+        }
+        return spans;
+    }
+
+    private void writeNames(WritableByteChannel channel) throws IOException {
+        List<String> pending;
+        synchronized (names) {
+            pending = new ArrayList<>(names.subList(exportedNames, names.size()));
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<byte[]> encoded = new ArrayList<>(pending.size());
+        int size = 1 + Integer.BYTES;
+        for (String name : pending) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                bytes = Arrays.copyOf(bytes, 0xFFFF);
+            }
+            encoded.add(bytes);
+            size += Integer.BYTES + Short.BYTES + bytes.length;
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.put(NAMES_BLOCK).putInt(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            byte[] bytes = encoded.get(i);
+            out.putInt(exportedNames + i).putShort((short) bytes.length).put(bytes);
+        }
+        writeFully(channel, out.flip());
+        exportedNames += pending.size();
+    }
+
+    private Buffer newBuffer() {
+        Buffer buffer = freeBuffers.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        while (true) {
+            int allocated = allocatedBuffers.get();
+            if (allocated >= maxBuffers) {
+                return null;
+            }
+            if (allocatedBuffers.compareAndSet(allocated, allocated + 1)) {
+                return new Buffer(bufferCapacity);
+            }
+        }
+    }
+
+    private Stripe acquire() {
+        int index = (int) ((Thread.currentThread().getId() * 0x9E3779B97F4A7C15L) >>> 40);
+        while (true) {
+            for (int i = 0; i <= stripeMask; i++) {
+                Stripe stripe = stripes[(index + i) & stripeMask];
+                if (stripe.owner.get() == 0 && stripe.owner.compareAndSet(0, 1)) {
+                    return stripe;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.javaevolution.scopedvalues;
 
 import com.javaevolution.scopedvalues.ScopedValuesExample.*;
 import org.junit.jupiter.api.Test;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.Callable;
 
@@ -163,6 +165,74 @@ class ScopedValuesExampleTest {
         });
     }
 
+    @Test
+    void traceOperation_siblings_shouldKeepParent() throws Exception {
+        example.traceOperation("parent", () -> {
+            TraceContext parent = example.getCurrentTrace();
+            
+            example.traceOperation("first", () -> null);
+            
+            // The parent is restored, so the second sibling is still its child
+            assertSame(parent, example.getCurrentTrace());
+            example.traceOperation("second", () -> {
+                assertEquals(parent.getSpanId(), example.getCurrentTrace().getParentSpanId());
+                return null;
+            });
+            return null;
+        });
+        
+        assertNull(example.getCurrentTrace());
+    }
+
+    @Test
+    void traceOperation_shouldRecordFinishedSpans() throws Exception {
+        SpanRecorder recorder = new SpanRecorder();
+        ScopedValuesExample traced = new ScopedValuesExample(recorder);
+        Path file = Files.createTempFile("trace", ".bin");
+        Files.delete(file);
+        try {
+            traced.traceOperation("outer", () -> traced.traceOperation("inner", () -> "done"));
+            
+            assertEquals(2, recorder.exportTo(file));
+            List<SpanRecorder.SpanRecord> spans = SpanRecorder.readAll(file);
+            SpanRecorder.SpanRecord inner = spans.get(0);
+            SpanRecorder.SpanRecord outer = spans.get(1);
+            assertEquals("inner", inner.operation());
+            assertEquals("outer", outer.operation());
+            assertEquals(outer.spanId(), inner.parentSpanId());
+            assertEquals(0L, outer.parentSpanId());
+            assertEquals(outer.traceIdLow(), inner.traceIdLow());
+            assertTrue(outer.durationNanos() >= inner.durationNanos());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void traceOperation_byDefault_shouldNotRecordSpans() throws Exception {
+        assertNull(example.getSpanRecorder());
+        assertEquals("done", example.traceOperation("op", () -> "done"));
+    }
+
+    @Test
+    void traceContext_withStringIds_shouldKeepThem() {
+        String traceId = "123e4567-e89b-12d3-a456-426614174000";
+        TraceContext context = new TraceContext(traceId, "00000000000000ff", null);
+
+        assertEquals(traceId, context.getTraceId());
+        assertEquals("00000000000000ff", context.getSpanId());
+        assertNull(context.getParentSpanId());
+        assertEquals(0x123e4567e89b12d3L, context.getTraceIdHigh());
+        assertEquals(0xa456426614174000L, context.getTraceIdLow());
+        assertEquals(0xffL, context.getSpanIdValue());
+        assertEquals(0L, context.getParentSpanIdValue());
+
+        TraceContext named = new TraceContext("trace-abc", "span-1", "span-0");
+        assertEquals("span-0", named.getParentSpanId());
+        assertNotEquals(0L, named.getSpanIdValue());
+        assertNotEquals(named.getSpanIdValue(), named.getParentSpanIdValue());
+    }
+
     @Test
     void getCurrentTrace_withoutContext_shouldReturnNull() {
         TraceContext trace = example.getCurrentTrace();
@@ -0,0 +1,145 @@
+package com.javaevolution.scopedvalues;
+
+import com.javaevolution.scopedvalues.ScopedValuesExample.TraceContext;
+import com.javaevolution.scopedvalues.SpanRecorder.SpanRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpanRecorderTest {
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("spans", ".bin");
+        Files.delete(file);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void exportTo_shouldRoundTripSpans() throws IOException {
+        SpanRecorder recorder = new SpanRecorder(2, 16, 4);
+        TraceContext span = new TraceContext(1L, 2L, 3L, 4L);
+
+        recorder.record(span, recorder.nameId("checkout"), 100L, 350L);
+
+        assertEquals(1, recorder.exportTo(file));
+        List<SpanRecord> spans = SpanRecorder.readAll(file);
+        assertEquals(List.of(new SpanRecord("checkout", 1L, 2L, 3L, 4L, 100L, 250L)), spans);
+    }
+
+    @Test
+    void exportTo_whenWriteFails_shouldKeepSpansForNextExport() throws IOException {
+        SpanRecorder recorder = new SpanRecorder(2, 4, 8);
+        TraceContext span = new TraceContext(1L, 2L, 3L, 0L);
+        for (int i = 0; i < 6; i++) {
+            recorder.record(span, recorder.nameId("op"), i, i + 1);
+        }
+        WritableByteChannel failing = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        assertThrows(IOException.class, () -> recorder.exportTo(failing));
+
+        assertEquals(6, recorder.exportTo(file));
+        List<SpanRecord> spans = SpanRecorder.readAll(file);
+        assertEquals(6, spans.size());
+        assertEquals("op", spans.get(0).operation());
+    }
+
+    @Test
+    void exportTo_repeatedly_shouldAppendBatchesAndNamesOnce() throws IOException {
+        SpanRecorder recorder = new SpanRecorder(2, 4, 8);
+        TraceContext span = new TraceContext(1L, 2L, 3L, 0L);
+
+        for (int i = 0; i < 10; i++) {
+            recorder.record(span, recorder.nameId("op" + (i % 2)), i, i + 1);
+        }
+        assertEquals(10, recorder.exportTo(file));
+        recorder.record(span, recorder.nameId("op1"), 50, 60);
+        recorder.record(span, recorder.nameId("op2"), 60, 70);
+        assertEquals(2, recorder.exportTo(file));
+        assertEquals(0, recorder.exportTo(file));
+
+        List<SpanRecord> spans = SpanRecorder.readAll(file);
+        assertEquals(12, spans.size());
+        assertEquals("op2", spans.get(11).operation());
+        assertEquals(10L, spans.get(11).durationNanos());
+    }
+
+    @Test
+    void record_whenBuffersExhausted_shouldDropInsteadOfBlocking() throws IOException {
+        SpanRecorder recorder = new SpanRecorder(1, 2, 1);
+        TraceContext span = new TraceContext(1L, 2L, 3L, 0L);
+        int name = recorder.nameId("op");
+
+        for (int i = 0; i < 5; i++) {
+            recorder.record(span, name, 0, 1);
+        }
+
+        assertEquals(3, recorder.droppedSpans());
+        assertEquals(2, recorder.exportTo(file));
+        recorder.record(span, name, 0, 1);
+        assertEquals(3, recorder.droppedSpans());
+    }
+
+    @Test
+    void record_fromManyThreads_shouldKeepEverySpan() throws Exception {
+        SpanRecorder recorder = new SpanRecorder(4, 64, 1024);
+        int name = recorder.nameId("work");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                long thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        recorder.record(new TraceContext(thread, i, i + 1, 0L), name, 0, 1);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(8000, recorder.exportTo(file));
+        assertEquals(0, recorder.droppedSpans());
+        assertEquals(8000, new HashSet<>(SpanRecorder.readAll(file)).size());
+    }
+
+    @Test
+    void readAll_withWrongMagic_shouldFail() throws IOException {
+        Files.write(file, new byte[] {1, 2, 3, 4});
+        assertThrows(IOException.class, () -> SpanRecorder.readAll(file));
+    }
+}
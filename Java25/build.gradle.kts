@@ -1,5 +1,6 @@
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "org.example"
@@ -17,4 +18,59 @@ dependencies {
 
 tasks.test {
     useJUnitPlatform()
+    jvmArgs("--add-modules", "jdk.incubator.vector")
+}
+
+// ArrayKernels uses the Vector API when the incubator module is present and falls
+// back to scalar loops otherwise; compiling needs the module either way.
+tasks.withType<JavaCompile>().configureEach {
+    options.compilerArgs.addAll(listOf("--add-modules", "jdk.incubator.vector"))
+}
+
+// The module JAR doubles as the timing agent: java -javaagent:Java25.jar=<class prefixes>
+tasks.jar {
+    manifest {
+        attributes(
+            "Premain-Class" to "com.javaevolution.classfileapi.TimingAgent",
+            "Agent-Class" to "com.javaevolution.classfileapi.TimingAgent"
+        )
+    }
+}
+
+// The examples compile on Java 17, but the benchmarks measure the real Java 25
+// APIs (ScopedValue, virtual threads), so the jmh source set uses a 25 toolchain.
+// Preview is enabled for StructuredTaskScope, which is still a preview API in 25.
+val jmhToolchain = javaToolchains.launcherFor {
+    languageVersion.set(JavaLanguageVersion.of(25))
+}
+
+tasks.named<JavaCompile>("compileJmhJava") {
+    javaCompiler.set(javaToolchains.compilerFor {
+        languageVersion.set(JavaLanguageVersion.of(25))
+    })
+    options.release.set(25)
+    options.compilerArgs.add("--enable-preview")
+}
+
+// JMH generates a subclass per benchmark and compiles it separately; those classes
+// reference StructuredTaskScope through ContextForkBenchmark, so they need the same
+// toolchain and flags.
+tasks.named<JavaCompile>("jmhCompileGeneratedClasses") {
+    javaCompiler.set(javaToolchains.compilerFor {
+        languageVersion.set(JavaLanguageVersion.of(25))
+    })
+    options.release.set(25)
+    options.compilerArgs.add("--enable-preview")
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    jvm.set(jmhToolchain.map { it.executablePath.asFile.absolutePath })
+    includes.set(listOfNotNull(project.findProperty("jmhIncludes")?.toString()))
+    // Allocation per operation (gc.alloc.rate.norm) next to every score
+    profilers.add("gc")
+    // Prepend, not append: a command-line jvmArgsAppend replaces every
+    // @Fork(jvmArgsAppend = ...), such as VirtualThreadContextBenchmark's executor
+    // and ContextForkBenchmark's --enable-preview. No benchmark sets jvmArgsPrepend.
+    jvmArgsPrepend.add("--add-modules=jdk.incubator.vector")
 }
@@ -0,0 +1,102 @@
+package com.javaevolution.classfileapi;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Reading a record component and constructing a record, by reflection and by the
+ * hidden-class accessors of {@link AccessorGenerator}.
+ *
+ * - direct: {@code person.age()}, the lower bound
+ * - reflection: {@code Method.invoke} and {@code Constructor.newInstance}
+ * - methodHandle: an invokeExact through a non-constant handle, as a framework holding
+ *   handles in a map would call it
+ * - generated: {@code Function.apply} on the generated accessor
+ *
+ * Each call reads a different record from a small array, so the JIT cannot fold the result.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class AccessorBenchmark {
+
+    public record Person(String name, int age) {}
+
+    private static final int SIZE = 1024;
+
+    Person[] people;
+    int index;
+
+    Method ageMethod;
+    Constructor<Person> reflectiveConstructor;
+    MethodHandle ageHandle;
+    Function<Person, Object> generatedAge;
+    Function<Object[], Person> generatedConstructor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        people = new Person[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            people[i] = new Person("person-" + i, i);
+        }
+        ageMethod = Person.class.getMethod("age");
+        reflectiveConstructor = Person.class.getDeclaredConstructor(String.class, int.class);
+        ageHandle = MethodHandles.lookup().findVirtual(Person.class, "age", MethodType.methodType(int.class))
+            .asType(MethodType.methodType(Object.class, Person.class));
+        AccessorGenerator.Accessors<Person> accessors = AccessorGenerator.accessors(Person.class);
+        generatedAge = accessors.property("age").getter();
+        generatedConstructor = accessors.constructor();
+    }
+
+    private Person next() {
+        return people[index++ & (SIZE - 1)];
+    }
+
+    @Benchmark
+    public int directGet() {
+        return next().age();
+    }
+
+    @Benchmark
+    public Object reflectionGet() throws ReflectiveOperationException {
+        return ageMethod.invoke(next());
+    }
+
+    @Benchmark
+    public Object methodHandleGet() throws Throwable {
+        return (Object) ageHandle.invokeExact(next());
+    }
+
+    @Benchmark
+    public Object generatedGet() {
+        return generatedAge.apply(next());
+    }
+
+    @Benchmark
+    public Person directConstruct() {
+        Person source = next();
+        return new Person(source.name(), source.age());
+    }
+
+    @Benchmark
+    public Person reflectionConstruct() throws ReflectiveOperationException {
+        Person source = next();
+        return reflectiveConstructor.newInstance(source.name(), source.age());
+    }
+
+    @Benchmark
+    public Person generatedConstruct() {
+        Person source = next();
+        return generatedConstructor.apply(new Object[] {source.name(), source.age()});
+    }
+}
@@ -0,0 +1,187 @@
+package com.javaevolution.classfileapi;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.ClassModel;
+import java.lang.classfile.CodeTransform;
+import java.lang.classfile.MethodModel;
+import java.lang.classfile.attribute.SourceFileAttribute;
+import java.lang.classfile.instruction.LineNumber;
+import java.lang.classfile.instruction.LocalVariable;
+import java.lang.classfile.instruction.LocalVariableType;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.ConstantDescs;
+import java.lang.constant.MethodTypeDesc;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Parse, transform and generate with {@code java.lang.classfile}, against a naive
+ * {@code DataInputStream} parser ({@link NaiveClassFile}) and this package's own
+ * {@link ClassFileView} and {@link ClassFileWriter}.
+ *
+ * The corpus is the JDK's own classes, read from the {@code jrt:/} file system, so it
+ * needs nothing but the running JDK. Each invocation handles the next class of the
+ * corpus, so a score is the average time per class.
+ *
+ * - parse: class name plus the name and descriptor of every method
+ * - transform: strip SourceFile and the debug tables of every Code attribute, write the class
+ * - generate: a small class with two fields, a constructor and three methods
+ *
+ * The gc profiler is on for the jmh task, so {@code gc.alloc.rate.norm} gives the bytes
+ * allocated per class next to each score.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ClassFileBenchmark {
+
+    private static final ClassFile CLASS_FILE = ClassFile.of();
+
+    // Fully qualified: this package has its own ClassTransform
+    private static final java.lang.classfile.ClassTransform STRIP_DEBUG = java.lang.classfile.ClassTransform
+        .transformingMethodBodies(CodeTransform.dropping(element -> element instanceof LineNumber
+            || element instanceof LocalVariable || element instanceof LocalVariableType))
+        .andThen(java.lang.classfile.ClassTransform.dropping(element -> element instanceof SourceFileAttribute));
+
+    private static final ClassDesc POINT = ClassDesc.of("gen.Point");
+    private static final String POINT_NAME = "gen/Point";
+    private static final int IADD = 0x60;
+
+    /**
+     * Package under {@code jrt:/modules} whose classes, subpackages included, form the corpus.
+     */
+    @Param({"java.base/java/util"})
+    String corpus;
+
+    byte[][] classes;
+    int index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        FileSystem jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
+        try (Stream<Path> files = Files.walk(jrt.getPath("/modules/" + corpus))) {
+            List<Path> found = files.filter(f -> f.toString().endsWith(".class")).sorted().toList();
+            classes = new byte[found.size()][];
+            for (int i = 0; i < classes.length; i++) {
+                classes[i] = Files.readAllBytes(found.get(i));
+            }
+        }
+        if (classes.length == 0) {
+            throw new IllegalStateException("No classes under jrt:/modules/" + corpus);
+        }
+    }
+
+    private byte[] next() {
+        byte[] next = classes[index];
+        index = index + 1 == classes.length ? 0 : index + 1;
+        return next;
+    }
+
+    @Benchmark
+    public String parseNaive(Blackhole blackhole) {
+        NaiveClassFile parsed = NaiveClassFile.parse(next());
+        for (NaiveClassFile.Member method : parsed.methods) {
+            blackhole.consume(parsed.name(method));
+            blackhole.consume(parsed.descriptor(method));
+        }
+        return parsed.className(parsed.thisClass);
+    }
+
+    @Benchmark
+    public String parseView(Blackhole blackhole) {
+        ClassFileView view = ClassFileView.of(next());
+        for (ClassFileView.Member method : view.methods()) {
+            blackhole.consume(view.name(method));
+            blackhole.consume(view.descriptor(method));
+        }
+        return view.thisClass();
+    }
+
+    @Benchmark
+    public String parseClassFileApi(Blackhole blackhole) {
+        ClassModel model = CLASS_FILE.parse(next());
+        for (MethodModel method : model.methods()) {
+            blackhole.consume(method.methodName().stringValue());
+            blackhole.consume(method.methodType().stringValue());
+        }
+        return model.thisClass().asInternalName();
+    }
+
+    @Benchmark
+    public byte[] transformNaive() {
+        return NaiveClassFile.parse(next()).stripDebug().toByteArray();
+    }
+
+    @Benchmark
+    public byte[] transformClassFileApi() {
+        return CLASS_FILE.transformClass(CLASS_FILE.parse(next()), STRIP_DEBUG);
+    }
+
+    @Benchmark
+    public byte[] generateClassFileApi() {
+        MethodTypeDesc intGetter = MethodTypeDesc.of(ConstantDescs.CD_int);
+        return CLASS_FILE.build(POINT, cls -> cls
+            .withFlags(ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL | ClassFile.ACC_SUPER)
+            .withField("x", ConstantDescs.CD_int, ClassFile.ACC_PRIVATE | ClassFile.ACC_FINAL)
+            .withField("y", ConstantDescs.CD_int, ClassFile.ACC_PRIVATE | ClassFile.ACC_FINAL)
+            .withMethodBody(ConstantDescs.INIT_NAME,
+                MethodTypeDesc.of(ConstantDescs.CD_void, ConstantDescs.CD_int, ConstantDescs.CD_int),
+                ClassFile.ACC_PUBLIC, code -> code
+                    .aload(0)
+                    .invokespecial(ConstantDescs.CD_Object, ConstantDescs.INIT_NAME, ConstantDescs.MTD_void)
+                    .aload(0).iload(1).putfield(POINT, "x", ConstantDescs.CD_int)
+                    .aload(0).iload(2).putfield(POINT, "y", ConstantDescs.CD_int)
+                    .return_())
+            .withMethodBody("x", intGetter, ClassFile.ACC_PUBLIC, code -> code
+                .aload(0).getfield(POINT, "x", ConstantDescs.CD_int).ireturn())
+            .withMethodBody("y", intGetter, ClassFile.ACC_PUBLIC, code -> code
+                .aload(0).getfield(POINT, "y", ConstantDescs.CD_int).ireturn())
+            .withMethodBody("sum", intGetter, ClassFile.ACC_PUBLIC, code -> code
+                .aload(0).getfield(POINT, "x", ConstantDescs.CD_int)
+                .aload(0).getfield(POINT, "y", ConstantDescs.CD_int)
+                .iadd().ireturn()));
+    }
+
+    @Benchmark
+    public byte[] generateWriter() {
+        ConstantPoolBuilder pool = new ConstantPoolBuilder();
+        ClassFileWriter writer = new ClassFileWriter(61, 0, pool);
+        writer.header(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_FINAL | ClassFileWriter.ACC_SUPER,
+            POINT_NAME, "java/lang/Object", List.of());
+        writer.field(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_FINAL, "x", "I");
+        writer.field(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_FINAL, "y", "I");
+
+        CodeBuilder init = new CodeBuilder(pool)
+            .load("Lgen/Point;", 0).invokespecial("java/lang/Object", "<init>", "()V")
+            .load("Lgen/Point;", 0).load("I", 1).putfield(POINT_NAME, "x", "I")
+            .load("Lgen/Point;", 0).load("I", 2).putfield(POINT_NAME, "y", "I")
+            .op(CodeBuilder.RETURN);
+        writer.method(ClassFileWriter.ACC_PUBLIC, "<init>", "(II)V", List.of(init.toAttribute(2, 3)));
+        for (String field : List.of("x", "y")) {
+            CodeBuilder getter = new CodeBuilder(pool)
+                .load("Lgen/Point;", 0).getfield(POINT_NAME, field, "I")
+                .returnValue("I");
+            writer.method(ClassFileWriter.ACC_PUBLIC, field, "()I", List.of(getter.toAttribute(1, 1)));
+        }
+        CodeBuilder sum = new CodeBuilder(pool)
+            .load("Lgen/Point;", 0).getfield(POINT_NAME, "x", "I")
+            .load("Lgen/Point;", 0).getfield(POINT_NAME, "y", "I")
+            .op(IADD)
+            .returnValue("I");
+        writer.method(ClassFileWriter.ACC_PUBLIC, "sum", "()I", List.of(sum.toAttribute(2, 1)));
+        return writer.toByteArray();
+    }
+}
@@ -0,0 +1,295 @@
+package com.javaevolution.classfileapi;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The baseline for {@link ClassFileBenchmark}: a class file read eagerly through a
+ * {@code DataInputStream}, the way hand-written parsers usually start out.
+ *
+ * Every constant is decoded into an object (Utf8 through {@code readUTF}), and every
+ * member and attribute is copied into its own array. Writing goes back out through a
+ * {@code DataOutputStream}.
+ */
+final class NaiveClassFile {
+
+    static final Set<String> DEBUG_ATTRIBUTES =
+        Set.of("SourceFile", "LineNumberTable", "LocalVariableTable", "LocalVariableTypeTable");
+
+    record Attribute(int nameIndex, byte[] info) {}
+
+    record Member(int accessFlags, int nameIndex, int descriptorIndex, List<Attribute> attributes) {}
+
+    final int minorVersion;
+    final int majorVersion;
+    final byte[] tags;
+    // String for Utf8, boxed numbers, int[] of the indices for everything else
+    final Object[] constants;
+    final int accessFlags;
+    final int thisClass;
+    final int superClass;
+    final int[] interfaces;
+    final List<Member> fields;
+    final List<Member> methods;
+    final List<Attribute> attributes;
+
+    private NaiveClassFile(DataInputStream in) throws IOException {
+        if (in.readInt() != ClassFileView.MAGIC) {
+            throw new IOException("Not a class file");
+        }
+        minorVersion = in.readUnsignedShort();
+        majorVersion = in.readUnsignedShort();
+        int count = in.readUnsignedShort();
+        tags = new byte[count];
+        constants = new Object[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            tags[i] = (byte) tag;
+            constants[i] = readConstant(in, tag);
+            if (tag == ClassFileView.CONSTANT_LONG || tag == ClassFileView.CONSTANT_DOUBLE) {
+                i++;
+            }
+        }
+        accessFlags = in.readUnsignedShort();
+        thisClass = in.readUnsignedShort();
+        superClass = in.readUnsignedShort();
+        interfaces = new int[in.readUnsignedShort()];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaces[i] = in.readUnsignedShort();
+        }
+        fields = readMembers(in);
+        methods = readMembers(in);
+        attributes = readAttributes(in);
+    }
+
+    private NaiveClassFile(NaiveClassFile source, List<Member> methods, List<Attribute> attributes) {
+        this.minorVersion = source.minorVersion;
+        this.majorVersion = source.majorVersion;
+        this.tags = source.tags;
+        this.constants = source.constants;
+        this.accessFlags = source.accessFlags;
+        this.thisClass = source.thisClass;
+        this.superClass = source.superClass;
+        this.interfaces = source.interfaces;
+        this.fields = source.fields;
+        this.methods = methods;
+        this.attributes = attributes;
+    }
+
+    static NaiveClassFile parse(byte[] bytes) {
+        try {
+            return new NaiveClassFile(new DataInputStream(new ByteArrayInputStream(bytes)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    String utf8(int index) {
+        return (String) constants[index];
+    }
+
+    String className(int index) {
+        return index == 0 ? null : utf8(((int[]) constants[index])[0]);
+    }
+
+    String name(Member member) {
+        return utf8(member.nameIndex());
+    }
+
+    String descriptor(Member member) {
+        return utf8(member.descriptorIndex());
+    }
+
+    /**
+     * A copy without SourceFile and without the debug tables inside each Code attribute.
+     */
+    NaiveClassFile stripDebug() {
+        List<Member> stripped = new ArrayList<>(methods.size());
+        for (Member method : methods) {
+            List<Attribute> kept = new ArrayList<>(method.attributes().size());
+            for (Attribute attribute : method.attributes()) {
+                kept.add(utf8(attribute.nameIndex()).equals("Code") ? stripCode(attribute) : attribute);
+            }
+            stripped.add(new Member(method.accessFlags(), method.nameIndex(), method.descriptorIndex(), kept));
+        }
+        return new NaiveClassFile(this, stripped, withoutDebug(attributes));
+    }
+
+    private List<Attribute> withoutDebug(List<Attribute> attributes) {
+        List<Attribute> kept = new ArrayList<>(attributes.size());
+        for (Attribute attribute : attributes) {
+            if (!DEBUG_ATTRIBUTES.contains(utf8(attribute.nameIndex()))) {
+                kept.add(attribute);
+            }
+        }
+        return kept;
+    }
+
+    private Attribute stripCode(Attribute code) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(code.info()));
+            int maxStack = in.readUnsignedShort();
+            int maxLocals = in.readUnsignedShort();
+            byte[] bytecode = new byte[in.readInt()];
+            in.readFully(bytecode);
+            byte[] handlers = new byte[in.readUnsignedShort() * 8];
+            in.readFully(handlers);
+            List<Attribute> attributes = withoutDebug(readAttributes(in));
+
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(code.info().length);
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(bytecode.length);
+            out.write(bytecode);
+            out.writeShort(handlers.length / 8);
+            out.write(handlers);
+            writeAttributes(out, attributes);
+            return new Attribute(code.nameIndex(), buffer.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    byte[] toByteArray() {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeInt(ClassFileView.MAGIC);
+            out.writeShort(minorVersion);
+            out.writeShort(majorVersion);
+            out.writeShort(tags.length);
+            for (int i = 1; i < tags.length; i++) {
+                writeConstant(out, tags[i], constants[i]);
+                if (tags[i] == ClassFileView.CONSTANT_LONG || tags[i] == ClassFileView.CONSTANT_DOUBLE) {
+                    i++;
+                }
+            }
+            out.writeShort(accessFlags);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaces.length);
+            for (int index : interfaces) {
+                out.writeShort(index);
+            }
+            writeMembers(out, fields);
+            writeMembers(out, methods);
+            writeAttributes(out, attributes);
+            return buffer.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Object readConstant(DataInputStream in, int tag) throws IOException {
+        switch (tag) {
+            case ClassFileView.CONSTANT_UTF8:
+                return in.readUTF();
+            case ClassFileView.CONSTANT_INTEGER:
+                return in.readInt();
+            case ClassFileView.CONSTANT_FLOAT:
+                return in.readFloat();
+            case ClassFileView.CONSTANT_LONG:
+                return in.readLong();
+            case ClassFileView.CONSTANT_DOUBLE:
+                return in.readDouble();
+            case ClassFileView.CONSTANT_CLASS:
+            case ClassFileView.CONSTANT_STRING:
+            case ClassFileView.CONSTANT_METHOD_TYPE:
+            case ClassFileView.CONSTANT_MODULE:
+            case ClassFileView.CONSTANT_PACKAGE:
+                return new int[] {in.readUnsignedShort()};
+            case ClassFileView.CONSTANT_METHOD_HANDLE:
+                return new int[] {in.readUnsignedByte(), in.readUnsignedShort()};
+            case ClassFileView.CONSTANT_FIELDREF:
+            case ClassFileView.CONSTANT_METHODREF:
+            case ClassFileView.CONSTANT_INTERFACE_METHODREF:
+            case ClassFileView.CONSTANT_NAME_AND_TYPE:
+            case ClassFileView.CONSTANT_DYNAMIC:
+            case ClassFileView.CONSTANT_INVOKE_DYNAMIC:
+                return new int[] {in.readUnsignedShort(), in.readUnsignedShort()};
+            default:
+                throw new IOException("Unknown constant pool tag " + tag);
+        }
+    }
+
+    private static void writeConstant(DataOutputStream out, int tag, Object value) throws IOException {
+        out.writeByte(tag);
+        switch (tag) {
+            case ClassFileView.CONSTANT_UTF8:
+                out.writeUTF((String) value);
+                break;
+            case ClassFileView.CONSTANT_INTEGER:
+                out.writeInt((Integer) value);
+                break;
+            case ClassFileView.CONSTANT_FLOAT:
+                out.writeFloat((Float) value);
+                break;
+            case ClassFileView.CONSTANT_LONG:
+                out.writeLong((Long) value);
+                break;
+            case ClassFileView.CONSTANT_DOUBLE:
+                out.writeDouble((Double) value);
+                break;
+            case ClassFileView.CONSTANT_METHOD_HANDLE: {
+                int[] operands = (int[]) value;
+                out.writeByte(operands[0]);
+                out.writeShort(operands[1]);
+                break;
+            }
+            default:
+                for (int operand : (int[]) value) {
+                    out.writeShort(operand);
+                }
+                break;
+        }
+    }
+
+    private static List<Member> readMembers(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        List<Member> members = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            members.add(new Member(in.readUnsignedShort(), in.readUnsignedShort(), in.readUnsignedShort(),
+                readAttributes(in)));
+        }
+        return members;
+    }
+
+    private static List<Attribute> readAttributes(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        List<Attribute> attributes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int nameIndex = in.readUnsignedShort();
+            byte[] info = new byte[in.readInt()];
+            in.readFully(info);
+            attributes.add(new Attribute(nameIndex, info));
+        }
+        return attributes;
+    }
+
+    private static void writeMembers(DataOutputStream out, List<Member> members) throws IOException {
+        out.writeShort(members.size());
+        for (Member member : members) {
+            out.writeShort(member.accessFlags());
+            out.writeShort(member.nameIndex());
+            out.writeShort(member.descriptorIndex());
+            writeAttributes(out, member.attributes());
+        }
+    }
+
+    private static void writeAttributes(DataOutputStream out, List<Attribute> attributes) throws IOException {
+        out.writeShort(attributes.size());
+        for (Attribute attribute : attributes) {
+            out.writeShort(attribute.nameIndex());
+            out.writeInt(attribute.info().length);
+            out.write(attribute.info());
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.javaevolution.classfileapi;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * {@link OperatorTable} against the string switches it replaces, over a batch of rows.
+ *
+ * - expression: one operator for the whole batch, as in a compiled rule; the string
+ *   switch still hashes and compares the operator on every row
+ * - mixed: a random operator per row; the string switch against the generated
+ *   tableswitch over interned ids
+ *
+ * The int switch is SwitchExpressionsExample.calculateValue, the double switch is the one
+ * in PrimitiveTypesFinalExample.performMathOperation without the boxing around it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class OperatorDispatchBenchmark {
+
+    private static final String[] SYMBOLS = {"+", "-", "*", "/"};
+    private static final String[] NAMES = {"add", "subtract", "multiply", "divide"};
+
+    @Param({"1024"})
+    int rows;
+
+    @Param({"*"})
+    String expression;
+
+    int[] a;
+    int[] b;
+    double[] x;
+    double[] y;
+    String[] symbols;
+    String[] names;
+    int[] ids;
+
+    IntBinaryOperator intOperator;
+    OperatorTable.IntDispatcher intDispatcher;
+    DoubleBinaryOperator doubleOperator;
+    OperatorTable.DoubleDispatcher doubleDispatcher;
+    String expressionName;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        a = new int[rows];
+        b = new int[rows];
+        x = new double[rows];
+        y = new double[rows];
+        symbols = new String[rows];
+        names = new String[rows];
+        ids = new int[rows];
+        OperatorTable table = OperatorTable.ARITHMETIC;
+        for (int i = 0; i < rows; i++) {
+            a[i] = random.nextInt(10_000);
+            b[i] = 1 + random.nextInt(100);
+            x[i] = a[i] * 0.5;
+            y[i] = b[i] * 0.25;
+            int operator = random.nextInt(SYMBOLS.length);
+            // new String: no identity shortcut in equals
+            symbols[i] = new String(SYMBOLS[operator]);
+            names[i] = new String(NAMES[operator]);
+            ids[i] = table.id(symbols[i]);
+        }
+
+        Map<String, OperatorTable.Operation> named = new LinkedHashMap<>();
+        named.put("add", OperatorTable.Operation.ADD);
+        named.put("subtract", OperatorTable.Operation.SUBTRACT);
+        named.put("multiply", OperatorTable.Operation.MULTIPLY);
+        named.put("divide", OperatorTable.Operation.invoking(OperatorDispatchBenchmark.class, "divideOrNaN"));
+        OperatorTable doubles = OperatorTable.compile(named);
+
+        expressionName = NAMES[table.id(expression)];
+        intOperator = table.intOperator(expression);
+        intDispatcher = table.intDispatcher();
+        doubleOperator = doubles.doubleOperator(expressionName);
+        doubleDispatcher = doubles.doubleDispatcher();
+    }
+
+    public static double divideOrNaN(double a, double b) {
+        return b != 0 ? a / b : Double.NaN;
+    }
+
+    private static int calculateValue(String operator, int a, int b) {
+        return switch (operator) {
+            case "+" -> a + b;
+            case "-" -> a - b;
+            case "*" -> a * b;
+            case "/" -> {
+                if (b == 0) {
+                    throw new ArithmeticException("Division by zero");
+                }
+                yield a / b;
+            }
+            default -> throw new IllegalArgumentException("Unknown operator: " + operator);
+        };
+    }
+
+    private static double performMathOperation(double a, double b, String operation) {
+        return switch (operation) {
+            case "add" -> a + b;
+            case "subtract" -> a - b;
+            case "multiply" -> a * b;
+            case "divide" -> b != 0 ? a / b : Double.NaN;
+            default -> throw new IllegalArgumentException("Unknown operation: " + operation);
+        };
+    }
+
+    @Benchmark
+    public int expressionIntStringSwitch() {
+        int sum = 0;
+        for (int i = 0; i < rows; i++) {
+            sum += calculateValue(expression, a[i], b[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int expressionIntOperator() {
+        int sum = 0;
+        for (int i = 0; i < rows; i++) {
+            sum += intOperator.applyAsInt(a[i], b[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int mixedIntStringSwitch() {
+        int sum = 0;
+        for (int i = 0; i < rows; i++) {
+            sum += calculateValue(symbols[i], a[i], b[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int mixedIntDispatcher() {
+        int sum = 0;
+        for (int i = 0; i < rows; i++) {
+            sum += intDispatcher.apply(ids[i], a[i], b[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double expressionDoubleStringSwitch() {
+        double sum = 0;
+        for (int i = 0; i < rows; i++) {
+            sum += performMathOperation(x[i], y[i], expressionName);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double expressionDoubleOperator() {
+        double sum = 0;
+        for (int i = 0; i < rows; i++) {
+            sum += doubleOperator.applyAsDouble(x[i], y[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double mixedDoubleStringSwitch() {
+        double sum = 0;
+        for (int i = 0; i < rows; i++) {
+            sum += performMathOperation(x[i], y[i], names[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double mixedDoubleDispatcher() {
+        double sum = 0;
+        for (int i = 0; i < rows; i++) {
+            sum += doubleDispatcher.apply(ids[i], x[i], y[i]);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,100 @@
+package com.javaevolution.flexibleconstructors;
+
+import com.javaevolution.flexibleconstructors.FlexibleConstructorsFinalExample.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validating imported rows one object at a time, catching the exception of each invalid
+ * row, against {@link BatchValidator} over the same columns. About 10% of the rows are
+ * invalid. The password rows also show the cost of String.matches compiling a Pattern
+ * per call, which the constructor no longer pays.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class BatchValidationBenchmark {
+
+    @Param({"100000", "1000000"})
+    int rows;
+
+    String[] firstNames;
+    String[] lastNames;
+    int[] ages;
+    String[] emails;
+    String[] passwords;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(48);
+        firstNames = new String[rows];
+        lastNames = new String[rows];
+        ages = new int[rows];
+        emails = new String[rows];
+        passwords = new String[rows];
+        for (int row = 0; row < rows; row++) {
+            boolean invalid = random.nextInt(10) == 0;
+            firstNames[row] = "First" + (row % 1000);
+            lastNames[row] = invalid && random.nextBoolean() ? "" : "Last" + (row % 777);
+            ages[row] = invalid ? 200 : random.nextInt(100);
+            emails[row] = "user" + row + "@example.com";
+            passwords[row] = invalid ? "password" + row : "Password" + row;
+        }
+    }
+
+    @Benchmark
+    public int peopleConstructors() {
+        int failures = 0;
+        for (int row = 0; row < rows; row++) {
+            try {
+                new Person.Builder()
+                    .firstName(firstNames[row]).lastName(lastNames[row]).age(ages[row]).email(emails[row])
+                    .build();
+            } catch (IllegalArgumentException e) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    @Benchmark
+    public ValidationResult peopleBatch() {
+        return BatchValidator.validatePeople(firstNames, lastNames, ages, emails);
+    }
+
+    @Benchmark
+    public int passwordsStringMatches() {
+        int failures = 0;
+        for (int row = 0; row < rows; row++) {
+            String password = passwords[row];
+            if (password.length() < 8 || !password.matches(".*[A-Z].*") || !password.matches(".*[0-9].*")) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    @Benchmark
+    public int passwordsConstructors(Blackhole blackhole) {
+        int failures = 0;
+        for (int row = 0; row < rows; row++) {
+            try {
+                blackhole.consume(new SecurePassword(passwords[row]));
+            } catch (IllegalArgumentException e) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    @Benchmark
+    public ValidationResult passwordsBatch() {
+        return BatchValidator.validatePasswords(passwords);
+    }
+}
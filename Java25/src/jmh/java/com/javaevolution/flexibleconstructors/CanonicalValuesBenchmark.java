@@ -0,0 +1,89 @@
+package com.javaevolution.flexibleconstructors;
+
+import com.javaevolution.flexibleconstructors.FlexibleConstructorsFinalExample.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Constructors against {@link CanonicalValues} on a small set of hot values, the
+ * case the factories are for. Read gc.alloc.rate.norm from the gc profiler (enabled
+ * in the jmh block of the build): the constructors allocate every object, plus the
+ * trimmed and lowercased copies of each string; the factories should show about zero
+ * bytes per operation.
+ *
+ * Each operation builds {@code BATCH} values and sinks them into the Blackhole, so
+ * escape analysis cannot remove the constructors' allocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class CanonicalValuesBenchmark {
+
+    private static final int BATCH = 1024;
+
+    int[] numbers;
+    String[] inputs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(46);
+        String[] distinct = new String[200];
+        for (int i = 0; i < distinct.length; i++) {
+            distinct[i] = "  Tag-" + Integer.toString(i, 36).toUpperCase() + " ";
+        }
+        numbers = new int[BATCH];
+        inputs = new String[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            numbers[i] = 1 + random.nextInt(100);
+            inputs[i] = distinct[random.nextInt(distinct.length)];
+        }
+    }
+
+    @Benchmark
+    public void positiveNumberConstructor(Blackhole blackhole) {
+        for (int number : numbers) {
+            blackhole.consume(new PositiveNumber(number));
+        }
+    }
+
+    @Benchmark
+    public void positiveNumberCanonical(Blackhole blackhole) {
+        for (int number : numbers) {
+            blackhole.consume(CanonicalValues.positiveNumber(number));
+        }
+    }
+
+    @Benchmark
+    public void boundedIntegerConstructor(Blackhole blackhole) {
+        for (int number : numbers) {
+            blackhole.consume(new BoundedInteger(number, 0, 100));
+        }
+    }
+
+    @Benchmark
+    public void boundedIntegerCanonical(Blackhole blackhole) {
+        for (int number : numbers) {
+            blackhole.consume(CanonicalValues.boundedInteger(number, 0, 100));
+        }
+    }
+
+    @Benchmark
+    public void normalizedStringConstructor(Blackhole blackhole) {
+        for (String input : inputs) {
+            blackhole.consume(new NormalizedString(input));
+        }
+    }
+
+    @Benchmark
+    public void normalizedStringCanonical(Blackhole blackhole) {
+        for (String input : inputs) {
+            blackhole.consume(CanonicalValues.normalizedString(input));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.javaevolution.flexibleconstructors;
+
+import com.javaevolution.flexibleconstructors.FlexibleConstructorsFinalExample.ImmutableConfiguration;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups in {@link ImmutableConfiguration} (lowercase, then Map.copyOf) and in
+ * {@link ReloadableConfiguration} (perfect hash over a snapshot), as strings and as
+ * ints. {@code keyCase} "lower" spells keys as stored, which takes the String.hashCode
+ * index; "mixed" takes the case-folding path. With the gc profiler,
+ * gc.alloc.rate.norm shows the lowercased key and the parse that the perfect-hashed
+ * lookups avoid.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ConfigurationLookupBenchmark {
+
+    private static final int LOOKUPS = 1024;
+
+    @Param({"50", "5000"})
+    int properties;
+
+    @Param({"lower", "mixed"})
+    String keyCase;
+
+    ImmutableConfiguration immutable;
+    ReloadableConfiguration reloadable;
+    String[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < properties; i++) {
+            values.put("service.Setting" + i + ".Limit", Integer.toString(i * 7));
+        }
+        immutable = new ImmutableConfiguration(values);
+        reloadable = new ReloadableConfiguration(values);
+        Random random = new Random(47);
+        keys = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            String key = "Service.setting" + random.nextInt(properties) + ".LIMIT";
+            keys[i] = keyCase.equals("lower") ? key.toLowerCase() : key;
+        }
+    }
+
+    @Benchmark
+    public void stringLowercasedMap(Blackhole blackhole) {
+        for (String key : keys) {
+            blackhole.consume(immutable.getProperty(key));
+        }
+    }
+
+    @Benchmark
+    public void stringPerfectHash(Blackhole blackhole) {
+        for (String key : keys) {
+            blackhole.consume(reloadable.getProperty(key));
+        }
+    }
+
+    @Benchmark
+    public void intLowercasedMap(Blackhole blackhole) {
+        for (String key : keys) {
+            blackhole.consume(Integer.parseInt(immutable.getProperty(key)));
+        }
+    }
+
+    @Benchmark
+    public void intPerfectHash(Blackhole blackhole) {
+        for (String key : keys) {
+            blackhole.consume(reloadable.getInt(key, 0));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.javaevolution.flexibleconstructors;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CredentialStore} checks: one login, and a burst of logins verified one after
+ * another on the owner thread or spread over the workers with verifyAll. With the gc
+ * profiler, gc.alloc.rate.norm of verifyOne should be 0.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CredentialStoreBenchmark {
+
+    private static final int BURST = 32;
+
+    @Param({"1024", "16384"})
+    int cost;
+
+    CredentialStore store;
+    int[] ids;
+    CharSequence[] attempts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Set up on the benchmark thread, which the store is confined to
+        store = new CredentialStore(BURST, cost, CredentialStore.DEFAULT_BLOCK_SIZE,
+            CredentialStore.DEFAULT_PARALLELIZATION, Runtime.getRuntime().availableProcessors());
+        ids = new int[BURST];
+        attempts = new CharSequence[BURST];
+        for (int i = 0; i < BURST; i++) {
+            ids[i] = store.enroll("Password" + i);
+            attempts[i] = i % 4 == 0 ? "Password" + (i + 1) : "Password" + i;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        store.close();
+    }
+
+    @Benchmark
+    public boolean verifyOne() {
+        return store.verify(ids[1], attempts[1]);
+    }
+
+    @Benchmark
+    public int verifyBurstSequential() {
+        int accepted = 0;
+        for (int i = 0; i < BURST; i++) {
+            if (store.verify(ids[i], attempts[i])) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    @Benchmark
+    public boolean[] verifyBurstAll() {
+        return store.verifyAll(ids, attempts);
+    }
+}
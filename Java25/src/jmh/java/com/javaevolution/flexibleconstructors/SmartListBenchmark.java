@@ -0,0 +1,66 @@
+package com.javaevolution.flexibleconstructors;
+
+import com.javaevolution.flexibleconstructors.FlexibleConstructorsFinalExample.SmartList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appending {@code elements} ints one at a time to a boxed {@link SmartList} and to
+ * {@link IntSmartList} under each {@link GrowthPolicy}, from the default capacity, plus
+ * a pre-sized IntSmartList. With the gc profiler, gc.alloc.rate.norm shows the Integer
+ * per element and the abandoned arrays of each resize; the segmented list allocates
+ * only its segments.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SmartListBenchmark {
+
+    @Param({"1000000", "10000000"})
+    int elements;
+
+    @Param({"1.5x", "2x", "segmented"})
+    String policy;
+
+    GrowthPolicy growthPolicy;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch (policy) {
+            case "1.5x" -> growthPolicy = GrowthPolicy.ONE_AND_A_HALF;
+            case "2x" -> growthPolicy = GrowthPolicy.DOUBLING;
+            default -> growthPolicy = GrowthPolicy.SEGMENTED;
+        }
+    }
+
+    @Benchmark
+    public SmartList<Integer> boxedSmartList() {
+        SmartList<Integer> list = new SmartList<>(0);
+        for (int i = 0; i < elements; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public IntSmartList intSmartList() {
+        IntSmartList list = new IntSmartList(0, growthPolicy);
+        for (int i = 0; i < elements; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public IntSmartList intSmartListPresized() {
+        IntSmartList list = new IntSmartList(elements, growthPolicy);
+        for (int i = 0; i < elements; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+}
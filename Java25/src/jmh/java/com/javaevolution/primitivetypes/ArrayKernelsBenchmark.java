@@ -0,0 +1,109 @@
+package com.javaevolution.primitivetypes;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ArrayKernels} on the Vector API against the scalar loops of
+ * {@link ScalarKernels}, at the preferred vector width of the machine running it.
+ *
+ * The jmh task adds {@code jdk.incubator.vector}; setup fails rather than comparing
+ * scalar with scalar if it is missing. 10M elements is the size of our feature arrays
+ * (80 MB of doubles, so memory bound); 4K stays in L1/L2 and shows the compute side.
+ * The histogram has no vector kernel (see {@link VectorKernels}) and is not measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ArrayKernelsBenchmark {
+
+    private static final ScalarKernels SCALAR = ArrayKernels.SCALAR;
+
+    @Param({"4096", "10000000"})
+    int size;
+
+    int[] ints;
+    double[] doubles;
+    double[] weights;
+    boolean[] flags;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (!ArrayKernels.implementation().startsWith("vector")) {
+            throw new IllegalStateException("Vector API not available: run with --add-modules=jdk.incubator.vector");
+        }
+        Random random = new Random(42);
+        ints = random.ints(size).toArray();
+        doubles = random.doubles(size, -100, 100).toArray();
+        weights = random.doubles(size).toArray();
+        flags = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            flags[i] = random.nextBoolean();
+        }
+    }
+
+    @Benchmark
+    public long sumIntScalar() {
+        return SCALAR.sum(ints, 0);
+    }
+
+    @Benchmark
+    public long sumIntVector() {
+        return ArrayKernels.sum(ints);
+    }
+
+    @Benchmark
+    public double sumDoubleScalar() {
+        return SCALAR.sum(doubles, 0);
+    }
+
+    @Benchmark
+    public double sumDoubleVector() {
+        return ArrayKernels.sum(doubles);
+    }
+
+    @Benchmark
+    public double maxDoubleScalar() {
+        return SCALAR.max(doubles, 0, Double.NEGATIVE_INFINITY);
+    }
+
+    @Benchmark
+    public double maxDoubleVector() {
+        return ArrayKernels.max(doubles);
+    }
+
+    @Benchmark
+    public int countGreaterScalar() {
+        return SCALAR.count(doubles, 0, ArrayKernels.Comparison.GT, 50.0);
+    }
+
+    @Benchmark
+    public int countGreaterVector() {
+        return ArrayKernels.count(doubles, ArrayKernels.Comparison.GT, 50.0);
+    }
+
+    @Benchmark
+    public int countTrueScalar() {
+        return SCALAR.countTrue(flags, 0);
+    }
+
+    @Benchmark
+    public int countTrueVector() {
+        return ArrayKernels.countTrue(flags);
+    }
+
+    @Benchmark
+    public double dotScalar() {
+        return SCALAR.dot(doubles, weights, 0);
+    }
+
+    @Benchmark
+    public double dotVector() {
+        return ArrayKernels.dot(doubles, weights);
+    }
+}
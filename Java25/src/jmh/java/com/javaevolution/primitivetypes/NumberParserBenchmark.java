@@ -0,0 +1,95 @@
+package com.javaevolution.primitivetypes;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A column of newline-separated fields, parsed with {@link NumberParser} and with the
+ * JDK parsers catching {@code NumberFormatException}, as extractAsInt/extractAsDouble did.
+ *
+ * {@code malformed} is the share of dirty fields ("n/a", "12,5", "1e"). The byte
+ * benchmarks parse the raw column; the JDK ones get the fields already split into
+ * Strings, which flatters them. Throughput in MB/s is {@code bytes / time}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class NumberParserBenchmark {
+
+    private static final String[] DIRTY = {"n/a", "12,5", "1e", "", "--3", "0x", "null", "7.5.1"};
+    private static final int FIELDS = 100_000;
+
+    @Param({"0.0", "0.3"})
+    double malformed;
+
+    byte[] doubleColumn;
+    byte[] intColumn;
+    String[] doubleFields;
+    String[] intFields;
+    double[] doubles;
+    int[] ints;
+    byte[] status;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(44);
+        doubleFields = new String[FIELDS];
+        intFields = new String[FIELDS];
+        for (int i = 0; i < FIELDS; i++) {
+            boolean dirty = random.nextDouble() < malformed;
+            doubleFields[i] = dirty ? DIRTY[random.nextInt(DIRTY.length)]
+                : String.valueOf(Math.round(random.nextGaussian() * 1e6) / 100.0);
+            intFields[i] = dirty ? DIRTY[random.nextInt(DIRTY.length)] : String.valueOf(random.nextInt(2_000_000) - 1_000_000);
+        }
+        doubleColumn = (String.join("\n", doubleFields) + "\n").getBytes(StandardCharsets.US_ASCII);
+        intColumn = (String.join("\n", intFields) + "\n").getBytes(StandardCharsets.US_ASCII);
+        doubles = new double[FIELDS];
+        ints = new int[FIELDS];
+        status = new byte[FIELDS];
+    }
+
+    @Benchmark
+    public int doublesFromBytes() {
+        return NumberParser.parseDoubles(doubleColumn, 0, doubleColumn.length, (byte) '\n', doubles, status);
+    }
+
+    @Benchmark
+    public int doublesFromStrings() {
+        return NumberParser.parseDoubles(doubleFields, doubles, status);
+    }
+
+    @Benchmark
+    public double[] doublesJdk() {
+        for (int i = 0; i < FIELDS; i++) {
+            try {
+                doubles[i] = Double.parseDouble(doubleFields[i]);
+            } catch (NumberFormatException e) {
+                doubles[i] = 0.0;
+            }
+        }
+        return doubles;
+    }
+
+    @Benchmark
+    public int intsFromStrings() {
+        return NumberParser.parseInts(intFields, ints, status);
+    }
+
+    @Benchmark
+    public int[] intsJdk() {
+        for (int i = 0; i < FIELDS; i++) {
+            try {
+                ints[i] = Integer.parseInt(intFields[i]);
+            } catch (NumberFormatException e) {
+                ints[i] = 0;
+            }
+        }
+        return ints;
+    }
+}
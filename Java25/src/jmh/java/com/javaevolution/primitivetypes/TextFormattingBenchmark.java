@@ -0,0 +1,91 @@
+package com.javaevolution.primitivetypes;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GroupedFormatter} against {@code String.format("%,d")}, and
+ * {@link CharClassifier} against the {@code Character.isXxx} chain of classifyCharacter.
+ *
+ * One operation formats or classifies the whole column. The text mixes ASCII with
+ * Latin-1 and Cyrillic letters, so the Character methods leave their ASCII shortcut.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class TextFormattingBenchmark {
+
+    private static final String ALPHABET = "abc XYZ 0123456789 .,;!? \u00e9\u00fc\u00df \u0436\u044f\u0449\t\n";
+
+    @Param({"1000000"})
+    int size;
+
+    long[] values;
+    byte[] out;
+    StringBuilder builder;
+    String text;
+    byte[] classes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(45);
+        values = new long[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextLong() >> random.nextInt(64);
+        }
+        out = new byte[size * (GroupedFormatter.MAX_LENGTH + 1)];
+        builder = new StringBuilder(out.length);
+        char[] chars = new char[size];
+        for (int i = 0; i < size; i++) {
+            chars[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        }
+        text = new String(chars);
+        classes = new byte[size];
+    }
+
+    @Benchmark
+    public int formatToBytes() {
+        return GroupedFormatter.format(values, (byte) '\n', out, 0);
+    }
+
+    @Benchmark
+    public int formatToBuilder() {
+        builder.setLength(0);
+        for (long value : values) {
+            GroupedFormatter.append(builder, value).append('\n');
+        }
+        return builder.length();
+    }
+
+    @Benchmark
+    public int formatWithFormatter() {
+        builder.setLength(0);
+        for (long value : values) {
+            builder.append(String.format("%,d", value)).append('\n');
+        }
+        return builder.length();
+    }
+
+    @Benchmark
+    public byte[] classifyTable() {
+        CharClassifier.classify(text, 0, size, classes, 0);
+        return classes;
+    }
+
+    @Benchmark
+    public byte[] classifyCharacterMethods() {
+        for (int i = 0; i < size; i++) {
+            char c = text.charAt(i);
+            classes[i] = Character.isDigit(c) ? CharClassifier.DIGIT
+                : Character.isLetter(c) ? CharClassifier.LETTER
+                : Character.isWhitespace(c) ? CharClassifier.WHITESPACE
+                : CharClassifier.OTHER;
+        }
+        return classes;
+    }
+}
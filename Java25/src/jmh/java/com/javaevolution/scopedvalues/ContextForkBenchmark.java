@@ -0,0 +1,132 @@
+package com.javaevolution.scopedvalues;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static com.javaevolution.scopedvalues.ContextPropagationBenchmark.*;
+
+/**
+ * Measures what a child task pays to see its parent's context.
+ *
+ * Each invocation opens a StructuredTaskScope, forks one child, which reads the
+ * outermost of {@code depth} bound keys, joins it and closes the scope. Every variant
+ * goes through the same scope, so its open/join/close is in the baseline too. The
+ * baseline forks a child with no context at all, so the difference is the per-fork
+ * inheritance cost:
+ *
+ * - threadLocal: parent captures the values, the child re-sets and removes them
+ * - inheritableThreadLocal: the thread map is copied when the child is created
+ * - scopedValue: bindings are shared with the child of the scope
+ *
+ * StructuredTaskScope is still a preview API in Java 25, hence --enable-preview.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--enable-preview")
+@State(Scope.Thread)
+public class ContextForkBenchmark {
+
+    @Param({"1", "4", "64"})
+    int depth;
+
+    @Param({"platform", "virtual"})
+    String threadKind;
+
+    String[] values;
+    ThreadFactory plainThreads;
+    ThreadFactory inheritingThreads;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        values = new String[MAX_DEPTH];
+        for (int i = 0; i < MAX_DEPTH; i++) {
+            values[i] = "value-" + i;
+        }
+        boolean virtual = threadKind.equals("virtual");
+        plainThreads = (virtual
+            ? Thread.ofVirtual().inheritInheritableThreadLocals(false)
+            : Thread.ofPlatform().inheritInheritableThreadLocals(false)).factory();
+        inheritingThreads = (virtual ? Thread.ofVirtual() : Thread.ofPlatform()).factory();
+    }
+
+    @Benchmark
+    public String forkWithoutContext() throws InterruptedException {
+        return forkAndJoin(plainThreads, () -> values[0]);
+    }
+
+    @Benchmark
+    public String forkThreadLocal() throws InterruptedException {
+        for (int i = 0; i < depth; i++) {
+            THREAD_LOCALS[i].set(values[i]);
+        }
+        try {
+            String[] captured = new String[depth];
+            for (int i = 0; i < depth; i++) {
+                captured[i] = THREAD_LOCALS[i].get();
+            }
+            return forkAndJoin(plainThreads, () -> {
+                for (int i = 0; i < captured.length; i++) {
+                    THREAD_LOCALS[i].set(captured[i]);
+                }
+                try {
+                    return THREAD_LOCALS[0].get();
+                } finally {
+                    for (int i = captured.length - 1; i >= 0; i--) {
+                        THREAD_LOCALS[i].remove();
+                    }
+                }
+            });
+        } finally {
+            for (int i = depth - 1; i >= 0; i--) {
+                THREAD_LOCALS[i].remove();
+            }
+        }
+    }
+
+    @Benchmark
+    public String forkInheritableThreadLocal() throws InterruptedException {
+        for (int i = 0; i < depth; i++) {
+            INHERITABLE[i].set(values[i]);
+        }
+        try {
+            return forkAndJoin(inheritingThreads, () -> INHERITABLE[0].get());
+        } finally {
+            for (int i = depth - 1; i >= 0; i--) {
+                INHERITABLE[i].remove();
+            }
+        }
+    }
+
+    @Benchmark
+    public String forkScopedValue() throws InterruptedException {
+        return forkInScope(0);
+    }
+
+    private String forkInScope(int level) throws InterruptedException {
+        if (level == depth) {
+            return forkAndJoin(plainThreads, () -> SCOPED_VALUES[0].get());
+        }
+        return ScopedValue.where(SCOPED_VALUES[level], values[level])
+            .call(() -> forkInScope(level + 1));
+    }
+
+    /**
+     * Opens a scope, forks the child, joins and closes: the scaffolding every variant
+     * pays, so only the context handling differs between them.
+     */
+    private static String forkAndJoin(ThreadFactory threads, Callable<String> child) throws InterruptedException {
+        try (var scope = StructuredTaskScope.open(
+                StructuredTaskScope.Joiner.<String>awaitAllSuccessfulOrThrow(),
+                cf -> cf.withThreadFactory(threads))) {
+            var subtask = scope.fork(child);
+            scope.join();
+            return subtask.get();
+        }
+    }
+}
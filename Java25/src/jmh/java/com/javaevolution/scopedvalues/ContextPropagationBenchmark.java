@@ -0,0 +1,151 @@
+package com.javaevolution.scopedvalues;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-request cost of the three context carriers used in
+ * {@link ScopedValuesFinalExample}: ThreadLocal, InheritableThreadLocal and ScopedValue.
+ *
+ * Replaces the hand-rolled {@code PerformanceDemo} timing loop with proper warm-up,
+ * forking and dead-code protection.
+ *
+ * "Depth" is the number of distinct context keys bound around the read; the read
+ * always targets the outermost key, which is the worst case for ScopedValue lookup.
+ *
+ * - bindAndGet*: bind {@code depth} keys, read once, unbind (one request setup)
+ * - get*: {@value #READS} reads inside an already established binding
+ *
+ * This class is abstract so the same benchmarks run on both thread kinds, see
+ * {@link PlatformThreadContextBenchmark} and {@link VirtualThreadContextBenchmark}.
+ *
+ * Run with: ./gradlew :Java25:jmh -PjmhIncludes='Context(Fork)?Benchmark'
+ * (the pattern is a regex, so this also runs {@link ContextForkBenchmark})
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public abstract class ContextPropagationBenchmark {
+
+    static final int MAX_DEPTH = 64;
+    static final int READS = 1024;
+
+    @SuppressWarnings("unchecked")
+    static final ThreadLocal<String>[] THREAD_LOCALS = new ThreadLocal[MAX_DEPTH];
+    @SuppressWarnings("unchecked")
+    static final InheritableThreadLocal<String>[] INHERITABLE = new InheritableThreadLocal[MAX_DEPTH];
+    @SuppressWarnings("unchecked")
+    static final ScopedValue<String>[] SCOPED_VALUES = new ScopedValue[MAX_DEPTH];
+
+    static {
+        for (int i = 0; i < MAX_DEPTH; i++) {
+            THREAD_LOCALS[i] = new ThreadLocal<>();
+            INHERITABLE[i] = new InheritableThreadLocal<>();
+            SCOPED_VALUES[i] = ScopedValue.newInstance();
+        }
+    }
+
+    @Param({"1", "4", "64"})
+    int depth;
+
+    // Values are created once so the benchmarks never measure string building
+    String[] values;
+
+    @Setup(Level.Trial)
+    public void createValues() {
+        values = new String[MAX_DEPTH];
+        for (int i = 0; i < MAX_DEPTH; i++) {
+            values[i] = "value-" + i;
+        }
+    }
+
+    // --- Bind + single read (one request setup) ---
+
+    @Benchmark
+    public String bindAndGetThreadLocal() {
+        return bindThreadLocals(THREAD_LOCALS);
+    }
+
+    @Benchmark
+    public String bindAndGetInheritableThreadLocal() {
+        return bindThreadLocals(INHERITABLE);
+    }
+
+    @Benchmark
+    public String bindAndGetScopedValue() {
+        return bindScopedValues(0, SCOPED_VALUES[0]);
+    }
+
+    private String bindThreadLocals(ThreadLocal<String>[] locals) {
+        for (int i = 0; i < depth; i++) {
+            locals[i].set(values[i]);
+        }
+        try {
+            return locals[0].get();
+        } finally {
+            for (int i = depth - 1; i >= 0; i--) {
+                locals[i].remove();
+            }
+        }
+    }
+
+    private String bindScopedValues(int level, ScopedValue<String> target) {
+        if (level == depth) {
+            return target.get();
+        }
+        return ScopedValue.where(SCOPED_VALUES[level], values[level])
+            .call(() -> bindScopedValues(level + 1, target));
+    }
+
+    // --- Repeated reads inside an established binding ---
+
+    @Benchmark
+    @OperationsPerInvocation(READS)
+    public void getThreadLocal(Blackhole bh) {
+        readThreadLocals(THREAD_LOCALS, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(READS)
+    public void getInheritableThreadLocal(Blackhole bh) {
+        readThreadLocals(INHERITABLE, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(READS)
+    public void getScopedValue(Blackhole bh) {
+        readScopedValues(0, bh);
+    }
+
+    private void readThreadLocals(ThreadLocal<String>[] locals, Blackhole bh) {
+        for (int i = 0; i < depth; i++) {
+            locals[i].set(values[i]);
+        }
+        try {
+            ThreadLocal<String> outermost = locals[0];
+            for (int i = 0; i < READS; i++) {
+                bh.consume(outermost.get());
+            }
+        } finally {
+            for (int i = depth - 1; i >= 0; i--) {
+                locals[i].remove();
+            }
+        }
+    }
+
+    private void readScopedValues(int level, Blackhole bh) {
+        if (level == depth) {
+            ScopedValue<String> outermost = SCOPED_VALUES[0];
+            for (int i = 0; i < READS; i++) {
+                bh.consume(outermost.get());
+            }
+            return;
+        }
+        ScopedValue.where(SCOPED_VALUES[level], values[level])
+            .run(() -> readScopedValues(level + 1, bh));
+    }
+}
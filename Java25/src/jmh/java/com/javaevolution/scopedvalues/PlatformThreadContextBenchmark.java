@@ -0,0 +1,10 @@
+package com.javaevolution.scopedvalues;
+
+import org.openjdk.jmh.annotations.Fork;
+
+/**
+ * Runs {@link ContextPropagationBenchmark} on JMH's default platform worker threads.
+ */
+@Fork(2)
+public class PlatformThreadContextBenchmark extends ContextPropagationBenchmark {
+}
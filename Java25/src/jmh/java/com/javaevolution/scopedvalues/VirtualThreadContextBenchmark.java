@@ -0,0 +1,12 @@
+package com.javaevolution.scopedvalues;
+
+import org.openjdk.jmh.annotations.Fork;
+
+/**
+ * Runs {@link ContextPropagationBenchmark} with JMH worker threads that are virtual threads.
+ *
+ * JMH 1.37+ picks the worker executor from the {@code jmh.executor} property of the forked VM.
+ */
+@Fork(value = 2, jvmArgsAppend = "-Djmh.executor=VIRTUAL_TPE")
+public class VirtualThreadContextBenchmark extends ContextPropagationBenchmark {
+}
@@ -0,0 +1,381 @@
+package com.javaevolution.classfileapi;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Generates hidden classes that read and write the properties of records and beans
+ * with direct calls instead of reflection.
+ *
+ * For every property a small class is emitted whose only method casts, calls the
+ * accessor with invokevirtual and boxes or unboxes the value:
+ *
+ * <pre>
+ * final class Person$$Get$age implements Function {
+ *     public Object apply(Object target) {
+ *         return Integer.valueOf(((Person) target).age());
+ *     }
+ * }
+ * </pre>
+ *
+ * The code is branch-free, and a call site that always uses the same accessor is
+ * monomorphic, so the JIT inlines it down to a field load. {@code Method.invoke} goes
+ * through access checks and argument array copies instead.
+ *
+ * The classes are defined with {@code Lookup.defineHiddenClass} as nestmates of the
+ * target, so private records and constructors work too. Accessors are cached per
+ * target class in a {@link ClassValue}, which does not keep the target loaded.
+ *
+ * In Java 25+ the bytes come from {@code ClassFile.of().build(...)}.
+ *
+ * Note: Running on Java 17, so the bytes are assembled with {@link ClassFileWriter};
+ * {@code defineHiddenClass} has been available since Java 15.
+ */
+public final class AccessorGenerator {
+
+    private static final int CLASS_VERSION = 61;
+    private static final String OBJECT = "java/lang/Object";
+    private static final String APPLY = "(Ljava/lang/Object;)Ljava/lang/Object;";
+    private static final String ACCEPT = "(Ljava/lang/Object;Ljava/lang/Object;)V";
+
+    private static final ClassValue<Accessors<?>> CACHE = new ClassValue<>() {
+        @Override
+        protected Accessors<?> computeValue(Class<?> type) {
+            try {
+                return generate(type, MethodHandles.privateLookupIn(type, MethodHandles.lookup()));
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Cannot define accessors in the package of " + type.getName(), e);
+            }
+        }
+    };
+
+    private AccessorGenerator() {
+    }
+
+    /**
+     * A readable, possibly writable property.
+     */
+    public static final class Property<T> {
+        private final String name;
+        private final Class<?> type;
+        private final Function<T, Object> getter;
+        private final BiConsumer<T, Object> setter;
+
+        private Property(String name, Class<?> type, Function<T, Object> getter, BiConsumer<T, Object> setter) {
+            this.name = name;
+            this.type = type;
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public Class<?> type() {
+            return type;
+        }
+
+        public Function<T, Object> getter() {
+            return getter;
+        }
+
+        /**
+         * The setter, or null for record components and beans without one.
+         */
+        public BiConsumer<T, Object> setter() {
+            return setter;
+        }
+
+        public Object get(T target) {
+            return getter.apply(target);
+        }
+
+        public void set(T target, Object value) {
+            if (setter == null) {
+                throw new UnsupportedOperationException("Property " + name + " is read-only");
+            }
+            setter.accept(target, value);
+        }
+    }
+
+    /**
+     * The generated accessors of one type.
+     */
+    public static final class Accessors<T> {
+        private final Class<T> type;
+        private final List<Property<T>> properties;
+        private final Map<String, Property<T>> byName;
+        private final Function<Object[], T> constructor;
+
+        private Accessors(Class<T> type, List<Property<T>> properties, Function<Object[], T> constructor) {
+            this.type = type;
+            this.properties = Collections.unmodifiableList(properties);
+            this.byName = new LinkedHashMap<>();
+            for (Property<T> property : properties) {
+                byName.put(property.name(), property);
+            }
+            this.constructor = constructor;
+        }
+
+        public Class<T> type() {
+            return type;
+        }
+
+        public List<Property<T>> properties() {
+            return properties;
+        }
+
+        public Property<T> property(String name) {
+            Property<T> property = byName.get(name);
+            if (property == null) {
+                throw new IllegalArgumentException("No property " + name + " in " + type.getName());
+            }
+            return property;
+        }
+
+        /**
+         * Calls the canonical constructor of a record (arguments in component order) or
+         * the no-argument constructor of a bean; null if the type has neither.
+         */
+        public Function<Object[], T> constructor() {
+            return constructor;
+        }
+
+        public T newInstance(Object... arguments) {
+            if (constructor == null) {
+                throw new UnsupportedOperationException("No accessible constructor for " + type.getName());
+            }
+            return constructor.apply(arguments);
+        }
+
+        /**
+         * Reads every property, in declaration order for records.
+         */
+        public Map<String, Object> toMap(T target) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (Property<T> property : properties) {
+                values.put(property.name(), property.get(target));
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Returns the cached accessors of the record or bean type, generating them on first use.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Accessors<T> accessors(Class<T> type) {
+        return (Accessors<T>) CACHE.get(type);
+    }
+
+    /**
+     * Generates accessors with the given lookup, which must have full privilege access in
+     * the target's package (e.g. {@code MethodHandles.lookup()} of a class in a named
+     * module that does not open the package). Not cached.
+     */
+    public static <T> Accessors<T> generate(Class<T> type, MethodHandles.Lookup lookup) {
+        if (type.isInterface() || type.isPrimitive() || type.isArray()) {
+            throw new IllegalArgumentException("Not a record or bean class: " + type.getName());
+        }
+        List<Property<T>> properties = new ArrayList<>();
+        Function<Object[], T> constructor;
+        if (type.isRecord()) {
+            RecordComponent[] components = type.getRecordComponents();
+            Class<?>[] parameterTypes = new Class<?>[components.length];
+            for (int i = 0; i < components.length; i++) {
+                RecordComponent component = components[i];
+                parameterTypes[i] = component.getType();
+                properties.add(new Property<>(component.getName(), component.getType(),
+                    getter(lookup, type, component.getName(), component.getAccessor()), null));
+            }
+            constructor = constructor(lookup, type, parameterTypes);
+        } else {
+            for (Method method : type.getMethods()) {
+                String property = beanProperty(method);
+                if (property == null) {
+                    continue;
+                }
+                Method setter = findSetter(type, property, method.getReturnType());
+                properties.add(new Property<>(property, method.getReturnType(),
+                    getter(lookup, type, property, method),
+                    setter == null ? null : setter(lookup, type, property, setter)));
+            }
+            properties.sort((a, b) -> a.name().compareTo(b.name()));
+            constructor = hasConstructor(type) ? constructor(lookup, type, new Class<?>[0]) : null;
+        }
+        return new Accessors<>(type, properties, constructor);
+    }
+
+    private static <T> Function<T, Object> getter(MethodHandles.Lookup lookup, Class<T> type,
+                                                  String property, Method accessor) {
+        String owner = internalName(type);
+        ClassFileWriter writer = newClass(owner + "$$Get$" + property, "java/util/function/Function");
+        CodeBuilder code = new CodeBuilder(writer.pool());
+        code.load("Ljava/lang/Object;", 1).checkcast(owner);
+        code.invokevirtual(owner, accessor.getName(), MethodType.methodType(accessor.getReturnType()).toMethodDescriptorString());
+        box(code, accessor.getReturnType());
+        code.op(CodeBuilder.ARETURN);
+        writer.method(ClassFileWriter.ACC_PUBLIC, "apply", APPLY, List.of(code.toAttribute(2, 2)));
+        return instantiate(lookup, writer);
+    }
+
+    private static <T> BiConsumer<T, Object> setter(MethodHandles.Lookup lookup, Class<T> type,
+                                                    String property, Method setter) {
+        String owner = internalName(type);
+        Class<?> valueType = setter.getParameterTypes()[0];
+        ClassFileWriter writer = newClass(owner + "$$Set$" + property, "java/util/function/BiConsumer");
+        CodeBuilder code = new CodeBuilder(writer.pool());
+        code.load("Ljava/lang/Object;", 1).checkcast(owner);
+        code.load("Ljava/lang/Object;", 2);
+        unbox(code, valueType);
+        String descriptor = MethodType.methodType(setter.getReturnType(), valueType).toMethodDescriptorString();
+        code.invokevirtual(owner, setter.getName(), descriptor);
+        // Fluent setters return a value, which is dropped
+        if (setter.getReturnType() != void.class) {
+            code.op(slots(setter.getReturnType()) == 2 ? CodeBuilder.POP2 : CodeBuilder.POP);
+        }
+        code.op(CodeBuilder.RETURN);
+        writer.method(ClassFileWriter.ACC_PUBLIC, "accept", ACCEPT, List.of(code.toAttribute(3, 3)));
+        return instantiate(lookup, writer);
+    }
+
+    private static <T> Function<Object[], T> constructor(MethodHandles.Lookup lookup, Class<T> type,
+                                                         Class<?>[] parameterTypes) {
+        String owner = internalName(type);
+        ClassFileWriter writer = newClass(owner + "$$New", "java/util/function/Function");
+        CodeBuilder code = new CodeBuilder(writer.pool());
+        code.newObject(owner).op(CodeBuilder.DUP);
+        int argumentSlots = 0;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            code.load("Ljava/lang/Object;", 1).checkcast("[Ljava/lang/Object;");
+            code.pushInt(i).op(CodeBuilder.AALOAD);
+            unbox(code, parameterTypes[i]);
+            argumentSlots += slots(parameterTypes[i]);
+        }
+        String descriptor = MethodType.methodType(void.class, parameterTypes).toMethodDescriptorString();
+        code.invokespecial(owner, "<init>", descriptor);
+        code.op(CodeBuilder.ARETURN);
+        // new, dup, the arguments loaded so far, then array and index for the next one
+        int maxStack = 2 + argumentSlots + 2;
+        writer.method(ClassFileWriter.ACC_PUBLIC, "apply", APPLY, List.of(code.toAttribute(maxStack, 2)));
+        return instantiate(lookup, writer);
+    }
+
+    private static ClassFileWriter newClass(String name, String implemented) {
+        ConstantPoolBuilder pool = new ConstantPoolBuilder();
+        ClassFileWriter writer = new ClassFileWriter(CLASS_VERSION, 0, pool);
+        writer.header(ClassFileWriter.ACC_FINAL | ClassFileWriter.ACC_SUPER | ClassFileWriter.ACC_SYNTHETIC,
+            name, OBJECT, List.of(implemented));
+        CodeBuilder init = new CodeBuilder(pool);
+        init.load("Ljava/lang/Object;", 0).invokespecial(OBJECT, "<init>", "()V").op(CodeBuilder.RETURN);
+        writer.method(ClassFileWriter.ACC_PUBLIC, "<init>", "()V", List.of(init.toAttribute(1, 1)));
+        return writer;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A> A instantiate(MethodHandles.Lookup lookup, ClassFileWriter writer) {
+        try {
+            MethodHandles.Lookup hidden = lookup.defineHiddenClass(writer.toByteArray(), true,
+                MethodHandles.Lookup.ClassOption.NESTMATE);
+            MethodHandle constructor = hidden.findConstructor(hidden.lookupClass(), MethodType.methodType(void.class));
+            return (A) constructor.invoke();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot define accessor class", e);
+        }
+    }
+
+    private static void box(CodeBuilder code, Class<?> type) {
+        if (type.isPrimitive()) {
+            String wrapper = internalName(MethodType.methodType(type).wrap().returnType());
+            code.invokestatic(wrapper, "valueOf", "(" + descriptor(type) + ")L" + wrapper + ";");
+        }
+    }
+
+    /**
+     * Casts the Object on the stack to the type, unboxing primitives (null fails with an NPE).
+     */
+    private static void unbox(CodeBuilder code, Class<?> type) {
+        if (type == Object.class) {
+            return;
+        }
+        if (!type.isPrimitive()) {
+            code.checkcast(internalName(type));
+            return;
+        }
+        String wrapper = internalName(MethodType.methodType(type).wrap().returnType());
+        code.checkcast(wrapper);
+        code.invokevirtual(wrapper, type.getName() + "Value", "()" + descriptor(type));
+    }
+
+    private static String beanProperty(Method method) {
+        if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 0
+                || method.isBridge() || method.getDeclaringClass() == Object.class) {
+            return null;
+        }
+        String name = method.getName();
+        if (name.startsWith("get") && name.length() > 3 && method.getReturnType() != void.class) {
+            return decapitalize(name.substring(3));
+        }
+        if (name.startsWith("is") && name.length() > 2 && method.getReturnType() == boolean.class) {
+            return decapitalize(name.substring(2));
+        }
+        return null;
+    }
+
+    private static Method findSetter(Class<?> type, String property, Class<?> valueType) {
+        String name = "set" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        try {
+            Method setter = type.getMethod(name, valueType);
+            return Modifier.isStatic(setter.getModifiers()) ? null : setter;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static boolean hasConstructor(Class<?> type) {
+        if (Modifier.isAbstract(type.getModifiers())) {
+            return false;
+        }
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            return constructor != null;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static String decapitalize(String name) {
+        // As java.beans.Introspector: "URL" stays "URL", "Name" becomes "name"
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(1))) {
+            return name;
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static int slots(Class<?> type) {
+        return type == long.class || type == double.class ? 2 : 1;
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    private static String descriptor(Class<?> type) {
+        return MethodType.methodType(type).toMethodDescriptorString().substring(2);
+    }
+}
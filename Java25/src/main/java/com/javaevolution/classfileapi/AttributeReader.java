@@ -0,0 +1,304 @@
+package com.javaevolution.classfileapi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes attributes of a {@link ClassFileView} on demand.
+ *
+ * The view only indexes attributes: name, offset and length, read from the headers
+ * while everything else is skipped by length. The bodies of Code, LineNumberTable,
+ * LocalVariableTable and the annotation attributes are decoded here, when asked for,
+ * and nothing is decoded for attributes that are never asked for.
+ *
+ * {@link #isAnnotatedWith(ClassFileView, String)} is the scanning case: it rejects most
+ * classes from the constant pool alone and otherwise reads only the class-level
+ * attribute headers and annotation type indices.
+ *
+ * In Java 25+ the models are lazy in the same way: {@code method.findAttribute(Attributes.code())}
+ * and {@code classModel.findAttribute(Attributes.runtimeVisibleAnnotations())} inflate
+ * one attribute when first asked.
+ */
+public final class AttributeReader {
+
+    public static final String CODE = "Code";
+    public static final String LINE_NUMBER_TABLE = "LineNumberTable";
+    public static final String LOCAL_VARIABLE_TABLE = "LocalVariableTable";
+    public static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+    public static final String RUNTIME_INVISIBLE_ANNOTATIONS = "RuntimeInvisibleAnnotations";
+
+    /**
+     * A Code attribute. {@code codeOffset} is where the bytecode starts in the class file;
+     * the nested attributes are indexed, not decoded.
+     */
+    public record Code(int maxStack, int maxLocals, int codeOffset, int codeLength,
+                       List<ExceptionHandler> handlers, List<ClassFileView.Attribute> attributes) {}
+
+    /**
+     * Catch type is an internal name, or null for a finally handler.
+     */
+    public record ExceptionHandler(int startPc, int endPc, int handlerPc, String catchType) {}
+
+    public record LineNumber(int startPc, int line) {}
+
+    public record LocalVariable(int startPc, int length, String name, String descriptor, int slot) {}
+
+    /**
+     * An annotation: type as a descriptor ({@code Ljakarta/persistence/Entity;}) and the
+     * explicitly given elements in class-file order. Element values are boxed primitives,
+     * Strings, {@link EnumConstant}, {@link ClassLiteral}, nested annotations or Lists.
+     */
+    public record Annotation(String type, Map<String, Object> elements) {}
+
+    public record EnumConstant(String type, String name) {}
+
+    /**
+     * A class literal, as a return descriptor ({@code Ljava/lang/String;}, {@code I}, {@code V}).
+     */
+    public record ClassLiteral(String descriptor) {}
+
+    private final ClassFileView view;
+
+    public AttributeReader(ClassFileView view) {
+        this.view = view;
+    }
+
+    /**
+     * The Code attribute of a method, or null for abstract and native methods.
+     */
+    public Code code(ClassFileView.Member method) {
+        ClassFileView.Attribute attribute = view.findAttribute(method.attributes(), CODE);
+        if (attribute == null) {
+            return null;
+        }
+        int offset = attribute.offset();
+        int codeLength = view.u4(offset + 4);
+        int codeOffset = offset + 8;
+        int handlersOffset = codeOffset + codeLength;
+        int handlerCount = view.u2(handlersOffset);
+        List<ExceptionHandler> handlers = new ArrayList<>(handlerCount);
+        for (int i = 0; i < handlerCount; i++) {
+            int entry = handlersOffset + 2 + i * 8;
+            int catchType = view.u2(entry + 6);
+            handlers.add(new ExceptionHandler(view.u2(entry), view.u2(entry + 2), view.u2(entry + 4),
+                catchType == 0 ? null : view.className(catchType)));
+        }
+        List<ClassFileView.Attribute> attributes = view.readAttributes(handlersOffset + 2 + handlerCount * 8);
+        return new Code(view.u2(offset), view.u2(offset + 2), codeOffset, codeLength, handlers, attributes);
+    }
+
+    /**
+     * Line numbers of all LineNumberTable attributes of the code, in table order.
+     * Empty if the class was compiled without line numbers.
+     */
+    public List<LineNumber> lineNumbers(Code code) {
+        List<LineNumber> lines = new ArrayList<>();
+        for (ClassFileView.Attribute attribute : code.attributes()) {
+            if (view.utf8Equals(attribute.nameIndex(), LINE_NUMBER_TABLE)) {
+                int count = view.u2(attribute.offset());
+                for (int i = 0; i < count; i++) {
+                    int entry = attribute.offset() + 2 + i * 4;
+                    lines.add(new LineNumber(view.u2(entry), view.u2(entry + 2)));
+                }
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Source line of the instruction at the bytecode offset, or -1 if unknown.
+     */
+    public int lineAt(Code code, int pc) {
+        int line = -1;
+        int best = -1;
+        for (LineNumber entry : lineNumbers(code)) {
+            if (entry.startPc() <= pc && entry.startPc() > best) {
+                best = entry.startPc();
+                line = entry.line();
+            }
+        }
+        return line;
+    }
+
+    /**
+     * Local variables of the code. Empty unless the class was compiled with {@code -g}.
+     */
+    public List<LocalVariable> localVariables(Code code) {
+        List<LocalVariable> variables = new ArrayList<>();
+        for (ClassFileView.Attribute attribute : code.attributes()) {
+            if (view.utf8Equals(attribute.nameIndex(), LOCAL_VARIABLE_TABLE)) {
+                int count = view.u2(attribute.offset());
+                for (int i = 0; i < count; i++) {
+                    int entry = attribute.offset() + 2 + i * 10;
+                    variables.add(new LocalVariable(view.u2(entry), view.u2(entry + 2),
+                        view.utf8(view.u2(entry + 4)), view.utf8(view.u2(entry + 6)), view.u2(entry + 8)));
+                }
+            }
+        }
+        return variables;
+    }
+
+    /**
+     * Descriptors of the visible and invisible annotations in an attribute table,
+     * without decoding any element value.
+     */
+    public List<String> annotationTypes(List<ClassFileView.Attribute> attributes) {
+        List<String> types = new ArrayList<>();
+        for (ClassFileView.Attribute attribute : attributes) {
+            if (isAnnotations(attribute)) {
+                int count = view.u2(attribute.offset());
+                int offset = attribute.offset() + 2;
+                for (int i = 0; i < count; i++) {
+                    types.add(view.utf8(view.u2(offset)));
+                    offset = skipAnnotation(offset);
+                }
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Fully decoded visible and invisible annotations of an attribute table.
+     */
+    public List<Annotation> annotations(List<ClassFileView.Attribute> attributes) {
+        List<Annotation> annotations = new ArrayList<>();
+        for (ClassFileView.Attribute attribute : attributes) {
+            if (isAnnotations(attribute)) {
+                int count = view.u2(attribute.offset());
+                int[] offset = {attribute.offset() + 2};
+                for (int i = 0; i < count; i++) {
+                    annotations.add(readAnnotation(offset));
+                }
+            }
+        }
+        return annotations;
+    }
+
+    /**
+     * Whether the class itself carries the annotation, given as a descriptor.
+     *
+     * Most classes fail the first check: the descriptor must appear as a Utf8
+     * constant, compared byte by byte against the entries already indexed by the view.
+     * Field and method attributes are never read.
+     */
+    public static boolean isAnnotatedWith(ClassFileView view, String annotationDescriptor) {
+        boolean inPool = false;
+        for (int i = 1; i < view.constantPoolCount() && !inPool; i++) {
+            inPool = view.utf8Equals(i, annotationDescriptor);
+        }
+        return inPool && new AttributeReader(view).annotationTypes(view.attributes()).contains(annotationDescriptor);
+    }
+
+    private boolean isAnnotations(ClassFileView.Attribute attribute) {
+        return view.utf8Equals(attribute.nameIndex(), RUNTIME_VISIBLE_ANNOTATIONS)
+            || view.utf8Equals(attribute.nameIndex(), RUNTIME_INVISIBLE_ANNOTATIONS);
+    }
+
+    private int skipAnnotation(int offset) {
+        int pairs = view.u2(offset + 2);
+        offset += 4;
+        for (int i = 0; i < pairs; i++) {
+            offset = skipElementValue(offset + 2);
+        }
+        return offset;
+    }
+
+    private int skipElementValue(int offset) {
+        int tag = view.u1(offset);
+        switch (tag) {
+            case 'e':
+                return offset + 5;
+            case '@':
+                return skipAnnotation(offset + 1);
+            case '[': {
+                int count = view.u2(offset + 1);
+                offset += 3;
+                for (int i = 0; i < count; i++) {
+                    offset = skipElementValue(offset);
+                }
+                return offset;
+            }
+            default:
+                checkConstantTag(tag, offset);
+                return offset + 3;
+        }
+    }
+
+    /**
+     * Reads the annotation at {@code offset[0]} and advances it past the annotation.
+     */
+    private Annotation readAnnotation(int[] offset) {
+        String type = view.utf8(view.u2(offset[0]));
+        int pairs = view.u2(offset[0] + 2);
+        offset[0] += 4;
+        Map<String, Object> elements = new LinkedHashMap<>();
+        for (int i = 0; i < pairs; i++) {
+            String name = view.utf8(view.u2(offset[0]));
+            offset[0] += 2;
+            elements.put(name, readElementValue(offset));
+        }
+        return new Annotation(type, Collections.unmodifiableMap(elements));
+    }
+
+    private Object readElementValue(int[] offset) {
+        int at = offset[0];
+        int tag = view.u1(at);
+        switch (tag) {
+            case 'e':
+                offset[0] += 5;
+                return new EnumConstant(view.utf8(view.u2(at + 1)), view.utf8(view.u2(at + 3)));
+            case 'c':
+                offset[0] += 3;
+                return new ClassLiteral(view.utf8(view.u2(at + 1)));
+            case '@':
+                offset[0] += 1;
+                return readAnnotation(offset);
+            case '[': {
+                int count = view.u2(at + 1);
+                offset[0] += 3;
+                List<Object> values = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    values.add(readElementValue(offset));
+                }
+                return Collections.unmodifiableList(values);
+            }
+            default:
+                checkConstantTag(tag, at);
+                offset[0] += 3;
+                return constantValue(tag, view.u2(at + 1));
+        }
+    }
+
+    private Object constantValue(int tag, int index) {
+        int entry = view.entryOffset(index);
+        switch (tag) {
+            case 'B':
+                return (byte) view.u4(entry + 1);
+            case 'C':
+                return (char) view.u4(entry + 1);
+            case 'S':
+                return (short) view.u4(entry + 1);
+            case 'Z':
+                return view.u4(entry + 1) != 0;
+            case 'I':
+                return view.u4(entry + 1);
+            case 'F':
+                return Float.intBitsToFloat(view.u4(entry + 1));
+            case 'J':
+                return view.u8(entry + 1);
+            case 'D':
+                return Double.longBitsToDouble(view.u8(entry + 1));
+            default:
+                return view.utf8(index);
+        }
+    }
+
+    private static void checkConstantTag(int tag, int offset) {
+        if ("BCDFIJSZsc".indexOf(tag) < 0) {
+            throw new IllegalArgumentException("Invalid element_value tag '" + (char) tag + "' at " + offset);
+        }
+    }
+}
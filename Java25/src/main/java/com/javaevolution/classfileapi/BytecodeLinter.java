@@ -0,0 +1,250 @@
+package com.javaevolution.classfileapi;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Static check of a JAR for methods the JIT will treat badly once they are hot.
+ *
+ * HotSpot's limits are on bytecode size:
+ *
+ * - Over 8000 bytes ({@code HugeMethodLimit}): never compiled, the method stays interpreted
+ * - Over 325 bytes ({@code FreqInlineSize}): not inlined, even at a hot call site
+ * - Over 35 bytes ({@code MaxInlineSize}): only inlined where the call site is hot
+ *
+ * Virtual and interface call sites are also checked against the classes of the JAR:
+ * C2 inlines a call with at most two receiver types, so a target with three or more
+ * implementations is a megamorphic call through the vtable or itable. Implementations
+ * outside the JAR are not seen, so the receiver counts are lower bounds.
+ *
+ * In Java 25+ the methods and instructions come from {@code ClassModel} and
+ * {@code CodeModel}. Note: Running on Java 17, so the code is walked from
+ * {@link ClassFileView} by {@link CodeWalker}.
+ */
+public final class BytecodeLinter {
+
+    public static final int MAX_INLINE_SIZE = 35;
+    public static final int FREQ_INLINE_SIZE = 325;
+    public static final int HUGE_METHOD_LIMIT = 8000;
+    public static final int MEGAMORPHIC_RECEIVERS = 3;
+
+    /**
+     * Finding kinds, most severe first.
+     */
+    public enum Kind {
+        HUGE_METHOD,
+        MEGAMORPHIC_CALL,
+        NOT_INLINED_WHEN_HOT,
+        INLINED_ONLY_WHEN_HOT
+    }
+
+    /**
+     * One finding. For call sites, {@code offset} is the bytecode offset of the call and
+     * {@code target} the called method as {@code owner.name(descriptor)}; otherwise
+     * offset is -1, target null and receiverTypes 0.
+     */
+    public record Finding(Kind kind, String className, String methodName, String descriptor, int codeLength,
+                          int offset, String target, int receiverTypes) {
+
+        @Override
+        public String toString() {
+            String method = className + "." + methodName + descriptor;
+            if (kind == Kind.MEGAMORPHIC_CALL) {
+                return kind + " " + method + " @" + offset + " -> " + target + " (" + receiverTypes + " types)";
+            }
+            return kind + " " + method + " (" + codeLength + " bytes)";
+        }
+    }
+
+    /**
+     * Findings ranked by kind, then by code length or receiver count, largest first.
+     */
+    public record Report(List<Finding> findings, int classes, int methods) {
+
+        public long count(Kind kind) {
+            return findings.stream().filter(f -> f.kind() == kind).count();
+        }
+
+        public List<Finding> top(int limit) {
+            return findings.subList(0, Math.min(limit, findings.size()));
+        }
+
+        public String format(int limit) {
+            StringBuilder out = new StringBuilder();
+            out.append(classes).append(" classes, ").append(methods).append(" methods with code\n");
+            for (Kind kind : Kind.values()) {
+                out.append(String.format("  %-22s %d%n", kind, count(kind)));
+            }
+            for (Finding finding : top(limit)) {
+                out.append(finding).append('\n');
+            }
+            if (findings.size() > limit) {
+                out.append("... ").append(findings.size() - limit).append(" more\n");
+            }
+            return out.toString();
+        }
+    }
+
+    private record CallSite(int offset, String owner, String name, String descriptor) {}
+
+    private record MethodInfo(String name, String descriptor, int accessFlags, int codeLength,
+                              List<CallSite> calls) {}
+
+    private record ClassInfo(String name, String superClass, List<String> interfaces, List<MethodInfo> methods) {}
+
+    private final Map<String, ClassInfo> classes = new HashMap<>();
+
+    public static Report lint(Path jar) throws IOException {
+        BytecodeLinter linter = new BytecodeLinter();
+        MappedJar mapped = MappedJar.open(jar);
+        for (MappedJar.Entry entry : mapped.classEntries()) {
+            if (!entry.name().startsWith("META-INF/")) {
+                linter.addClass(ClassFileView.of(mapped.read(entry)));
+            }
+        }
+        return linter.report();
+    }
+
+    public BytecodeLinter addClass(ClassFileView view) {
+        List<MethodInfo> methods = new ArrayList<>();
+        for (ClassFileView.Member method : view.methods()) {
+            ClassFileView.Attribute code = view.findAttribute(method.attributes(), "Code");
+            int codeLength = code == null ? 0 : CodeWalker.codeLength(view, code);
+            List<CallSite> calls = code == null ? List.of() : virtualCalls(view, code);
+            methods.add(new MethodInfo(view.name(method), view.descriptor(method), method.accessFlags(),
+                codeLength, calls));
+        }
+        String name = view.thisClass();
+        classes.put(name, new ClassInfo(name, view.superClass(), view.interfaces(), methods));
+        return this;
+    }
+
+    private static List<CallSite> virtualCalls(ClassFileView view, ClassFileView.Attribute code) {
+        List<CallSite> calls = new ArrayList<>();
+        int codeStart = CodeWalker.codeStart(code);
+        CodeWalker.walk(view, code, (offset, opcode) -> {
+            if (opcode == CodeBuilder.INVOKEVIRTUAL || opcode == CodeBuilder.INVOKEINTERFACE) {
+                int ref = view.entryOffset(view.u2(offset + 1));
+                int nameAndType = view.entryOffset(view.u2(ref + 3));
+                calls.add(new CallSite(offset - codeStart, view.className(view.u2(ref + 1)),
+                    view.utf8(view.u2(nameAndType + 1)), view.utf8(view.u2(nameAndType + 3))));
+            }
+        });
+        return calls;
+    }
+
+    public Report report() {
+        Map<String, List<String>> subtypes = new HashMap<>();
+        for (ClassInfo type : classes.values()) {
+            if (type.superClass() != null) {
+                subtypes.computeIfAbsent(type.superClass(), k -> new ArrayList<>()).add(type.name());
+            }
+            for (String implemented : type.interfaces()) {
+                subtypes.computeIfAbsent(implemented, k -> new ArrayList<>()).add(type.name());
+            }
+        }
+
+        Map<String, Integer> receiverCounts = new HashMap<>();
+        List<Finding> findings = new ArrayList<>();
+        int methodCount = 0;
+        for (ClassInfo type : classes.values()) {
+            for (MethodInfo method : type.methods()) {
+                if (method.codeLength() == 0) {
+                    continue;
+                }
+                methodCount++;
+                Kind size = sizeKind(method.codeLength());
+                if (size != null) {
+                    findings.add(new Finding(size, type.name(), method.name(), method.descriptor(),
+                        method.codeLength(), -1, null, 0));
+                }
+                for (CallSite call : method.calls()) {
+                    String target = call.owner() + "." + call.name() + call.descriptor();
+                    int receivers = receiverCounts.computeIfAbsent(target,
+                        k -> implementations(call.owner(), call.name(), call.descriptor(), subtypes));
+                    if (receivers >= MEGAMORPHIC_RECEIVERS) {
+                        findings.add(new Finding(Kind.MEGAMORPHIC_CALL, type.name(), method.name(),
+                            method.descriptor(), method.codeLength(), call.offset(), target, receivers));
+                    }
+                }
+            }
+        }
+        findings.sort(Comparator.comparing(Finding::kind)
+            .thenComparing(Comparator.comparingInt(Finding::receiverTypes).reversed())
+            .thenComparing(Comparator.comparingInt(Finding::codeLength).reversed())
+            .thenComparing(Finding::className)
+            .thenComparing(Finding::methodName)
+            .thenComparingInt(Finding::offset));
+        return new Report(List.copyOf(findings), classes.size(), methodCount);
+    }
+
+    static Kind sizeKind(int codeLength) {
+        if (codeLength > HUGE_METHOD_LIMIT) {
+            return Kind.HUGE_METHOD;
+        }
+        if (codeLength > FREQ_INLINE_SIZE) {
+            return Kind.NOT_INLINED_WHEN_HOT;
+        }
+        if (codeLength > MAX_INLINE_SIZE) {
+            return Kind.INLINED_ONLY_WHEN_HOT;
+        }
+        return null;
+    }
+
+    /**
+     * Classes of the JAR, the owner and its subtypes, with a concrete body for the method.
+     * A final or private target has exactly one.
+     */
+    private int implementations(String owner, String name, String descriptor, Map<String, List<String>> subtypes) {
+        int count = 0;
+        Set<String> seen = new HashSet<>();
+        ArrayDeque<String> pending = new ArrayDeque<>();
+        pending.add(owner);
+        seen.add(owner);
+        while (!pending.isEmpty()) {
+            String current = pending.poll();
+            ClassInfo type = classes.get(current);
+            if (type != null) {
+                for (MethodInfo method : type.methods()) {
+                    if (!method.name().equals(name) || !method.descriptor().equals(descriptor)) {
+                        continue;
+                    }
+                    int flags = method.accessFlags();
+                    if ((flags & (ClassFileWriter.ACC_ABSTRACT | ClassFileWriter.ACC_STATIC)) != 0) {
+                        continue;
+                    }
+                    if (current.equals(owner) && (flags & (ClassFileWriter.ACC_FINAL | ClassFileWriter.ACC_PRIVATE)) != 0) {
+                        return 1;
+                    }
+                    count++;
+                }
+            }
+            for (String subtype : subtypes.getOrDefault(current, List.of())) {
+                if (seen.add(subtype)) {
+                    pending.add(subtype);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Prints the ranked report for a JAR: {@code BytecodeLinter app.jar [limit]}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: BytecodeLinter <jar> [limit]");
+            System.exit(2);
+        }
+        int limit = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        System.out.print(lint(Path.of(args[0])).format(limit));
+    }
+}
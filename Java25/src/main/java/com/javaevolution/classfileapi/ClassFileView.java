@@ -0,0 +1,420 @@
+package com.javaevolution.classfileapi;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only, zero-copy view over the bytes of a class file.
+ *
+ * Construction walks the constant pool once and records the offset of every entry;
+ * nothing else is decoded. Strings are decoded from modified UTF-8 on first access,
+ * and the field, method and attribute tables are located only when asked for, by
+ * skipping over members and attributes using their declared lengths.
+ *
+ * In Java 25+ the same information comes from the Class-File API:
+ *
+ * ClassModel cm = ClassFile.of().parse(bytes);
+ * cm.thisClass().asInternalName();
+ * cm.majorVersion();
+ * cm.methods().size();
+ *
+ * Note: Running on Java 17, so the class file format (JVMS chapter 4) is read directly.
+ */
+public final class ClassFileView {
+
+    public static final int MAGIC = 0xCAFEBABE;
+
+    public static final int CONSTANT_UTF8 = 1;
+    public static final int CONSTANT_INTEGER = 3;
+    public static final int CONSTANT_FLOAT = 4;
+    public static final int CONSTANT_LONG = 5;
+    public static final int CONSTANT_DOUBLE = 6;
+    public static final int CONSTANT_CLASS = 7;
+    public static final int CONSTANT_STRING = 8;
+    public static final int CONSTANT_FIELDREF = 9;
+    public static final int CONSTANT_METHODREF = 10;
+    public static final int CONSTANT_INTERFACE_METHODREF = 11;
+    public static final int CONSTANT_NAME_AND_TYPE = 12;
+    public static final int CONSTANT_METHOD_HANDLE = 15;
+    public static final int CONSTANT_METHOD_TYPE = 16;
+    public static final int CONSTANT_DYNAMIC = 17;
+    public static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    public static final int CONSTANT_MODULE = 19;
+    public static final int CONSTANT_PACKAGE = 20;
+
+    private final ByteBuffer bytes;
+    private final int[] entryOffsets;
+    private final String[] utf8Cache;
+    private final int afterConstantPool;
+    private int fieldsOffset = -1;
+    private int methodsOffset = -1;
+    private int attributesOffset = -1;
+
+    private ClassFileView(ByteBuffer bytes) {
+        this.bytes = bytes;
+        if (bytes.limit() < 10 || bytes.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a class file (bad magic or truncated)");
+        }
+        int count = u2(8);
+        this.entryOffsets = new int[count];
+        this.utf8Cache = new String[count];
+        int offset = 10;
+        try {
+            for (int i = 1; i < count; i++) {
+                entryOffsets[i] = offset;
+                int tag = u1(offset);
+                offset += entrySize(tag, offset);
+                if (tag == CONSTANT_LONG || tag == CONSTANT_DOUBLE) {
+                    i++;  // 8-byte constants take two slots
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated constant pool", e);
+        }
+        this.afterConstantPool = offset;
+    }
+
+    public static ClassFileView of(byte[] classBytes) {
+        return new ClassFileView(ByteBuffer.wrap(classBytes));
+    }
+
+    /**
+     * Wraps the buffer from index 0 to its limit; the buffer's position is ignored.
+     */
+    public static ClassFileView of(ByteBuffer classBytes) {
+        return new ClassFileView(classBytes.duplicate().order(ByteOrder.BIG_ENDIAN));
+    }
+
+    private int entrySize(int tag, int offset) {
+        switch (tag) {
+            case CONSTANT_UTF8:
+                return 3 + u2(offset + 1);
+            case CONSTANT_INTEGER: case CONSTANT_FLOAT:
+            case CONSTANT_FIELDREF: case CONSTANT_METHODREF: case CONSTANT_INTERFACE_METHODREF:
+            case CONSTANT_NAME_AND_TYPE: case CONSTANT_DYNAMIC: case CONSTANT_INVOKE_DYNAMIC:
+                return 5;
+            case CONSTANT_LONG: case CONSTANT_DOUBLE:
+                return 9;
+            case CONSTANT_CLASS: case CONSTANT_STRING: case CONSTANT_METHOD_TYPE:
+            case CONSTANT_MODULE: case CONSTANT_PACKAGE:
+                return 3;
+            case CONSTANT_METHOD_HANDLE:
+                return 4;
+            default:
+                throw new IllegalArgumentException("Unknown constant pool tag " + tag + " at offset " + offset);
+        }
+    }
+
+    // --- Raw access, big-endian, offsets from the start of the class file ---
+
+    public int u1(int offset) {
+        return bytes.get(offset) & 0xFF;
+    }
+
+    public int u2(int offset) {
+        return bytes.getShort(offset) & 0xFFFF;
+    }
+
+    public int u4(int offset) {
+        return bytes.getInt(offset);
+    }
+
+    public long u8(int offset) {
+        return bytes.getLong(offset);
+    }
+
+    public int length() {
+        return bytes.limit();
+    }
+
+    /**
+     * Copies a byte range, e.g. to carry an attribute over unchanged into a new class file.
+     */
+    public byte[] bytes(int offset, int length) {
+        byte[] copy = new byte[length];
+        bytes.get(offset, copy, 0, length);
+        return copy;
+    }
+
+    // --- Header ---
+
+    public int minorVersion() {
+        return u2(4);
+    }
+
+    public int majorVersion() {
+        return u2(6);
+    }
+
+    public int accessFlags() {
+        return u2(afterConstantPool);
+    }
+
+    public String thisClass() {
+        return className(u2(afterConstantPool + 2));
+    }
+
+    /**
+     * Returns the internal name of the superclass, or null for java/lang/Object and module-info.
+     */
+    public String superClass() {
+        int index = u2(afterConstantPool + 4);
+        return index == 0 ? null : className(index);
+    }
+
+    public int interfaceCount() {
+        return u2(afterConstantPool + 6);
+    }
+
+    public List<String> interfaces() {
+        int count = interfaceCount();
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(className(u2(afterConstantPool + 8 + i * 2)));
+        }
+        return names;
+    }
+
+    // --- Constant pool ---
+
+    /**
+     * Number of constant pool slots, including the unused slot 0.
+     */
+    public int constantPoolCount() {
+        return entryOffsets.length;
+    }
+
+    /**
+     * Tag of the entry, or 0 for slot 0 and the unusable slot after a long or double.
+     */
+    public int tag(int index) {
+        int offset = entryOffsets[index];
+        return offset == 0 ? 0 : u1(offset);
+    }
+
+    public int entryOffset(int index) {
+        return entryOffsets[index];
+    }
+
+    /**
+     * Offset just after the last constant pool entry (the class access_flags).
+     */
+    public int constantPoolEnd() {
+        return afterConstantPool;
+    }
+
+    /**
+     * Decodes a CONSTANT_Utf8 entry (modified UTF-8). Results are cached.
+     */
+    public String utf8(int index) {
+        String cached = utf8Cache[index];
+        if (cached != null) {
+            return cached;
+        }
+        int offset = entryOffsets[index];
+        if (u1(offset) != CONSTANT_UTF8) {
+            throw new IllegalArgumentException("Constant #" + index + " is not a Utf8 entry");
+        }
+        String value = decodeModifiedUtf8(offset + 3, u2(offset + 1));
+        utf8Cache[index] = value;
+        return value;
+    }
+
+    /**
+     * Compares a CONSTANT_Utf8 entry with an ASCII string without decoding it.
+     */
+    public boolean utf8Equals(int index, String ascii) {
+        int offset = entryOffsets[index];
+        if (offset == 0 || u1(offset) != CONSTANT_UTF8) {
+            return false;
+        }
+        int length = u2(offset + 1);
+        if (length != ascii.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (bytes.get(offset + 3 + i) != ascii.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Internal name of a CONSTANT_Class entry.
+     */
+    public String className(int classIndex) {
+        return utf8(u2(entryOffsets[classIndex] + 1));
+    }
+
+    private String decodeModifiedUtf8(int start, int length) {
+        char[] chars = new char[length];
+        int count = 0;
+        int end = start + length;
+        int pos = start;
+        while (pos < end) {
+            int b = bytes.get(pos) & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+                pos++;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (bytes.get(pos + 1) & 0x3F));
+                pos += 2;
+            } else {
+                chars[count++] = (char) (((b & 0x0F) << 12)
+                    | ((bytes.get(pos + 1) & 0x3F) << 6)
+                    | (bytes.get(pos + 2) & 0x3F));
+                pos += 3;
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    // --- Members and attributes, located by skipping ---
+
+    /**
+     * An attribute; {@code offset} and {@code length} cover its info bytes, after the 6-byte header.
+     */
+    public record Attribute(int nameIndex, int offset, int length) {
+        public int headerOffset() {
+            return offset - 6;
+        }
+    }
+
+    /**
+     * A field or method; {@code offset} and {@code end} cover the whole member_info structure.
+     */
+    public record Member(int offset, int end, int accessFlags, int nameIndex, int descriptorIndex,
+                         List<Attribute> attributes) {}
+
+    public List<Member> fields() {
+        return readMembers(fieldsOffset());
+    }
+
+    public List<Member> methods() {
+        return readMembers(methodsOffset());
+    }
+
+    /**
+     * Class-level attributes.
+     */
+    public List<Attribute> attributes() {
+        return readAttributes(attributesOffset());
+    }
+
+    public String name(Member member) {
+        return utf8(member.nameIndex());
+    }
+
+    public String descriptor(Member member) {
+        return utf8(member.descriptorIndex());
+    }
+
+    public String name(Attribute attribute) {
+        return utf8(attribute.nameIndex());
+    }
+
+    /**
+     * Finds an attribute by name, comparing the raw name bytes.
+     */
+    public Attribute findAttribute(List<Attribute> attributes, String name) {
+        for (Attribute attribute : attributes) {
+            if (utf8Equals(attribute.nameIndex(), name)) {
+                return attribute;
+            }
+        }
+        return null;
+    }
+
+    private List<Member> readMembers(int countOffset) {
+        int count = u2(countOffset);
+        List<Member> members = new ArrayList<>(count);
+        int offset = countOffset + 2;
+        for (int i = 0; i < count; i++) {
+            List<Attribute> attributes = readAttributes(offset + 6);
+            int end = skipAttributes(offset + 6);
+            members.add(new Member(offset, end, u2(offset), u2(offset + 2), u2(offset + 4), attributes));
+            offset = end;
+        }
+        return members;
+    }
+
+    /**
+     * Reads an attributes table whose attributes_count is at the offset.
+     */
+    public List<Attribute> readAttributes(int countOffset) {
+        int count = u2(countOffset);
+        List<Attribute> attributes = new ArrayList<>(count);
+        int offset = countOffset + 2;
+        for (int i = 0; i < count; i++) {
+            int length = u4(offset + 2);
+            attributes.add(new Attribute(u2(offset), offset + 6, length));
+            offset += 6 + length;
+        }
+        return attributes;
+    }
+
+    public int fieldCount() {
+        return u2(fieldsOffset());
+    }
+
+    public int methodCount() {
+        return u2(methodsOffset());
+    }
+
+    /**
+     * Offset of fields_count.
+     */
+    public int fieldsOffset() {
+        if (fieldsOffset < 0) {
+            fieldsOffset = afterConstantPool + 8 + interfaceCount() * 2;
+        }
+        return fieldsOffset;
+    }
+
+    /**
+     * Offset of methods_count.
+     */
+    public int methodsOffset() {
+        if (methodsOffset < 0) {
+            methodsOffset = skipMembers(fieldsOffset());
+        }
+        return methodsOffset;
+    }
+
+    /**
+     * Offset of the class-level attributes_count.
+     */
+    public int attributesOffset() {
+        if (attributesOffset < 0) {
+            attributesOffset = skipMembers(methodsOffset());
+        }
+        return attributesOffset;
+    }
+
+    /**
+     * Skips a fields or methods table, returning the offset just after it.
+     */
+    private int skipMembers(int countOffset) {
+        int count = u2(countOffset);
+        int offset = countOffset + 2;
+        for (int i = 0; i < count; i++) {
+            offset = skipAttributes(offset + 6);
+        }
+        return offset;
+    }
+
+    /**
+     * Skips an attributes table whose attributes_count is at the offset.
+     */
+    public int skipAttributes(int countOffset) {
+        int count = u2(countOffset);
+        int offset = countOffset + 2;
+        for (int i = 0; i < count; i++) {
+            offset += 6 + u4(offset + 2);
+        }
+        return offset;
+    }
+}
@@ -0,0 +1,159 @@
+package com.javaevolution.classfileapi;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Assembles a class file from a constant pool and encoded members and attributes.
+ *
+ * Members and attributes are kept as encoded bytes, so a transformation can copy the
+ * untouched parts of a class verbatim (with {@link ClassFileView#bytes(int, int)}) and
+ * only encode what it changes. The constant pool is written last, after every member
+ * had the chance to add entries to it.
+ *
+ * In Java 25+ this is {@code ClassFile.of().build(...)} with a {@code ClassBuilder}.
+ */
+final class ClassFileWriter {
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_PROTECTED = 0x0004;
+    static final int ACC_STATIC = 0x0008;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+    static final int ACC_SYNCHRONIZED = 0x0020;
+    static final int ACC_BRIDGE = 0x0040;
+    static final int ACC_VARARGS = 0x0080;
+    static final int ACC_NATIVE = 0x0100;
+    static final int ACC_INTERFACE = 0x0200;
+    static final int ACC_ABSTRACT = 0x0400;
+    static final int ACC_SYNTHETIC = 0x1000;
+    static final int ACC_ANNOTATION = 0x2000;
+    static final int ACC_ENUM = 0x4000;
+    static final int ACC_MODULE = 0x8000;
+
+    private final int majorVersion;
+    private final int minorVersion;
+    private final ConstantPoolBuilder pool;
+    private int accessFlags;
+    private int thisClass;
+    private int superClass;
+    private int[] interfaces = new int[0];
+    private final List<byte[]> fields = new ArrayList<>();
+    private final List<byte[]> methods = new ArrayList<>();
+    private final List<byte[]> attributes = new ArrayList<>();
+
+    ClassFileWriter(int majorVersion, int minorVersion, ConstantPoolBuilder pool) {
+        this.majorVersion = majorVersion;
+        this.minorVersion = minorVersion;
+        this.pool = pool;
+    }
+
+    ConstantPoolBuilder pool() {
+        return pool;
+    }
+
+    void header(int accessFlags, String thisClass, String superClass, List<String> interfaces) {
+        header(accessFlags, pool.classRef(thisClass), superClass == null ? 0 : pool.classRef(superClass),
+            interfaces.stream().mapToInt(pool::classRef).toArray());
+    }
+
+    /**
+     * Sets the header from constant pool indices, e.g. those of a class being transformed.
+     */
+    void header(int accessFlags, int thisClass, int superClass, int[] interfaces) {
+        this.accessFlags = accessFlags;
+        this.thisClass = thisClass;
+        this.superClass = superClass;
+        this.interfaces = interfaces.clone();
+    }
+
+    /**
+     * Adds an encoded field_info structure.
+     */
+    void field(byte[] encoded) {
+        fields.add(encoded);
+    }
+
+    void field(int accessFlags, String name, String descriptor) {
+        fields.add(member(accessFlags, pool.utf8(name), pool.utf8(descriptor), List.of()));
+    }
+
+    /**
+     * Adds an encoded method_info structure.
+     */
+    void method(byte[] encoded) {
+        methods.add(encoded);
+    }
+
+    void method(int accessFlags, String name, String descriptor, List<byte[]> methodAttributes) {
+        methods.add(member(accessFlags, pool.utf8(name), pool.utf8(descriptor), methodAttributes));
+    }
+
+    /**
+     * Adds an encoded class-level attribute, header included.
+     */
+    void attribute(byte[] encoded) {
+        attributes.add(encoded);
+    }
+
+    byte[] toByteArray() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        writeU4(out, ClassFileView.MAGIC);
+        writeU2(out, minorVersion);
+        writeU2(out, majorVersion);
+        pool.writeTo(out);
+        writeU2(out, accessFlags);
+        writeU2(out, thisClass);
+        writeU2(out, superClass);
+        writeU2(out, interfaces.length);
+        for (int index : interfaces) {
+            writeU2(out, index);
+        }
+        writeAll(out, fields);
+        writeAll(out, methods);
+        writeAll(out, attributes);
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes a member_info structure from already encoded attributes.
+     */
+    static byte[] member(int accessFlags, int nameIndex, int descriptorIndex, List<byte[]> memberAttributes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeU2(out, accessFlags);
+        writeU2(out, nameIndex);
+        writeU2(out, descriptorIndex);
+        writeAll(out, memberAttributes);
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes an attribute: name index, length and info.
+     */
+    static byte[] attribute(int nameIndex, byte[] info) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(info.length + 6);
+        writeU2(out, nameIndex);
+        writeU4(out, info.length);
+        out.write(info, 0, info.length);
+        return out.toByteArray();
+    }
+
+    private static void writeAll(ByteArrayOutputStream out, List<byte[]> items) {
+        writeU2(out, items.size());
+        for (byte[] item : items) {
+            out.write(item, 0, item.length);
+        }
+    }
+
+    static void writeU2(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    static void writeU4(ByteArrayOutputStream out, int value) {
+        writeU2(out, value >>> 16);
+        writeU2(out, value & 0xFFFF);
+    }
+}
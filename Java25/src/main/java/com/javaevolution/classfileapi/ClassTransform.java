@@ -0,0 +1,57 @@
+package com.javaevolution.classfileapi;
+
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * One step of a {@link TransformPipeline}.
+ *
+ * The ID names the transform and its configuration. The pipeline's cache is only
+ * reused while the IDs of the whole chain stay the same, so it must change whenever
+ * the transform would produce different bytes.
+ *
+ * In Java 25+ the steps are {@code java.lang.classfile.ClassTransform}s, chained with
+ * {@code andThen}.
+ */
+public interface ClassTransform {
+
+    String id();
+
+    /**
+     * Returns the transformed class, or null to leave it unchanged.
+     */
+    byte[] transform(String className, byte[] classBytes);
+
+    static ClassTransform of(String id, UnaryOperator<byte[]> transform) {
+        Objects.requireNonNull(id, "id");
+        Objects.requireNonNull(transform, "transform");
+        return new ClassTransform() {
+            @Override
+            public String id() {
+                return id;
+            }
+
+            @Override
+            public byte[] transform(String className, byte[] classBytes) {
+                return transform.apply(classBytes);
+            }
+        };
+    }
+
+    /**
+     * Removes local variable tables, and line numbers and source file names too if asked.
+     * See {@link DebugInfoStripper}.
+     */
+    static ClassTransform stripDebug(boolean lineNumbers) {
+        DebugInfoStripper stripper = new DebugInfoStripper(lineNumbers);
+        return of(lineNumbers ? "strip-debug:all" : "strip-debug:locals", stripper::strip);
+    }
+
+    /**
+     * Offline timing probes for the classes matching the filter, see {@link TimingInstrumentor}.
+     */
+    static ClassTransform timing(String id, TimingInstrumentor.MethodFilter filter) {
+        TimingInstrumentor instrumentor = new TimingInstrumentor(filter, true);
+        return of("timing:" + id, instrumentor::instrument);
+    }
+}
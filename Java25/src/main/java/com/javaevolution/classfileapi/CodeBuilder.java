@@ -0,0 +1,359 @@
+package com.javaevolution.classfileapi;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Emits the bytecode of one method and assembles its Code attribute.
+ *
+ * Stack and local sizes are declared by the caller rather than computed, and stack map
+ * frames are added explicitly at branch targets and handlers. Generated methods are
+ * small and straight-line, so this is simpler than a data-flow analysis.
+ *
+ * Verification types are ints: the ITEM_* tag, with the constant pool index of the
+ * class in the upper bits for {@link #ITEM_OBJECT}.
+ *
+ * In Java 25+ this is the {@code CodeBuilder} passed to {@code MethodBuilder.withCode}.
+ */
+final class CodeBuilder {
+
+    static final int ICONST_0 = 0x03;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int LDC = 0x12;
+    static final int LDC_W = 0x13;
+    static final int ILOAD = 0x15;
+    static final int LLOAD = 0x16;
+    static final int FLOAD = 0x17;
+    static final int DLOAD = 0x18;
+    static final int ALOAD = 0x19;
+    static final int ISTORE = 0x36;
+    static final int LSTORE = 0x37;
+    static final int FSTORE = 0x38;
+    static final int DSTORE = 0x39;
+    static final int AALOAD = 0x32;
+    static final int ASTORE = 0x3A;
+    static final int POP = 0x57;
+    static final int POP2 = 0x58;
+    static final int DUP = 0x59;
+    static final int SWAP = 0x5F;
+    static final int LSUB = 0x65;
+    static final int TABLESWITCH = 0xAA;
+    static final int IRETURN = 0xAC;
+    static final int LRETURN = 0xAD;
+    static final int FRETURN = 0xAE;
+    static final int DRETURN = 0xAF;
+    static final int ARETURN = 0xB0;
+    static final int RETURN = 0xB1;
+    static final int GETSTATIC = 0xB2;
+    static final int PUTSTATIC = 0xB3;
+    static final int GETFIELD = 0xB4;
+    static final int PUTFIELD = 0xB5;
+    static final int INVOKEVIRTUAL = 0xB6;
+    static final int INVOKESPECIAL = 0xB7;
+    static final int INVOKESTATIC = 0xB8;
+    static final int INVOKEINTERFACE = 0xB9;
+    static final int NEW = 0xBB;
+    static final int ATHROW = 0xBF;
+    static final int CHECKCAST = 0xC0;
+    static final int WIDE = 0xC4;
+
+    static final int ITEM_TOP = 0;
+    static final int ITEM_INTEGER = 1;
+    static final int ITEM_FLOAT = 2;
+    static final int ITEM_DOUBLE = 3;
+    static final int ITEM_LONG = 4;
+    static final int ITEM_NULL = 5;
+    static final int ITEM_OBJECT = 7;
+
+    private final ConstantPoolBuilder pool;
+    private byte[] code = new byte[64];
+    private int length;
+    private final List<int[]> handlers = new ArrayList<>();
+    private final List<Frame> frames = new ArrayList<>();
+
+    private record Frame(int offset, int[] locals, int[] stack) {}
+
+    CodeBuilder(ConstantPoolBuilder pool) {
+        this.pool = pool;
+    }
+
+    int position() {
+        return length;
+    }
+
+    CodeBuilder op(int opcode) {
+        return u1(opcode);
+    }
+
+    CodeBuilder u1(int value) {
+        if (length == code.length) {
+            code = Arrays.copyOf(code, code.length * 2);
+        }
+        code[length++] = (byte) value;
+        return this;
+    }
+
+    CodeBuilder u2(int value) {
+        return u1(value >>> 8).u1(value);
+    }
+
+    CodeBuilder u4(int value) {
+        return u2(value >>> 16).u2(value & 0xFFFF);
+    }
+
+    /**
+     * Overwrites a previously emitted 4-byte value, e.g. a forward branch offset.
+     */
+    void patchU4(int offset, int value) {
+        code[offset] = (byte) (value >>> 24);
+        code[offset + 1] = (byte) (value >>> 16);
+        code[offset + 2] = (byte) (value >>> 8);
+        code[offset + 3] = (byte) value;
+    }
+
+    /**
+     * Emits a tableswitch over the keys {@code low..high} and returns the offset of its
+     * default branch; the branch of key k is at {@code 12 + 4 * (k - low)} past it. The
+     * branches are patched with {@link #patchU4} once the targets are known, as offsets
+     * from the tableswitch opcode, i.e. from {@link #position()} before this call.
+     */
+    int tableswitch(int low, int high) {
+        op(TABLESWITCH);
+        // Padding aligns the operands to a multiple of four from the start of the code
+        while (length % 4 != 0) {
+            u1(0);
+        }
+        int branches = length;
+        u4(0).u4(low).u4(high);
+        for (int key = low; key <= high; key++) {
+            u4(0);
+        }
+        return branches;
+    }
+
+    CodeBuilder pushInt(int value) {
+        if (value >= -1 && value <= 5) {
+            return op(ICONST_0 + value);
+        }
+        if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            return op(BIPUSH).u1(value);
+        }
+        if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            return op(SIPUSH).u2(value);
+        }
+        return ldc(pool.integer(value));
+    }
+
+    CodeBuilder ldc(int constantIndex) {
+        return constantIndex <= 0xFF ? op(LDC).u1(constantIndex) : op(LDC_W).u2(constantIndex);
+    }
+
+    /**
+     * Loads a local of the given field descriptor type.
+     */
+    CodeBuilder load(String type, int slot) {
+        return local(loadOpcode(type), slot);
+    }
+
+    CodeBuilder store(String type, int slot) {
+        return local(loadOpcode(type) + (ISTORE - ILOAD), slot);
+    }
+
+    /**
+     * Loads every parameter of the descriptor, starting at the given slot.
+     */
+    CodeBuilder loadParameters(String methodDescriptor, int firstSlot) {
+        int slot = firstSlot;
+        for (String type : Descriptors.parameterTypes(methodDescriptor)) {
+            load(type, slot);
+            slot += Descriptors.slots(type);
+        }
+        return this;
+    }
+
+    CodeBuilder returnValue(String type) {
+        switch (type.charAt(0)) {
+            case 'V':
+                return op(RETURN);
+            case 'J':
+                return op(LRETURN);
+            case 'F':
+                return op(FRETURN);
+            case 'D':
+                return op(DRETURN);
+            case 'L': case '[':
+                return op(ARETURN);
+            default:
+                return op(IRETURN);
+        }
+    }
+
+    CodeBuilder invokestatic(String owner, String name, String descriptor) {
+        return op(INVOKESTATIC).u2(pool.methodRef(owner, name, descriptor));
+    }
+
+    CodeBuilder invokespecial(String owner, String name, String descriptor) {
+        return op(INVOKESPECIAL).u2(pool.methodRef(owner, name, descriptor));
+    }
+
+    CodeBuilder invokevirtual(String owner, String name, String descriptor) {
+        return op(INVOKEVIRTUAL).u2(pool.methodRef(owner, name, descriptor));
+    }
+
+    CodeBuilder invokeinterface(String owner, String name, String descriptor) {
+        int count = 1 + Descriptors.parameterSlots(descriptor);
+        return op(INVOKEINTERFACE).u2(pool.interfaceMethodRef(owner, name, descriptor)).u1(count).u1(0);
+    }
+
+    CodeBuilder getfield(String owner, String name, String descriptor) {
+        return op(GETFIELD).u2(pool.fieldRef(owner, name, descriptor));
+    }
+
+    CodeBuilder putfield(String owner, String name, String descriptor) {
+        return op(PUTFIELD).u2(pool.fieldRef(owner, name, descriptor));
+    }
+
+    CodeBuilder getstatic(String owner, String name, String descriptor) {
+        return op(GETSTATIC).u2(pool.fieldRef(owner, name, descriptor));
+    }
+
+    CodeBuilder newObject(String internalName) {
+        return op(NEW).u2(pool.classRef(internalName));
+    }
+
+    CodeBuilder checkcast(String internalName) {
+        return op(CHECKCAST).u2(pool.classRef(internalName));
+    }
+
+    /**
+     * Adds an exception table entry; a catch type of null catches everything.
+     */
+    void handler(int start, int end, int handlerOffset, String catchType) {
+        handlers.add(new int[] {start, end, handlerOffset, catchType == null ? 0 : pool.classRef(catchType)});
+    }
+
+    /**
+     * Records the full frame at an offset. Frames must be added in offset order.
+     */
+    void frame(int offset, int[] locals, int[] stack) {
+        frames.add(new Frame(offset, locals.clone(), stack.clone()));
+    }
+
+    int objectType(String internalName) {
+        return ITEM_OBJECT | (pool.classRef(internalName) << 8);
+    }
+
+    /**
+     * Verification type of a value of the field descriptor type, as held on the stack.
+     */
+    int verificationType(String type) {
+        switch (type.charAt(0)) {
+            case 'J':
+                return ITEM_LONG;
+            case 'D':
+                return ITEM_DOUBLE;
+            case 'F':
+                return ITEM_FLOAT;
+            case 'L': case '[':
+                return objectType(Descriptors.classEntryName(type));
+            default:
+                return ITEM_INTEGER;
+        }
+    }
+
+    /**
+     * Locals at method entry: {@code this} (unless static) and the parameters.
+     */
+    int[] entryLocals(String owner, String methodDescriptor, boolean isStatic) {
+        List<String> parameters = Descriptors.parameterTypes(methodDescriptor);
+        int[] locals = new int[parameters.size() + (isStatic ? 0 : 1)];
+        int i = 0;
+        if (!isStatic) {
+            locals[i++] = objectType(owner);
+        }
+        for (String type : parameters) {
+            locals[i++] = verificationType(type);
+        }
+        return locals;
+    }
+
+    /**
+     * Assembles the Code attribute, including the StackMapTable if frames were added.
+     */
+    byte[] toAttribute(int maxStack, int maxLocals) {
+        ByteArrayOutputStream info = new ByteArrayOutputStream(length + 32);
+        ClassFileWriter.writeU2(info, maxStack);
+        ClassFileWriter.writeU2(info, maxLocals);
+        ClassFileWriter.writeU4(info, length);
+        info.write(code, 0, length);
+        ClassFileWriter.writeU2(info, handlers.size());
+        for (int[] handler : handlers) {
+            for (int value : handler) {
+                ClassFileWriter.writeU2(info, value);
+            }
+        }
+        if (frames.isEmpty()) {
+            ClassFileWriter.writeU2(info, 0);
+        } else {
+            ClassFileWriter.writeU2(info, 1);
+            byte[] stackMap = stackMapTable();
+            info.write(stackMap, 0, stackMap.length);
+        }
+        return ClassFileWriter.attribute(pool.utf8("Code"), info.toByteArray());
+    }
+
+    private byte[] stackMapTable() {
+        ByteArrayOutputStream info = new ByteArrayOutputStream();
+        ClassFileWriter.writeU2(info, frames.size());
+        int previous = -1;
+        for (Frame frame : frames) {
+            int delta = frame.offset() - previous - 1;
+            previous = frame.offset();
+            info.write(255);  // full_frame
+            ClassFileWriter.writeU2(info, delta);
+            writeTypes(info, frame.locals());
+            writeTypes(info, frame.stack());
+        }
+        return ClassFileWriter.attribute(pool.utf8("StackMapTable"), info.toByteArray());
+    }
+
+    private static void writeTypes(ByteArrayOutputStream out, int[] types) {
+        ClassFileWriter.writeU2(out, types.length);
+        for (int type : types) {
+            out.write(type & 0xFF);
+            if ((type & 0xFF) == ITEM_OBJECT) {
+                ClassFileWriter.writeU2(out, type >>> 8);
+            }
+        }
+    }
+
+    private CodeBuilder local(int opcode, int slot) {
+        if (slot <= 3) {
+            // xload_n and xstore_n are laid out in groups of four after the type's base opcode
+            int base = opcode < ISTORE ? 0x1A + (opcode - ILOAD) * 4 : 0x3B + (opcode - ISTORE) * 4;
+            return op(base + slot);
+        }
+        if (slot <= 0xFF) {
+            return op(opcode).u1(slot);
+        }
+        return op(WIDE).op(opcode).u2(slot);
+    }
+
+    private static int loadOpcode(String type) {
+        switch (type.charAt(0)) {
+            case 'J':
+                return LLOAD;
+            case 'F':
+                return FLOAD;
+            case 'D':
+                return DLOAD;
+            case 'L': case '[':
+                return ALOAD;
+            default:
+                return ILOAD;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.javaevolution.classfileapi;
+
+/**
+ * Walks the instructions of a Code attribute.
+ *
+ * Most instructions have a fixed length. The exceptions are tableswitch and
+ * lookupswitch, padded so their operands start at a multiple of 4 from the start of
+ * the code, and wide, whose length depends on the instruction it widens.
+ *
+ * In Java 25+ this is {@code CodeModel.elementStream()}, which hands out typed
+ * {@code Instruction}s instead of offsets.
+ */
+final class CodeWalker {
+
+    static final int TABLESWITCH = 0xAA;
+    static final int LOOKUPSWITCH = 0xAB;
+    static final int INVOKEDYNAMIC = 0xBA;
+    static final int IINC = 0x84;
+
+    /**
+     * Called for every instruction, with its class-file offset and opcode.
+     */
+    @FunctionalInterface
+    interface Visitor {
+        void instruction(int offset, int opcode);
+    }
+
+    private CodeWalker() {
+    }
+
+    /**
+     * Offset of the bytecode in the class file, for a Code attribute.
+     */
+    static int codeStart(ClassFileView.Attribute code) {
+        return code.offset() + 8;
+    }
+
+    static int codeLength(ClassFileView view, ClassFileView.Attribute code) {
+        return view.u4(code.offset() + 4);
+    }
+
+    static void walk(ClassFileView view, ClassFileView.Attribute code, Visitor visitor) {
+        int start = codeStart(code);
+        int end = start + codeLength(view, code);
+        int offset = start;
+        while (offset < end) {
+            int opcode = view.u1(offset);
+            visitor.instruction(offset, opcode);
+            offset += length(view, start, offset);
+        }
+        if (offset != end) {
+            throw new IllegalArgumentException("Last instruction runs past the end of the code at " + offset);
+        }
+    }
+
+    /**
+     * Length in bytes of the instruction at the offset, operands included.
+     */
+    static int length(ClassFileView view, int codeStart, int offset) {
+        int opcode = view.u1(offset);
+        switch (opcode) {
+            case TABLESWITCH: {
+                int operands = aligned(codeStart, offset);
+                int low = view.u4(operands + 4);
+                int high = view.u4(operands + 8);
+                if (high < low) {
+                    throw new IllegalArgumentException("tableswitch with high < low at " + offset);
+                }
+                return operands - offset + 12 + 4 * (high - low + 1);
+            }
+            case LOOKUPSWITCH: {
+                int operands = aligned(codeStart, offset);
+                int pairs = view.u4(operands + 4);
+                if (pairs < 0) {
+                    throw new IllegalArgumentException("lookupswitch with negative pair count at " + offset);
+                }
+                return operands - offset + 8 + 8 * pairs;
+            }
+            case CodeBuilder.WIDE:
+                return view.u1(offset + 1) == IINC ? 6 : 4;
+            default: {
+                int length = FIXED_LENGTHS[opcode];
+                if (length == 0) {
+                    throw new IllegalArgumentException("Invalid opcode 0x" + Integer.toHexString(opcode)
+                        + " at " + offset);
+                }
+                return length;
+            }
+        }
+    }
+
+    /**
+     * First operand of a switch: the next multiple of 4 after the opcode, counted from the code start.
+     */
+    private static int aligned(int codeStart, int offset) {
+        int relative = offset - codeStart + 1;
+        return codeStart + ((relative + 3) & ~3);
+    }
+
+    // 0 for invalid opcodes and the variable-length ones handled above
+    private static final byte[] FIXED_LENGTHS = new byte[256];
+
+    static {
+        fill(0x00, 0x0F, 1);   // nop, aconst_null, iconst_*, lconst_*, fconst_*, dconst_*
+        fill(0x10, 0x10, 2);   // bipush
+        fill(0x11, 0x11, 3);   // sipush
+        fill(0x12, 0x12, 2);   // ldc
+        fill(0x13, 0x14, 3);   // ldc_w, ldc2_w
+        fill(0x15, 0x19, 2);   // iload..aload
+        fill(0x1A, 0x35, 1);   // *load_n, *aload
+        fill(0x36, 0x3A, 2);   // istore..astore
+        fill(0x3B, 0x83, 1);   // *store_n, *astore, stack and arithmetic
+        fill(0x84, 0x84, 3);   // iinc
+        fill(0x85, 0x98, 1);   // conversions and comparisons
+        fill(0x99, 0xA8, 3);   // if*, goto, jsr
+        fill(0xA9, 0xA9, 2);   // ret
+        fill(0xAC, 0xB1, 1);   // *return
+        fill(0xB2, 0xB8, 3);   // field access, invokevirtual/special/static
+        fill(0xB9, 0xBA, 5);   // invokeinterface, invokedynamic
+        fill(0xBB, 0xBB, 3);   // new
+        fill(0xBC, 0xBC, 2);   // newarray
+        fill(0xBD, 0xBD, 3);   // anewarray
+        fill(0xBE, 0xBF, 1);   // arraylength, athrow
+        fill(0xC0, 0xC1, 3);   // checkcast, instanceof
+        fill(0xC2, 0xC3, 1);   // monitorenter, monitorexit
+        fill(0xC5, 0xC5, 4);   // multianewarray
+        fill(0xC6, 0xC7, 3);   // ifnull, ifnonnull
+        fill(0xC8, 0xC9, 5);   // goto_w, jsr_w
+    }
+
+    private static void fill(int from, int to, int length) {
+        for (int opcode = from; opcode <= to; opcode++) {
+            FIXED_LENGTHS[opcode] = (byte) length;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.javaevolution.classfileapi;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds a constant pool, either from scratch or by appending to the pool of an existing class.
+ *
+ * When started from a {@link ClassFileView}, the existing entries are copied as raw bytes
+ * and keep their indices, so the rest of the class (code, attributes) can be copied
+ * unchanged. New entries are appended; Utf8, Class and NameAndType entries are
+ * de-duplicated against the existing pool and against each other.
+ *
+ * In Java 25+ this is what {@code ConstantPoolBuilder.of(classModel)} does.
+ *
+ * Note: Running on Java 17, so entries are encoded per JVMS 4.4.
+ */
+final class ConstantPoolBuilder {
+
+    static final int REF_INVOKE_STATIC = 6;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final Map<String, Integer> entries = new HashMap<>();
+    private int count = 1;
+
+    ConstantPoolBuilder() {
+    }
+
+    /**
+     * Starts with a copy of the class's constant pool.
+     */
+    ConstantPoolBuilder(ClassFileView view) {
+        out.write(view.bytes(10, view.constantPoolEnd() - 10), 0, view.constantPoolEnd() - 10);
+        count = view.constantPoolCount();
+        for (int i = 1; i < count; i++) {
+            int tag = view.tag(i);
+            int offset = view.entryOffset(i);
+            if (tag == ClassFileView.CONSTANT_UTF8) {
+                entries.putIfAbsent("U" + view.utf8(i), i);
+            } else if (tag == ClassFileView.CONSTANT_CLASS) {
+                entries.putIfAbsent("C" + view.className(i), i);
+            } else if (tag == ClassFileView.CONSTANT_NAME_AND_TYPE) {
+                entries.putIfAbsent("N" + view.u2(offset + 1) + ":" + view.u2(offset + 3), i);
+            }
+        }
+    }
+
+    /**
+     * Number of slots, as written to constant_pool_count.
+     */
+    int count() {
+        return count;
+    }
+
+    int utf8(String value) {
+        Integer existing = entries.get("U" + value);
+        if (existing != null) {
+            return existing;
+        }
+        byte[] encoded = encodeModifiedUtf8(value);
+        out.write(ClassFileView.CONSTANT_UTF8);
+        writeU2(encoded.length);
+        out.write(encoded, 0, encoded.length);
+        return register("U" + value, 1);
+    }
+
+    /**
+     * A CONSTANT_Class entry; array classes use their descriptor as the name.
+     */
+    int classRef(String internalName) {
+        Integer existing = entries.get("C" + internalName);
+        if (existing != null) {
+            return existing;
+        }
+        int name = utf8(internalName);
+        out.write(ClassFileView.CONSTANT_CLASS);
+        writeU2(name);
+        return register("C" + internalName, 1);
+    }
+
+    int string(String value) {
+        int utf8 = utf8(value);
+        Integer existing = entries.get("S" + utf8);
+        if (existing != null) {
+            return existing;
+        }
+        out.write(ClassFileView.CONSTANT_STRING);
+        writeU2(utf8);
+        return register("S" + utf8, 1);
+    }
+
+    int integer(int value) {
+        Integer existing = entries.get("I" + value);
+        if (existing != null) {
+            return existing;
+        }
+        out.write(ClassFileView.CONSTANT_INTEGER);
+        writeU4(value);
+        return register("I" + value, 1);
+    }
+
+    int nameAndType(String name, String descriptor) {
+        int nameIndex = utf8(name);
+        int typeIndex = utf8(descriptor);
+        String key = "N" + nameIndex + ":" + typeIndex;
+        Integer existing = entries.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        out.write(ClassFileView.CONSTANT_NAME_AND_TYPE);
+        writeU2(nameIndex);
+        writeU2(typeIndex);
+        return register(key, 1);
+    }
+
+    int fieldRef(String owner, String name, String descriptor) {
+        return memberRef(ClassFileView.CONSTANT_FIELDREF, owner, name, descriptor);
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        return memberRef(ClassFileView.CONSTANT_METHODREF, owner, name, descriptor);
+    }
+
+    int interfaceMethodRef(String owner, String name, String descriptor) {
+        return memberRef(ClassFileView.CONSTANT_INTERFACE_METHODREF, owner, name, descriptor);
+    }
+
+    int methodHandle(int referenceKind, int referenceIndex) {
+        String key = "H" + referenceKind + ":" + referenceIndex;
+        Integer existing = entries.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        out.write(ClassFileView.CONSTANT_METHOD_HANDLE);
+        out.write(referenceKind);
+        writeU2(referenceIndex);
+        return register(key, 1);
+    }
+
+    /**
+     * A dynamically computed constant (condy), resolved once by its bootstrap method.
+     */
+    int dynamic(int bootstrapIndex, String name, String descriptor) {
+        int nameAndType = nameAndType(name, descriptor);
+        String key = "D" + bootstrapIndex + ":" + nameAndType;
+        Integer existing = entries.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        out.write(ClassFileView.CONSTANT_DYNAMIC);
+        writeU2(bootstrapIndex);
+        writeU2(nameAndType);
+        return register(key, 1);
+    }
+
+    /**
+     * Writes constant_pool_count followed by the entries.
+     */
+    void writeTo(ByteArrayOutputStream target) {
+        if (count > 0xFFFF) {
+            throw new IllegalStateException("Constant pool overflow: " + count + " entries");
+        }
+        target.write(count >>> 8);
+        target.write(count);
+        target.write(out.toByteArray(), 0, out.size());
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        int classIndex = classRef(owner);
+        int nameAndType = nameAndType(name, descriptor);
+        String key = "M" + tag + ":" + classIndex + ":" + nameAndType;
+        Integer existing = entries.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        out.write(tag);
+        writeU2(classIndex);
+        writeU2(nameAndType);
+        return register(key, 1);
+    }
+
+    private int register(String key, int slots) {
+        int index = count;
+        count += slots;
+        entries.put(key, index);
+        return index;
+    }
+
+    private void writeU2(int value) {
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private void writeU4(int value) {
+        writeU2(value >>> 16);
+        writeU2(value & 0xFFFF);
+    }
+
+    static byte[] encodeModifiedUtf8(String value) {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != 0 && c < 0x80) {
+                encoded.write(c);
+            } else if (c < 0x800) {
+                encoded.write(0xC0 | (c >> 6));
+                encoded.write(0x80 | (c & 0x3F));
+            } else {
+                // Surrogates are encoded one char at a time, as modified UTF-8 requires
+                encoded.write(0xE0 | (c >> 12));
+                encoded.write(0x80 | ((c >> 6) & 0x3F));
+                encoded.write(0x80 | (c & 0x3F));
+            }
+        }
+        if (encoded.size() > 0xFFFF) {
+            throw new IllegalArgumentException("String constant too long: " + encoded.size() + " bytes");
+        }
+        return encoded.toByteArray();
+    }
+}
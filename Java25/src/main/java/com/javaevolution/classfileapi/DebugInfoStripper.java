@@ -0,0 +1,122 @@
+package com.javaevolution.classfileapi;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Removes debug attributes from a class.
+ *
+ * LocalVariableTable and LocalVariableTypeTable are only read by debuggers, so they
+ * always go. LineNumberTable, SourceFile and SourceDebugExtension feed stack traces
+ * and are kept unless line numbers are stripped too.
+ *
+ * The constant pool is copied unchanged, so the names the removed attributes referred
+ * to stay in it; only the attribute bodies are dropped.
+ *
+ * In Java 25+ this is a {@code ClassTransform} dropping {@code LocalVariable} and
+ * {@code LineNumber} code elements, or simply parsing with
+ * {@code ClassFile.DebugElementsOption.DROP_DEBUG}.
+ */
+final class DebugInfoStripper {
+
+    private static final Set<String> LOCAL_VARIABLE_ATTRIBUTES =
+        Set.of("LocalVariableTable", "LocalVariableTypeTable");
+    private static final Set<String> LINE_ATTRIBUTES = Set.of("LineNumberTable");
+    private static final Set<String> SOURCE_ATTRIBUTES = Set.of("SourceFile", "SourceDebugExtension");
+
+    private final boolean stripLineNumbers;
+
+    DebugInfoStripper(boolean stripLineNumbers) {
+        this.stripLineNumbers = stripLineNumbers;
+    }
+
+    /**
+     * Returns the class without debug attributes, or null if it had none to remove.
+     */
+    byte[] strip(byte[] classBytes) {
+        ClassFileView view = ClassFileView.of(classBytes);
+        AttributeReader reader = new AttributeReader(view);
+        List<ClassFileView.Attribute> classAttributes = view.attributes();
+        boolean changed = stripLineNumbers && classAttributes.stream().anyMatch(a -> isSource(view, a));
+
+        List<ClassFileView.Member> methods = view.methods();
+        List<AttributeReader.Code> codes = new ArrayList<>(methods.size());
+        for (ClassFileView.Member method : methods) {
+            AttributeReader.Code code = reader.code(method);
+            codes.add(code);
+            if (code != null && code.attributes().stream().anyMatch(a -> isDebug(view, a))) {
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return null;
+        }
+
+        ConstantPoolBuilder pool = new ConstantPoolBuilder(view);
+        ClassFileWriter writer = new ClassFileWriter(view.majorVersion(), view.minorVersion(), pool);
+        int header = view.constantPoolEnd();
+        int[] interfaces = new int[view.interfaceCount()];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaces[i] = view.u2(header + 8 + i * 2);
+        }
+        writer.header(view.accessFlags(), view.u2(header + 2), view.u2(header + 4), interfaces);
+        for (ClassFileView.Member field : view.fields()) {
+            writer.field(view.bytes(field.offset(), field.end() - field.offset()));
+        }
+        for (int i = 0; i < methods.size(); i++) {
+            ClassFileView.Member method = methods.get(i);
+            AttributeReader.Code code = codes.get(i);
+            List<byte[]> attributes = new ArrayList<>(method.attributes().size());
+            for (ClassFileView.Attribute attribute : method.attributes()) {
+                attributes.add(view.utf8Equals(attribute.nameIndex(), AttributeReader.CODE)
+                    ? strippedCode(view, attribute, code)
+                    : raw(view, attribute));
+            }
+            writer.method(ClassFileWriter.member(method.accessFlags(), method.nameIndex(), method.descriptorIndex(),
+                attributes));
+        }
+        for (ClassFileView.Attribute attribute : classAttributes) {
+            if (!(stripLineNumbers && isSource(view, attribute))) {
+                writer.attribute(raw(view, attribute));
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * The Code attribute up to and including the exception table, then the kept nested attributes.
+     */
+    private byte[] strippedCode(ClassFileView view, ClassFileView.Attribute attribute, AttributeReader.Code code) {
+        int tableEnd = code.codeOffset() + code.codeLength() + 2 + code.handlers().size() * 8;
+        ByteArrayOutputStream info = new ByteArrayOutputStream(attribute.length());
+        byte[] head = view.bytes(attribute.offset(), tableEnd - attribute.offset());
+        info.write(head, 0, head.length);
+        List<ClassFileView.Attribute> kept = new ArrayList<>();
+        for (ClassFileView.Attribute nested : code.attributes()) {
+            if (!isDebug(view, nested)) {
+                kept.add(nested);
+            }
+        }
+        ClassFileWriter.writeU2(info, kept.size());
+        for (ClassFileView.Attribute nested : kept) {
+            byte[] bytes = raw(view, nested);
+            info.write(bytes, 0, bytes.length);
+        }
+        return ClassFileWriter.attribute(attribute.nameIndex(), info.toByteArray());
+    }
+
+    private boolean isDebug(ClassFileView view, ClassFileView.Attribute attribute) {
+        String name = view.name(attribute);
+        return LOCAL_VARIABLE_ATTRIBUTES.contains(name) || stripLineNumbers && LINE_ATTRIBUTES.contains(name);
+    }
+
+    private static boolean isSource(ClassFileView view, ClassFileView.Attribute attribute) {
+        return SOURCE_ATTRIBUTES.contains(view.name(attribute));
+    }
+
+    private static byte[] raw(ClassFileView view, ClassFileView.Attribute attribute) {
+        return view.bytes(attribute.headerOffset(), attribute.length() + 6);
+    }
+}
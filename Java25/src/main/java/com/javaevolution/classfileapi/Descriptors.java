@@ -0,0 +1,74 @@
+package com.javaevolution.classfileapi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helpers for JVM field and method descriptors, e.g. {@code (I[Ljava/lang/String;)J}.
+ *
+ * In Java 25+ these are {@code java.lang.constant.MethodTypeDesc} and {@code ClassDesc}.
+ */
+final class Descriptors {
+
+    private Descriptors() {
+    }
+
+    /**
+     * Splits a method descriptor into the field descriptors of its parameters.
+     */
+    static List<String> parameterTypes(String methodDescriptor) {
+        List<String> types = new ArrayList<>();
+        int pos = 1;
+        while (methodDescriptor.charAt(pos) != ')') {
+            int end = fieldTypeEnd(methodDescriptor, pos);
+            types.add(methodDescriptor.substring(pos, end));
+            pos = end;
+        }
+        return types;
+    }
+
+    static String returnType(String methodDescriptor) {
+        return methodDescriptor.substring(methodDescriptor.indexOf(')') + 1);
+    }
+
+    /**
+     * Local variable slots taken by a value of the type: 2 for long and double, 0 for void.
+     */
+    static int slots(String type) {
+        switch (type.charAt(0)) {
+            case 'J': case 'D':
+                return 2;
+            case 'V':
+                return 0;
+            default:
+                return 1;
+        }
+    }
+
+    static int parameterSlots(String methodDescriptor) {
+        int slots = 0;
+        for (String type : parameterTypes(methodDescriptor)) {
+            slots += slots(type);
+        }
+        return slots;
+    }
+
+    /**
+     * The name a CONSTANT_Class entry uses for the type: internal name or array descriptor.
+     */
+    static String classEntryName(String fieldDescriptor) {
+        return fieldDescriptor.charAt(0) == 'L'
+            ? fieldDescriptor.substring(1, fieldDescriptor.length() - 1)
+            : fieldDescriptor;
+    }
+
+    private static int fieldTypeEnd(String descriptor, int pos) {
+        while (descriptor.charAt(pos) == '[') {
+            pos++;
+        }
+        if (descriptor.charAt(pos) == 'L') {
+            return descriptor.indexOf(';', pos) + 1;
+        }
+        return pos + 1;
+    }
+}
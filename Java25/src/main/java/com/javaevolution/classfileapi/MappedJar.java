@@ -0,0 +1,215 @@
+package com.javaevolution.classfileapi;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A JAR (ZIP) file memory-mapped in one piece, with its central directory parsed up front.
+ *
+ * Entry data is never copied for stored entries: {@link #read(Entry)} returns a slice of
+ * the mapping. Deflated entries are inflated straight from the mapping into a buffer of
+ * the exact uncompressed size, with one reusable Inflater per thread.
+ *
+ * The mapping and all slices are read-only and use absolute indexing only, so entries can
+ * be read from many threads at once.
+ *
+ * Limitations: ZIP64 archives (over 4 GB or 65535 entries) are rejected, and a single
+ * mapping is limited to 2 GB.
+ */
+public final class MappedJar {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int END_RECORD_SIZE = 22;
+    private static final int MAX_COMMENT = 0xFFFF;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    /**
+     * A central directory entry.
+     */
+    public record Entry(String name, int method, long compressedSize, long size, long localHeaderOffset, int crc) {
+        public boolean isClass() {
+            return name.endsWith(".class");
+        }
+
+        public boolean isStored() {
+            return method == STORED;
+        }
+
+        public boolean isDirectory() {
+            return name.endsWith("/");
+        }
+    }
+
+    private final Path path;
+    private final MappedByteBuffer mapping;
+    private final List<Entry> entries;
+
+    private MappedJar(Path path, MappedByteBuffer mapping, List<Entry> entries) {
+        this.path = path;
+        this.mapping = mapping;
+        this.entries = entries;
+    }
+
+    public static MappedJar open(Path jar) throws IOException {
+        MappedByteBuffer mapping;
+        try (FileChannel channel = FileChannel.open(jar, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("JAR larger than 2 GB cannot be mapped at once: " + jar);
+            }
+            // The mapping stays valid after the channel is closed
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        mapping.order(ByteOrder.LITTLE_ENDIAN);
+        return new MappedJar(jar, mapping, readCentralDirectory(jar, mapping));
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public List<Entry> entries() {
+        return entries;
+    }
+
+    public List<Entry> classEntries() {
+        List<Entry> classes = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.isClass()) {
+                classes.add(entry);
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Returns the entry's data: a slice of the mapping if stored, inflated bytes if deflated.
+     */
+    public ByteBuffer read(Entry entry) throws IOException {
+        ByteBuffer compressed = mapping.slice((int) dataOffset(entry), (int) entry.compressedSize());
+        switch (entry.method()) {
+            case STORED:
+                return compressed.order(ByteOrder.BIG_ENDIAN);
+            case DEFLATED:
+                return ByteBuffer.wrap(inflate(entry, compressed));
+            default:
+                throw new IOException("Unsupported compression method " + entry.method()
+                    + " for " + entry.name() + " in " + path);
+        }
+    }
+
+    /**
+     * File offset of the entry's (possibly compressed) data, after its local header.
+     * For a stored entry the data can be copied straight from the file from here.
+     */
+    public long dataOffset(Entry entry) throws IOException {
+        int local = (int) entry.localHeaderOffset();
+        if (mapping.getInt(local) != LOCAL_HEADER_SIGNATURE) {
+            throw new IOException("Bad local header for " + entry.name() + " in " + path);
+        }
+        return local + 30 + u2(local + 26) + u2(local + 28);
+    }
+
+    private byte[] inflate(Entry entry, ByteBuffer compressed) throws IOException {
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(compressed);
+        byte[] out = new byte[(int) entry.size()];
+        try {
+            int total = 0;
+            while (total < out.length) {
+                int n = inflater.inflate(out, total, out.length - total);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                total += n;
+            }
+            if (total != out.length) {
+                throw new IOException("Truncated entry " + entry.name() + " in " + path);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt entry " + entry.name() + " in " + path, e);
+        }
+        return out;
+    }
+
+    /**
+     * Reads an entry, rethrowing I/O failures unchecked for use in streams.
+     */
+    public ByteBuffer readUnchecked(Entry entry) {
+        try {
+            return read(entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int u2(int offset) {
+        return mapping.getShort(offset) & 0xFFFF;
+    }
+
+    private static List<Entry> readCentralDirectory(Path jar, MappedByteBuffer zip) throws IOException {
+        int end = findEndRecord(zip);
+        if (end < 0) {
+            throw new IOException("Not a ZIP file (no end of central directory): " + jar);
+        }
+        int count = zip.getShort(end + 10) & 0xFFFF;
+        long directoryOffset = zip.getInt(end + 16) & 0xFFFFFFFFL;
+        if (count == 0xFFFF || directoryOffset == 0xFFFFFFFFL) {
+            throw new IOException("ZIP64 archives are not supported: " + jar);
+        }
+
+        List<Entry> entries = new ArrayList<>(count);
+        int offset = (int) directoryOffset;
+        byte[] nameBytes = new byte[256];
+        for (int i = 0; i < count; i++) {
+            if (zip.getInt(offset) != CENTRAL_HEADER_SIGNATURE) {
+                throw new IOException("Corrupt central directory in " + jar);
+            }
+            int method = zip.getShort(offset + 10) & 0xFFFF;
+            int crc = zip.getInt(offset + 16);
+            long compressedSize = zip.getInt(offset + 20) & 0xFFFFFFFFL;
+            long size = zip.getInt(offset + 24) & 0xFFFFFFFFL;
+            int nameLength = zip.getShort(offset + 28) & 0xFFFF;
+            int extraLength = zip.getShort(offset + 30) & 0xFFFF;
+            int commentLength = zip.getShort(offset + 32) & 0xFFFF;
+            long localOffset = zip.getInt(offset + 42) & 0xFFFFFFFFL;
+            if (nameBytes.length < nameLength) {
+                nameBytes = new byte[nameLength];
+            }
+            zip.get(offset + 46, nameBytes, 0, nameLength);
+            String name = new String(nameBytes, 0, nameLength, StandardCharsets.UTF_8);
+            entries.add(new Entry(name, method, compressedSize, size, localOffset, crc));
+            offset += 46 + nameLength + extraLength + commentLength;
+        }
+        return Collections.unmodifiableList(entries);
+    }
+
+    private static int findEndRecord(MappedByteBuffer zip) {
+        int last = zip.limit() - END_RECORD_SIZE;
+        int first = Math.max(0, last - MAX_COMMENT);
+        for (int offset = last; offset >= first; offset--) {
+            if (zip.getInt(offset) == END_SIGNATURE) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,369 @@
+package com.javaevolution.classfileapi;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Compiles a table of binary operators into generated classes, so a rule engine
+ * switches on an operator string once, when an expression is built, and not on every
+ * evaluation.
+ *
+ * Operator symbols are interned to dense ids {@code 0..size-1} in table order. Two
+ * kinds of class are generated per primitive type:
+ *
+ * - one class per operator, whose only method is the operation itself
+ *   ({@code iload_1; iload_2; iadd; ireturn}). An expression keeps its own instance, so
+ *   its call site is monomorphic and the JIT inlines the operation.
+ * - one dispatcher, for operators that are data (an id per row): a single
+ *   {@code tableswitch} over the ids, where {@code switch (String)} computes
+ *   {@code hashCode()}, a {@code lookupswitch} and {@code equals} on every call.
+ *
+ * <pre>
+ * OperatorTable table = OperatorTable.ARITHMETIC;
+ * IntBinaryOperator times = table.intOperator("*");     // per expression
+ * int value = times.applyAsInt(6, 7);
+ * int id = table.id("-");                               // per row
+ * int other = table.intDispatcher().apply(id, 6, 7);
+ * </pre>
+ *
+ * Classes are generated per type on first use and defined as hidden classes, which
+ * are unloaded together with the table.
+ *
+ * In Java 25+ the bytes come from {@code ClassFile.of().build(...)}, and
+ * {@code CodeBuilder.tableswitch(0, size - 1, defaultLabel, cases)} with
+ * {@code SwitchCase.of(id, label)} computes the stack map frames itself.
+ *
+ * Note: Running on Java 17, so the bytes are assembled with {@link ClassFileWriter},
+ * as in {@link AccessorGenerator}.
+ */
+public final class OperatorTable {
+
+    private static final int CLASS_VERSION = 61;
+    private static final String OBJECT = "java/lang/Object";
+    private static final String THIS_CLASS = "com/javaevolution/classfileapi/OperatorTable";
+    private static final int ATHROW = 0xBF;
+
+    /**
+     * The operators of {@code switch (operator)} in SwitchExpressionsExample.calculateValue:
+     * {@code + - * /}, with the JVM semantics of each type.
+     */
+    public static final OperatorTable ARITHMETIC = compile(arithmetic());
+
+    /**
+     * Evaluates operators chosen per row, by interned id.
+     */
+    public interface IntDispatcher {
+        int apply(int operator, int a, int b);
+    }
+
+    public interface DoubleDispatcher {
+        double apply(int operator, double a, double b);
+    }
+
+    /**
+     * A binary operation: either one arithmetic instruction per type (-1 if the type has
+     * none) or a call to a public static method {@code T method(T, T)} of the owner.
+     */
+    public record Operation(String name, int intOpcode, int doubleOpcode, Class<?> owner, String method) {
+
+        public static final Operation ADD = new Operation("add", 0x60, 0x63, null, null);
+        public static final Operation SUBTRACT = new Operation("subtract", 0x64, 0x67, null, null);
+        public static final Operation MULTIPLY = new Operation("multiply", 0x68, 0x6B, null, null);
+        /** Integer division by zero throws ArithmeticException; double division gives an infinity or NaN. */
+        public static final Operation DIVIDE = new Operation("divide", 0x6C, 0x6F, null, null);
+        public static final Operation REMAINDER = new Operation("remainder", 0x70, 0x73, null, null);
+        public static final Operation AND = new Operation("and", 0x7E, -1, null, null);
+        public static final Operation OR = new Operation("or", 0x80, -1, null, null);
+        public static final Operation XOR = new Operation("xor", 0x82, -1, null, null);
+        public static final Operation MIN = invoking(Math.class, "min");
+        public static final Operation MAX = invoking(Math.class, "max");
+
+        /**
+         * An operation that calls {@code owner.method(a, b)}, which must be public and
+         * static in a public class, for {@code int}, {@code double} or both.
+         */
+        public static Operation invoking(Class<?> owner, String method) {
+            Operation operation = new Operation(owner.getSimpleName() + "." + method, -1, -1, owner, method);
+            if (!Modifier.isPublic(owner.getModifiers())
+                    || !operation.supports(int.class) && !operation.supports(double.class)) {
+                throw new IllegalArgumentException("No public static int or double " + method + " in " + owner.getName());
+            }
+            return operation;
+        }
+
+        /**
+         * Whether the operation has a form for {@code int.class} or {@code double.class}.
+         */
+        public boolean supports(Class<?> type) {
+            if (owner == null) {
+                return (type == int.class ? intOpcode : type == double.class ? doubleOpcode : -1) >= 0;
+            }
+            try {
+                Method target = owner.getMethod(method, type, type);
+                return Modifier.isStatic(target.getModifiers()) && target.getReturnType() == type;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * The generated classes of one primitive type.
+     */
+    private enum Kind {
+        INT(int.class, "I", "java/util/function/IntBinaryOperator", "applyAsInt",
+            "com/javaevolution/classfileapi/OperatorTable$IntDispatcher"),
+        DOUBLE(double.class, "D", "java/util/function/DoubleBinaryOperator", "applyAsDouble",
+            "com/javaevolution/classfileapi/OperatorTable$DoubleDispatcher");
+
+        final Class<?> type;
+        final String descriptor;
+        final String operatorInterface;
+        final String operatorMethod;
+        final String dispatcherInterface;
+
+        Kind(Class<?> type, String descriptor, String operatorInterface, String operatorMethod,
+             String dispatcherInterface) {
+            this.type = type;
+            this.descriptor = descriptor;
+            this.operatorInterface = operatorInterface;
+            this.operatorMethod = operatorMethod;
+            this.dispatcherInterface = dispatcherInterface;
+        }
+    }
+
+    private record Compiled(Object[] operators, Object dispatcher) {}
+
+    private final String[] symbols;
+    private final Operation[] operations;
+    private final Map<String, Integer> ids;
+    private volatile Compiled ints;
+    private volatile Compiled doubles;
+
+    private OperatorTable(String[] symbols, Operation[] operations, Map<String, Integer> ids) {
+        this.symbols = symbols;
+        this.operations = operations;
+        this.ids = ids;
+    }
+
+    /**
+     * Builds a table from symbols to operations; ids follow the map's iteration order,
+     * so pass a LinkedHashMap for stable ids.
+     */
+    public static OperatorTable compile(Map<String, Operation> operators) {
+        if (operators.isEmpty()) {
+            throw new IllegalArgumentException("Operator table is empty");
+        }
+        String[] symbols = new String[operators.size()];
+        Operation[] operations = new Operation[operators.size()];
+        Map<String, Integer> ids = new HashMap<>();
+        int id = 0;
+        for (Map.Entry<String, Operation> entry : operators.entrySet()) {
+            symbols[id] = entry.getKey();
+            operations[id] = entry.getValue();
+            ids.put(entry.getKey(), id++);
+        }
+        return new OperatorTable(symbols, operations, ids);
+    }
+
+    public int size() {
+        return symbols.length;
+    }
+
+    /**
+     * The interned id of an operator symbol.
+     */
+    public int id(String symbol) {
+        Integer id = ids.get(symbol);
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown operator: " + symbol);
+        }
+        return id;
+    }
+
+    public String symbol(int id) {
+        checkId(id);
+        return symbols[id];
+    }
+
+    public Operation operation(int id) {
+        checkId(id);
+        return operations[id];
+    }
+
+    public IntBinaryOperator intOperator(String symbol) {
+        return intOperator(id(symbol));
+    }
+
+    /**
+     * The generated operator for the id; the same instance on every call.
+     */
+    public IntBinaryOperator intOperator(int id) {
+        checkId(id);
+        return (IntBinaryOperator) compiled(Kind.INT).operators()[id];
+    }
+
+    public IntDispatcher intDispatcher() {
+        return (IntDispatcher) compiled(Kind.INT).dispatcher();
+    }
+
+    public DoubleBinaryOperator doubleOperator(String symbol) {
+        return doubleOperator(id(symbol));
+    }
+
+    public DoubleBinaryOperator doubleOperator(int id) {
+        checkId(id);
+        return (DoubleBinaryOperator) compiled(Kind.DOUBLE).operators()[id];
+    }
+
+    public DoubleDispatcher doubleDispatcher() {
+        return (DoubleDispatcher) compiled(Kind.DOUBLE).dispatcher();
+    }
+
+    private void checkId(int id) {
+        if (id < 0 || id >= symbols.length) {
+            throw unknownOperator(id);
+        }
+    }
+
+    /**
+     * Default branch of the generated dispatchers, which are nestmates of this class.
+     */
+    private static IllegalArgumentException unknownOperator(int id) {
+        return new IllegalArgumentException("Unknown operator id: " + id);
+    }
+
+    private Compiled compiled(Kind kind) {
+        Compiled compiled = kind == Kind.INT ? ints : doubles;
+        if (compiled == null) {
+            synchronized (this) {
+                compiled = kind == Kind.INT ? ints : doubles;
+                if (compiled == null) {
+                    compiled = generate(kind);
+                    if (kind == Kind.INT) {
+                        ints = compiled;
+                    } else {
+                        doubles = compiled;
+                    }
+                }
+            }
+        }
+        return compiled;
+    }
+
+    private Compiled generate(Kind kind) {
+        for (int id = 0; id < operations.length; id++) {
+            if (!operations[id].supports(kind.type)) {
+                throw new IllegalArgumentException("Operation " + operations[id].name() + " of '" + symbols[id]
+                    + "' has no " + kind.type + " form");
+            }
+        }
+        Object[] operators = new Object[operations.length];
+        for (int id = 0; id < operations.length; id++) {
+            operators[id] = operatorClass(kind, id);
+        }
+        return new Compiled(operators, dispatcherClass(kind));
+    }
+
+    /**
+     * {@code T applyAsT(T a, T b)}: the operation alone.
+     */
+    private Object operatorClass(Kind kind, int id) {
+        ClassFileWriter writer = newClass(THIS_CLASS + "$$" + kind.type + "$" + id, kind.operatorInterface);
+        String t = kind.descriptor;
+        CodeBuilder code = new CodeBuilder(writer.pool());
+        emitOperation(code, operations[id], t, 1);
+        int slots = Descriptors.slots(t);
+        writer.method(ClassFileWriter.ACC_PUBLIC, kind.operatorMethod, "(" + t + t + ")" + t,
+            List.of(code.toAttribute(2 * slots, 1 + 2 * slots)));
+        return instantiate(writer);
+    }
+
+    /**
+     * {@code T apply(int operator, T a, T b)}: a tableswitch on the id, one case per
+     * operation, and a default that throws.
+     */
+    private Object dispatcherClass(Kind kind) {
+        String name = THIS_CLASS + "$$" + kind.type + "$Dispatcher";
+        ClassFileWriter writer = newClass(name, kind.dispatcherInterface);
+        String t = kind.descriptor;
+        String descriptor = "(I" + t + t + ")" + t;
+        CodeBuilder code = new CodeBuilder(writer.pool());
+        int[] locals = code.entryLocals(name, descriptor, false);
+        int[] empty = new int[0];
+
+        code.load("I", 1);
+        int switchOffset = code.position();
+        int branches = code.tableswitch(0, operations.length - 1);
+        for (int id = 0; id < operations.length; id++) {
+            code.patchU4(branches + 12 + 4 * id, code.position() - switchOffset);
+            code.frame(code.position(), locals, empty);
+            emitOperation(code, operations[id], t, 2);
+        }
+        code.patchU4(branches, code.position() - switchOffset);
+        code.frame(code.position(), locals, empty);
+        code.load("I", 1).invokestatic(THIS_CLASS, "unknownOperator", "(I)Ljava/lang/IllegalArgumentException;");
+        code.op(ATHROW);
+
+        int slots = Descriptors.slots(t);
+        writer.method(ClassFileWriter.ACC_PUBLIC, "apply", descriptor,
+            List.of(code.toAttribute(2 * slots, 2 + 2 * slots)));
+        return instantiate(writer);
+    }
+
+    /**
+     * Loads the operands from {@code firstSlot} on, applies the operation and returns.
+     */
+    private static void emitOperation(CodeBuilder code, Operation operation, String type, int firstSlot) {
+        code.load(type, firstSlot).load(type, firstSlot + Descriptors.slots(type));
+        if (operation.owner() != null) {
+            code.invokestatic(operation.owner().getName().replace('.', '/'), operation.method(),
+                "(" + type + type + ")" + type);
+        } else {
+            code.op(type.equals("I") ? operation.intOpcode() : operation.doubleOpcode());
+        }
+        code.returnValue(type);
+    }
+
+    private static ClassFileWriter newClass(String name, String implemented) {
+        ConstantPoolBuilder pool = new ConstantPoolBuilder();
+        ClassFileWriter writer = new ClassFileWriter(CLASS_VERSION, 0, pool);
+        writer.header(ClassFileWriter.ACC_FINAL | ClassFileWriter.ACC_SUPER | ClassFileWriter.ACC_SYNTHETIC,
+            name, OBJECT, List.of(implemented));
+        CodeBuilder init = new CodeBuilder(pool);
+        init.load("Ljava/lang/Object;", 0).invokespecial(OBJECT, "<init>", "()V").op(CodeBuilder.RETURN);
+        writer.method(ClassFileWriter.ACC_PUBLIC, "<init>", "()V", List.of(init.toAttribute(1, 1)));
+        return writer;
+    }
+
+    private static Object instantiate(ClassFileWriter writer) {
+        try {
+            MethodHandles.Lookup hidden = MethodHandles.lookup().defineHiddenClass(writer.toByteArray(), true,
+                MethodHandles.Lookup.ClassOption.NESTMATE);
+            MethodHandle constructor = hidden.findConstructor(hidden.lookupClass(), MethodType.methodType(void.class));
+            return constructor.invoke();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot define operator class", e);
+        }
+    }
+
+    private static Map<String, Operation> arithmetic() {
+        Map<String, Operation> operators = new LinkedHashMap<>();
+        operators.put("+", Operation.ADD);
+        operators.put("-", Operation.SUBTRACT);
+        operators.put("*", Operation.MULTIPLY);
+        operators.put("/", Operation.DIVIDE);
+        return operators;
+    }
+}
@@ -0,0 +1,182 @@
+package com.javaevolution.classfileapi;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timing probes called by methods rewritten with {@link TimingInstrumentor}.
+ *
+ * Every instrumented method gets a probe when it is instrumented (or, for offline
+ * rewritten classes, when its probe constant is first resolved). The probe holds
+ * striped counters for call count and total time plus a log2 histogram, all allocated
+ * up front, so {@link #record(int, long)} is an array load and three LongAdder adds.
+ *
+ * Histogram bucket {@code b} counts durations in {@code [2^(b-1), 2^b)} nanoseconds,
+ * bucket 0 counts zero durations. Percentiles are reported as the upper bound of
+ * their bucket, so they are accurate to within a factor of two.
+ */
+public final class ProbeRegistry {
+
+    public static final int BUCKETS = 64;
+
+    private static final class Probe {
+        final String method;
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+        Probe(String method) {
+            this.method = method;
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+    }
+
+    /**
+     * A point-in-time copy of one probe.
+     */
+    public record Stats(String method, long count, long totalNanos, long[] histogram) {
+        public double meanNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        /**
+         * Upper bound of the bucket holding the given quantile (0 to 1).
+         */
+        public long percentileNanos(double quantile) {
+            long target = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int b = 0; b < histogram.length; b++) {
+                seen += histogram[b];
+                if (seen >= target && seen > 0) {
+                    return b == 0 ? 0 : b >= 63 ? Long.MAX_VALUE : (1L << b) - 1;
+                }
+            }
+            return 0;
+        }
+    }
+
+    private static final ConcurrentHashMap<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static final Object LOCK = new Object();
+    private static volatile Probe[] probes = new Probe[64];
+    private static int size;
+
+    private ProbeRegistry() {
+    }
+
+    /**
+     * Returns the probe ID of the method, creating the probe on first use.
+     */
+    public static int register(String method) {
+        Integer id = IDS.get(method);
+        if (id != null) {
+            return id;
+        }
+        synchronized (LOCK) {
+            id = IDS.get(method);
+            if (id == null) {
+                Probe[] current = probes;
+                if (size == current.length) {
+                    current = Arrays.copyOf(current, size * 2);
+                }
+                current[size] = new Probe(method);
+                // Publish the probe before its ID can be used
+                probes = current;
+                id = size++;
+                IDS.put(method, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Bootstrap method for the probe ID constant (condy) in offline rewritten classes.
+     */
+    public static int probeId(MethodHandles.Lookup lookup, String name, Class<?> type, String method) {
+        return register(method);
+    }
+
+    /**
+     * Records one call. Called from instrumented code; does not allocate.
+     */
+    public static void record(int id, long nanos) {
+        Probe probe = probes[id];
+        probe.count.increment();
+        probe.totalNanos.add(nanos);
+        probe.histogram[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, nanos)))].increment();
+    }
+
+    public static Stats stats(String method) {
+        Integer id = IDS.get(method);
+        return id == null ? null : snapshot(probes[id]);
+    }
+
+    /**
+     * All probes, most total time first.
+     */
+    public static List<Stats> snapshot() {
+        Probe[] current;
+        int count;
+        synchronized (LOCK) {
+            current = probes;
+            count = size;
+        }
+        List<Stats> stats = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            stats.add(snapshot(current[i]));
+        }
+        stats.sort(Comparator.comparingLong(Stats::totalNanos).reversed());
+        return stats;
+    }
+
+    /**
+     * Clears all counters; probes and their IDs stay registered.
+     */
+    public static void reset() {
+        for (Probe probe : probesSnapshot()) {
+            probe.count.reset();
+            probe.totalNanos.reset();
+            for (LongAdder bucket : probe.histogram) {
+                bucket.reset();
+            }
+        }
+    }
+
+    /**
+     * One line per called method: count, total, mean, p50 and p99.
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-60s %10s %12s %10s %10s %10s%n",
+            "method", "calls", "total ms", "mean us", "p50 us", "p99 us"));
+        for (Stats stats : snapshot()) {
+            if (stats.count() == 0) {
+                continue;
+            }
+            report.append(String.format("%-60s %10d %12.3f %10.3f %10.3f %10.3f%n",
+                stats.method(), stats.count(), stats.totalNanos() / 1e6, stats.meanNanos() / 1e3,
+                stats.percentileNanos(0.5) / 1e3, stats.percentileNanos(0.99) / 1e3));
+        }
+        return report.toString();
+    }
+
+    private static Probe[] probesSnapshot() {
+        synchronized (LOCK) {
+            return Arrays.copyOf(probes, size);
+        }
+    }
+
+    private static Stats snapshot(Probe probe) {
+        long[] histogram = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = probe.histogram[i].sum();
+        }
+        return new Stats(probe.method, probe.count.sum(), probe.totalNanos.sum(), histogram);
+    }
+}
@@ -0,0 +1,551 @@
+package com.javaevolution.classfileapi;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Classpath-wide index of constant pool references: which classes reference a class,
+ * a method, a field or a string literal.
+ *
+ * Built by walking the constant pool of every class. Symbols are de-duplicated, sorted
+ * by their UTF-8 bytes and stored with a posting list of referencing classes, so a
+ * lookup is a binary search (O(log n)) followed by a read of the postings. Method
+ * lookups without a descriptor use the same search as a prefix range.
+ *
+ * The index lives off-heap: in a direct buffer, or in a memory-mapped file written by
+ * {@link #write(Path)}. Opening a file only maps it and reads the header, so later runs
+ * can reuse an index immediately ({@link #openOrBuild(Path, List)}).
+ *
+ * File format (big-endian ints):
+ *
+ * - Header: magic "CPX1", version, source/class/symbol/posting counts, and the offsets
+ *   of the source, class, symbol and posting sections
+ * - Sources and symbols: string tables, {@code int[count + 1]} offsets then UTF-8 bytes
+ * - Classes: {@code int[count]} source IDs, then a string table of internal names
+ * - Postings: {@code int[symbols + 1]} start offsets, then sorted class IDs
+ *
+ * Symbols are the kind's letter followed by the text: {@code Cjava/lang/Thread},
+ * {@code Mjava/lang/Thread.stop()V}, {@code Fjava/lang/System.out:Ljava/io/PrintStream;}
+ * and {@code Shello} for a string literal.
+ */
+public final class ReferenceIndex {
+
+    static final int MAGIC = 0x43505831;
+    static final int VERSION = 1;
+    private static final int HEADER_INTS = 10;
+
+    public enum Kind {
+        CLASS('C'), METHOD('M'), FIELD('F'), STRING('S');
+
+        private final char prefix;
+
+        Kind(char prefix) {
+            this.prefix = prefix;
+        }
+
+        String symbol(String text) {
+            return prefix + text;
+        }
+    }
+
+    /**
+     * A referencing class and the JAR or directory it was found in.
+     */
+    public record Reference(String className, String source) {}
+
+    private final ByteBuffer data;
+    private final int sourceCount;
+    private final int classCount;
+    private final int symbolCount;
+    private final int sourceTable;
+    private final int classTable;
+    private final int symbolTable;
+    private final int postingTable;
+
+    private ReferenceIndex(ByteBuffer data) {
+        this.data = data;
+        if (data.limit() < HEADER_INTS * 4 || data.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a reference index");
+        }
+        if (data.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported reference index version " + data.getInt(4));
+        }
+        this.sourceCount = data.getInt(8);
+        this.classCount = data.getInt(12);
+        this.symbolCount = data.getInt(16);
+        this.sourceTable = data.getInt(24);
+        this.classTable = data.getInt(28);
+        this.symbolTable = data.getInt(32);
+        this.postingTable = data.getInt(36);
+    }
+
+    /**
+     * Maps an index file written by {@link #write(Path)}.
+     */
+    public static ReferenceIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try {
+                return new ReferenceIndex(mapping);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage() + ": " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Opens the index file if it covers exactly this classpath and is newer than every
+     * element of it; otherwise builds the index and writes it to the file.
+     */
+    public static ReferenceIndex openOrBuild(Path file, List<Path> classpath) throws IOException {
+        if (Files.exists(file)) {
+            try {
+                ReferenceIndex existing = open(file);
+                if (existing.sources().equals(sourceNames(classpath))
+                        && isNewerThan(Files.getLastModifiedTime(file), classpath)) {
+                    return existing;
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                // Corrupt or outdated format: rebuild
+            }
+        }
+        ReferenceIndex built = builder().addClasspath(classpath).build();
+        built.write(file);
+        return open(file);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int symbolCount() {
+        return symbolCount;
+    }
+
+    public int classCount() {
+        return classCount;
+    }
+
+    public List<String> sources() {
+        List<String> sources = new ArrayList<>(sourceCount);
+        for (int i = 0; i < sourceCount; i++) {
+            sources.add(string(sourceTable, sourceCount, i));
+        }
+        return sources;
+    }
+
+    /**
+     * Classes whose constant pool contains the symbol, sorted by class name.
+     */
+    public List<Reference> referencesTo(Kind kind, String text) {
+        byte[] key = kind.symbol(text).getBytes(StandardCharsets.UTF_8);
+        int symbol = lowerBound(key);
+        if (symbol == symbolCount || compareSymbol(symbol, key, false) != 0) {
+            return List.of();
+        }
+        return references(symbol, symbol + 1);
+    }
+
+    public List<Reference> referencesToClass(String internalName) {
+        return referencesTo(Kind.CLASS, internalName);
+    }
+
+    /**
+     * Classes calling the method, e.g. {@code callersOf("java/lang/Thread", "stop", "()V")}.
+     */
+    public List<Reference> callersOf(String owner, String name, String descriptor) {
+        return referencesTo(Kind.METHOD, owner + "." + name + descriptor);
+    }
+
+    /**
+     * Classes calling any overload of the method.
+     */
+    public List<Reference> callersOf(String owner, String name) {
+        byte[] prefix = Kind.METHOD.symbol(owner + "." + name + "(").getBytes(StandardCharsets.UTF_8);
+        int from = lowerBound(prefix);
+        int to = from;
+        while (to < symbolCount && compareSymbol(to, prefix, true) == 0) {
+            to++;
+        }
+        return references(from, to);
+    }
+
+    public List<Reference> accessorsOf(String owner, String name, String descriptor) {
+        return referencesTo(Kind.FIELD, owner + "." + name + ":" + descriptor);
+    }
+
+    public List<Reference> usersOfString(String literal) {
+        return referencesTo(Kind.STRING, literal);
+    }
+
+    /**
+     * Symbols of the kind starting with the prefix, e.g. every method of a class.
+     */
+    public List<String> symbols(Kind kind, String prefix) {
+        byte[] key = kind.symbol(prefix).getBytes(StandardCharsets.UTF_8);
+        List<String> symbols = new ArrayList<>();
+        for (int i = lowerBound(key); i < symbolCount && compareSymbol(i, key, true) == 0; i++) {
+            symbols.add(string(symbolTable, symbolCount, i).substring(1));
+        }
+        return symbols;
+    }
+
+    /**
+     * Writes the index atomically: to a temporary file that then replaces the target.
+     */
+    public void write(Path file) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer all = data.duplicate().clear();
+                while (all.hasRemaining()) {
+                    channel.write(all);
+                }
+                channel.force(false);
+            }
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private List<Reference> references(int fromSymbol, int toSymbol) {
+        int starts = postingTable;
+        int ids = postingTable + (symbolCount + 1) * 4;
+        TreeSet<Integer> classIds = new TreeSet<>();
+        for (int s = fromSymbol; s < toSymbol; s++) {
+            int end = data.getInt(starts + (s + 1) * 4);
+            for (int p = data.getInt(starts + s * 4); p < end; p++) {
+                classIds.add(data.getInt(ids + p * 4));
+            }
+        }
+        List<Reference> references = new ArrayList<>(classIds.size());
+        for (int id : classIds) {
+            int source = data.getInt(classTable + id * 4);
+            references.add(new Reference(string(classTable + classCount * 4, classCount, id),
+                string(sourceTable, sourceCount, source)));
+        }
+        references.sort((a, b) -> a.className().compareTo(b.className()));
+        return references;
+    }
+
+    private int lowerBound(byte[] key) {
+        int low = 0;
+        int high = symbolCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareSymbol(mid, key, false) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Compares a stored symbol with the key as unsigned bytes; as a prefix match, only
+     * the first {@code key.length} bytes of the symbol take part.
+     */
+    private int compareSymbol(int symbol, byte[] key, boolean prefix) {
+        int blob = symbolTable + (symbolCount + 1) * 4;
+        int start = blob + data.getInt(symbolTable + symbol * 4);
+        int length = blob + data.getInt(symbolTable + (symbol + 1) * 4) - start;
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int diff = (data.get(start + i) & 0xFF) - (key[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return prefix && length >= key.length ? 0 : length - key.length;
+    }
+
+    private String string(int table, int count, int index) {
+        int blob = table + (count + 1) * 4;
+        int start = data.getInt(table + index * 4);
+        int end = data.getInt(table + (index + 1) * 4);
+        byte[] bytes = new byte[end - start];
+        data.get(blob + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> sourceNames(List<Path> classpath) {
+        return classpath.stream().map(p -> p.toAbsolutePath().normalize().toString()).collect(Collectors.toList());
+    }
+
+    private static boolean isNewerThan(FileTime indexTime, List<Path> classpath) throws IOException {
+        for (Path element : classpath) {
+            if (Files.isDirectory(element)) {
+                try (Stream<Path> files = Files.walk(element)) {
+                    for (Path f : (Iterable<Path>) files::iterator) {
+                        if (Files.getLastModifiedTime(f).compareTo(indexTime) >= 0) {
+                            return false;
+                        }
+                    }
+                }
+            } else if (Files.getLastModifiedTime(element).compareTo(indexTime) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Collects references class by class, then sorts and packs them into a direct buffer.
+     * Not thread safe; {@link #addClasspath(List)} parses in parallel internally.
+     */
+    public static final class Builder {
+
+        private record ClassSymbols(String className, List<String> symbols) {}
+
+        private final List<String> sources = new ArrayList<>();
+        private final List<String> classNames = new ArrayList<>();
+        private int[] classSources = new int[256];
+        private final Map<String, Integer> symbolIds = new HashMap<>();
+        private final List<String> symbols = new ArrayList<>();
+        // (symbolId << 32) | classId, one per reference
+        private long[] references = new long[1024];
+        private int referenceCount;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds one class found in the named source.
+         */
+        public Builder addClass(String source, ClassFileView view) {
+            add(sourceId(source), symbolsOf(view));
+            return this;
+        }
+
+        /**
+         * Adds JARs and class directories, parsing the classes of each in parallel.
+         */
+        public Builder addClasspath(List<Path> classpath) throws IOException {
+            List<String> names = sourceNames(classpath);
+            for (int i = 0; i < classpath.size(); i++) {
+                Path element = classpath.get(i);
+                List<Supplier<ByteBuffer>> classes = new ArrayList<>();
+                if (Files.isDirectory(element)) {
+                    try (Stream<Path> files = Files.walk(element)) {
+                        files.filter(f -> f.toString().endsWith(".class"))
+                            .forEach(f -> classes.add(() -> readFile(f)));
+                    }
+                } else {
+                    MappedJar jar = MappedJar.open(element);
+                    for (MappedJar.Entry entry : jar.classEntries()) {
+                        classes.add(() -> jar.readUnchecked(entry));
+                    }
+                }
+                List<ClassSymbols> parsed;
+                try {
+                    parsed = classes.parallelStream()
+                        .map(bytes -> symbolsOf(ClassFileView.of(bytes.get())))
+                        .collect(Collectors.toList());
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                int source = sourceId(names.get(i));
+                for (ClassSymbols symbols : parsed) {
+                    add(source, symbols);
+                }
+            }
+            return this;
+        }
+
+        public ReferenceIndex build() {
+            int symbolCount = symbols.size();
+            byte[][] encoded = new byte[symbolCount][];
+            Integer[] order = new Integer[symbolCount];
+            for (int i = 0; i < symbolCount; i++) {
+                encoded[i] = symbols.get(i).getBytes(StandardCharsets.UTF_8);
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(encoded[a], encoded[b]));
+            int[] rank = new int[symbolCount];
+            byte[][] sorted = new byte[symbolCount][];
+            for (int i = 0; i < symbolCount; i++) {
+                rank[order[i]] = i;
+                sorted[i] = encoded[order[i]];
+            }
+
+            long[] refs = Arrays.copyOf(references, referenceCount);
+            for (int i = 0; i < refs.length; i++) {
+                refs[i] = ((long) rank[(int) (refs[i] >>> 32)] << 32) | (refs[i] & 0xFFFFFFFFL);
+            }
+            Arrays.sort(refs);
+            int postings = 0;
+            for (int i = 0; i < refs.length; i++) {
+                if (i == 0 || refs[i] != refs[i - 1]) {
+                    refs[postings++] = refs[i];
+                }
+            }
+
+            byte[][] sourceBytes = encodeAll(sources);
+            byte[][] classBytes = encodeAll(classNames);
+            int sourceTable = HEADER_INTS * 4;
+            int classTable = sourceTable + stringTableSize(sourceBytes);
+            int symbolTable = classTable + classNames.size() * 4 + stringTableSize(classBytes);
+            int postingTable = symbolTable + stringTableSize(sorted);
+            long size = postingTable + (symbolCount + 1) * 4L + postings * 4L;
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Reference index larger than 2 GB");
+            }
+
+            ByteBuffer out = ByteBuffer.allocateDirect((int) size);
+            out.putInt(MAGIC).putInt(VERSION)
+                .putInt(sources.size()).putInt(classNames.size()).putInt(symbolCount).putInt(postings)
+                .putInt(sourceTable).putInt(classTable).putInt(symbolTable).putInt(postingTable);
+            putStringTable(out, sourceBytes);
+            for (int i = 0; i < classNames.size(); i++) {
+                out.putInt(classSources[i]);
+            }
+            putStringTable(out, classBytes);
+            putStringTable(out, sorted);
+            int p = 0;
+            for (int s = 0; s <= symbolCount; s++) {
+                out.putInt(p);
+                while (p < postings && (int) (refs[p] >>> 32) == s) {
+                    p++;
+                }
+            }
+            for (int i = 0; i < postings; i++) {
+                out.putInt((int) refs[i]);
+            }
+            return new ReferenceIndex(out.clear());
+        }
+
+        private void add(int source, ClassSymbols classSymbols) {
+            int classId = classNames.size();
+            classNames.add(classSymbols.className());
+            if (classId == classSources.length) {
+                classSources = Arrays.copyOf(classSources, classId * 2);
+            }
+            classSources[classId] = source;
+            for (String symbol : classSymbols.symbols()) {
+                Integer id = symbolIds.get(symbol);
+                if (id == null) {
+                    id = symbols.size();
+                    symbols.add(symbol);
+                    symbolIds.put(symbol, id);
+                }
+                if (referenceCount == references.length) {
+                    references = Arrays.copyOf(references, referenceCount * 2);
+                }
+                references[referenceCount++] = ((long) id << 32) | classId;
+            }
+        }
+
+        private int sourceId(String source) {
+            int id = sources.indexOf(source);
+            if (id < 0) {
+                id = sources.size();
+                sources.add(source);
+            }
+            return id;
+        }
+
+        private static ClassSymbols symbolsOf(ClassFileView view) {
+            String self = view.thisClass();
+            List<String> found = new ArrayList<>();
+            for (int i = 1; i < view.constantPoolCount(); i++) {
+                int offset = view.entryOffset(i);
+                switch (view.tag(i)) {
+                    case ClassFileView.CONSTANT_CLASS: {
+                        String name = elementClass(view.className(i));
+                        if (name != null && !name.equals(self)) {
+                            found.add(Kind.CLASS.symbol(name));
+                        }
+                        break;
+                    }
+                    case ClassFileView.CONSTANT_METHODREF:
+                    case ClassFileView.CONSTANT_INTERFACE_METHODREF:
+                        found.add(Kind.METHOD.symbol(memberRef(view, offset, "")));
+                        break;
+                    case ClassFileView.CONSTANT_FIELDREF:
+                        found.add(Kind.FIELD.symbol(memberRef(view, offset, ":")));
+                        break;
+                    case ClassFileView.CONSTANT_STRING:
+                        found.add(Kind.STRING.symbol(view.utf8(view.u2(offset + 1))));
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return new ClassSymbols(self, found);
+        }
+
+        private static String memberRef(ClassFileView view, int offset, String separator) {
+            int nameAndType = view.entryOffset(view.u2(offset + 3));
+            return view.className(view.u2(offset + 1)) + "." + view.utf8(view.u2(nameAndType + 1))
+                + separator + view.utf8(view.u2(nameAndType + 3));
+        }
+
+        /**
+         * The class of an array type, or null for arrays of primitives.
+         */
+        private static String elementClass(String name) {
+            if (name.charAt(0) != '[') {
+                return name;
+            }
+            int start = name.lastIndexOf('[') + 1;
+            return name.charAt(start) == 'L' ? name.substring(start + 1, name.length() - 1) : null;
+        }
+
+        private static ByteBuffer readFile(Path file) {
+            try {
+                return ByteBuffer.wrap(Files.readAllBytes(file));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static byte[][] encodeAll(List<String> strings) {
+            byte[][] encoded = new byte[strings.size()][];
+            for (int i = 0; i < encoded.length; i++) {
+                encoded[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+            }
+            return encoded;
+        }
+
+        private static int stringTableSize(byte[][] strings) {
+            int size = (strings.length + 1) * 4;
+            for (byte[] s : strings) {
+                size += s.length;
+            }
+            return size;
+        }
+
+        private static void putStringTable(ByteBuffer out, byte[][] strings) {
+            int offset = 0;
+            out.putInt(0);
+            for (byte[] s : strings) {
+                offset += s.length;
+                out.putInt(offset);
+            }
+            for (byte[] s : strings) {
+                out.put(s);
+            }
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.javaevolution.classfileapi;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Startup profile of an application JAR, turned into a class-data sharing archive.
+ *
+ * 1. Training run: the application runs once with {@code -XX:DumpLoadedClassList}, which
+ *    writes every class it loads in the format {@code -XX:SharedClassListFile} reads
+ * 2. The application classes that were loaded lose their local variable tables (and line
+ *    numbers, if asked) through {@link ClassFileAPIExample.ClassTransformer#transformAll}
+ * 3. The result is packaged as a JAR (CDS only archives classes from JARs) and an AppCDS
+ *    archive is dumped from the class list
+ * 4. The application is timed, process start to exit, from the original JAR and from
+ *    the new JAR with the archive
+ *
+ * The application must exit by itself after its startup work, so the training run and
+ * the timed runs end.
+ *
+ * In Java 25+ the AOT cache (JEP 483, one-step training with {@code -XX:AOTCacheOutput}
+ * from JEP 514) also keeps classes linked and profiled; {@link Commands} includes those
+ * command lines. Note: Running on Java 17, so the archive built and timed here is AppCDS.
+ */
+public final class StartupProfiler {
+
+    private static final String CLASS_LIST = "app.classlist";
+    private static final String ARCHIVE = "app.jsa";
+    private static final String AOT_CACHE = "app.aot";
+    private static final String MANIFEST = "META-INF/MANIFEST.MF";
+
+    /**
+     * Command lines for the training run, the archive dump and the archived run, plus the
+     * JDK 25 AOT cache equivalents.
+     */
+    public record Commands(List<String> training, List<String> dump, List<String> baselineRun,
+                           List<String> archivedRun, List<String> aotTraining, List<String> aotRun) {
+
+        public String format() {
+            return String.join("\n",
+                "# AppCDS",
+                String.join(" ", training),
+                String.join(" ", dump),
+                String.join(" ", archivedRun),
+                "# JDK 25 AOT cache",
+                String.join(" ", aotTraining),
+                String.join(" ", aotRun));
+        }
+    }
+
+    /**
+     * Outcome of {@link #profile(int)}. Byte counts cover the application classes that
+     * were loaded during training; durations are medians over the timed runs.
+     */
+    public record Report(int loadedClasses, int applicationClasses, long classBytesBefore, long classBytesAfter,
+                         Duration baseline, Duration archived, Path jar, Path archive, Commands commands) {
+
+        public String format() {
+            return String.format(
+                "Loaded classes: %d (%d from the application)%n"
+                    + "Application class bytes: %d -> %d%n"
+                    + "Startup: %d ms -> %d ms%n"
+                    + "%s%n",
+                loadedClasses, applicationClasses, classBytesBefore, classBytesAfter,
+                baseline.toMillis(), archived.toMillis(), commands.format());
+        }
+    }
+
+    private final Path applicationJar;
+    private final String mainClass;
+    private final List<String> arguments;
+    private final Path workDirectory;
+    private final boolean stripLineNumbers;
+    private final String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+    public StartupProfiler(Path applicationJar, String mainClass, List<String> arguments, Path workDirectory) {
+        this(applicationJar, mainClass, arguments, workDirectory, false);
+    }
+
+    /**
+     * @param stripLineNumbers also remove line numbers and source file names, at the cost
+     *                         of stack traces without line information
+     * @throws IllegalArgumentException if the application is not a JAR file
+     */
+    public StartupProfiler(Path applicationJar, String mainClass, List<String> arguments, Path workDirectory,
+                           boolean stripLineNumbers) {
+        if (!Files.isRegularFile(applicationJar)) {
+            throw new IllegalArgumentException("Not a JAR file: " + applicationJar);
+        }
+        this.applicationJar = applicationJar.toAbsolutePath();
+        this.mainClass = mainClass;
+        this.arguments = List.copyOf(arguments);
+        this.workDirectory = workDirectory.toAbsolutePath();
+        this.stripLineNumbers = stripLineNumbers;
+    }
+
+    /**
+     * The rewritten application JAR, in the work directory.
+     */
+    public Path optimizedJar() {
+        String name = applicationJar.getFileName().toString();
+        return workDirectory.resolve(name.substring(0, name.length() - ".jar".length()) + "-startup.jar");
+    }
+
+    public Commands commands() {
+        String classList = workDirectory.resolve(CLASS_LIST).toString();
+        String archive = workDirectory.resolve(ARCHIVE).toString();
+        String aotCache = workDirectory.resolve(AOT_CACHE).toString();
+        String jar = optimizedJar().toString();
+        return new Commands(
+            launch(applicationJar.toString(), "-XX:DumpLoadedClassList=" + classList),
+            List.of(java, "-Xshare:dump", "-XX:SharedClassListFile=" + classList, "-XX:SharedArchiveFile=" + archive,
+                "-cp", jar),
+            launch(applicationJar.toString()),
+            launch(jar, "-XX:SharedArchiveFile=" + archive),
+            launch(jar, "-XX:AOTCacheOutput=" + aotCache),
+            launch(jar, "-XX:AOTCache=" + aotCache));
+    }
+
+    private List<String> launch(String classpath, String... options) {
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(Arrays.asList(options));
+        command.add("-cp");
+        command.add(classpath);
+        command.add(mainClass);
+        command.addAll(arguments);
+        return command;
+    }
+
+    /**
+     * Runs the training run and returns the internal names of the classes it loaded.
+     */
+    public List<String> recordLoadedClasses() throws IOException {
+        Files.createDirectories(workDirectory);
+        run("training", commands().training());
+        return parseClassList(Files.readAllLines(workDirectory.resolve(CLASS_LIST)));
+    }
+
+    /**
+     * Class names from a {@code DumpLoadedClassList} file, skipping comments and the
+     * {@code @}-directives for lambda proxies and invokers.
+     */
+    static List<String> parseClassList(List<String> lines) {
+        List<String> classes = new ArrayList<>();
+        for (String line : lines) {
+            if (line.isBlank() || line.startsWith("#") || line.startsWith("@")) {
+                continue;
+            }
+            int end = line.indexOf(' ');
+            classes.add(end < 0 ? line : line.substring(0, end));
+        }
+        return classes;
+    }
+
+    /**
+     * Internal names of the classes in the application JAR, read with
+     * {@link ClassFileAPIExample.ClassFileReader#scanJar}.
+     */
+    public Set<String> applicationClasses() throws IOException {
+        return new ClassFileAPIExample.ClassFileReader().scanJar(applicationJar).stream()
+            .map(ClassFileAPIExample.ClassFileReader.ClassInfo::name)
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * Strips the debug attributes of the given classes and packages the whole application
+     * into {@link #optimizedJar()}. Unchanged since the last call, the classes are not
+     * rewritten again.
+     */
+    public Path writeOptimizedJar(Collection<String> classesToStrip) throws IOException {
+        Set<String> selected = new TreeSet<>(classesToStrip);
+        ClassTransform strip = ClassTransform.stripDebug(stripLineNumbers);
+        ClassTransform loadedOnly = new ClassTransform() {
+            @Override
+            public String id() {
+                return strip.id() + "@" + Integer.toHexString(selected.hashCode());
+            }
+
+            @Override
+            public byte[] transform(String className, byte[] classBytes) {
+                return selected.contains(className) ? strip.transform(className, classBytes) : null;
+            }
+        };
+        Path classes = workDirectory.resolve("classes");
+        new ClassFileAPIExample.ClassTransformer().transformAll(applicationJar, classes,
+            workDirectory.resolve("transform-cache.bin"), List.of(loadedOnly));
+        writeJar(classes, optimizedJar());
+        return optimizedJar();
+    }
+
+    /**
+     * Manifest first, then every other file in name order; signature files are left out.
+     */
+    private static void writeJar(Path classes, Path jar) throws IOException {
+        List<String> names;
+        try (Stream<Path> files = Files.walk(classes)) {
+            names = files.filter(Files::isRegularFile)
+                .map(f -> classes.relativize(f).toString().replace(File.separatorChar, '/'))
+                .filter(name -> !TimingInstrumentor.isSignatureFile(name))
+                .sorted(Comparator.comparing((String name) -> !name.equals(MANIFEST)).thenComparing(name -> name))
+                .collect(Collectors.toList());
+        }
+        Path temp = Files.createTempFile(jar.getParent(), jar.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream file = Files.newOutputStream(temp);
+                 JarOutputStream out = new JarOutputStream(file)) {
+                for (String name : names) {
+                    out.putNextEntry(new JarEntry(name));
+                    Files.copy(classes.resolve(name), out);
+                    out.closeEntry();
+                }
+            }
+            Files.move(temp, jar, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Dumps the AppCDS archive from the recorded class list and the optimized JAR.
+     */
+    public Path dumpArchive() throws IOException {
+        run("dump", commands().dump());
+        return workDirectory.resolve(ARCHIVE);
+    }
+
+    /**
+     * Training run, rewrite, archive dump, then {@code runs} timed runs of each variant
+     * after one untimed warm-up run each.
+     */
+    public Report profile(int runs) throws IOException {
+        if (runs < 1) {
+            throw new IllegalArgumentException("runs must be at least 1: " + runs);
+        }
+        List<String> loaded = recordLoadedClasses();
+        Set<String> application = applicationClasses();
+        Set<String> loadedApplication = new HashSet<>(loaded);
+        loadedApplication.retainAll(application);
+
+        writeOptimizedJar(loadedApplication);
+        Path archive = dumpArchive();
+
+        long before = 0;
+        long after = 0;
+        MappedJar original = MappedJar.open(applicationJar);
+        Path classes = workDirectory.resolve("classes");
+        for (MappedJar.Entry entry : original.classEntries()) {
+            String name = entry.name().substring(0, entry.name().length() - ".class".length());
+            if (loadedApplication.contains(name)) {
+                before += entry.size();
+                after += Files.size(classes.resolve(entry.name()));
+            }
+        }
+
+        Commands commands = commands();
+        run("baseline", commands.baselineRun());
+        run("archived", commands.archivedRun());
+        long[] baseline = new long[runs];
+        long[] archived = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            baseline[i] = run("baseline", commands.baselineRun());
+            archived[i] = run("archived", commands.archivedRun());
+        }
+        return new Report(loaded.size(), loadedApplication.size(), before, after,
+            Duration.ofNanos(median(baseline)), Duration.ofNanos(median(archived)), optimizedJar(), archive,
+            commands);
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    /**
+     * Runs a command to completion, output going to {@code <step>.log} in the work directory.
+     *
+     * @return the wall-clock time from start to exit, in nanoseconds
+     */
+    private long run(String step, List<String> command) throws IOException {
+        Path log = workDirectory.resolve(step + ".log");
+        ProcessBuilder builder = new ProcessBuilder(command)
+            .directory(workDirectory.toFile())
+            .redirectErrorStream(true)
+            .redirectOutput(log.toFile());
+        long start = System.nanoTime();
+        Process process = builder.start();
+        try {
+            int exit = process.waitFor();
+            long elapsed = System.nanoTime() - start;
+            if (exit != 0) {
+                List<String> output = Files.readAllLines(log);
+                throw new IOException(step + " run failed with exit code " + exit + ": "
+                    + String.join("\n", output.subList(Math.max(0, output.size() - 20), output.size())));
+            }
+            return elapsed;
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(step + " run interrupted");
+        }
+    }
+
+    /**
+     * {@code StartupProfiler app.jar com.example.Main work-dir [runs] [-- app arguments]}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: StartupProfiler <app.jar> <main class> <work dir> [runs] [-- args...]");
+            System.exit(2);
+        }
+        int separator = Arrays.asList(args).indexOf("--");
+        List<String> options = Arrays.asList(args).subList(0, separator < 0 ? args.length : separator);
+        List<String> appArguments =
+            separator < 0 ? List.of() : Arrays.asList(args).subList(separator + 1, args.length);
+        int runs = options.size() > 3 ? Integer.parseInt(options.get(3)) : 5;
+        StartupProfiler profiler = new StartupProfiler(Path.of(options.get(0)), options.get(1), appArguments,
+            Path.of(options.get(2)));
+        System.out.print(profiler.profile(runs).format());
+    }
+}
@@ -0,0 +1,79 @@
+package com.javaevolution.classfileapi;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.Instrumentation;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * java.lang.instrument agent that times methods with {@link TimingInstrumentor} as classes load.
+ *
+ * Usage: {@code java -javaagent:Java25.jar=com.example.service,com.example.db -jar app.jar}
+ *
+ * The agent argument is a comma-separated list of class name prefixes; without one,
+ * every application class is instrumented. JDK classes and the instrumentation
+ * classes themselves are never touched. The report is printed to stderr on exit.
+ *
+ * Probe IDs are assigned while transforming, so the wrappers carry them as constants
+ * and recording costs an array load and three LongAdder adds per call.
+ */
+public final class TimingAgent implements ClassFileTransformer {
+
+    private static final String[] EXCLUDED = {
+        "java/", "javax/", "jdk/", "sun/", "com/sun/", "com/javaevolution/classfileapi/"
+    };
+
+    private final TimingInstrumentor instrumentor;
+
+    TimingAgent(List<String> prefixes) {
+        this.instrumentor = new TimingInstrumentor(TimingInstrumentor.classPrefixFilter(prefixes), false);
+    }
+
+    public static void premain(String args, Instrumentation instrumentation) {
+        install(args, instrumentation);
+    }
+
+    public static void agentmain(String args, Instrumentation instrumentation) {
+        install(args, instrumentation);
+    }
+
+    private static void install(String args, Instrumentation instrumentation) {
+        List<String> prefixes = new ArrayList<>();
+        if (args != null) {
+            for (String prefix : args.split(",")) {
+                if (!prefix.isBlank()) {
+                    prefixes.add(prefix.trim());
+                }
+            }
+        }
+        instrumentation.addTransformer(new TimingAgent(prefixes));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.err.print(ProbeRegistry.report()),
+            "timing-agent-report"));
+    }
+
+    @Override
+    public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined,
+                            ProtectionDomain protectionDomain, byte[] classfileBuffer) {
+        // Redefinition may not add methods, and bootstrap classes cannot see ProbeRegistry
+        if (className == null || classBeingRedefined != null || loader == null || isExcluded(className)) {
+            return null;
+        }
+        try {
+            return instrumentor.instrument(classfileBuffer);
+        } catch (RuntimeException e) {
+            // Never fail class loading because of instrumentation
+            System.err.println("timing agent: skipped " + className + ": " + e);
+            return null;
+        }
+    }
+
+    private static boolean isExcluded(String className) {
+        for (String prefix : EXCLUDED) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
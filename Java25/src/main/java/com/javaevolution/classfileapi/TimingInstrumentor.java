@@ -0,0 +1,348 @@
+package com.javaevolution.classfileapi;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Rewrites class files so that selected methods report their wall-clock time to {@link ProbeRegistry}.
+ *
+ * Each selected method {@code m} is renamed to {@code m$timed} and made private, and a
+ * new method {@code m} with the original signature, flags and annotations calls it:
+ *
+ * <pre>
+ * long start = System.nanoTime();
+ * try {
+ *     return m$timed(args);
+ * } finally {
+ *     ProbeRegistry.record(probeId, System.nanoTime() - start);
+ * }
+ * </pre>
+ *
+ * Wrapping leaves the original code untouched, so no branch offsets, exception
+ * tables or stack maps of user code need to be rewritten. Only the wrapper needs
+ * one stack map frame, at its exception handler.
+ *
+ * The probe ID is either baked into the wrapper as an int constant (in-process
+ * instrumentation, where the registry that assigned it is the one that records), or
+ * loaded from a dynamically computed constant that registers the probe on first
+ * resolution (offline rewriting, Java 11+ class files only).
+ *
+ * Not instrumented: constructors, static initializers, abstract, native, bridge and
+ * synthetic methods, and interfaces.
+ *
+ * In Java 25+ the same rewrite is a {@code ClassTransform} passed to
+ * {@code ClassFile.of().transformClass(classModel, transform)}.
+ *
+ * Note: Running on Java 17, so the class is rewritten with {@link ClassFileView} and
+ * {@link ClassFileWriter}.
+ */
+public final class TimingInstrumentor {
+
+    public static final String SUFFIX = "$timed";
+
+    private static final String REGISTRY = "com/javaevolution/classfileapi/ProbeRegistry";
+    private static final String PROBE_ID_BOOTSTRAP =
+        "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;Ljava/lang/String;)I";
+    private static final int CONDY_MIN_VERSION = 55;
+    private static final int STACK_MAP_MIN_VERSION = 50;
+    private static final int SKIPPED = ClassFileWriter.ACC_ABSTRACT | ClassFileWriter.ACC_NATIVE
+        | ClassFileWriter.ACC_BRIDGE | ClassFileWriter.ACC_SYNTHETIC;
+
+    /**
+     * Selects the methods to instrument.
+     */
+    @FunctionalInterface
+    public interface MethodFilter {
+        boolean test(String className, String methodName, String descriptor);
+
+        static MethodFilter all() {
+            return (className, methodName, descriptor) -> true;
+        }
+    }
+
+    private final MethodFilter filter;
+    private final boolean offline;
+
+    /**
+     * @param offline true to resolve probe IDs when the rewritten class runs, in whatever
+     *                JVM that is; false to assign them now, in this JVM
+     */
+    public TimingInstrumentor(MethodFilter filter, boolean offline) {
+        this.filter = filter;
+        this.offline = offline;
+    }
+
+    /**
+     * Probe name of a method, as used by {@link ProbeRegistry#stats(String)}.
+     */
+    public static String probeName(String internalClassName, String methodName, String descriptor) {
+        return internalClassName.replace('/', '.') + "." + methodName + descriptor;
+    }
+
+    /**
+     * Returns the instrumented class, or null if no method was selected or the class
+     * cannot be instrumented.
+     */
+    public byte[] instrument(byte[] classBytes) {
+        return instrument(ClassFileView.of(classBytes));
+    }
+
+    public byte[] instrument(ClassFileView view) {
+        if ((view.accessFlags() & (ClassFileWriter.ACC_INTERFACE | ClassFileWriter.ACC_MODULE)) != 0
+                || (offline && view.majorVersion() < CONDY_MIN_VERSION)) {
+            return null;
+        }
+        String className = view.thisClass();
+        List<ClassFileView.Member> methods = view.methods();
+        List<ClassFileView.Member> selected = new ArrayList<>();
+        for (ClassFileView.Member method : methods) {
+            String name = view.name(method);
+            if (name.endsWith(SUFFIX)) {
+                return null;  // already instrumented
+            }
+            if ((method.accessFlags() & SKIPPED) == 0 && name.charAt(0) != '<'
+                    && filter.test(className, name, view.descriptor(method))) {
+                selected.add(method);
+            }
+        }
+        if (selected.isEmpty()) {
+            return null;
+        }
+
+        ConstantPoolBuilder pool = new ConstantPoolBuilder(view);
+        ClassFileWriter writer = new ClassFileWriter(view.majorVersion(), view.minorVersion(), pool);
+        int header = view.constantPoolEnd();
+        int[] interfaces = new int[view.interfaceCount()];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaces[i] = view.u2(header + 8 + i * 2);
+        }
+        writer.header(view.accessFlags(), view.u2(header + 2), view.u2(header + 4), interfaces);
+        for (ClassFileView.Member field : view.fields()) {
+            writer.field(view.bytes(field.offset(), field.end() - field.offset()));
+        }
+
+        List<byte[]> bootstrapMethods = new ArrayList<>();
+        ClassFileView.Attribute existingBootstraps = view.findAttribute(view.attributes(), "BootstrapMethods");
+        int firstBootstrap = existingBootstraps == null ? 0 : view.u2(existingBootstraps.offset());
+        for (ClassFileView.Member method : methods) {
+            if (!selected.contains(method)) {
+                writer.method(view.bytes(method.offset(), method.end() - method.offset()));
+                continue;
+            }
+            String name = view.name(method);
+            String descriptor = view.descriptor(method);
+            String probe = probeName(className, name, descriptor);
+            int probeConstant;
+            if (offline) {
+                bootstrapMethods.add(probeBootstrap(pool, probe));
+                probeConstant = pool.dynamic(firstBootstrap + bootstrapMethods.size() - 1, "probeId", "I");
+            } else {
+                probeConstant = -1 - ProbeRegistry.register(probe);
+            }
+            renameOriginal(view, method, pool, writer);
+            writeWrapper(view, method, className, name, descriptor, probeConstant, pool, writer);
+        }
+
+        for (ClassFileView.Attribute attribute : view.attributes()) {
+            if (attribute.equals(existingBootstraps) && !bootstrapMethods.isEmpty()) {
+                continue;
+            }
+            writer.attribute(view.bytes(attribute.headerOffset(), attribute.length() + 6));
+        }
+        if (!bootstrapMethods.isEmpty()) {
+            writer.attribute(bootstrapMethodsAttribute(view, existingBootstraps, bootstrapMethods, pool));
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Keeps the original code under a private synthetic name; other attributes move to the wrapper.
+     */
+    private static void renameOriginal(ClassFileView view, ClassFileView.Member method,
+                                       ConstantPoolBuilder pool, ClassFileWriter writer) {
+        int access = method.accessFlags()
+            & ~(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_PROTECTED | ClassFileWriter.ACC_VARARGS);
+        access |= ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_SYNTHETIC;
+        ClassFileView.Attribute code = view.findAttribute(method.attributes(), "Code");
+        writer.method(ClassFileWriter.member(access, pool.utf8(view.name(method) + SUFFIX), method.descriptorIndex(),
+            List.of(view.bytes(code.headerOffset(), code.length() + 6))));
+    }
+
+    private static void writeWrapper(ClassFileView view, ClassFileView.Member method, String className,
+                                     String name, String descriptor, int probeConstant,
+                                     ConstantPoolBuilder pool, ClassFileWriter writer) {
+        boolean isStatic = (method.accessFlags() & ClassFileWriter.ACC_STATIC) != 0;
+        int firstParameter = isStatic ? 0 : 1;
+        int startSlot = firstParameter + Descriptors.parameterSlots(descriptor);
+        String returnType = Descriptors.returnType(descriptor);
+
+        CodeBuilder code = new CodeBuilder(pool);
+        code.invokestatic("java/lang/System", "nanoTime", "()J");
+        code.store("J", startSlot);
+        int tryStart = code.position();
+        if (isStatic) {
+            code.loadParameters(descriptor, 0);
+            code.invokestatic(className, name + SUFFIX, descriptor);
+        } else {
+            code.load("L" + className + ";", 0);
+            code.loadParameters(descriptor, 1);
+            code.invokespecial(className, name + SUFFIX, descriptor);
+        }
+        emitRecord(code, probeConstant, startSlot);
+        code.returnValue(returnType);
+        int handler = code.position();
+        emitRecord(code, probeConstant, startSlot);
+        code.op(CodeBuilder.ATHROW);
+        code.handler(tryStart, handler, handler, null);
+
+        if (view.majorVersion() >= STACK_MAP_MIN_VERSION) {
+            int[] entry = code.entryLocals(className, descriptor, isStatic);
+            int[] locals = Arrays.copyOf(entry, entry.length + 1);
+            locals[entry.length] = CodeBuilder.ITEM_LONG;
+            code.frame(handler, locals, new int[] {code.objectType("java/lang/Throwable")});
+        }
+
+        // Return value (at most 2 slots) or the exception, then probe ID and two longs
+        int maxStack = Math.max(firstParameter + Descriptors.parameterSlots(descriptor), 2 + 1 + 2 + 2);
+        List<byte[]> attributes = new ArrayList<>();
+        attributes.add(code.toAttribute(maxStack, startSlot + 2));
+        for (ClassFileView.Attribute attribute : method.attributes()) {
+            if (!view.utf8Equals(attribute.nameIndex(), "Code")) {
+                attributes.add(view.bytes(attribute.headerOffset(), attribute.length() + 6));
+            }
+        }
+        // The original keeps the monitor, so the wrapper does not lock twice
+        int access = method.accessFlags() & ~ClassFileWriter.ACC_SYNCHRONIZED;
+        writer.method(ClassFileWriter.member(access, method.nameIndex(), method.descriptorIndex(), attributes));
+    }
+
+    /**
+     * Emits {@code ProbeRegistry.record(id, System.nanoTime() - start)}.
+     * A negative probe constant is a baked-in ID, encoded as {@code -1 - id}.
+     */
+    private static void emitRecord(CodeBuilder code, int probeConstant, int startSlot) {
+        if (probeConstant < 0) {
+            code.pushInt(-1 - probeConstant);
+        } else {
+            code.ldc(probeConstant);
+        }
+        code.invokestatic("java/lang/System", "nanoTime", "()J");
+        code.load("J", startSlot);
+        code.op(CodeBuilder.LSUB);
+        code.invokestatic(REGISTRY, "record", "(IJ)V");
+    }
+
+    private static byte[] probeBootstrap(ConstantPoolBuilder pool, String probe) {
+        int handle = pool.methodHandle(ConstantPoolBuilder.REF_INVOKE_STATIC,
+            pool.methodRef(REGISTRY, "probeId", PROBE_ID_BOOTSTRAP));
+        ByteArrayOutputStream entry = new ByteArrayOutputStream(6);
+        ClassFileWriter.writeU2(entry, handle);
+        ClassFileWriter.writeU2(entry, 1);
+        ClassFileWriter.writeU2(entry, pool.string(probe));
+        return entry.toByteArray();
+    }
+
+    /**
+     * The existing bootstrap methods, unchanged so their indices stay valid, followed by the new ones.
+     */
+    private static byte[] bootstrapMethodsAttribute(ClassFileView view, ClassFileView.Attribute existing,
+                                                    List<byte[]> added, ConstantPoolBuilder pool) {
+        ByteArrayOutputStream info = new ByteArrayOutputStream();
+        int existingCount = existing == null ? 0 : view.u2(existing.offset());
+        ClassFileWriter.writeU2(info, existingCount + added.size());
+        if (existing != null) {
+            info.write(view.bytes(existing.offset() + 2, existing.length() - 2), 0, existing.length() - 2);
+        }
+        for (byte[] entry : added) {
+            info.write(entry, 0, entry.length);
+        }
+        return ClassFileWriter.attribute(pool.utf8("BootstrapMethods"), info.toByteArray());
+    }
+
+    /**
+     * Rewrites a JAR, instrumenting every method of the classes whose names start with one
+     * of the prefixes (all classes if none are given). Signature files are dropped, since
+     * the rewritten classes no longer match them.
+     *
+     * @return the number of classes instrumented
+     */
+    public int instrumentJar(Path input, Path output) throws IOException {
+        MappedJar jar = MappedJar.open(input);
+        int instrumented = 0;
+        try (OutputStream file = Files.newOutputStream(output);
+             ZipOutputStream out = new ZipOutputStream(file)) {
+            for (MappedJar.Entry entry : jar.entries()) {
+                if (isSignatureFile(entry.name())) {
+                    continue;
+                }
+                ByteBuffer data = jar.read(entry);
+                byte[] bytes = new byte[data.remaining()];
+                data.get(data.position(), bytes);
+                if (entry.isClass() && !entry.name().endsWith("module-info.class")) {
+                    byte[] rewritten = instrument(bytes);
+                    if (rewritten != null) {
+                        bytes = rewritten;
+                        instrumented++;
+                    }
+                }
+                out.putNextEntry(new ZipEntry(entry.name()));
+                out.write(bytes);
+                out.closeEntry();
+            }
+        }
+        return instrumented;
+    }
+
+    static boolean isSignatureFile(String name) {
+        if (!name.startsWith("META-INF/") || name.indexOf('/', 9) >= 0) {
+            return false;
+        }
+        return name.endsWith(".SF") || name.endsWith(".RSA") || name.endsWith(".DSA") || name.endsWith(".EC");
+    }
+
+    /**
+     * Selects the classes whose dotted names start with one of the prefixes; all if none.
+     */
+    public static MethodFilter classPrefixFilter(List<String> prefixes) {
+        List<String> internal = new ArrayList<>();
+        for (String prefix : prefixes) {
+            internal.add(prefix.replace('.', '/'));
+        }
+        return (className, methodName, descriptor) -> {
+            if (internal.isEmpty()) {
+                return true;
+            }
+            for (String prefix : internal) {
+                if (className.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    /**
+     * Offline rewriter: {@code TimingInstrumentor <input.jar> <output.jar> [class prefix...]}.
+     * The rewritten JAR needs this module's classes on the class path at run time.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: TimingInstrumentor <input.jar> <output.jar> [class prefix...]");
+            System.exit(2);
+        }
+        List<String> prefixes = Arrays.asList(args).subList(2, args.length);
+        TimingInstrumentor instrumentor = new TimingInstrumentor(classPrefixFilter(prefixes), true);
+        int count = instrumentor.instrumentJar(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.println("Instrumented " + count + " classes into " + args[1]);
+    }
+}
@@ -0,0 +1,340 @@
+package com.javaevolution.classfileapi;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Build-time bytecode transformation: reads a class directory or JAR, runs a chain of
+ * {@link ClassTransform}s over every class in parallel and writes the results to an
+ * output directory. Other files are copied unchanged.
+ *
+ * Runs are incremental. A cache file records, per input, its size, a stamp (file
+ * modification time, or the CRC of a JAR entry), a SHA-256 content hash and the size
+ * of the output written for it:
+ *
+ * - Same size and stamp, output still present: skipped without reading the input
+ * - Stamp changed but same content hash: skipped after hashing (e.g. a touched file)
+ * - Otherwise: transformed, or copied if no transform changed it
+ *
+ * Outputs of inputs that disappeared are deleted. The cache is discarded when the IDs
+ * of the transform chain change. Unchanged files of a directory and stored JAR entries
+ * are copied with {@code FileChannel.transferTo}, so their bytes never pass through the heap.
+ */
+public final class TransformPipeline {
+
+    static final int CACHE_MAGIC = 0x54504331;
+    private static final String CACHE_FORMAT = "1";
+
+    /**
+     * Counts of one run. Every input is exactly one of up to date, transformed or copied.
+     */
+    public record Result(int inputs, int upToDate, int transformed, int copied, int removed, long elapsedNanos) {}
+
+    private record CacheEntry(long size, long stamp, long hashHigh, long hashLow, long outputSize) {}
+
+    private record Input(String name, long size, long stamp, Path file, MappedJar.Entry entry) {}
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required on every Java platform", e);
+        }
+    });
+
+    private final List<ClassTransform> chain;
+    private final String fingerprint;
+    private final Path cacheFile;
+
+    public TransformPipeline(List<ClassTransform> chain, Path cacheFile) {
+        this.chain = List.copyOf(chain);
+        this.fingerprint = CACHE_FORMAT + "\n" + this.chain.stream().map(ClassTransform::id)
+            .collect(Collectors.joining("\n"));
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Transforms a class directory or JAR into the output directory.
+     */
+    public Result run(Path input, Path outputDirectory) throws IOException {
+        long start = System.nanoTime();
+        Map<String, CacheEntry> cache = loadCache();
+        boolean directory = Files.isDirectory(input);
+        MappedJar jar = directory ? null : MappedJar.open(input);
+        List<Input> inputs = directory ? listDirectory(input) : listJar(jar);
+
+        Map<String, CacheEntry> updated = new ConcurrentHashMap<>(inputs.size() * 2);
+        List<Input> pending = new ArrayList<>();
+        int upToDate = 0;
+        for (Input in : inputs) {
+            CacheEntry cached = cache.get(in.name());
+            if (cached != null && cached.size() == in.size() && cached.stamp() == in.stamp()
+                    && outputMatches(target(outputDirectory, in.name()), cached.outputSize())) {
+                updated.put(in.name(), cached);
+                upToDate++;
+            } else {
+                pending.add(in);
+            }
+        }
+
+        AtomicInteger unchangedContent = new AtomicInteger();
+        AtomicInteger transformed = new AtomicInteger();
+        AtomicInteger copied = new AtomicInteger();
+        // A throwing forEach returns while other workers may still be writing, so failures
+        // are recorded and the remaining inputs skipped until the stream has finished
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        try (FileChannel jarChannel = directory ? null : FileChannel.open(input, StandardOpenOption.READ)) {
+            pending.parallelStream().forEach(in -> {
+                if (failure.get() != null) {
+                    return;
+                }
+                try {
+                    process(in, jar, jarChannel, outputDirectory, cache.get(in.name()), updated,
+                        unchangedContent, transformed, copied);
+                } catch (IOException | RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+        }
+        Exception failed = failure.get();
+        if (failed instanceof IOException) {
+            throw (IOException) failed;
+        }
+        if (failed != null) {
+            throw (RuntimeException) failed;
+        }
+
+        int removed = 0;
+        for (String name : cache.keySet()) {
+            if (!updated.containsKey(name) && Files.deleteIfExists(target(outputDirectory, name))) {
+                removed++;
+            }
+        }
+        if (!pending.isEmpty() || removed > 0 || updated.size() != cache.size()) {
+            saveCache(updated);
+        }
+        return new Result(inputs.size(), upToDate + unchangedContent.get(), transformed.get(), copied.get(),
+            removed, System.nanoTime() - start);
+    }
+
+    private void process(Input in, MappedJar jar, FileChannel jarChannel, Path outputDirectory, CacheEntry cached,
+                         Map<String, CacheEntry> updated, AtomicInteger unchangedContent,
+                         AtomicInteger transformed, AtomicInteger copied) throws IOException {
+        byte[] bytes = in.file() != null ? Files.readAllBytes(in.file()) : toArray(jar.read(in.entry()));
+        long[] hash = hash(bytes);
+        Path target = target(outputDirectory, in.name());
+        if (cached != null && cached.hashHigh() == hash[0] && cached.hashLow() == hash[1]
+                && outputMatches(target, cached.outputSize())) {
+            updated.put(in.name(), new CacheEntry(in.size(), in.stamp(), hash[0], hash[1], cached.outputSize()));
+            unchangedContent.incrementAndGet();
+            return;
+        }
+
+        byte[] result = in.name().endsWith(".class") ? applyChain(in.name(), bytes) : null;
+        Path parent = target.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        long outputSize;
+        if (result != null) {
+            Files.write(target, result);
+            outputSize = result.length;
+            transformed.incrementAndGet();
+        } else {
+            copy(in, bytes, jar, jarChannel, target);
+            outputSize = bytes.length;
+            copied.incrementAndGet();
+        }
+        updated.put(in.name(), new CacheEntry(in.size(), in.stamp(), hash[0], hash[1], outputSize));
+    }
+
+    /**
+     * The output path of an entry or cached name. Names such as {@code ../x} or
+     * {@code /x}, from a crafted JAR or cache file, would resolve outside the output
+     * directory, so they are rejected before anything is written or deleted there.
+     */
+    static Path target(Path outputDirectory, String name) throws IOException {
+        Path root = outputDirectory.toAbsolutePath().normalize();
+        Path target = root.resolve(name).normalize();
+        if (!target.startsWith(root) || target.equals(root)) {
+            throw new IOException("Entry " + name + " resolves outside the output directory " + root);
+        }
+        return target;
+    }
+
+    private byte[] applyChain(String name, byte[] bytes) {
+        String className = name.substring(0, name.length() - ".class".length());
+        byte[] current = bytes;
+        boolean changed = false;
+        for (ClassTransform transform : chain) {
+            byte[] result;
+            try {
+                result = transform.transform(className, current);
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Transform " + transform.id() + " failed on " + className, e);
+            }
+            if (result != null) {
+                current = result;
+                changed = true;
+            }
+        }
+        return changed ? current : null;
+    }
+
+    /**
+     * Copies an input unchanged: file to file or stored JAR entry to file with transferTo,
+     * deflated entries from the already inflated bytes.
+     */
+    private static void copy(Input in, byte[] bytes, MappedJar jar, FileChannel jarChannel, Path target)
+            throws IOException {
+        if (in.entry() != null && !in.entry().isStored()) {
+            Files.write(target, bytes);
+            return;
+        }
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (in.file() != null) {
+                try (FileChannel source = FileChannel.open(in.file(), StandardOpenOption.READ)) {
+                    transferFully(source, 0, source.size(), out);
+                }
+            } else {
+                transferFully(jarChannel, jar.dataOffset(in.entry()), in.entry().size(), out);
+            }
+        }
+    }
+
+    private static void transferFully(FileChannel source, long position, long count, FileChannel target)
+            throws IOException {
+        long done = 0;
+        while (done < count) {
+            long n = source.transferTo(position + done, count - done, target);
+            if (n <= 0) {
+                throw new IOException("Unexpected end of input while copying");
+            }
+            done += n;
+        }
+    }
+
+    private static boolean outputMatches(Path output, long expectedSize) {
+        try {
+            return Files.size(output) == expectedSize;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static List<Input> listDirectory(Path root) throws IOException {
+        List<Input> inputs = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile()) {
+                    String name = root.relativize(file).toString().replace(File.separatorChar, '/');
+                    inputs.add(new Input(name, attributes.size(),
+                        attributes.lastModifiedTime().to(TimeUnit.MICROSECONDS), file, null));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return inputs;
+    }
+
+    private static List<Input> listJar(MappedJar jar) {
+        List<Input> inputs = new ArrayList<>();
+        for (MappedJar.Entry entry : jar.entries()) {
+            if (!entry.isDirectory()) {
+                inputs.add(new Input(entry.name(), entry.size(), entry.crc() & 0xFFFFFFFFL, null, entry));
+            }
+        }
+        return inputs;
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.array().length == buffer.remaining()) {
+            return buffer.array();
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(buffer.position(), bytes);
+        return bytes;
+    }
+
+    /**
+     * First 128 bits of the SHA-256 of the bytes.
+     */
+    private static long[] hash(byte[] bytes) {
+        MessageDigest digest = SHA256.get();
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest(bytes));
+        return new long[] {hash.getLong(), hash.getLong()};
+    }
+
+    private Map<String, CacheEntry> loadCache() {
+        Map<String, CacheEntry> cache = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            if (in.readInt() != CACHE_MAGIC || !in.readUTF().equals(fingerprint)) {
+                return cache;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                cache.put(name, new CacheEntry(in.readLong(), in.readLong(), in.readLong(), in.readLong(),
+                    in.readLong()));
+            }
+        } catch (NoSuchFileException e) {
+            return cache;
+        } catch (IOException e) {
+            // An unreadable cache only costs a full run
+            cache.clear();
+        }
+        return cache;
+    }
+
+    private void saveCache(Map<String, CacheEntry> entries) throws IOException {
+        Path absolute = cacheFile.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(CACHE_MAGIC);
+                out.writeUTF(fingerprint);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, CacheEntry> entry : entries.entrySet()) {
+                    CacheEntry value = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(value.size());
+                    out.writeLong(value.stamp());
+                    out.writeLong(value.hashHigh());
+                    out.writeLong(value.hashLow());
+                    out.writeLong(value.outputSize());
+                }
+            }
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
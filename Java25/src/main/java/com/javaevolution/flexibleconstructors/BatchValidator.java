@@ -0,0 +1,177 @@
+package com.javaevolution.flexibleconstructors;
+
+import com.javaevolution.flexibleconstructors.ValidationResult.Reason;
+
+import java.util.stream.IntStream;
+
+/**
+ * Applies the constructor rules of {@link FlexibleConstructorsFinalExample} to whole
+ * columns at once, for bulk imports: one row per index across the column arrays, no
+ * object and no exception per row.
+ *
+ * Rows are checked in chunks of {@value #CHUNK} on a parallel stream. A chunk is a
+ * multiple of 64 rows, so each one owns its words of the failure bitmap and nothing is
+ * shared between threads. Each row gets the reason of the first rule it fails, in the
+ * order the constructor checks them, so {@code reason(row).message()} is the message
+ * the constructor would have thrown. The exception is OUT_OF_RANGE, whose constructor
+ * message names the value and range: {@code reason(row).message(value, min, max)}
+ * formats it for the row.
+ *
+ * The password rules are char scans instead of {@code String.matches(".*[A-Z].*")},
+ * which compiles a Pattern per call. They keep its semantics, including that '.' does
+ * not match line terminators: a password with one fails the uppercase rule.
+ */
+public final class BatchValidator {
+
+    static final int CHUNK = 4096;
+
+    private BatchValidator() {
+    }
+
+    /**
+     * Person.validatePerson per row; emails may contain nulls (no email).
+     */
+    public static ValidationResult validatePeople(String[] firstNames, String[] lastNames, int[] ages, String[] emails) {
+        int rows = checkColumns(firstNames.length, lastNames.length, ages.length, emails.length);
+        return run(rows, (from, to, reasons) -> {
+            for (int row = from; row < to; row++) {
+                String email = emails[row];
+                if (firstNames[row] == null || firstNames[row].isEmpty()) {
+                    reasons[row] = Reason.FIRST_NAME_REQUIRED.code();
+                } else if (lastNames[row] == null || lastNames[row].isEmpty()) {
+                    reasons[row] = Reason.LAST_NAME_REQUIRED.code();
+                } else if (ages[row] < 0 || ages[row] > 150) {
+                    reasons[row] = Reason.INVALID_AGE.code();
+                } else if (email != null && email.indexOf('@') < 0) {
+                    reasons[row] = Reason.INVALID_EMAIL.code();
+                }
+            }
+        });
+    }
+
+    /**
+     * Rectangle.validateDimensions per row. As there, NaN is neither too small nor too
+     * large.
+     */
+    public static ValidationResult validateRectangles(double[] widths, double[] heights) {
+        int rows = checkColumns(widths.length, heights.length);
+        return run(rows, (from, to, reasons) -> {
+            for (int row = from; row < to; row++) {
+                double width = widths[row];
+                double height = heights[row];
+                if (width <= 0 || height <= 0) {
+                    reasons[row] = Reason.DIMENSIONS_NOT_POSITIVE.code();
+                } else if (width > 10000 || height > 10000) {
+                    reasons[row] = Reason.DIMENSIONS_TOO_LARGE.code();
+                }
+            }
+        });
+    }
+
+    /**
+     * BoundedInteger.validateRange for every value against one range.
+     */
+    public static ValidationResult validateBoundedIntegers(int[] values, int min, int max) {
+        if (min > max) {
+            byte[] reasons = new byte[values.length];
+            java.util.Arrays.fill(reasons, Reason.INVALID_RANGE.code());
+            return run(values.length, (from, to, ignored) -> { }, reasons);
+        }
+        return run(values.length, (from, to, reasons) -> {
+            for (int row = from; row < to; row++) {
+                // One unsigned comparison instead of two
+                if (Integer.compareUnsigned(values[row] - min, max - min) > 0) {
+                    reasons[row] = Reason.OUT_OF_RANGE.code();
+                }
+            }
+        });
+    }
+
+    /**
+     * BoundedInteger.validateRange per row, each with its own range.
+     */
+    public static ValidationResult validateBoundedIntegers(int[] values, int[] mins, int[] maxes) {
+        int rows = checkColumns(values.length, mins.length, maxes.length);
+        return run(rows, (from, to, reasons) -> {
+            for (int row = from; row < to; row++) {
+                if (mins[row] > maxes[row]) {
+                    reasons[row] = Reason.INVALID_RANGE.code();
+                } else if (values[row] < mins[row] || values[row] > maxes[row]) {
+                    reasons[row] = Reason.OUT_OF_RANGE.code();
+                }
+            }
+        });
+    }
+
+    /**
+     * SecurePassword.validatePasswordStrength per row.
+     */
+    public static ValidationResult validatePasswords(String[] passwords) {
+        return run(passwords.length, (from, to, reasons) -> {
+            for (int row = from; row < to; row++) {
+                reasons[row] = passwordReason(passwords[row]);
+            }
+        });
+    }
+
+    static byte passwordReason(CharSequence password) {
+        if (password == null || password.length() < 8) {
+            return Reason.PASSWORD_TOO_SHORT.code();
+        }
+        boolean uppercase = false;
+        boolean digit = false;
+        boolean lineTerminator = false;
+        for (int i = 0, length = password.length(); i < length; i++) {
+            char c = password.charAt(i);
+            uppercase |= c >= 'A' && c <= 'Z';
+            digit |= c >= '0' && c <= '9';
+            lineTerminator |= c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+        }
+        // With a line terminator, neither ".*[A-Z].*" nor ".*[0-9].*" can match
+        if (!uppercase || lineTerminator) {
+            return Reason.PASSWORD_NO_UPPERCASE.code();
+        }
+        if (!digit) {
+            return Reason.PASSWORD_NO_DIGIT.code();
+        }
+        return 0;
+    }
+
+    @FunctionalInterface
+    private interface ChunkRule {
+        /**
+         * Sets {@code reasons[row]} for the failing rows in [from, to); the others stay 0.
+         */
+        void check(int from, int to, byte[] reasons);
+    }
+
+    private static ValidationResult run(int rows, ChunkRule rule) {
+        return run(rows, rule, new byte[rows]);
+    }
+
+    private static ValidationResult run(int rows, ChunkRule rule, byte[] reasons) {
+        long[] failures = new long[(rows + 63) >>> 6];
+        int chunks = (rows + CHUNK - 1) / CHUNK;
+        IntStream indexes = IntStream.range(0, chunks);
+        (chunks > 1 ? indexes.parallel() : indexes).forEach(chunk -> {
+            int from = chunk * CHUNK;
+            int to = Math.min(rows, from + CHUNK);
+            rule.check(from, to, reasons);
+            for (int row = from; row < to; row++) {
+                if (reasons[row] != 0) {
+                    failures[row >>> 6] |= 1L << row;
+                }
+            }
+        });
+        return new ValidationResult(rows, failures, reasons);
+    }
+
+    private static int checkColumns(int... lengths) {
+        for (int length : lengths) {
+            if (length != lengths[0]) {
+                throw new IllegalArgumentException("Column lengths differ: " + java.util.Arrays.toString(lengths));
+            }
+        }
+        return lengths[0];
+    }
+}
@@ -0,0 +1,127 @@
+package com.javaevolution.flexibleconstructors;
+
+import com.javaevolution.flexibleconstructors.FlexibleConstructorsFinalExample.BoundedInteger;
+import com.javaevolution.flexibleconstructors.FlexibleConstructorsFinalExample.NormalizedString;
+import com.javaevolution.flexibleconstructors.FlexibleConstructorsFinalExample.PositiveNumber;
+
+/**
+ * Opt-in canonicalizing factories for the validated value objects of
+ * {@link FlexibleConstructorsFinalExample}, in the manner of {@code Integer.valueOf}:
+ * hot values are validated once and shared, instead of validated and allocated on
+ * every construction. The constructors are unchanged.
+ *
+ * - PositiveNumber: 1 to {@link #POSITIVE_CACHE_HIGH} come from a table filled at
+ *   class initialization.
+ * - BoundedInteger: ranges of up to {@link #MAX_RANGE_WIDTH} values get a table the
+ *   first time they are used, filled one value at a time as values are asked for. The
+ *   tables live in a small two-way set-associative array, so a hit needs no boxed key.
+ *   The first two ranges of a set keep it: a range that finds its set full gets plain
+ *   {@code new} objects, never evicting a table, so colliding hot ranges cost no more
+ *   than the constructor.
+ * - NormalizedString: interned by raw input in a {@link WeakInternCache}.
+ *
+ * Invalid arguments throw the constructors' IllegalArgumentException. Outside the
+ * tables a new object is returned, so, as with Integer, compare values rather than
+ * identities.
+ *
+ * In Java 25+ the factories would be plain static methods next to the constructors'
+ * prologues; the classes stay value-based either way.
+ */
+public final class CanonicalValues {
+
+    public static final int POSITIVE_CACHE_HIGH = 1024;
+    public static final int MAX_RANGE_WIDTH = 1024;
+    public static final int STRING_CACHE_SIZE = 16_384;
+
+    private static final PositiveNumber[] POSITIVE = new PositiveNumber[POSITIVE_CACHE_HIGH];
+    private static final RangeTable[] RANGES = new RangeTable[64];
+    private static final WeakInternCache<String, NormalizedString> STRINGS = new WeakInternCache<>(STRING_CACHE_SIZE);
+    private static final NormalizedString EMPTY = new NormalizedString(null);
+
+    static {
+        for (int i = 0; i < POSITIVE.length; i++) {
+            POSITIVE[i] = new PositiveNumber(i + 1);
+        }
+    }
+
+    private CanonicalValues() {
+    }
+
+    public static PositiveNumber positiveNumber(long value) {
+        if (value >= 1 && value <= POSITIVE_CACHE_HIGH) {
+            return POSITIVE[(int) value - 1];
+        }
+        return new PositiveNumber(value);
+    }
+
+    public static BoundedInteger boundedInteger(int value, int min, int max) {
+        // Invalid arguments, and ranges wider than MAX_RANGE_WIDTH (in long, as
+        // max - min can overflow), go to the constructor
+        if (value < min || value > max || (long) max - min >= MAX_RANGE_WIDTH) {
+            return new BoundedInteger(value, min, max);
+        }
+        int set = ((31 * min + max) * 0x9E3779B9 >>> 27) << 1;
+        // Racy reads and writes are fine: a table's fields and the objects in it are
+        // final, so they are seen fully built, and a lost install only costs a table
+        RangeTable table = RANGES[set];
+        if (table == null || table.min != min || table.max != max) {
+            table = RANGES[set + 1];
+            if (table == null || table.min != min || table.max != max) {
+                table = install(set, min, max);
+                if (table == null) {
+                    return new BoundedInteger(value, min, max);
+                }
+            }
+        }
+        BoundedInteger canonical = table.values[value - min];
+        if (canonical == null) {
+            canonical = new BoundedInteger(value, min, max);
+            table.values[value - min] = canonical;
+        }
+        return canonical;
+    }
+
+    /**
+     * A table for the range in a free way of the set, or null if both are taken.
+     */
+    private static RangeTable install(int set, int min, int max) {
+        for (int way = set; way < set + 2; way++) {
+            if (RANGES[way] == null) {
+                RangeTable table = new RangeTable(min, max);
+                RANGES[way] = table;
+                return table;
+            }
+        }
+        return null;
+    }
+
+    public static NormalizedString normalizedString(String input) {
+        return input == null ? EMPTY : STRINGS.intern(input, NormalizedString::new);
+    }
+
+    /**
+     * Forgets every range table, e.g. between tests.
+     */
+    static void clearRanges() {
+        java.util.Arrays.fill(RANGES, null);
+    }
+
+    /**
+     * Distinct inputs currently interned by {@link #normalizedString}.
+     */
+    static int internedStrings() {
+        return STRINGS.size();
+    }
+
+    private static final class RangeTable {
+        final int min;
+        final int max;
+        final BoundedInteger[] values;
+
+        RangeTable(int min, int max) {
+            this.min = min;
+            this.max = max;
+            this.values = new BoundedInteger[max - min + 1];
+        }
+    }
+}
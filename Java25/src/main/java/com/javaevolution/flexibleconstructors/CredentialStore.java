@@ -0,0 +1,360 @@
+package com.javaevolution.flexibleconstructors;
+
+import com.javaevolution.flexibleconstructors.ValidationResult.Reason;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password credentials kept off-heap as scrypt hashes, the store counterpart of
+ * {@link FlexibleConstructorsFinalExample.SecurePassword}, which keeps the password
+ * itself in a {@code char[]} on the heap.
+ *
+ * Each credential is a random 16-byte salt and a 32-byte {@link Scrypt} hash. Checking a
+ * password derives its hash and compares all 32 bytes whatever they hold, so the time
+ * taken says nothing about how close a guess was. Passwords are encoded straight from
+ * the {@code CharSequence} into a reused buffer, and {@link #verify} allocates nothing.
+ * {@link #close()} zeroes the stored credentials and every workspace before returning.
+ *
+ * The store is confined to the thread that created it, like a confined {@code Arena}:
+ * other threads get an {@link IllegalStateException}. {@link #verifyAll} still spreads a
+ * login burst over worker threads, but only the key derivation runs there; the workers
+ * never touch the off-heap memory, and the owner compares the results. Workers borrow
+ * one of a fixed number of workspaces, which bounds memory at
+ * {@code workers * 128 * r * N} bytes however many logins are queued.
+ *
+ * In Java 25+ the credentials would live in a {@code MemorySegment} of
+ * {@code Arena.ofConfined()}, whose {@code close()} also frees the memory at once, and
+ * each login would get a virtual thread.
+ * Note: Running on Java 17, so the memory is a direct {@link ByteBuffer}, zeroed on
+ * close and freed when it is collected, and the workers are a fixed thread pool.
+ */
+public final class CredentialStore implements AutoCloseable {
+
+    /** N = 2^14, r = 8, p = 1: the RFC 7914 recommendation for interactive logins. */
+    public static final int DEFAULT_COST = 1 << 14;
+    public static final int DEFAULT_BLOCK_SIZE = 8;
+    public static final int DEFAULT_PARALLELIZATION = 1;
+    public static final int MAX_PASSWORD_LENGTH = 256;
+
+    static final int SALT_LENGTH = 16;
+    static final int HASH_LENGTH = 32;
+    static final int RECORD_LENGTH = SALT_LENGTH + HASH_LENGTH;
+
+    private final Thread owner = Thread.currentThread();
+    private final ByteBuffer records;
+    private final int capacity;
+    private final int cost;
+    private final int blockSize;
+    private final int parallelization;
+    private final int workers;
+    private final Workspace own;
+    private final SecureRandom random = new SecureRandom();
+    private BlockingQueue<Workspace> pool;
+    private ExecutorService executor;
+    private int size;
+    private boolean closed;
+
+    public CredentialStore(int capacity) {
+        this(capacity, DEFAULT_COST, DEFAULT_BLOCK_SIZE, DEFAULT_PARALLELIZATION,
+            Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param workers threads, and so workspaces, for {@link #verifyAll}
+     */
+    public CredentialStore(int capacity, int cost, int blockSize, int parallelization, int workers) {
+        if (capacity < 1 || capacity > Integer.MAX_VALUE / RECORD_LENGTH) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        if (workers < 1) {
+            throw new IllegalArgumentException("Workers must be positive");
+        }
+        this.own = new Workspace(cost, blockSize, parallelization);
+        this.records = ByteBuffer.allocateDirect(capacity * RECORD_LENGTH);
+        this.capacity = capacity;
+        this.cost = cost;
+        this.blockSize = blockSize;
+        this.parallelization = parallelization;
+        this.workers = workers;
+    }
+
+    /**
+     * Stores a password that passes the SecurePassword rules and returns its id.
+     */
+    public int enroll(CharSequence password) {
+        checkOpen();
+        byte reason = BatchValidator.passwordReason(password);
+        if (reason != 0) {
+            throw new IllegalArgumentException(Reason.ofCode(reason).message());
+        }
+        if (password.length() > MAX_PASSWORD_LENGTH) {
+            throw new IllegalArgumentException("Password longer than " + MAX_PASSWORD_LENGTH + " characters");
+        }
+        if (size == capacity) {
+            throw new IllegalStateException("Credential store is full");
+        }
+        random.nextBytes(own.salt);
+        own.derive(password);
+        int offset = size * RECORD_LENGTH;
+        records.put(offset, own.salt);
+        records.put(offset + SALT_LENGTH, own.hash);
+        own.clear();
+        return size++;
+    }
+
+    /**
+     * Whether the password matches credential {@code id}, in time independent of where
+     * they differ.
+     */
+    public boolean verify(int id, CharSequence password) {
+        checkOpen();
+        checkId(id);
+        if (password == null) {
+            return false;
+        }
+        records.get(id * RECORD_LENGTH, own.salt);
+        boolean matches = own.derive(password) && matches(id, own.hash, 0);
+        own.clear();
+        return matches;
+    }
+
+    /**
+     * Verifies {@code passwords[i]} against credential {@code ids[i]} for every i, deriving
+     * the hashes on the worker threads.
+     */
+    public boolean[] verifyAll(int[] ids, CharSequence[] passwords) {
+        checkOpen();
+        if (ids.length != passwords.length) {
+            throw new IllegalArgumentException("ids and passwords differ in length");
+        }
+        int count = ids.length;
+        byte[] salts = new byte[count * SALT_LENGTH];
+        for (int i = 0; i < count; i++) {
+            checkId(ids[i]);
+            records.get(ids[i] * RECORD_LENGTH, salts, i * SALT_LENGTH, SALT_LENGTH);
+        }
+        byte[] hashes = new byte[count * HASH_LENGTH];
+        boolean[] derived = new boolean[count];
+        Future<?>[] futures = new Future<?>[count];
+        ExecutorService executor = executor();
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            futures[i] = executor.submit(() -> derive(passwords[index], salts, hashes, derived, index));
+        }
+        boolean[] results = new boolean[count];
+        try {
+            for (int i = 0; i < count; i++) {
+                futures[i].get();
+            }
+            for (int i = 0; i < count; i++) {
+                results[i] = derived[i] && matches(ids[i], hashes, i * HASH_LENGTH);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while verifying", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Verification failed", e.getCause());
+        } finally {
+            for (Future<?> future : futures) {
+                if (future != null) {
+                    future.cancel(false);
+                }
+            }
+            Arrays.fill(hashes, (byte) 0);
+        }
+        return results;
+    }
+
+    public int size() {
+        checkOpen();
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Zeroes the credentials and the workspaces, and stops the workers. Idempotent.
+     */
+    @Override
+    public void close() {
+        checkOwner();
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (executor != null) {
+            // Let a derivation still running finish with its workspace before wiping it
+            executor.shutdown();
+            try {
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (int i = 0; i < records.capacity(); i += 8) {
+            records.putLong(i, 0L);
+        }
+        own.wipe();
+        if (pool != null) {
+            for (Workspace workspace : pool) {
+                workspace.wipe();
+            }
+        }
+    }
+
+    ByteBuffer records() {
+        return records.asReadOnlyBuffer();
+    }
+
+    private void derive(CharSequence password, byte[] salts, byte[] hashes, boolean[] derived, int index) {
+        Workspace workspace;
+        try {
+            workspace = pool.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            System.arraycopy(salts, index * SALT_LENGTH, workspace.salt, 0, SALT_LENGTH);
+            if (password != null && workspace.derive(password)) {
+                System.arraycopy(workspace.hash, 0, hashes, index * HASH_LENGTH, HASH_LENGTH);
+                derived[index] = true;
+            }
+        } finally {
+            workspace.clear();
+            pool.add(workspace);
+        }
+    }
+
+    /**
+     * Compares all 32 bytes, accumulating the difference instead of returning early.
+     */
+    private boolean matches(int id, byte[] hash, int offset) {
+        int base = id * RECORD_LENGTH + SALT_LENGTH;
+        int difference = 0;
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            difference |= records.get(base + i) ^ hash[offset + i];
+        }
+        return difference == 0;
+    }
+
+    private ExecutorService executor() {
+        if (executor == null) {
+            pool = new ArrayBlockingQueue<>(workers);
+            for (int i = 0; i < workers; i++) {
+                pool.add(new Workspace(cost, blockSize, parallelization));
+            }
+            // Java 25+ would use: Executors.newVirtualThreadPerTaskExecutor()
+            // Java 17 uses fixed thread pool, one thread per workspace
+            executor = Executors.newFixedThreadPool(workers, task -> {
+                Thread thread = new Thread(task, "credential-verifier");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    private void checkOpen() {
+        checkOwner();
+        if (closed) {
+            throw new IllegalStateException("Credential store is closed");
+        }
+    }
+
+    private void checkOwner() {
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("Credential store is confined to " + owner.getName());
+        }
+    }
+
+    private void checkId(int id) {
+        if (id < 0 || id >= size) {
+            throw new IllegalArgumentException("Unknown credential: " + id);
+        }
+    }
+
+    /**
+     * One thread's scrypt workspace and buffers.
+     */
+    private static final class Workspace {
+        final Scrypt scrypt;
+        final byte[] password = new byte[MAX_PASSWORD_LENGTH * 3];
+        final byte[] salt = new byte[SALT_LENGTH];
+        final byte[] hash = new byte[HASH_LENGTH];
+
+        Workspace(int cost, int blockSize, int parallelization) {
+            this.scrypt = new Scrypt(cost, blockSize, parallelization);
+        }
+
+        /**
+         * Hashes the password with {@link #salt} into {@link #hash}; false if it is too
+         * long to be a stored password.
+         */
+        boolean derive(CharSequence text) {
+            int length = encode(text);
+            if (length < 0) {
+                return false;
+            }
+            scrypt.derive(password, length, salt, 0, SALT_LENGTH, hash, 0, HASH_LENGTH);
+            return true;
+        }
+
+        /**
+         * UTF-8, as String.getBytes would encode it, without the intermediate String or
+         * array; -1 if over {@link #MAX_PASSWORD_LENGTH}.
+         */
+        private int encode(CharSequence text) {
+            int length = text.length();
+            if (length > MAX_PASSWORD_LENGTH) {
+                return -1;
+            }
+            int at = 0;
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    password[at++] = (byte) c;
+                } else if (c < 0x800) {
+                    password[at++] = (byte) (0xc0 | c >>> 6);
+                    password[at++] = (byte) (0x80 | c & 0x3f);
+                } else if (Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    password[at++] = (byte) (0xf0 | codePoint >>> 18);
+                    password[at++] = (byte) (0x80 | codePoint >>> 12 & 0x3f);
+                    password[at++] = (byte) (0x80 | codePoint >>> 6 & 0x3f);
+                    password[at++] = (byte) (0x80 | codePoint & 0x3f);
+                } else if (Character.isSurrogate(c)) {
+                    password[at++] = '?';
+                } else {
+                    password[at++] = (byte) (0xe0 | c >>> 12);
+                    password[at++] = (byte) (0x80 | c >>> 6 & 0x3f);
+                    password[at++] = (byte) (0x80 | c & 0x3f);
+                }
+            }
+            return at;
+        }
+
+        void clear() {
+            Arrays.fill(password, (byte) 0);
+            Arrays.fill(hash, (byte) 0);
+        }
+
+        void wipe() {
+            clear();
+            Arrays.fill(salt, (byte) 0);
+            scrypt.wipe();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.javaevolution.flexibleconstructors;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.DoubleConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+/**
+ * A growable list of {@code double} values on a {@code double[]}, the unboxed
+ * counterpart of {@link FlexibleConstructorsFinalExample.SmartList}: no
+ * {@code Double} per element, and the capacity asked for is the capacity allocated,
+ * not clamped to 10.
+ *
+ * The {@link GrowthPolicy} picks how it grows: one array enlarged by 1.5x or 2x, or
+ * fixed-size segments added as needed, which never copy an element on append.
+ * Not thread-safe.
+ */
+public final class DoubleSmartList {
+
+    private final GrowthPolicy policy;
+    private final int shift;
+    private final int mask;
+    private double[] elements;
+    private double[][] segments;
+    private int segmentCount;
+    private int size;
+
+    public DoubleSmartList() {
+        this(GrowthPolicy.DEFAULT_CAPACITY, GrowthPolicy.ONE_AND_A_HALF);
+    }
+
+    public DoubleSmartList(int capacity) {
+        this(capacity, GrowthPolicy.ONE_AND_A_HALF);
+    }
+
+    /**
+     * A segmented list allocates the segments covering {@code capacity} up front.
+     */
+    public DoubleSmartList(int capacity, GrowthPolicy policy) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be non-negative: " + capacity);
+        }
+        this.policy = Objects.requireNonNull(policy, "policy");
+        if (policy.isSegmented()) {
+            this.shift = policy.segmentShift();
+            this.mask = (1 << shift) - 1;
+            this.segmentCount = (int) (((long) capacity + mask) >>> shift);
+            this.segments = new double[Math.max(segmentCount, 4)][];
+            for (int i = 0; i < segmentCount; i++) {
+                segments[i] = new double[1 << shift];
+            }
+        } else {
+            this.shift = 0;
+            this.mask = 0;
+            this.elements = new double[capacity];
+        }
+    }
+
+    /**
+     * A list of exactly these values, growing by 1.5x.
+     */
+    public static DoubleSmartList of(double... values) {
+        return new DoubleSmartList(values.length, GrowthPolicy.ONE_AND_A_HALF).addAll(values);
+    }
+
+    public DoubleSmartList add(double value) {
+        int index = size;
+        if (segments == null) {
+            if (index == elements.length) {
+                elements = Arrays.copyOf(elements, policy.grow(elements.length, index + 1));
+            }
+            elements[index] = value;
+        } else {
+            int segment = index >>> shift;
+            if (segment == segmentCount) {
+                addSegment(index);
+            }
+            segments[segment][index & mask] = value;
+        }
+        size = index + 1;
+        return this;
+    }
+
+    public DoubleSmartList addAll(double... values) {
+        return addAll(values, 0, values.length);
+    }
+
+    /**
+     * Appends {@code values[from, to)}, making room once rather than per element.
+     */
+    public DoubleSmartList addAll(double[] values, int from, int to) {
+        Objects.checkFromToIndex(from, to, values.length);
+        int count = to - from;
+        if (segments == null) {
+            if (count > elements.length - size) {
+                elements = Arrays.copyOf(elements, policy.grow(elements.length, size + count));
+            }
+            System.arraycopy(values, from, elements, size, count);
+            size += count;
+            return this;
+        }
+        while (from < to) {
+            int segment = size >>> shift;
+            if (segment == segmentCount) {
+                addSegment(size);
+            }
+            int offset = size & mask;
+            int chunk = Math.min(to - from, mask + 1 - offset);
+            System.arraycopy(values, from, segments[segment], offset, chunk);
+            from += chunk;
+            size += chunk;
+        }
+        return this;
+    }
+
+    public double get(int index) {
+        checkIndex(index);
+        return segments == null ? elements[index] : segments[index >>> shift][index & mask];
+    }
+
+    public void set(int index, double value) {
+        checkIndex(index);
+        if (segments == null) {
+            elements[index] = value;
+        } else {
+            segments[index >>> shift][index & mask] = value;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Elements it holds before it next grows.
+     */
+    public int capacity() {
+        return segments == null ? elements.length : (int) Math.min(Integer.MAX_VALUE, (long) segmentCount << shift);
+    }
+
+    public GrowthPolicy growthPolicy() {
+        return policy;
+    }
+
+    /**
+     * Empties the list, keeping its capacity.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public double[] toArray() {
+        if (segments == null) {
+            return Arrays.copyOf(elements, size);
+        }
+        double[] array = new double[size];
+        for (int from = 0; from < size; from += mask + 1) {
+            System.arraycopy(segments[from >>> shift], 0, array, from, Math.min(mask + 1, size - from));
+        }
+        return array;
+    }
+
+    public void forEach(DoubleConsumer action) {
+        if (segments == null) {
+            for (int i = 0; i < size; i++) {
+                action.accept(elements[i]);
+            }
+            return;
+        }
+        for (int from = 0; from < size; from += mask + 1) {
+            double[] segment = segments[from >>> shift];
+            for (int i = 0, length = Math.min(mask + 1, size - from); i < length; i++) {
+                action.accept(segment[i]);
+            }
+        }
+    }
+
+    public DoubleStream stream() {
+        if (segments == null) {
+            return Arrays.stream(elements, 0, size);
+        }
+        int used = (size + mask) >>> shift;
+        return IntStream.range(0, used)
+            .mapToObj(segment -> Arrays.stream(segments[segment], 0, Math.min(mask + 1, size - (segment << shift))))
+            .flatMapToDouble(stream -> stream);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(size * 4 + 2).append('[');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append(get(i));
+        }
+        return text.append(']').toString();
+    }
+
+    /**
+     * Adds a segment; only the spine of segment references is ever copied.
+     */
+    private void addSegment(int index) {
+        if (index > Integer.MAX_VALUE - 8) {
+            throw new OutOfMemoryError("List size " + index + " is too large");
+        }
+        if (segmentCount == segments.length) {
+            segments = Arrays.copyOf(segments, segmentCount * 2);
+        }
+        segments[segmentCount++] = new double[mask + 1];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+}
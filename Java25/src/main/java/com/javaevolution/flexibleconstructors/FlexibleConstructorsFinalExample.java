@@ -1,6 +1,7 @@
 package com.javaevolution.flexibleconstructors;
 
 import java.util.*;
+import java.util.regex.Pattern;
 
 /**
  * Demonstrates Flexible Constructor Bodies (Expected Final in Java 25).
@@ -255,6 +256,10 @@ public class FlexibleConstructorsFinalExample {
      * Example 7: Secure initialization
      */
     public static class SecurePassword {
+        // Compiled once; String.matches compiles a new Pattern per call
+        private static final Pattern UPPERCASE = Pattern.compile(".*[A-Z].*");
+        private static final Pattern DIGIT = Pattern.compile(".*[0-9].*");
+
         private final char[] password;
 
         public SecurePassword(String input) {
@@ -267,22 +272,26 @@ public class FlexibleConstructorsFinalExample {
             if (password == null || password.length() < 8) {
                 throw new IllegalArgumentException("Password must be at least 8 characters");
             }
-            if (!password.matches(".*[A-Z].*")) {
+            if (!UPPERCASE.matcher(password).matches()) {
                 throw new IllegalArgumentException("Password must contain uppercase letter");
             }
-            if (!password.matches(".*[0-9].*")) {
+            if (!DIGIT.matcher(password).matches()) {
                 throw new IllegalArgumentException("Password must contain digit");
             }
         }
 
+        /**
+         * Constant time: every stored char is compared, so the time taken does not
+         * depend on where the input differs. See CredentialStore for hashed storage.
+         */
         public boolean verify(String input) {
             if (input == null) return false;
-            char[] inputChars = input.toCharArray();
-            if (inputChars.length != password.length) return false;
+            int inputLength = input.length();
+            int difference = inputLength ^ password.length;
             for (int i = 0; i < password.length; i++) {
-                if (inputChars[i] != password[i]) return false;
+                difference |= password[i] ^ (i < inputLength ? input.charAt(i) : 0);
             }
-            return true;
+            return difference == 0;
         }
 
         public void clear() {
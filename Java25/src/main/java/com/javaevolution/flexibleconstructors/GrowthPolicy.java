@@ -0,0 +1,81 @@
+package com.javaevolution.flexibleconstructors;
+
+/**
+ * How {@link IntSmartList}, {@link LongSmartList} and {@link DoubleSmartList} make room
+ * when full.
+ *
+ * {@link #ONE_AND_A_HALF} and {@link #DOUBLING} grow one contiguous array, copying every
+ * element on each resize: fast indexing and a backing array that can be handed out, but
+ * an O(n) pause now and then and, briefly, both arrays live at once. The
+ * {@link #segmented} policies keep fixed-size segments and add one when the last is
+ * full, so an append never copies elements; indexing costs a shift and a mask.
+ */
+public final class GrowthPolicy {
+
+    /** Grow by half, as ArrayList does. */
+    public static final GrowthPolicy ONE_AND_A_HALF = new GrowthPolicy(0, 0);
+
+    /** Double the capacity: fewer copies than 1.5x for more slack. */
+    public static final GrowthPolicy DOUBLING = new GrowthPolicy(1, 0);
+
+    public static final int DEFAULT_SEGMENT_SIZE = 4096;
+
+    /** Segments of {@value #DEFAULT_SEGMENT_SIZE} elements. */
+    public static final GrowthPolicy SEGMENTED = segmented(DEFAULT_SEGMENT_SIZE);
+
+    static final int DEFAULT_CAPACITY = 10;
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    private final int shift;
+    private final int segmentShift;
+
+    private GrowthPolicy(int shift, int segmentShift) {
+        this.shift = shift;
+        this.segmentShift = segmentShift;
+    }
+
+    /**
+     * Fixed segments of {@code segmentSize} elements, a power of two.
+     */
+    public static GrowthPolicy segmented(int segmentSize) {
+        if (segmentSize < 16 || segmentSize > 1 << 30 || (segmentSize & (segmentSize - 1)) != 0) {
+            throw new IllegalArgumentException("Segment size must be a power of two in [16, 2^30]: " + segmentSize);
+        }
+        return new GrowthPolicy(0, Integer.numberOfTrailingZeros(segmentSize));
+    }
+
+    public boolean isSegmented() {
+        return segmentShift != 0;
+    }
+
+    /**
+     * Elements per segment, or 0 for the contiguous policies.
+     */
+    public int segmentSize() {
+        return isSegmented() ? 1 << segmentShift : 0;
+    }
+
+    int segmentShift() {
+        return segmentShift;
+    }
+
+    /**
+     * The next capacity of a contiguous array of {@code capacity} that must hold
+     * {@code required} elements.
+     */
+    int grow(int capacity, int required) {
+        if (required < 0 || required > MAX_ARRAY_LENGTH) {
+            throw new OutOfMemoryError("Required array length " + Integer.toUnsignedString(required) + " is too large");
+        }
+        long grown = shift == 0 ? capacity + ((long) capacity >> 1) : (long) capacity << 1;
+        return (int) Math.min(MAX_ARRAY_LENGTH, Math.max(Math.max(grown, required), DEFAULT_CAPACITY));
+    }
+
+    @Override
+    public String toString() {
+        if (isSegmented()) {
+            return "segmented(" + segmentSize() + ")";
+        }
+        return shift == 0 ? "1.5x" : "2x";
+    }
+}
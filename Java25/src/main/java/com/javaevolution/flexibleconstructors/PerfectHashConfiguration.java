@@ -0,0 +1,390 @@
+package com.javaevolution.flexibleconstructors;
+
+import com.javaevolution.primitivetypes.NumberParser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, case-insensitive configuration whose keys are placed by a minimal
+ * perfect hash computed at construction, for lookups on the request path.
+ *
+ * {@link FlexibleConstructorsFinalExample.ImmutableConfiguration#getProperty} lowercases
+ * the key (a new String) and then probes a Map. Here the key is hashed and compared
+ * char by char with case folding, so a lookup allocates nothing and any
+ * {@code CharSequence} can be the key; the perfect hash sends each key to exactly one
+ * of {@code size()} slots, so there is one comparison and no probing.
+ *
+ * The hash is hash-and-displace: a 64-bit hash of the folded key picks a bucket, and
+ * the bucket's displacement, found at construction, moves its keys to free slots.
+ * Buckets with one key store their slot directly. Keys spelled exactly as stored
+ * (lowercase, as most call sites write them) first try a small open-addressed index on
+ * {@code String.hashCode()}, which Strings cache, and skip the char-by-char work.
+ *
+ * Values are parsed once at construction for the typed getters, which return the
+ * default when the key is missing or its value does not parse. Keys are folded per char
+ * with {@code Character.toLowerCase}, which matches {@code String.toLowerCase} except
+ * for the few locale-specific and multi-char mappings. Keys equal after folding keep
+ * the value that comes last in the map's iteration order, as ImmutableConfiguration.
+ *
+ * In Java 25+ the validation and the hash construction would sit in the constructor's
+ * prologue, before super(); here they are static helpers.
+ */
+public final class PerfectHashConfiguration {
+
+    private static final long FNV_PRIME = 0x100000001B3L;
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    private static final int MAX_SEEDS = 64;
+
+    private static final byte LONG = 1;
+    private static final byte INT = 2;
+    private static final byte DOUBLE = 4;
+    private static final byte BOOLEAN = 8;
+    private static final byte TRUE = 16;
+
+    private final long seed;
+    private final int[] displacements;
+    private final String[] keys;
+    private final String[] values;
+    private final int[] exactHashes;
+    private final int[] exactSlots;
+    private final long[] longs;
+    private final double[] doubles;
+    private final byte[] parsed;
+
+    public PerfectHashConfiguration(Map<String, String> properties) {
+        this(Table.build(normalize(properties)));
+    }
+
+    private PerfectHashConfiguration(Table table) {
+        this.seed = table.seed;
+        this.displacements = table.displacements;
+        this.keys = table.keys;
+        this.values = table.values;
+        int size = keys.length;
+        int capacity = Integer.highestOneBit(size * 2 - 1) << 1;
+        this.exactHashes = new int[capacity];
+        this.exactSlots = new int[capacity];
+        for (int slot = 0; slot < size; slot++) {
+            int hash = keys[slot].hashCode();
+            int i = spread(hash) & (capacity - 1);
+            while (exactSlots[i] != 0) {
+                i = (i + 1) & (capacity - 1);
+            }
+            exactHashes[i] = hash;
+            exactSlots[i] = slot + 1;
+        }
+        this.longs = new long[size];
+        this.doubles = new double[size];
+        this.parsed = new byte[size];
+        NumberParser parser = new NumberParser();
+        for (int i = 0; i < size; i++) {
+            parseValue(parser, i);
+        }
+    }
+
+    /**
+     * The value of the key in any case, or null.
+     */
+    public String getProperty(CharSequence key) {
+        int slot = slot(key);
+        return slot < 0 ? null : values[slot];
+    }
+
+    public String getProperty(CharSequence key, String defaultValue) {
+        int slot = slot(key);
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    public boolean containsKey(CharSequence key) {
+        return slot(key) >= 0;
+    }
+
+    public long getLong(CharSequence key, long defaultValue) {
+        int slot = slot(key);
+        return slot >= 0 && (parsed[slot] & LONG) != 0 ? longs[slot] : defaultValue;
+    }
+
+    /**
+     * The value as an int; the default if it does not parse or is outside the int range.
+     */
+    public int getInt(CharSequence key, int defaultValue) {
+        int slot = slot(key);
+        return slot >= 0 && (parsed[slot] & INT) != 0 ? (int) longs[slot] : defaultValue;
+    }
+
+    public double getDouble(CharSequence key, double defaultValue) {
+        int slot = slot(key);
+        return slot >= 0 && (parsed[slot] & DOUBLE) != 0 ? doubles[slot] : defaultValue;
+    }
+
+    /**
+     * True or false for "true" and "false" in any case, otherwise the default (where
+     * {@code Boolean.parseBoolean} would say false).
+     */
+    public boolean getBoolean(CharSequence key, boolean defaultValue) {
+        int slot = slot(key);
+        return slot >= 0 && (parsed[slot] & BOOLEAN) != 0 ? (parsed[slot] & TRUE) != 0 : defaultValue;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * The properties by lowercased key, in slot order.
+     */
+    public Map<String, String> asMap() {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], values[i]);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    private int slot(CharSequence key) {
+        if (key instanceof String string) {
+            int slot = exactSlot(string);
+            if (slot >= 0) {
+                return slot;
+            }
+        }
+        int length = key.length();
+        long hash = hash(seed, key);
+        int slot = slotOf(hash, displacements[reduce(hash, displacements.length)], keys.length);
+        String candidate = keys[slot];
+        if (candidate.length() != length) {
+            return -1;
+        }
+        for (int i = 0; i < length; i++) {
+            if (fold(key.charAt(i)) != candidate.charAt(i)) {
+                return -1;
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * The slot of a key spelled exactly as stored (lowercase), as most call sites do,
+     * through the String's cached hash code and String.equals; -1 to fall back to the
+     * case-folding path.
+     */
+    private int exactSlot(String key) {
+        int hash = key.hashCode();
+        int mask = exactSlots.length - 1;
+        for (int i = spread(hash) & mask; exactSlots[i] != 0; i = (i + 1) & mask) {
+            if (exactHashes[i] == hash && keys[exactSlots[i] - 1].equals(key)) {
+                return exactSlots[i] - 1;
+            }
+        }
+        return -1;
+    }
+
+    private void parseValue(NumberParser parser, int slot) {
+        String value = values[slot];
+        byte flags = 0;
+        long longValue = parser.parseLong(value);
+        if (parser.ok()) {
+            longs[slot] = longValue;
+            flags |= LONG;
+            if (longValue == (int) longValue) {
+                flags |= INT;
+            }
+        }
+        double doubleValue = parser.parseDouble(value);
+        if (parser.ok()) {
+            doubles[slot] = doubleValue;
+            flags |= DOUBLE;
+        }
+        if (value.equalsIgnoreCase("true")) {
+            flags |= BOOLEAN | TRUE;
+        } else if (value.equalsIgnoreCase("false")) {
+            flags |= BOOLEAN;
+        }
+        parsed[slot] = flags;
+    }
+
+    // Hashing
+
+    private static char fold(char c) {
+        if (c < 0x80) {
+            // Sets the lowercase bit of 'A'..'Z' without a branch: mixed-case keys
+            // would mispredict one on every char
+            int upper = (('A' - 1 - c) & (c - 'Z' - 1)) >>> 31;
+            return (char) (c | upper << 5);
+        }
+        return Character.toLowerCase(c);
+    }
+
+    /**
+     * FNV-1a over the folded chars, finished with MurmurHash3's 64-bit mix.
+     */
+    private static long hash(long seed, CharSequence key) {
+        long hash = seed;
+        int length = key.length();
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ fold(key.charAt(i))) * FNV_PRIME;
+        }
+        return mix(hash ^ length);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Maps the high 32 bits of the hash onto [0, n) without a division.
+     */
+    private static int reduce(long hash, int n) {
+        return (int) (((hash >>> 32) * n) >>> 32);
+    }
+
+    private static int slotOf(long hash, int displacement, int size) {
+        return displacement < 0 ? -displacement - 1 : reduce(mix(hash + displacement * GOLDEN), size);
+    }
+
+    // Construction
+
+    private static Map<String, String> normalize(Map<String, String> properties) {
+        if (properties == null || properties.isEmpty()) {
+            throw new IllegalArgumentException("Properties cannot be empty");
+        }
+        Map<String, String> normalized = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : properties.entrySet()) {
+            String key = entry.getKey();
+            if (key == null || key.isEmpty()) {
+                throw new IllegalArgumentException("Property key cannot be empty");
+            }
+            if (entry.getValue() == null) {
+                throw new IllegalArgumentException("Property value cannot be null: " + key);
+            }
+            char[] folded = key.toCharArray();
+            for (int i = 0; i < folded.length; i++) {
+                folded[i] = fold(folded[i]);
+            }
+            normalized.put(new String(folded), entry.getValue());
+        }
+        return normalized;
+    }
+
+    private static final class Table {
+        final long seed;
+        final int[] displacements;
+        final String[] keys;
+        final String[] values;
+
+        private Table(long seed, int[] displacements, String[] keys, String[] values) {
+            this.seed = seed;
+            this.displacements = displacements;
+            this.keys = keys;
+            this.values = values;
+        }
+
+        static Table build(Map<String, String> properties) {
+            String[] names = properties.keySet().toArray(new String[0]);
+            long seed = 0;
+            for (int attempt = 0; attempt < MAX_SEEDS; attempt++, seed += GOLDEN) {
+                int[] slots = place(names, seed);
+                if (slots != null) {
+                    int size = names.length;
+                    String[] keys = new String[size];
+                    String[] values = new String[size];
+                    for (int i = 0; i < size; i++) {
+                        keys[slots[size + i]] = names[i];
+                        values[slots[size + i]] = properties.get(names[i]);
+                    }
+                    return new Table(seed, Arrays.copyOf(slots, size), keys, values);
+                }
+            }
+            throw new IllegalStateException("No perfect hash found for " + names.length + " keys");
+        }
+
+        /**
+         * Displacements (first n entries) and the slot of each key (next n), or null if
+         * this seed does not work.
+         */
+        private static int[] place(String[] names, long seed) {
+            int size = names.length;
+            long[] hashes = new long[size];
+            List<List<Integer>> buckets = new ArrayList<>(size);
+            for (int b = 0; b < size; b++) {
+                buckets.add(new ArrayList<>(2));
+            }
+            for (int i = 0; i < size; i++) {
+                hashes[i] = hash(seed, names[i]);
+                buckets.get(reduce(hashes[i], size)).add(i);
+            }
+            Integer[] order = new Integer[size];
+            for (int b = 0; b < size; b++) {
+                order[b] = b;
+            }
+            // Largest buckets first, while there is most room
+            Arrays.sort(order, (x, y) -> buckets.get(y).size() - buckets.get(x).size());
+
+            int[] result = new int[2 * size];
+            boolean[] occupied = new boolean[size];
+            int[] candidate = new int[size];
+            int nextFree = 0;
+            for (int b : order) {
+                List<Integer> bucket = buckets.get(b);
+                if (bucket.isEmpty()) {
+                    break;
+                }
+                if (bucket.size() == 1) {
+                    while (occupied[nextFree]) {
+                        nextFree++;
+                    }
+                    occupied[nextFree] = true;
+                    result[b] = -nextFree - 1;
+                    result[size + bucket.get(0)] = nextFree;
+                    continue;
+                }
+                int displacement = findDisplacement(bucket, hashes, occupied, candidate);
+                if (displacement < 0) {
+                    return null;
+                }
+                result[b] = displacement;
+                for (int k = 0; k < bucket.size(); k++) {
+                    int slot = slotOf(hashes[bucket.get(k)], displacement, size);
+                    occupied[slot] = true;
+                    result[size + bucket.get(k)] = slot;
+                }
+            }
+            return result;
+        }
+
+        private static int findDisplacement(List<Integer> bucket, long[] hashes, boolean[] occupied, int[] slots) {
+            int size = occupied.length;
+            int limit = Math.max(1 << 16, size * 64);
+            next:
+            for (int displacement = 0; displacement < limit; displacement++) {
+                for (int k = 0; k < bucket.size(); k++) {
+                    int slot = slotOf(hashes[bucket.get(k)], displacement, size);
+                    if (occupied[slot]) {
+                        continue next;
+                    }
+                    for (int j = 0; j < k; j++) {
+                        if (slots[j] == slot) {
+                            continue next;
+                        }
+                    }
+                    slots[k] = slot;
+                }
+                return displacement;
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.javaevolution.flexibleconstructors;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hot-reloadable configuration: an {@link AtomicReference} to an immutable
+ * {@link PerfectHashConfiguration} snapshot, replaced as a whole on reload.
+ *
+ * Readers never lock and never see a half-applied reload. A reload builds and validates
+ * the new snapshot before swapping it in, so bad properties leave the current one in
+ * place. Code that reads several related properties should take {@link #snapshot()}
+ * once and read them all from it, rather than risk a reload in between.
+ */
+public final class ReloadableConfiguration {
+
+    private final AtomicReference<PerfectHashConfiguration> current;
+
+    public ReloadableConfiguration(Map<String, String> properties) {
+        this.current = new AtomicReference<>(new PerfectHashConfiguration(properties));
+    }
+
+    public PerfectHashConfiguration snapshot() {
+        return current.get();
+    }
+
+    /**
+     * Replaces the configuration and returns the previous snapshot. Throws, keeping the
+     * current snapshot, if the properties are invalid.
+     */
+    public PerfectHashConfiguration reload(Map<String, String> properties) {
+        return current.getAndSet(new PerfectHashConfiguration(properties));
+    }
+
+    /**
+     * Replaces the configuration only if it is still {@code expected}, e.g. to apply a
+     * change computed from it without losing a concurrent reload.
+     */
+    public boolean reload(PerfectHashConfiguration expected, Map<String, String> properties) {
+        return current.compareAndSet(expected, new PerfectHashConfiguration(properties));
+    }
+
+    public String getProperty(CharSequence key) {
+        return current.get().getProperty(key);
+    }
+
+    public String getProperty(CharSequence key, String defaultValue) {
+        return current.get().getProperty(key, defaultValue);
+    }
+
+    public long getLong(CharSequence key, long defaultValue) {
+        return current.get().getLong(key, defaultValue);
+    }
+
+    public int getInt(CharSequence key, int defaultValue) {
+        return current.get().getInt(key, defaultValue);
+    }
+
+    public double getDouble(CharSequence key, double defaultValue) {
+        return current.get().getDouble(key, defaultValue);
+    }
+
+    public boolean getBoolean(CharSequence key, boolean defaultValue) {
+        return current.get().getBoolean(key, defaultValue);
+    }
+}
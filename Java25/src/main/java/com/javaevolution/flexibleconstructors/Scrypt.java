@@ -0,0 +1,252 @@
+package com.javaevolution.flexibleconstructors;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * The scrypt memory-hard key derivation function (RFC 7914): PBKDF2-HMAC-SHA256 around
+ * ROMix, whose table of {@code 128 * blockSize * cost} bytes is what makes guessing
+ * expensive on GPUs and ASICs.
+ *
+ * An instance is the workspace for one set of parameters: the table and every buffer
+ * are allocated once, so {@link #derive} allocates nothing. It is not thread-safe; use
+ * one per thread. HMAC is written out over a reused {@link MessageDigest} because
+ * {@code javax.crypto.Mac} takes the password as a {@code SecretKeySpec}, a copy that
+ * cannot be wiped.
+ */
+public final class Scrypt {
+
+    private static final int DIGEST_LENGTH = 32;
+    private static final int HMAC_BLOCK = 64;
+
+    private final int cost;
+    private final int blockSize;
+    private final int parallelization;
+    private final int blockInts;
+
+    private final MessageDigest sha256;
+    private final byte[] innerPad = new byte[HMAC_BLOCK];
+    private final byte[] outerPad = new byte[HMAC_BLOCK];
+    private final byte[] digest = new byte[DIGEST_LENGTH];
+    private final byte[] counter = new byte[4];
+    private final byte[] blocks;
+    private final int[] x;
+    private final int[] y;
+    private final int[] table;
+    private final int[] salsa = new int[16];
+
+    /**
+     * @param cost            N, a power of two greater than 1
+     * @param blockSize       r
+     * @param parallelization p
+     */
+    public Scrypt(int cost, int blockSize, int parallelization) {
+        if (cost < 2 || (cost & (cost - 1)) != 0) {
+            throw new IllegalArgumentException("Cost must be a power of two greater than 1");
+        }
+        if (blockSize < 1 || parallelization < 1) {
+            throw new IllegalArgumentException("Block size and parallelization must be positive");
+        }
+        if ((long) blockSize * parallelization >= 1 << 30
+                || (long) 32 * blockSize * cost > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Parameters need too much memory");
+        }
+        this.cost = cost;
+        this.blockSize = blockSize;
+        this.parallelization = parallelization;
+        this.blockInts = 32 * blockSize;
+        try {
+            this.sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        this.blocks = new byte[parallelization * 128 * blockSize];
+        this.x = new int[blockInts];
+        this.y = new int[blockInts];
+        this.table = new int[blockInts * cost];
+    }
+
+    /**
+     * scrypt(P, S, N, r, p, dkLen) into a new array; for one-off use and tests.
+     */
+    public static byte[] derive(byte[] password, byte[] salt, int cost, int blockSize, int parallelization, int length) {
+        Scrypt scrypt = new Scrypt(cost, blockSize, parallelization);
+        byte[] key = new byte[length];
+        scrypt.derive(password, password.length, salt, 0, salt.length, key, 0, length);
+        scrypt.wipe();
+        return key;
+    }
+
+    /**
+     * Writes scrypt of {@code password[0, passwordLength)} and the salt to
+     * {@code out[outOffset, outOffset + outLength)}. The small buffers are wiped on return;
+     * the table is wiped by {@link #wipe()}.
+     */
+    public void derive(byte[] password, int passwordLength, byte[] salt, int saltOffset, int saltLength,
+                       byte[] out, int outOffset, int outLength) {
+        try {
+            setKey(password, passwordLength);
+            pbkdf2(salt, saltOffset, saltLength, blocks, 0, blocks.length);
+            for (int i = 0; i < parallelization; i++) {
+                roMix(i * 128 * blockSize);
+            }
+            pbkdf2(blocks, 0, blocks.length, out, outOffset, outLength);
+        } finally {
+            Arrays.fill(innerPad, (byte) 0);
+            Arrays.fill(outerPad, (byte) 0);
+            Arrays.fill(digest, (byte) 0);
+            Arrays.fill(blocks, (byte) 0);
+            Arrays.fill(x, 0);
+            Arrays.fill(y, 0);
+        }
+    }
+
+    /**
+     * Zeroes every buffer, including the ROMix table.
+     */
+    public void wipe() {
+        Arrays.fill(table, 0);
+        Arrays.fill(salsa, 0);
+        sha256.reset();
+    }
+
+    public int cost() {
+        return cost;
+    }
+
+    public int blockSize() {
+        return blockSize;
+    }
+
+    public int parallelization() {
+        return parallelization;
+    }
+
+    private void setKey(byte[] password, int length) {
+        if (length > HMAC_BLOCK) {
+            sha256.update(password, 0, length);
+            digest(innerPad);
+        } else {
+            System.arraycopy(password, 0, innerPad, 0, length);
+        }
+        for (int i = 0; i < HMAC_BLOCK; i++) {
+            outerPad[i] = (byte) (innerPad[i] ^ 0x5c);
+            innerPad[i] ^= 0x36;
+        }
+    }
+
+    /**
+     * PBKDF2-HMAC-SHA256 with one iteration, which is all scrypt uses.
+     */
+    private void pbkdf2(byte[] salt, int saltOffset, int saltLength, byte[] out, int outOffset, int outLength) {
+        for (int block = 1, written = 0; written < outLength; block++, written += DIGEST_LENGTH) {
+            counter[0] = (byte) (block >>> 24);
+            counter[1] = (byte) (block >>> 16);
+            counter[2] = (byte) (block >>> 8);
+            counter[3] = (byte) block;
+            sha256.update(innerPad, 0, HMAC_BLOCK);
+            sha256.update(salt, saltOffset, saltLength);
+            sha256.update(counter, 0, 4);
+            digest(digest);
+            sha256.update(outerPad, 0, HMAC_BLOCK);
+            sha256.update(digest, 0, DIGEST_LENGTH);
+            digest(digest);
+            System.arraycopy(digest, 0, out, outOffset + written, Math.min(DIGEST_LENGTH, outLength - written));
+        }
+    }
+
+    private void digest(byte[] into) {
+        try {
+            sha256.digest(into, 0, DIGEST_LENGTH);
+        } catch (java.security.DigestException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void roMix(int offset) {
+        for (int i = 0; i < blockInts; i++) {
+            int at = offset + 4 * i;
+            x[i] = blocks[at] & 0xff | (blocks[at + 1] & 0xff) << 8
+                | (blocks[at + 2] & 0xff) << 16 | blocks[at + 3] << 24;
+        }
+        for (int i = 0; i < cost; i++) {
+            System.arraycopy(x, 0, table, i * blockInts, blockInts);
+            blockMix();
+        }
+        int mask = cost - 1;
+        int last = (2 * blockSize - 1) * 16;
+        for (int i = 0; i < cost; i++) {
+            int from = (x[last] & mask) * blockInts;
+            for (int k = 0; k < blockInts; k++) {
+                x[k] ^= table[from + k];
+            }
+            blockMix();
+        }
+        for (int i = 0; i < blockInts; i++) {
+            int at = offset + 4 * i;
+            blocks[at] = (byte) x[i];
+            blocks[at + 1] = (byte) (x[i] >>> 8);
+            blocks[at + 2] = (byte) (x[i] >>> 16);
+            blocks[at + 3] = (byte) (x[i] >>> 24);
+        }
+    }
+
+    /**
+     * BlockMix over x, with even output blocks first, then odd ones.
+     */
+    private void blockMix() {
+        System.arraycopy(x, (2 * blockSize - 1) * 16, salsa, 0, 16);
+        for (int i = 0; i < 2 * blockSize; i++) {
+            for (int k = 0; k < 16; k++) {
+                salsa[k] ^= x[i * 16 + k];
+            }
+            salsa208(salsa);
+            System.arraycopy(salsa, 0, y, ((i & 1) * blockSize + (i >>> 1)) * 16, 16);
+        }
+        System.arraycopy(y, 0, x, 0, blockInts);
+    }
+
+    private static void salsa208(int[] b) {
+        int x0 = b[0], x1 = b[1], x2 = b[2], x3 = b[3], x4 = b[4], x5 = b[5], x6 = b[6], x7 = b[7];
+        int x8 = b[8], x9 = b[9], x10 = b[10], x11 = b[11], x12 = b[12], x13 = b[13], x14 = b[14], x15 = b[15];
+        for (int round = 0; round < 8; round += 2) {
+            // Columns
+            x4 ^= Integer.rotateLeft(x0 + x12, 7);
+            x8 ^= Integer.rotateLeft(x4 + x0, 9);
+            x12 ^= Integer.rotateLeft(x8 + x4, 13);
+            x0 ^= Integer.rotateLeft(x12 + x8, 18);
+            x9 ^= Integer.rotateLeft(x5 + x1, 7);
+            x13 ^= Integer.rotateLeft(x9 + x5, 9);
+            x1 ^= Integer.rotateLeft(x13 + x9, 13);
+            x5 ^= Integer.rotateLeft(x1 + x13, 18);
+            x14 ^= Integer.rotateLeft(x10 + x6, 7);
+            x2 ^= Integer.rotateLeft(x14 + x10, 9);
+            x6 ^= Integer.rotateLeft(x2 + x14, 13);
+            x10 ^= Integer.rotateLeft(x6 + x2, 18);
+            x3 ^= Integer.rotateLeft(x15 + x11, 7);
+            x7 ^= Integer.rotateLeft(x3 + x15, 9);
+            x11 ^= Integer.rotateLeft(x7 + x3, 13);
+            x15 ^= Integer.rotateLeft(x11 + x7, 18);
+            // Rows
+            x1 ^= Integer.rotateLeft(x0 + x3, 7);
+            x2 ^= Integer.rotateLeft(x1 + x0, 9);
+            x3 ^= Integer.rotateLeft(x2 + x1, 13);
+            x0 ^= Integer.rotateLeft(x3 + x2, 18);
+            x6 ^= Integer.rotateLeft(x5 + x4, 7);
+            x7 ^= Integer.rotateLeft(x6 + x5, 9);
+            x4 ^= Integer.rotateLeft(x7 + x6, 13);
+            x5 ^= Integer.rotateLeft(x4 + x7, 18);
+            x11 ^= Integer.rotateLeft(x10 + x9, 7);
+            x8 ^= Integer.rotateLeft(x11 + x10, 9);
+            x9 ^= Integer.rotateLeft(x8 + x11, 13);
+            x10 ^= Integer.rotateLeft(x9 + x8, 18);
+            x12 ^= Integer.rotateLeft(x15 + x14, 7);
+            x13 ^= Integer.rotateLeft(x12 + x15, 9);
+            x14 ^= Integer.rotateLeft(x13 + x12, 13);
+            x15 ^= Integer.rotateLeft(x14 + x13, 18);
+        }
+        b[0] += x0; b[1] += x1; b[2] += x2; b[3] += x3; b[4] += x4; b[5] += x5; b[6] += x6; b[7] += x7;
+        b[8] += x8; b[9] += x9; b[10] += x10; b[11] += x11; b[12] += x12; b[13] += x13; b[14] += x14; b[15] += x15;
+    }
+}
@@ -0,0 +1,164 @@
+package com.javaevolution.flexibleconstructors;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Outcome of a {@link BatchValidator} run: a bitmap with one bit per failing row and,
+ * per row, the code of the first rule it failed (0 when valid).
+ */
+public final class ValidationResult {
+
+    /**
+     * Why a row failed: the rule, and the message of the exception its constructor
+     * would have thrown. OUT_OF_RANGE is the exception: the constructor also names the
+     * value and range, so use {@link #message(int, int, int)} to get its full message.
+     */
+    public enum Reason {
+        FIRST_NAME_REQUIRED("First name required"),
+        LAST_NAME_REQUIRED("Last name required"),
+        INVALID_AGE("Invalid age"),
+        INVALID_EMAIL("Invalid email"),
+        DIMENSIONS_NOT_POSITIVE("Dimensions must be positive"),
+        DIMENSIONS_TOO_LARGE("Dimensions too large"),
+        INVALID_RANGE("min must be <= max"),
+        OUT_OF_RANGE("Value outside range"),
+        PASSWORD_TOO_SHORT("Password must be at least 8 characters"),
+        PASSWORD_NO_UPPERCASE("Password must contain uppercase letter"),
+        PASSWORD_NO_DIGIT("Password must contain digit");
+
+        private static final Reason[] BY_CODE = values();
+
+        private final String message;
+
+        Reason(String message) {
+            this.message = message;
+        }
+
+        /**
+         * The code stored per row; never 0.
+         */
+        public byte code() {
+            return (byte) (ordinal() + 1);
+        }
+
+        public String message() {
+            return message;
+        }
+
+        /**
+         * The constructor's message for a BoundedInteger row. Only OUT_OF_RANGE puts the
+         * value and range into it; any other reason returns {@link #message()}.
+         */
+        public String message(int value, int min, int max) {
+            if (this == OUT_OF_RANGE) {
+                return String.format("Value %d outside range [%d, %d]", value, min, max);
+            }
+            return message;
+        }
+
+        public static Reason ofCode(byte code) {
+            if (code <= 0 || code > BY_CODE.length) {
+                throw new IllegalArgumentException("Unknown reason code: " + code);
+            }
+            return BY_CODE[code - 1];
+        }
+    }
+
+    private final int rows;
+    private final long[] failures;
+    private final byte[] reasons;
+    private final int failureCount;
+
+    ValidationResult(int rows, long[] failures, byte[] reasons) {
+        this.rows = rows;
+        this.failures = failures;
+        this.reasons = reasons;
+        int count = 0;
+        for (long word : failures) {
+            count += Long.bitCount(word);
+        }
+        this.failureCount = count;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int failureCount() {
+        return failureCount;
+    }
+
+    public boolean allValid() {
+        return failureCount == 0;
+    }
+
+    public boolean isValid(int row) {
+        checkRow(row);
+        return (failures[row >>> 6] & 1L << row) == 0;
+    }
+
+    /**
+     * The first rule the row failed, or null if it is valid.
+     */
+    public Reason reason(int row) {
+        checkRow(row);
+        return reasons[row] == 0 ? null : Reason.ofCode(reasons[row]);
+    }
+
+    /**
+     * The first failing row at or after {@code from}, or -1: iterate with
+     * {@code for (int r = result.nextFailure(0); r >= 0; r = result.nextFailure(r + 1))}.
+     */
+    public int nextFailure(int from) {
+        if (from < 0) {
+            throw new IndexOutOfBoundsException("Row " + from);
+        }
+        if (from >= rows) {
+            return -1;
+        }
+        int index = from >>> 6;
+        long word = failures[index] & -1L << from;
+        while (word == 0) {
+            if (++index == failures.length) {
+                return -1;
+            }
+            word = failures[index];
+        }
+        return index * 64 + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * The failure bitmap, bit {@code row % 64} of word {@code row / 64}; a copy.
+     */
+    public long[] failureBitmap() {
+        return failures.clone();
+    }
+
+    /**
+     * The reason code of every row, 0 for valid rows; a copy.
+     */
+    public byte[] reasonCodes() {
+        return reasons.clone();
+    }
+
+    public Map<Reason, Integer> countsByReason() {
+        int[] counts = new int[Reason.BY_CODE.length + 1];
+        for (byte code : reasons) {
+            counts[code]++;
+        }
+        Map<Reason, Integer> byReason = new EnumMap<>(Reason.class);
+        for (Reason reason : Reason.BY_CODE) {
+            if (counts[reason.code()] > 0) {
+                byReason.put(reason, counts[reason.code()]);
+            }
+        }
+        return byReason;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for " + rows + " rows");
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.javaevolution.flexibleconstructors;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A bounded, thread-safe intern cache with weakly referenced values: one canonical
+ * value per key for as long as someone else still uses it.
+ *
+ * A hit is a {@code ConcurrentHashMap} lookup and allocates nothing. On a miss the
+ * factory runs (validation included; if it throws, nothing is cached) and entries whose
+ * values were collected are dropped. Keys are held strongly until then, so the cache
+ * is also capped at a maximum size: past it, arbitrary entries are evicted, and a later
+ * intern of their keys creates a new value.
+ *
+ * @param <K> the key, e.g. the raw input of a constructor
+ * @param <V> the canonical value
+ */
+public final class WeakInternCache<K, V> {
+
+    private final ConcurrentHashMap<K, ValueReference<K, V>> entries = new ConcurrentHashMap<>();
+    private final ReferenceQueue<V> collected = new ReferenceQueue<>();
+    private final int maximumSize;
+
+    public WeakInternCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * The canonical value for the key, created with the factory if there is none. Use a
+     * non-capturing factory (a constructor reference) to keep hits allocation-free.
+     */
+    public V intern(K key, Function<? super K, ? extends V> factory) {
+        ValueReference<K, V> reference = entries.get(key);
+        V value;
+        if (reference != null && (value = reference.get()) != null) {
+            return value;
+        }
+        expungeCollected();
+        value = factory.apply(key);
+        ValueReference<K, V> created = new ValueReference<>(key, value, collected);
+        while (true) {
+            ValueReference<K, V> existing = entries.putIfAbsent(key, created);
+            if (existing == null) {
+                break;
+            }
+            V other = existing.get();
+            if (other != null) {
+                // Another thread interned the key first: its value is the canonical one
+                return other;
+            }
+            if (entries.replace(key, existing, created)) {
+                break;
+            }
+        }
+        if (entries.size() > maximumSize) {
+            evict();
+        }
+        return value;
+    }
+
+    /**
+     * Number of entries, not counting those whose values were collected.
+     */
+    public int size() {
+        expungeCollected();
+        return entries.size();
+    }
+
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    public void clear() {
+        entries.clear();
+        expungeCollected();
+    }
+
+    private void expungeCollected() {
+        Reference<? extends V> reference;
+        while ((reference = collected.poll()) != null) {
+            ValueReference<?, ?> stale = (ValueReference<?, ?>) reference;
+            entries.remove(stale.key, stale);
+        }
+    }
+
+    private void evict() {
+        Iterator<ValueReference<K, V>> iterator = entries.values().iterator();
+        while (entries.size() > maximumSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static final class ValueReference<K, V> extends WeakReference<V> {
+        private final K key;
+
+        ValueReference(K key, V value, ReferenceQueue<V> queue) {
+            super(value, queue);
+            this.key = key;
+        }
+    }
+}
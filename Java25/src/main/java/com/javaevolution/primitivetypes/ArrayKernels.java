@@ -0,0 +1,138 @@
+package com.javaevolution.primitivetypes;
+
+/**
+ * Reductions over primitive arrays: sum, min/max, count-if, dot product and histogram,
+ * as used by {@link PrimitiveTypesFinalExample#analyzeArray}.
+ *
+ * With {@code jdk.incubator.vector} in the boot layer the kernels run on the Vector
+ * API ({@link VectorKernels}) at the platform's preferred width, e.g. 4 doubles or 8
+ * ints per instruction on AVX2 and 8/16 on AVX-512. Without it they are plain loops
+ * ({@link ScalarKernels}); the vector classes are then never loaded.
+ *
+ * Vector sums and dot products add in lane order, so a double result can differ from
+ * the sequential sum in the last bits. Integer sums are exact longs.
+ *
+ * In Java 25+ the Vector API is still an incubator module, added with
+ * {@code --add-modules jdk.incubator.vector} at compile and run time; the build does
+ * that for the main, test and jmh tasks.
+ */
+public final class ArrayKernels {
+
+    static final ScalarKernels SCALAR = new ScalarKernels();
+    static final ScalarKernels KERNELS = load();
+
+    private ArrayKernels() {
+    }
+
+    /**
+     * A count-if predicate: {@code value <op> operand}.
+     */
+    public enum Comparison {
+        LT, LE, GT, GE, EQ, NE;
+
+        /**
+         * The count of this comparison, given how many values compared below, equal and
+         * above the operand out of {@code total} (NaN compares as none of the three).
+         */
+        int select(int less, int equal, int greater, int total) {
+            return switch (this) {
+                case LT -> less;
+                case LE -> less + equal;
+                case GT -> greater;
+                case GE -> greater + equal;
+                case EQ -> equal;
+                case NE -> total - equal;
+            };
+        }
+    }
+
+    /**
+     * "vector(N bits)" or "scalar".
+     */
+    public static String implementation() {
+        return KERNELS.name();
+    }
+
+    public static long sum(int[] values) {
+        return KERNELS.sum(values, 0);
+    }
+
+    public static double sum(double[] values) {
+        return KERNELS.sum(values, 0);
+    }
+
+    public static int min(int[] values) {
+        checkNotEmpty(values.length);
+        return KERNELS.min(values, 0, Integer.MAX_VALUE);
+    }
+
+    public static int max(int[] values) {
+        checkNotEmpty(values.length);
+        return KERNELS.max(values, 0, Integer.MIN_VALUE);
+    }
+
+    /**
+     * As {@code Math.min}: NaN if any value is NaN, and -0.0 below 0.0.
+     */
+    public static double min(double[] values) {
+        checkNotEmpty(values.length);
+        return KERNELS.min(values, 0, Double.POSITIVE_INFINITY);
+    }
+
+    public static double max(double[] values) {
+        checkNotEmpty(values.length);
+        return KERNELS.max(values, 0, Double.NEGATIVE_INFINITY);
+    }
+
+    public static int countTrue(boolean[] values) {
+        return KERNELS.countTrue(values, 0);
+    }
+
+    public static int count(int[] values, Comparison comparison, int operand) {
+        return KERNELS.count(values, 0, comparison, operand);
+    }
+
+    public static int count(double[] values, Comparison comparison, double operand) {
+        return KERNELS.count(values, 0, comparison, operand);
+    }
+
+    public static double dot(double[] a, double[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Array lengths differ: " + a.length + " and " + b.length);
+        }
+        return KERNELS.dot(a, b, 0);
+    }
+
+    /**
+     * Counts the values in {@code [min, max)} into {@code binCount} bins of equal width.
+     * Values outside the range and NaN are not counted.
+     */
+    public static int[] histogram(double[] values, double min, double max, int binCount) {
+        if (!(min < max) || Double.isInfinite(max - min) || binCount <= 0) {
+            throw new IllegalArgumentException("Invalid histogram range [" + min + ", " + max + ") with "
+                + binCount + " bins");
+        }
+        int[] bins = new int[binCount];
+        KERNELS.histogram(values, 0, min, max, bins);
+        return bins;
+    }
+
+    private static void checkNotEmpty(int length) {
+        if (length == 0) {
+            throw new IllegalArgumentException("Empty array");
+        }
+    }
+
+    private static ScalarKernels load() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return SCALAR;
+        }
+        try {
+            // By name, so the scalar path never links against the incubator classes
+            return (ScalarKernels) Class.forName("com.javaevolution.primitivetypes.VectorKernels")
+                .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.javaevolution.primitivetypes;
+
+/**
+ * Classifies chars with one lookup in a 64K-entry table built at class initialization
+ * from {@code Character.isDigit}, {@code isLetter} and {@code isWhitespace}, in that
+ * order of precedence as {@link PrimitiveTypesFinalExample#classifyCharacter}.
+ *
+ * The Character methods look up the Unicode plane, then the category and property
+ * tables, on every call; over a text that adds up. The table costs 64 KB and a few
+ * milliseconds at startup, and gives exactly the answers of the char overloads (code
+ * points above U+FFFF are not classified: surrogates are {@link #OTHER}).
+ */
+public final class CharClassifier {
+
+    public static final byte OTHER = 0;
+    public static final byte DIGIT = 1;
+    public static final byte LETTER = 2;
+    public static final byte WHITESPACE = 3;
+    public static final int CLASS_COUNT = 4;
+
+    private static final byte[] CLASSES = new byte[Character.MAX_VALUE + 1];
+
+    static {
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            char ch = (char) c;
+            if (Character.isDigit(ch)) {
+                CLASSES[c] = DIGIT;
+            } else if (Character.isLetter(ch)) {
+                CLASSES[c] = LETTER;
+            } else if (Character.isWhitespace(ch)) {
+                CLASSES[c] = WHITESPACE;
+            }
+        }
+    }
+
+    private CharClassifier() {
+    }
+
+    public static byte classOf(char c) {
+        return CLASSES[c];
+    }
+
+    /**
+     * Writes the class of each char from {@code from} to {@code to} into {@code out},
+     * starting at {@code offset}.
+     */
+    public static void classify(CharSequence text, int from, int to, byte[] out, int offset) {
+        checkRange(text.length(), from, to);
+        checkRange(out.length, offset, offset + (to - from));
+        for (int i = from; i < to; i++) {
+            out[offset++] = CLASSES[text.charAt(i)];
+        }
+    }
+
+    public static void classify(char[] text, int from, int to, byte[] out, int offset) {
+        checkRange(text.length, from, to);
+        checkRange(out.length, offset, offset + (to - from));
+        for (int i = from; i < to; i++) {
+            out[offset++] = CLASSES[text[i]];
+        }
+    }
+
+    /**
+     * Number of chars of each class, indexed by class.
+     */
+    public static int[] counts(CharSequence text) {
+        int[] counts = new int[CLASS_COUNT];
+        for (int i = 0, length = text.length(); i < length; i++) {
+            counts[CLASSES[text.charAt(i)]]++;
+        }
+        return counts;
+    }
+
+    public static int count(CharSequence text, byte charClass) {
+        if (charClass < 0 || charClass >= CLASS_COUNT) {
+            throw new IllegalArgumentException("Unknown char class: " + charClass);
+        }
+        int count = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            count += CLASSES[text.charAt(i)] == charClass ? 1 : 0;
+        }
+        return count;
+    }
+
+    private static void checkRange(int length, int from, int to) {
+        if (from < 0 || to > length || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for length " + length);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.javaevolution.primitivetypes;
+
+/**
+ * Formats integers with thousands grouping ({@code -1,234,567}) into a caller's
+ * {@code byte[]} or {@code StringBuilder}, without {@code java.util.Formatter}.
+ *
+ * {@code String.format("%,d", n)} parses the pattern, looks up the locale's symbols and
+ * allocates a Formatter, a StringBuilder and the result on every call. Here the digits
+ * are written right to left, three at a time from a table of "000" to "999", so each
+ * group costs one division by 1000.
+ *
+ * The separator is ',' unless given, in groups of three: what %,d prints in the ROOT
+ * and English locales, not necessarily in the default one.
+ */
+public final class GroupedFormatter {
+
+    /** Length of the longest result, {@code -9,223,372,036,854,775,808}. */
+    public static final int MAX_LENGTH = 26;
+
+    private static final byte[] GROUPS = new byte[3000];
+
+    static {
+        for (int i = 0; i < 1000; i++) {
+            GROUPS[i * 3] = (byte) ('0' + i / 100);
+            GROUPS[i * 3 + 1] = (byte) ('0' + i / 10 % 10);
+            GROUPS[i * 3 + 2] = (byte) ('0' + i % 10);
+        }
+    }
+
+    private GroupedFormatter() {
+    }
+
+    /**
+     * Length of the grouped form of the value.
+     */
+    public static int length(long value) {
+        int digits = digits(value);
+        return digits + (digits - 1) / 3 + (value < 0 ? 1 : 0);
+    }
+
+    /**
+     * Writes the value as ASCII at {@code offset} and returns the offset after it.
+     */
+    public static int format(long value, byte[] out, int offset) {
+        return format(value, (byte) ',', out, offset);
+    }
+
+    public static int format(long value, byte separator, byte[] out, int offset) {
+        int end = offset + length(value);
+        if (offset < 0 || end > out.length) {
+            throw new IndexOutOfBoundsException("No room for " + (end - offset) + " bytes at " + offset);
+        }
+        int position = end;
+        // Negative, so that Long.MIN_VALUE needs no special case
+        long remaining = value < 0 ? value : -value;
+        while (remaining <= -1000) {
+            long quotient = remaining / 1000;
+            int group = (int) (quotient * 1000 - remaining) * 3;
+            out[--position] = GROUPS[group + 2];
+            out[--position] = GROUPS[group + 1];
+            out[--position] = GROUPS[group];
+            out[--position] = separator;
+            remaining = quotient;
+        }
+        int group = (int) -remaining;
+        int digits = group >= 100 ? 3 : group >= 10 ? 2 : 1;
+        for (int i = 0; i < digits; i++) {
+            out[--position] = GROUPS[group * 3 + 2 - i];
+        }
+        if (value < 0) {
+            out[--position] = '-';
+        }
+        return end;
+    }
+
+    /**
+     * Writes each value followed by the delimiter; returns the offset after the last.
+     * {@code values.length * (MAX_LENGTH + 1)} bytes are always enough.
+     */
+    public static int format(long[] values, byte delimiter, byte[] out, int offset) {
+        for (long value : values) {
+            offset = format(value, out, offset);
+            if (offset == out.length) {
+                throw new IndexOutOfBoundsException("No room for the delimiter at " + offset);
+            }
+            out[offset++] = delimiter;
+        }
+        return offset;
+    }
+
+    public static int format(int[] values, byte delimiter, byte[] out, int offset) {
+        for (int value : values) {
+            offset = format(value, out, offset);
+            if (offset == out.length) {
+                throw new IndexOutOfBoundsException("No room for the delimiter at " + offset);
+            }
+            out[offset++] = delimiter;
+        }
+        return offset;
+    }
+
+    /**
+     * Appends the grouped value; the builder grows at most once and nothing else is
+     * allocated.
+     */
+    public static StringBuilder append(StringBuilder builder, long value) {
+        return append(builder, value, ',');
+    }
+
+    public static StringBuilder append(StringBuilder builder, long value, char separator) {
+        int start = builder.length();
+        int position = start + length(value);
+        builder.setLength(position);
+        long remaining = value < 0 ? value : -value;
+        while (remaining <= -1000) {
+            long quotient = remaining / 1000;
+            int group = (int) (quotient * 1000 - remaining) * 3;
+            builder.setCharAt(--position, (char) GROUPS[group + 2]);
+            builder.setCharAt(--position, (char) GROUPS[group + 1]);
+            builder.setCharAt(--position, (char) GROUPS[group]);
+            builder.setCharAt(--position, separator);
+            remaining = quotient;
+        }
+        int group = (int) -remaining;
+        int digits = group >= 100 ? 3 : group >= 10 ? 2 : 1;
+        for (int i = 0; i < digits; i++) {
+            builder.setCharAt(--position, (char) GROUPS[group * 3 + 2 - i]);
+        }
+        if (value < 0) {
+            builder.setCharAt(start, '-');
+        }
+        return builder;
+    }
+
+    public static String toString(long value) {
+        return append(new StringBuilder(MAX_LENGTH), value).toString();
+    }
+
+    private static int digits(long value) {
+        long negative = value < 0 ? value : -value;
+        long power = -10;
+        for (int digits = 1; digits < 19; digits++) {
+            if (negative > power) {
+                return digits;
+            }
+            power *= 10;
+        }
+        return 19;
+    }
+}
@@ -0,0 +1,541 @@
+package com.javaevolution.primitivetypes;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses ints, longs and doubles from {@code CharSequence}s and ranges of ASCII/UTF-8
+ * {@code byte[]}, reporting bad input with a status code instead of an exception.
+ *
+ * {@code Integer.parseInt} and {@code Double.parseDouble} throw
+ * {@code NumberFormatException} for every malformed field. With a large share of dirty
+ * fields the cost of creating and unwinding those exceptions, stack traces included,
+ * dominates. Here the status of the last parse is in {@link #status()}, and the bulk
+ * methods fill a status column next to the values.
+ *
+ * Doubles take, in order:
+ * - Clinger's fast path: up to 2^53 with a power of ten up to 22 is one exact
+ *   multiplication or division
+ * - the Eisel-Lemire algorithm: the decimal mantissa times a 128-bit approximation of
+ *   the power of ten, which is enough to round correctly unless the product is too
+ *   close to a halfway point
+ * - {@code Double.parseDouble} on the text, for those rare halfway cases, subnormals,
+ *   more than 19 significant digits and hexadecimal input. The syntax has been checked
+ *   by then, so it does not throw.
+ *
+ * The syntax is that of {@code Integer.parseInt} (no whitespace) and
+ * {@code Double.parseDouble} (surrounding whitespace, NaN, Infinity, f/d suffixes),
+ * except that only ASCII digits are accepted.
+ *
+ * A parser instance is not thread-safe; it only holds the last status.
+ */
+public final class NumberParser {
+
+    public static final byte OK = 0;
+    public static final byte EMPTY = 1;
+    public static final byte INVALID = 2;
+    /** An integer outside the range of the type. Doubles overflow to infinity instead. */
+    public static final byte OVERFLOW = 3;
+
+    private static final int MIN_EXP10 = -348;
+    private static final int MAX_EXP10 = 347;
+    private static final long[] POW10_MANTISSAS = powersOfTen();
+    private static final double[] EXACT_POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final int MAX_MANTISSA_DIGITS = 19;
+
+    private byte status = OK;
+
+    /**
+     * Status of the last parse: {@link #OK}, {@link #EMPTY}, {@link #INVALID} or
+     * {@link #OVERFLOW}. Failed parses return 0.
+     */
+    public byte status() {
+        return status;
+    }
+
+    public boolean ok() {
+        return status == OK;
+    }
+
+    public int parseInt(CharSequence text) {
+        return (int) parseInteger(text, 0, text.length(), Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    public int parseInt(CharSequence text, int from, int to) {
+        checkRange(text.length(), from, to);
+        return (int) parseInteger(text, from, to, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    public int parseInt(byte[] text, int from, int to) {
+        checkRange(text.length, from, to);
+        return (int) parseInteger(text, from, to, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    public long parseLong(CharSequence text) {
+        return parseInteger(text, 0, text.length(), Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    public long parseLong(byte[] text, int from, int to) {
+        checkRange(text.length, from, to);
+        return parseInteger(text, from, to, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    public double parseDouble(CharSequence text) {
+        return parseFloating(text, 0, text.length());
+    }
+
+    public double parseDouble(CharSequence text, int from, int to) {
+        checkRange(text.length(), from, to);
+        return parseFloating(text, from, to);
+    }
+
+    public double parseDouble(byte[] text, int from, int to) {
+        checkRange(text.length, from, to);
+        return parseFloating(text, from, to);
+    }
+
+    /**
+     * As {@code Integer.parseInt}, but the default instead of an exception.
+     */
+    public static int parseInt(CharSequence text, int defaultValue) {
+        NumberParser parser = new NumberParser();
+        int value = parser.parseInt(text);
+        return parser.ok() ? value : defaultValue;
+    }
+
+    public static double parseDouble(CharSequence text, double defaultValue) {
+        NumberParser parser = new NumberParser();
+        double value = parser.parseDouble(text);
+        return parser.ok() ? value : defaultValue;
+    }
+
+    // Bulk
+
+    /**
+     * Parses field i from {@code starts[i]} to {@code ends[i]} of the data into
+     * {@code out[i]}, its status into {@code status[i]}; returns how many parsed OK.
+     */
+    public static int parseInts(byte[] data, int[] starts, int[] ends, int[] out, byte[] status) {
+        checkColumns(starts.length, ends.length, out.length, status.length);
+        NumberParser parser = new NumberParser();
+        int ok = 0;
+        for (int i = 0; i < out.length; i++) {
+            out[i] = parser.parseInt(data, starts[i], ends[i]);
+            status[i] = parser.status;
+            ok += parser.status == OK ? 1 : 0;
+        }
+        return ok;
+    }
+
+    public static int parseDoubles(byte[] data, int[] starts, int[] ends, double[] out, byte[] status) {
+        checkColumns(starts.length, ends.length, out.length, status.length);
+        NumberParser parser = new NumberParser();
+        int ok = 0;
+        for (int i = 0; i < out.length; i++) {
+            out[i] = parser.parseDouble(data, starts[i], ends[i]);
+            status[i] = parser.status;
+            ok += parser.status == OK ? 1 : 0;
+        }
+        return ok;
+    }
+
+    public static int parseInts(CharSequence[] fields, int[] out, byte[] status) {
+        checkColumns(fields.length, out.length, status.length);
+        NumberParser parser = new NumberParser();
+        int ok = 0;
+        for (int i = 0; i < out.length; i++) {
+            out[i] = fields[i] == null ? 0 : parser.parseInt(fields[i]);
+            status[i] = fields[i] == null ? EMPTY : parser.status;
+            ok += status[i] == OK ? 1 : 0;
+        }
+        return ok;
+    }
+
+    public static int parseDoubles(CharSequence[] fields, double[] out, byte[] status) {
+        checkColumns(fields.length, out.length, status.length);
+        NumberParser parser = new NumberParser();
+        int ok = 0;
+        for (int i = 0; i < out.length; i++) {
+            out[i] = fields[i] == null ? 0 : parser.parseDouble(fields[i]);
+            status[i] = fields[i] == null ? EMPTY : parser.status;
+            ok += status[i] == OK ? 1 : 0;
+        }
+        return ok;
+    }
+
+    /**
+     * Parses the delimiter-separated doubles between {@code from} and {@code to}, e.g. a
+     * column file with one value per line ({@code '\n'}; a '\r' before it is trimmed as
+     * whitespace). A trailing delimiter does not start another field. Returns the number
+     * of fields; fails if there are more than {@code out.length}.
+     */
+    public static int parseDoubles(byte[] data, int from, int to, byte delimiter, double[] out, byte[] status) {
+        checkRange(data.length, from, to);
+        checkColumns(out.length, status.length);
+        NumberParser parser = new NumberParser();
+        int field = 0;
+        int start = from;
+        while (start < to) {
+            int end = start;
+            while (end < to && data[end] != delimiter) {
+                end++;
+            }
+            if (field == out.length) {
+                throw new IllegalArgumentException("More than " + out.length + " fields");
+            }
+            out[field] = parser.parseFloating(data, start, end);
+            status[field] = parser.status;
+            field++;
+            start = end + 1;
+        }
+        return field;
+    }
+
+    // Integers
+
+    private long parseInteger(Object text, int from, int to, long min, long max) {
+        if (from == to) {
+            return fail(EMPTY);
+        }
+        int i = from;
+        int first = at(text, i);
+        boolean negative = first == '-';
+        if (negative || first == '+') {
+            if (++i == to) {
+                return fail(INVALID);
+            }
+        }
+        if (to - i <= (max <= Integer.MAX_VALUE ? 9 : 18)) {
+            // Too few digits to overflow: no range checks
+            long result = 0;
+            for (; i < to; i++) {
+                int digit = at(text, i) - '0';
+                if (digit < 0 || digit > 9) {
+                    return fail(INVALID);
+                }
+                result = result * 10 + digit;
+            }
+            status = OK;
+            return negative ? -result : result;
+        }
+        // Accumulated negatively, as Long.parseLong does: |MIN_VALUE| > MAX_VALUE
+        long limit = negative ? min : -max;
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        boolean overflow = false;
+        for (; i < to; i++) {
+            int digit = at(text, i) - '0';
+            if (digit < 0 || digit > 9) {
+                return fail(INVALID);
+            }
+            if (result < multiplyLimit || result * 10 < limit + digit) {
+                // Keep scanning: a later non-digit makes it INVALID rather than OVERFLOW
+                overflow = true;
+            } else {
+                result = result * 10 - digit;
+            }
+        }
+        if (overflow) {
+            return fail(OVERFLOW);
+        }
+        status = OK;
+        return negative ? result : -result;
+    }
+
+    // Doubles
+
+    private double parseFloating(Object text, int from, int to) {
+        while (from < to && at(text, from) <= ' ') {
+            from++;
+        }
+        while (to > from && at(text, to - 1) <= ' ') {
+            to--;
+        }
+        if (from == to) {
+            return fail(EMPTY);
+        }
+        int i = from;
+        int c = at(text, i);
+        boolean negative = c == '-';
+        if (negative || c == '+') {
+            if (++i == to) {
+                return fail(INVALID);
+            }
+            c = at(text, i);
+        }
+        if (c == 'N' || c == 'I') {
+            return special(text, i, to, negative);
+        }
+        if (c == '0' && i + 1 < to && (at(text, i + 1) | 0x20) == 'x') {
+            return hexadecimal(text, from, to);
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+        boolean truncated = false;
+        for (; i < to && (c = at(text, i) - '0') >= 0 && c <= 9; i++) {
+            anyDigit = true;
+            if (digits < MAX_MANTISSA_DIGITS) {
+                mantissa = mantissa * 10 + c;
+                // Leading zeros are not significant
+                digits += mantissa == 0 ? 0 : 1;
+            } else {
+                exponent++;
+                truncated |= c != 0;
+            }
+        }
+        if (i < to && at(text, i) == '.') {
+            for (i++; i < to && (c = at(text, i) - '0') >= 0 && c <= 9; i++) {
+                anyDigit = true;
+                if (digits < MAX_MANTISSA_DIGITS) {
+                    mantissa = mantissa * 10 + c;
+                    digits += mantissa == 0 ? 0 : 1;
+                    exponent--;
+                } else {
+                    truncated |= c != 0;
+                }
+            }
+        }
+        if (!anyDigit) {
+            return fail(INVALID);
+        }
+        if (i < to && (at(text, i) | 0x20) == 'e') {
+            if (++i == to) {
+                return fail(INVALID);
+            }
+            boolean negativeExponent = at(text, i) == '-';
+            if ((negativeExponent || at(text, i) == '+') && ++i == to) {
+                return fail(INVALID);
+            }
+            int explicit = 0;
+            int start = i;
+            for (; i < to && (c = at(text, i) - '0') >= 0 && c <= 9; i++) {
+                // Saturates far outside the double range, instead of overflowing
+                explicit = Math.min(explicit * 10 + c, 100_000);
+            }
+            if (i == start) {
+                return fail(INVALID);
+            }
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+        if (i < to && ((c = at(text, i) | 0x20) == 'f' || c == 'd')) {
+            i++;
+        }
+        if (i != to) {
+            return fail(INVALID);
+        }
+
+        status = OK;
+        if (truncated) {
+            return Double.parseDouble(text(text, from, to));
+        }
+        double value = toDouble(mantissa, exponent, negative);
+        return Double.isNaN(value) ? Double.parseDouble(text(text, from, to)) : value;
+    }
+
+    /**
+     * The double nearest to {@code mantissa * 10^exponent}, or NaN if it takes the slow
+     * path. The mantissa is an unsigned 64-bit value of at most 19 digits.
+     */
+    static double toDouble(long mantissa, int exponent, boolean negative) {
+        if (mantissa == 0) {
+            return negative ? -0.0 : 0.0;
+        }
+        if (mantissa >= 0 && mantissa <= 1L << 53 && exponent >= -22 && exponent <= 22) {
+            double value = mantissa;
+            value = exponent < 0 ? value / EXACT_POW10[-exponent] : value * EXACT_POW10[exponent];
+            return negative ? -value : value;
+        }
+        if (exponent < MIN_EXP10) {
+            // Below 10^19 * 10^-349, far under half the smallest subnormal
+            return negative ? -0.0 : 0.0;
+        }
+        if (exponent > MAX_EXP10) {
+            return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        return eiselLemire(mantissa, exponent, negative);
+    }
+
+    /**
+     * Eisel-Lemire, as in Go's strconv: 128-bit product of the normalized mantissa and
+     * the truncated power of ten, with a wider product only when the first one may be
+     * off by a carry. NaN when the result is ambiguous, subnormal or out of range.
+     */
+    private static double eiselLemire(long mantissa, int exponent, boolean negative) {
+        int leadingZeros = Long.numberOfLeadingZeros(mantissa);
+        mantissa <<= leadingZeros;
+        // 217706 / 2^16 approximates log2(10)
+        long binaryExponent = ((217706L * exponent) >> 16) + 64 + 1023 - leadingZeros;
+        int index = (exponent - MIN_EXP10) * 2;
+        long powerHigh = POW10_MANTISSAS[index];
+        long powerLow = POW10_MANTISSAS[index + 1];
+
+        long high = unsignedMultiplyHigh(mantissa, powerHigh);
+        long low = mantissa * powerHigh;
+        if ((high & 0x1FF) == 0x1FF && Long.compareUnsigned(low + mantissa, mantissa) < 0) {
+            long lowHigh = unsignedMultiplyHigh(mantissa, powerLow);
+            long lowLow = mantissa * powerLow;
+            long mergedHigh = high;
+            long mergedLow = low + lowHigh;
+            if (Long.compareUnsigned(mergedLow, low) < 0) {
+                mergedHigh++;
+            }
+            if ((mergedHigh & 0x1FF) == 0x1FF && mergedLow == -1
+                    && Long.compareUnsigned(lowLow + mantissa, mantissa) < 0) {
+                return Double.NaN;
+            }
+            high = mergedHigh;
+            low = mergedLow;
+        }
+
+        long topBit = high >>> 63;
+        long bits = high >>> (topBit + 9);
+        binaryExponent -= 1 ^ topBit;
+        // Exactly halfway between two doubles: round-half-even needs the full value
+        if (low == 0 && (high & 0x1FF) == 0 && (bits & 3) == 1) {
+            return Double.NaN;
+        }
+        bits += bits & 1;
+        bits >>>= 1;
+        if (bits >>> 53 > 0) {
+            bits >>>= 1;
+            binaryExponent++;
+        }
+        if (binaryExponent <= 0 || binaryExponent >= 0x7FF) {
+            return Double.NaN;
+        }
+        long result = binaryExponent << 52 | bits & 0x000F_FFFF_FFFF_FFFFL;
+        return Double.longBitsToDouble(negative ? result | Long.MIN_VALUE : result);
+    }
+
+    private double special(Object text, int from, int to, boolean negative) {
+        if (matches(text, from, to, "NaN")) {
+            status = OK;
+            return Double.NaN;
+        }
+        if (matches(text, from, to, "Infinity")) {
+            status = OK;
+            return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        return fail(INVALID);
+    }
+
+    /**
+     * Hexadecimal floating point ({@code 0x1.8p3}) is rare enough to leave to the JDK
+     * once the syntax is checked, so that "0x" in a dirty column does not throw.
+     */
+    private double hexadecimal(Object text, int from, int to) {
+        int i = from;
+        while (at(text, i) != 'x' && at(text, i) != 'X') {
+            i++;
+        }
+        int start = ++i;
+        while (i < to && isHexDigit(at(text, i))) {
+            i++;
+        }
+        int digits = i - start;
+        if (i < to && at(text, i) == '.') {
+            start = ++i;
+            while (i < to && isHexDigit(at(text, i))) {
+                i++;
+            }
+            digits += i - start;
+        }
+        if (digits == 0 || i == to || (at(text, i) | 0x20) != 'p') {
+            return fail(INVALID);
+        }
+        if (++i < to && (at(text, i) == '-' || at(text, i) == '+')) {
+            i++;
+        }
+        start = i;
+        while (i < to && at(text, i) >= '0' && at(text, i) <= '9') {
+            i++;
+        }
+        int c;
+        if (i < to && ((c = at(text, i) | 0x20) == 'f' || c == 'd')) {
+            i++;
+        }
+        if (i == start || i != to) {
+            return fail(INVALID);
+        }
+        status = OK;
+        return Double.parseDouble(text(text, from, to));
+    }
+
+    private static boolean isHexDigit(int c) {
+        return c >= '0' && c <= '9' || (c | 0x20) >= 'a' && (c | 0x20) <= 'f';
+    }
+
+    private long fail(byte failure) {
+        status = failure;
+        return 0;
+    }
+
+    private static boolean matches(Object text, int from, int to, String expected) {
+        if (to - from != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (at(text, from + i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int at(Object text, int index) {
+        return text instanceof byte[] bytes ? bytes[index] & 0xFF : ((CharSequence) text).charAt(index);
+    }
+
+    private static String text(Object text, int from, int to) {
+        return text instanceof byte[] bytes
+            ? new String(bytes, from, to - from, StandardCharsets.ISO_8859_1)
+            : ((CharSequence) text).subSequence(from, to).toString();
+    }
+
+    private static long unsignedMultiplyHigh(long a, long b) {
+        return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+    }
+
+    /**
+     * 128-bit mantissas of 10^MIN_EXP10 .. 10^MAX_EXP10, rounded down and normalized so
+     * the top bit is set; high word first.
+     */
+    private static long[] powersOfTen() {
+        long[] table = new long[(MAX_EXP10 - MIN_EXP10 + 1) * 2];
+        for (int exponent = MIN_EXP10; exponent <= MAX_EXP10; exponent++) {
+            BigInteger mantissa;
+            if (exponent >= 0) {
+                BigInteger power = BigInteger.TEN.pow(exponent);
+                int shift = power.bitLength() - 128;
+                mantissa = shift >= 0 ? power.shiftRight(shift) : power.shiftLeft(-shift);
+            } else {
+                BigInteger divisor = BigInteger.TEN.pow(-exponent);
+                mantissa = BigInteger.ONE.shiftLeft(127 + divisor.bitLength()).divide(divisor);
+            }
+            int index = (exponent - MIN_EXP10) * 2;
+            table[index] = mantissa.shiftRight(64).longValue();
+            table[index + 1] = mantissa.longValue();
+        }
+        return table;
+    }
+
+    private static void checkRange(int length, int from, int to) {
+        if (from < 0 || to > length || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for length " + length);
+        }
+    }
+
+    private static void checkColumns(int... lengths) {
+        for (int length : lengths) {
+            if (length != lengths[0]) {
+                throw new IllegalArgumentException("Column lengths differ: " + java.util.Arrays.toString(lengths));
+            }
+        }
+    }
+}
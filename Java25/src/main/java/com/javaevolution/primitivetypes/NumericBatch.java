@@ -0,0 +1,280 @@
+package com.javaevolution.primitivetypes;
+
+import java.util.Arrays;
+
+/**
+ * Columnar versions of {@link PrimitiveTypesFinalExample#performMathOperation},
+ * {@link PrimitiveTypesFinalExample#compareNumbers} and its {@code extractAsDouble}.
+ *
+ * The scalar methods take one boxed {@code Object} per value and find its type with a
+ * chain of {@code instanceof}. Here values arrive as primitive columns and results are
+ * written to primitive arrays: the operation is chosen once per batch, and each loop
+ * body is a single arithmetic expression over arrays, which C2 unrolls and compiles
+ * to SIMD instructions (superword). Nothing is boxed or allocated per element.
+ *
+ * Mixed input is a type tag column plus a {@code long} payload column: ints, longs,
+ * bytes and shorts as their value, floats and doubles as their raw bits (see {@link #encode(double)}
+ * and friends). Mixed columns are widened to doubles in blocks of {@link #BLOCK}
+ * elements, so the arithmetic loops stay the same vectorizable loops.
+ *
+ * Results follow the scalar methods: operations and comparisons are done in double,
+ * division by zero gives NaN, and a value that is not a number ({@link #NONE}, or a
+ * char or boolean of {@link PrimitiveValue}) counts as 0.0.
+ *
+ * In Java 25+ the scalar code would use primitive patterns
+ * ({@code case int i -> ...}); the batch loops are the same in any version.
+ */
+public final class NumericBatch {
+
+    public static final byte NONE = 0;
+    public static final byte INT = 1;
+    public static final byte LONG = 2;
+    public static final byte FLOAT = 3;
+    public static final byte DOUBLE = 4;
+    public static final byte BYTE = 5;
+    public static final byte SHORT = 6;
+
+    /**
+     * Elements widened per step for mixed columns: two blocks of doubles fit in L1.
+     */
+    static final int BLOCK = 1024;
+
+    private NumericBatch() {
+    }
+
+    /**
+     * The operations of performMathOperation, by the same names.
+     */
+    public enum Operation {
+        ADD, SUBTRACT, MULTIPLY, DIVIDE;
+
+        public static Operation of(String name) {
+            return switch (name) {
+                case "add" -> ADD;
+                case "subtract" -> SUBTRACT;
+                case "multiply" -> MULTIPLY;
+                case "divide" -> DIVIDE;
+                default -> throw new IllegalArgumentException("Unknown operation: " + name);
+            };
+        }
+    }
+
+    public static long encode(int value) {
+        return value;
+    }
+
+    public static long encode(long value) {
+        return value;
+    }
+
+    public static long encode(float value) {
+        return Float.floatToRawIntBits(value) & 0xFFFF_FFFFL;
+    }
+
+    public static long encode(double value) {
+        return Double.doubleToRawLongBits(value);
+    }
+
+    /**
+     * The value of one mixed element as a double, as extractAsDouble.
+     */
+    public static double decode(byte tag, long payload) {
+        return switch (tag) {
+            case INT, LONG, BYTE, SHORT -> (double) payload;
+            case FLOAT -> Float.intBitsToFloat((int) payload);
+            case DOUBLE -> Double.longBitsToDouble(payload);
+            default -> 0.0;
+        };
+    }
+
+    // Widening
+
+    public static void toDoubles(int[] values, double[] out) {
+        checkLengths(values.length, out.length);
+        for (int i = 0; i < out.length; i++) {
+            out[i] = values[i];
+        }
+    }
+
+    public static void toDoubles(long[] values, double[] out) {
+        checkLengths(values.length, out.length);
+        for (int i = 0; i < out.length; i++) {
+            out[i] = values[i];
+        }
+    }
+
+    /**
+     * Widens a mixed column; one tag switch per element, but no boxing.
+     */
+    public static void toDoubles(byte[] tags, long[] payload, double[] out) {
+        checkLengths(tags.length, payload.length, out.length);
+        widen(tags, payload, 0, out.length, out);
+    }
+
+    // Arithmetic
+
+    public static void apply(Operation operation, double[] a, double[] b, double[] out) {
+        checkLengths(a.length, b.length, out.length);
+        applyBlock(operation, a, b, out, 0, out.length);
+    }
+
+    public static void apply(Operation operation, int[] a, int[] b, double[] out) {
+        checkLengths(a.length, b.length, out.length);
+        // Each case is its own loop, so the operation is not re-tested per element
+        switch (operation) {
+            case ADD -> {
+                for (int i = 0; i < out.length; i++) {
+                    out[i] = (double) a[i] + b[i];
+                }
+            }
+            case SUBTRACT -> {
+                for (int i = 0; i < out.length; i++) {
+                    out[i] = (double) a[i] - b[i];
+                }
+            }
+            case MULTIPLY -> {
+                for (int i = 0; i < out.length; i++) {
+                    out[i] = (double) a[i] * b[i];
+                }
+            }
+            case DIVIDE -> {
+                for (int i = 0; i < out.length; i++) {
+                    out[i] = b[i] != 0 ? (double) a[i] / b[i] : Double.NaN;
+                }
+            }
+        }
+    }
+
+    public static void apply(Operation operation, long[] a, long[] b, double[] out) {
+        checkLengths(a.length, b.length, out.length);
+        switch (operation) {
+            case ADD -> {
+                for (int i = 0; i < out.length; i++) {
+                    out[i] = (double) a[i] + b[i];
+                }
+            }
+            case SUBTRACT -> {
+                for (int i = 0; i < out.length; i++) {
+                    out[i] = (double) a[i] - b[i];
+                }
+            }
+            case MULTIPLY -> {
+                for (int i = 0; i < out.length; i++) {
+                    out[i] = (double) a[i] * b[i];
+                }
+            }
+            case DIVIDE -> {
+                for (int i = 0; i < out.length; i++) {
+                    out[i] = b[i] != 0 ? (double) a[i] / b[i] : Double.NaN;
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the operation to two mixed columns, block by block.
+     */
+    public static void apply(Operation operation, byte[] tagsA, long[] a, byte[] tagsB, long[] b, double[] out) {
+        checkLengths(tagsA.length, a.length, tagsB.length, b.length, out.length);
+        double[] left = new double[Math.min(BLOCK, out.length)];
+        double[] right = new double[left.length];
+        for (int from = 0; from < out.length; from += BLOCK) {
+            int count = Math.min(BLOCK, out.length - from);
+            widen(tagsA, a, from, count, left);
+            widen(tagsB, b, from, count, right);
+            applyBlock(operation, left, right, out, from, count);
+        }
+    }
+
+    // Comparison
+
+    /**
+     * {@code Double.compare} of each pair: -1, 0 or 1.
+     */
+    public static void compare(double[] a, double[] b, int[] out) {
+        checkLengths(a.length, b.length, out.length);
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Double.compare(a[i], b[i]);
+        }
+    }
+
+    public static void compare(int[] a, int[] b, int[] out) {
+        checkLengths(a.length, b.length, out.length);
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Integer.compare(a[i], b[i]);
+        }
+    }
+
+    /**
+     * Exact, where compareNumbers rounds longs beyond 2^53 to double first.
+     */
+    public static void compare(long[] a, long[] b, int[] out) {
+        checkLengths(a.length, b.length, out.length);
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Long.compare(a[i], b[i]);
+        }
+    }
+
+    /**
+     * Compares two mixed columns as doubles, as compareNumbers does.
+     */
+    public static void compare(byte[] tagsA, long[] a, byte[] tagsB, long[] b, int[] out) {
+        checkLengths(tagsA.length, a.length, tagsB.length, b.length, out.length);
+        double[] left = new double[Math.min(BLOCK, out.length)];
+        double[] right = new double[left.length];
+        for (int from = 0; from < out.length; from += BLOCK) {
+            int count = Math.min(BLOCK, out.length - from);
+            widen(tagsA, a, from, count, left);
+            widen(tagsB, b, from, count, right);
+            for (int i = 0; i < count; i++) {
+                out[from + i] = Double.compare(left[i], right[i]);
+            }
+        }
+    }
+
+    /**
+     * Applies the operation to {@code count} operands at 0 of {@code a} and {@code b},
+     * writing the results from {@code from} in {@code out}.
+     */
+    private static void applyBlock(Operation operation, double[] a, double[] b, double[] out, int from, int count) {
+        switch (operation) {
+            case ADD -> {
+                for (int i = 0; i < count; i++) {
+                    out[from + i] = a[i] + b[i];
+                }
+            }
+            case SUBTRACT -> {
+                for (int i = 0; i < count; i++) {
+                    out[from + i] = a[i] - b[i];
+                }
+            }
+            case MULTIPLY -> {
+                for (int i = 0; i < count; i++) {
+                    out[from + i] = a[i] * b[i];
+                }
+            }
+            case DIVIDE -> {
+                for (int i = 0; i < count; i++) {
+                    out[from + i] = b[i] != 0 ? a[i] / b[i] : Double.NaN;
+                }
+            }
+        }
+    }
+
+    /**
+     * Widens {@code count} mixed elements from {@code from} into {@code out} at 0.
+     */
+    private static void widen(byte[] tags, long[] payload, int from, int count, double[] out) {
+        for (int i = 0; i < count; i++) {
+            out[i] = decode(tags[from + i], payload[from + i]);
+        }
+    }
+
+    private static void checkLengths(int... lengths) {
+        for (int length : lengths) {
+            if (length != lengths[0]) {
+                throw new IllegalArgumentException("Column lengths differ: " + Arrays.toString(lengths));
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.javaevolution.primitivetypes;
 
+import java.text.DecimalFormatSymbols;
+
 /**
  * Demonstrates Primitive Types in Patterns (Expected Final in Java 25).
  * 
@@ -18,6 +20,9 @@ package com.javaevolution.primitivetypes;
  */
 public class PrimitiveTypesFinalExample {
 
+    // The separator "%,d" would use, looked up once instead of on every call
+    private static final char GROUPING_SEPARATOR = DecimalFormatSymbols.getInstance().getGroupingSeparator();
+
     /**
      * Example record types for demonstrations
      */
@@ -90,10 +95,13 @@ public class PrimitiveTypesFinalExample {
      */
     public String classifyCharacter(Object obj) {
         if (obj instanceof Character c) {
-            if (Character.isDigit(c)) return "Digit: " + c;
-            if (Character.isLetter(c)) return "Letter: " + c;
-            if (Character.isWhitespace(c)) return "Whitespace";
-            return "Special character: " + c;
+            // One table lookup instead of the Character.isXxx property lookups
+            return switch (CharClassifier.classOf(c)) {
+                case CharClassifier.DIGIT -> "Digit: " + c;
+                case CharClassifier.LETTER -> "Letter: " + c;
+                case CharClassifier.WHITESPACE -> "Whitespace";
+                default -> "Special character: " + c;
+            };
         }
         return "Not a character";
     }
@@ -139,13 +147,8 @@ public class PrimitiveTypesFinalExample {
         if (obj instanceof Long l) return l.intValue();
         if (obj instanceof Double d) return d.intValue();
         if (obj instanceof Float f) return f.intValue();
-        if (obj instanceof String s) {
-            try {
-                return Integer.parseInt(s);
-            } catch (NumberFormatException e) {
-                return 0;
-            }
-        }
+        // NumberParser reports bad input with a status code, not an exception
+        if (obj instanceof String s) return NumberParser.parseInt(s, 0);
         return 0;
     }
 
@@ -170,13 +173,7 @@ public class PrimitiveTypesFinalExample {
         if (obj instanceof Float f) return f.doubleValue();
         if (obj instanceof Integer i) return i.doubleValue();
         if (obj instanceof Long l) return l.doubleValue();
-        if (obj instanceof String s) {
-            try {
-                return Double.parseDouble(s);
-            } catch (NumberFormatException e) {
-                return 0.0;
-            }
-        }
+        if (obj instanceof String s) return NumberParser.parseDouble(s, 0.0);
         return 0.0;
     }
 
@@ -232,22 +229,20 @@ public class PrimitiveTypesFinalExample {
     }
 
     /**
-     * Example 14: Primitive array patterns (conceptual)
+     * Example 14: Primitive array patterns (conceptual), reduced with {@link ArrayKernels}
      */
     public String analyzeArray(Object obj) {
         if (obj instanceof int[] arr) {
             if (arr.length == 0) return "Empty int array";
-            int sum = 0;
-            for (int val : arr) sum += val;
+            // The int sum wraps around on overflow, as a loop over ints would
+            int sum = (int) ArrayKernels.sum(arr);
             return "Int array with sum: " + sum;
         } else if (obj instanceof double[] arr) {
             if (arr.length == 0) return "Empty double array";
-            double sum = 0.0;
-            for (double val : arr) sum += val;
+            double sum = ArrayKernels.sum(arr);
             return "Double array with sum: " + sum;
         } else if (obj instanceof boolean[] arr) {
-            int trueCount = 0;
-            for (boolean val : arr) if (val) trueCount++;
+            int trueCount = ArrayKernels.countTrue(arr);
             return "Boolean array: " + trueCount + " true values";
         }
         return "Not a primitive array";
@@ -266,10 +261,12 @@ public class PrimitiveTypesFinalExample {
      * Example 16: Type-specific formatting
      */
     public String formatNumber(Object obj) {
+        // GroupedFormatter instead of parsing "%,d" on every call. Grouping follows the
+        // default locale as of class initialization; digits are always ASCII.
         if (obj instanceof Integer i) {
-            return String.format("Integer: %,d", i);
+            return GroupedFormatter.append(new StringBuilder("Integer: "), i, GROUPING_SEPARATOR).toString();
         } else if (obj instanceof Long l) {
-            return String.format("Long: %,d", l);
+            return GroupedFormatter.append(new StringBuilder("Long: "), l, GROUPING_SEPARATOR).toString();
         } else if (obj instanceof Double d) {
             return String.format("Double: %.2f", d);
         } else if (obj instanceof Float f) {
@@ -298,4 +295,74 @@ public class PrimitiveTypesFinalExample {
         }
         return "Not an Integer wrapper";
     }
+
+    /**
+     * Example 19: Columnar math operations, one operation over whole columns
+     * (see {@link NumericBatch})
+     */
+    public double[] performMathOperation(double[] a, double[] b, String operation) {
+        double[] result = new double[a.length];
+        NumericBatch.apply(NumericBatch.Operation.of(operation), a, b, result);
+        return result;
+    }
+
+    /**
+     * Example 20: The same classifications on a {@link PrimitiveValue}: one switch on
+     * the kind, no instanceof chain and no boxing. A null value is treated as
+     * {@link PrimitiveValue#NONE}, as the Object versions treat null.
+     */
+    public String classifyInteger(PrimitiveValue value) {
+        // Java 25+: if (value.bits() instanceof int i) after checking the kind
+        if (kindOf(value) != PrimitiveValue.Kind.INT) return "Not an integer";
+        int i = (int) value.bits();
+        if (i > 0) return "Positive integer: " + i;
+        if (i < 0) return "Negative integer: " + i;
+        return "Zero";
+    }
+
+    public String describeLong(PrimitiveValue value) {
+        if (kindOf(value) != PrimitiveValue.Kind.LONG) return "Not a long";
+        long l = value.bits();
+        if (l < 1000L) return "Small long: " + l;
+        if (l < 1000000L) return "Medium long: " + l;
+        return "Large long: " + l;
+    }
+
+    public String classifyDouble(PrimitiveValue value) {
+        if (kindOf(value) != PrimitiveValue.Kind.DOUBLE) return "Not a double";
+        double d = Double.longBitsToDouble(value.bits());
+        if (Math.abs(d) < 1.0) return "Fraction: " + d;
+        if (Double.isInfinite(d)) return "Infinite";
+        if (Double.isNaN(d)) return "Not a Number";
+        return "Regular double: " + d;
+    }
+
+    public String checkRange(PrimitiveValue value) {
+        return switch (kindOf(value)) {
+            case INT -> {
+                int i = (int) value.bits();
+                if (i >= 0 && i < 10) yield "Single digit: " + i;
+                if (i >= 10 && i < 100) yield "Double digit: " + i;
+                if (i >= 100 && i < 1000) yield "Triple digit: " + i;
+                yield "Large number: " + i;
+            }
+            case LONG -> {
+                long l = value.bits();
+                yield l < 1000L ? "Small long: " + l : "Large long: " + l;
+            }
+            case DOUBLE -> {
+                double d = Double.longBitsToDouble(value.bits());
+                yield Math.abs(d) < 1.0 ? "Fraction: " + d : "Large double: " + d;
+            }
+            default -> "Other number type";
+        };
+    }
+
+    public int safeExtractInt(PrimitiveValue value, int defaultValue) {
+        return PrimitiveValue.intValue(kindOf(value), value == null ? 0 : value.bits(), defaultValue);
+    }
+
+    private static PrimitiveValue.Kind kindOf(PrimitiveValue value) {
+        return value == null ? PrimitiveValue.Kind.NONE : value.kind();
+    }
 }
@@ -0,0 +1,199 @@
+package com.javaevolution.primitivetypes;
+
+/**
+ * A primitive of any kind as a tag plus a raw 64-bit payload, instead of a boxed
+ * {@code Integer}, {@code Double} or {@code Object...} argument.
+ *
+ * The payload encoding is that of {@link NumericBatch}: integral kinds hold their
+ * sign-extended value (chars zero-extended, booleans 0 or 1), floats the raw bits in
+ * the low 32 bits and doubles their raw bits. The numeric tags are NumericBatch's,
+ * so a {@link PrimitiveValues} column can be handed to it directly.
+ *
+ * A record of an enum and a long: when it does not escape, C2 scalar-replaces it and
+ * nothing is allocated at all; in arrays, {@link PrimitiveValues} stores the two
+ * fields in two primitive columns.
+ *
+ * In Java 25+ the payload is matched with primitive patterns, which test that the
+ * conversion is exact: {@code if (value.bits() instanceof int i)}.
+ */
+public record PrimitiveValue(Kind kind, long bits) {
+
+    public enum Kind {
+        NONE(NumericBatch.NONE),
+        INT(NumericBatch.INT),
+        LONG(NumericBatch.LONG),
+        FLOAT(NumericBatch.FLOAT),
+        DOUBLE(NumericBatch.DOUBLE),
+        BYTE(NumericBatch.BYTE),
+        SHORT(NumericBatch.SHORT),
+        CHAR((byte) 7),
+        BOOLEAN((byte) 8);
+
+        private static final Kind[] BY_TAG = values();
+
+        private final byte tag;
+
+        Kind(byte tag) {
+            this.tag = tag;
+        }
+
+        public byte tag() {
+            return tag;
+        }
+
+        public static Kind ofTag(byte tag) {
+            if (tag < 0 || tag >= BY_TAG.length) {
+                throw new IllegalArgumentException("Unknown kind tag: " + tag);
+            }
+            return BY_TAG[tag];
+        }
+
+        /**
+         * Whether values of this kind are {@code Number}s when boxed.
+         */
+        public boolean isNumber() {
+            return this != NONE && this != CHAR && this != BOOLEAN;
+        }
+    }
+
+    public static final PrimitiveValue NONE = new PrimitiveValue(Kind.NONE, 0);
+
+    public PrimitiveValue {
+        if (kind == null) {
+            throw new IllegalArgumentException("Kind must not be null");
+        }
+    }
+
+    public static PrimitiveValue of(int value) {
+        return new PrimitiveValue(Kind.INT, value);
+    }
+
+    public static PrimitiveValue of(long value) {
+        return new PrimitiveValue(Kind.LONG, value);
+    }
+
+    public static PrimitiveValue of(float value) {
+        return new PrimitiveValue(Kind.FLOAT, NumericBatch.encode(value));
+    }
+
+    public static PrimitiveValue of(double value) {
+        return new PrimitiveValue(Kind.DOUBLE, NumericBatch.encode(value));
+    }
+
+    public static PrimitiveValue of(byte value) {
+        return new PrimitiveValue(Kind.BYTE, value);
+    }
+
+    public static PrimitiveValue of(short value) {
+        return new PrimitiveValue(Kind.SHORT, value);
+    }
+
+    public static PrimitiveValue of(char value) {
+        return new PrimitiveValue(Kind.CHAR, value);
+    }
+
+    public static PrimitiveValue of(boolean value) {
+        return new PrimitiveValue(Kind.BOOLEAN, value ? 1 : 0);
+    }
+
+    /**
+     * Unboxes a wrapper; null and anything else become {@link #NONE}. For migrating
+     * boxed callers, not for hot paths.
+     */
+    public static PrimitiveValue from(Object value) {
+        if (value instanceof Integer i) return of(i.intValue());
+        if (value instanceof Long l) return of(l.longValue());
+        if (value instanceof Double d) return of(d.doubleValue());
+        if (value instanceof Float f) return of(f.floatValue());
+        if (value instanceof Byte b) return of(b.byteValue());
+        if (value instanceof Short s) return of(s.shortValue());
+        if (value instanceof Character c) return of(c.charValue());
+        if (value instanceof Boolean b) return of(b.booleanValue());
+        return NONE;
+    }
+
+    /**
+     * The value as {@code Number.intValue()} would give it, or the default for kinds
+     * that are not numbers.
+     */
+    public static int intValue(Kind kind, long bits, int defaultValue) {
+        return switch (kind) {
+            case INT, LONG, BYTE, SHORT -> (int) bits;
+            case FLOAT -> (int) Float.intBitsToFloat((int) bits);
+            case DOUBLE -> (int) Double.longBitsToDouble(bits);
+            default -> defaultValue;
+        };
+    }
+
+    public static long longValue(Kind kind, long bits, long defaultValue) {
+        return switch (kind) {
+            case INT, LONG, BYTE, SHORT -> bits;
+            case FLOAT -> (long) Float.intBitsToFloat((int) bits);
+            case DOUBLE -> (long) Double.longBitsToDouble(bits);
+            default -> defaultValue;
+        };
+    }
+
+    public static double doubleValue(Kind kind, long bits, double defaultValue) {
+        return switch (kind) {
+            case INT, LONG, BYTE, SHORT -> bits;
+            case FLOAT -> Float.intBitsToFloat((int) bits);
+            case DOUBLE -> Double.longBitsToDouble(bits);
+            default -> defaultValue;
+        };
+    }
+
+    public int intValue() {
+        return intValue(kind, bits, 0);
+    }
+
+    public long longValue() {
+        return longValue(kind, bits, 0);
+    }
+
+    public double doubleValue() {
+        return doubleValue(kind, bits, 0.0);
+    }
+
+    public float floatValue() {
+        return kind == Kind.FLOAT ? Float.intBitsToFloat((int) bits) : (float) doubleValue();
+    }
+
+    public char charValue() {
+        checkKind(Kind.CHAR);
+        return (char) bits;
+    }
+
+    public boolean booleanValue() {
+        checkKind(Kind.BOOLEAN);
+        return bits != 0;
+    }
+
+    /**
+     * The boxed equivalent, for logging and interop.
+     */
+    public Object toObject() {
+        return switch (kind) {
+            case INT -> (int) bits;
+            case LONG -> bits;
+            case FLOAT -> Float.intBitsToFloat((int) bits);
+            case DOUBLE -> Double.longBitsToDouble(bits);
+            case BYTE -> (byte) bits;
+            case SHORT -> (short) bits;
+            case CHAR -> (char) bits;
+            case BOOLEAN -> bits != 0;
+            case NONE -> null;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return kind + ":" + toObject();
+    }
+
+    private void checkKind(Kind expected) {
+        if (kind != expected) {
+            throw new IllegalStateException("Not a " + expected.name().toLowerCase() + ": " + this);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.javaevolution.primitivetypes;
+
+import java.util.Arrays;
+
+/**
+ * A growable column of {@link PrimitiveValue}s packed into a {@code byte[]} of kind
+ * tags and a {@code long[]} of payloads: nine bytes per value and no object per value.
+ *
+ * Replaces {@code Object...} arguments such as PrimitiveTypesExample.calculateSum,
+ * which allocate an array and box every element on each call. The columns are the
+ * mixed-column format of {@link NumericBatch}, so {@code tags()} and {@code payload()}
+ * go straight into its batch operations.
+ */
+public final class PrimitiveValues {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private byte[] tags;
+    private long[] payload;
+    private int size;
+
+    public PrimitiveValues() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PrimitiveValues(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be non-negative: " + capacity);
+        }
+        tags = new byte[capacity];
+        payload = new long[capacity];
+    }
+
+    /**
+     * Uses the arrays as the column, without copying; {@code size()} is their length.
+     */
+    public static PrimitiveValues wrap(byte[] tags, long[] payload) {
+        if (tags.length != payload.length) {
+            throw new IllegalArgumentException("Column lengths differ: " + tags.length + " and " + payload.length);
+        }
+        for (byte tag : tags) {
+            PrimitiveValue.Kind.ofTag(tag);
+        }
+        PrimitiveValues values = new PrimitiveValues(0);
+        values.tags = tags;
+        values.payload = payload;
+        values.size = tags.length;
+        return values;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public PrimitiveValues add(int value) {
+        return add(PrimitiveValue.Kind.INT, value);
+    }
+
+    public PrimitiveValues add(long value) {
+        return add(PrimitiveValue.Kind.LONG, value);
+    }
+
+    public PrimitiveValues add(float value) {
+        return add(PrimitiveValue.Kind.FLOAT, NumericBatch.encode(value));
+    }
+
+    public PrimitiveValues add(double value) {
+        return add(PrimitiveValue.Kind.DOUBLE, NumericBatch.encode(value));
+    }
+
+    public PrimitiveValues add(byte value) {
+        return add(PrimitiveValue.Kind.BYTE, value);
+    }
+
+    public PrimitiveValues add(short value) {
+        return add(PrimitiveValue.Kind.SHORT, value);
+    }
+
+    public PrimitiveValues add(char value) {
+        return add(PrimitiveValue.Kind.CHAR, value);
+    }
+
+    public PrimitiveValues add(boolean value) {
+        return add(PrimitiveValue.Kind.BOOLEAN, value ? 1 : 0);
+    }
+
+    public PrimitiveValues add(PrimitiveValue value) {
+        return add(value.kind(), value.bits());
+    }
+
+    /**
+     * Appends a value given as kind and payload, e.g. straight from a parser.
+     */
+    public PrimitiveValues add(PrimitiveValue.Kind kind, long bits) {
+        if (size == tags.length) {
+            int capacity = Math.max(DEFAULT_CAPACITY, size + (size >> 1));
+            tags = Arrays.copyOf(tags, capacity);
+            payload = Arrays.copyOf(payload, capacity);
+        }
+        tags[size] = kind.tag();
+        payload[size] = bits;
+        size++;
+        return this;
+    }
+
+    public PrimitiveValue.Kind kind(int index) {
+        checkIndex(index);
+        return PrimitiveValue.Kind.ofTag(tags[index]);
+    }
+
+    public long bits(int index) {
+        checkIndex(index);
+        return payload[index];
+    }
+
+    /**
+     * The value at the index; a short-lived record the JIT scalar-replaces once inlined.
+     */
+    public PrimitiveValue get(int index) {
+        return new PrimitiveValue(kind(index), payload[index]);
+    }
+
+    public int intValue(int index, int defaultValue) {
+        return PrimitiveValue.intValue(kind(index), payload[index], defaultValue);
+    }
+
+    public double doubleValue(int index, double defaultValue) {
+        return PrimitiveValue.doubleValue(kind(index), payload[index], defaultValue);
+    }
+
+    /**
+     * Sum of the int, long, float and double values, as calculateSum: other kinds are
+     * skipped.
+     */
+    public double sum() {
+        double sum = 0.0;
+        for (int i = 0; i < size; i++) {
+            long bits = payload[i];
+            switch (tags[i]) {
+                case NumericBatch.INT, NumericBatch.LONG -> sum += (double) bits;
+                case NumericBatch.FLOAT -> sum += Float.intBitsToFloat((int) bits);
+                case NumericBatch.DOUBLE -> sum += Double.longBitsToDouble(bits);
+                default -> { }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * The tag column, trimmed to {@code size()}; the backing array when it is full.
+     */
+    public byte[] tags() {
+        return size == tags.length ? tags : Arrays.copyOf(tags, size);
+    }
+
+    public long[] payload() {
+        return size == payload.length ? payload : Arrays.copyOf(payload, size);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+}
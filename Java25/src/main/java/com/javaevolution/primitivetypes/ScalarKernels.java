@@ -0,0 +1,123 @@
+package com.javaevolution.primitivetypes;
+
+/**
+ * Plain loops behind {@link ArrayKernels}, used when {@code jdk.incubator.vector}
+ * is not in the boot layer, and for the tails of {@link VectorKernels}.
+ *
+ * Each method takes a start index, so the vector subclass can hand over the elements
+ * left after its last full vector.
+ */
+class ScalarKernels {
+
+    String name() {
+        return "scalar";
+    }
+
+    long sum(int[] values, int from) {
+        long sum = 0;
+        for (int i = from; i < values.length; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    double sum(double[] values, int from) {
+        double sum = 0;
+        for (int i = from; i < values.length; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    int min(int[] values, int from, int min) {
+        for (int i = from; i < values.length; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    int max(int[] values, int from, int max) {
+        for (int i = from; i < values.length; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    double min(double[] values, int from, double min) {
+        for (int i = from; i < values.length; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    double max(double[] values, int from, double max) {
+        for (int i = from; i < values.length; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    int countTrue(boolean[] values, int from) {
+        int count = 0;
+        for (int i = from; i < values.length; i++) {
+            if (values[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * One pass counts values below, equal to and above the operand; every comparison
+     * follows from those three, NaN being in none of them.
+     */
+    int count(int[] values, int from, ArrayKernels.Comparison comparison, int operand) {
+        int less = 0;
+        int equal = 0;
+        int greater = 0;
+        for (int i = from; i < values.length; i++) {
+            int value = values[i];
+            less += value < operand ? 1 : 0;
+            equal += value == operand ? 1 : 0;
+            greater += value > operand ? 1 : 0;
+        }
+        return comparison.select(less, equal, greater, values.length - from);
+    }
+
+    int count(double[] values, int from, ArrayKernels.Comparison comparison, double operand) {
+        int less = 0;
+        int equal = 0;
+        int greater = 0;
+        for (int i = from; i < values.length; i++) {
+            double value = values[i];
+            less += value < operand ? 1 : 0;
+            equal += value == operand ? 1 : 0;
+            greater += value > operand ? 1 : 0;
+        }
+        return comparison.select(less, equal, greater, values.length - from);
+    }
+
+    double dot(double[] a, double[] b, int from) {
+        double dot = 0;
+        for (int i = from; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return dot;
+    }
+
+    /**
+     * Counts values in {@code [min, max)} into equal-width bins; others, NaN included,
+     * are skipped.
+     */
+    void histogram(double[] values, int from, double min, double max, int[] bins) {
+        double scale = bins.length / (max - min);
+        int last = bins.length - 1;
+        for (int i = from; i < values.length; i++) {
+            double value = values[i];
+            if (value >= min && value < max) {
+                // Rounding can put a value just below max into bin length
+                bins[Math.min((int) ((value - min) * scale), last)]++;
+            }
+        }
+    }
+}
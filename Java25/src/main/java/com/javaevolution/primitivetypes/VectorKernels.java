@@ -0,0 +1,170 @@
+package com.javaevolution.primitivetypes;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link ArrayKernels} on the Vector API, at the platform's preferred vector size.
+ *
+ * Each loop runs over full vectors up to {@code species.loopBound(length)} and hands
+ * the remaining elements to the scalar loop it overrides. Sums and dot products keep
+ * several independent accumulators, so consecutive adds do not wait on each other.
+ *
+ * The histogram is not overridden: lanes can hit the same bin, the API has no
+ * conflict-free scatter, and computing indices a vector at a time only to increment
+ * them one by one measured no faster than the scalar loop.
+ *
+ * Loaded only when {@code jdk.incubator.vector} is in the boot layer.
+ */
+final class VectorKernels extends ScalarKernels {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+
+    @Override
+    String name() {
+        return "vector(" + INTS.vectorBitSize() + " bits)";
+    }
+
+    @Override
+    long sum(int[] values, int from) {
+        LongVector low = LongVector.zero(LONGS);
+        LongVector high = LongVector.zero(LONGS);
+        int bound = INTS.loopBound(values.length);
+        int i = from;
+        for (; i < bound; i += INTS.length()) {
+            // Widen each half to longs: an int accumulator would overflow
+            IntVector v = IntVector.fromArray(INTS, values, i);
+            low = low.add((LongVector) v.convertShape(VectorOperators.I2L, LONGS, 0));
+            high = high.add((LongVector) v.convertShape(VectorOperators.I2L, LONGS, 1));
+        }
+        return low.add(high).reduceLanes(VectorOperators.ADD) + super.sum(values, i);
+    }
+
+    @Override
+    double sum(double[] values, int from) {
+        int step = DOUBLES.length();
+        DoubleVector s0 = DoubleVector.zero(DOUBLES);
+        DoubleVector s1 = DoubleVector.zero(DOUBLES);
+        DoubleVector s2 = DoubleVector.zero(DOUBLES);
+        DoubleVector s3 = DoubleVector.zero(DOUBLES);
+        int i = from;
+        for (int bound = values.length - 4 * step; i <= bound; i += 4 * step) {
+            s0 = s0.add(DoubleVector.fromArray(DOUBLES, values, i));
+            s1 = s1.add(DoubleVector.fromArray(DOUBLES, values, i + step));
+            s2 = s2.add(DoubleVector.fromArray(DOUBLES, values, i + 2 * step));
+            s3 = s3.add(DoubleVector.fromArray(DOUBLES, values, i + 3 * step));
+        }
+        for (int bound = DOUBLES.loopBound(values.length); i < bound; i += step) {
+            s0 = s0.add(DoubleVector.fromArray(DOUBLES, values, i));
+        }
+        return s0.add(s1).add(s2.add(s3)).reduceLanes(VectorOperators.ADD) + super.sum(values, i);
+    }
+
+    @Override
+    int min(int[] values, int from, int min) {
+        IntVector acc = IntVector.broadcast(INTS, min);
+        int i = from;
+        for (int bound = INTS.loopBound(values.length); i < bound; i += INTS.length()) {
+            acc = acc.min(IntVector.fromArray(INTS, values, i));
+        }
+        return super.min(values, i, acc.reduceLanes(VectorOperators.MIN));
+    }
+
+    @Override
+    int max(int[] values, int from, int max) {
+        IntVector acc = IntVector.broadcast(INTS, max);
+        int i = from;
+        for (int bound = INTS.loopBound(values.length); i < bound; i += INTS.length()) {
+            acc = acc.max(IntVector.fromArray(INTS, values, i));
+        }
+        return super.max(values, i, acc.reduceLanes(VectorOperators.MAX));
+    }
+
+    @Override
+    double min(double[] values, int from, double min) {
+        DoubleVector acc = DoubleVector.broadcast(DOUBLES, min);
+        int i = from;
+        for (int bound = DOUBLES.loopBound(values.length); i < bound; i += DOUBLES.length()) {
+            acc = acc.min(DoubleVector.fromArray(DOUBLES, values, i));
+        }
+        return super.min(values, i, acc.reduceLanes(VectorOperators.MIN));
+    }
+
+    @Override
+    double max(double[] values, int from, double max) {
+        DoubleVector acc = DoubleVector.broadcast(DOUBLES, max);
+        int i = from;
+        for (int bound = DOUBLES.loopBound(values.length); i < bound; i += DOUBLES.length()) {
+            acc = acc.max(DoubleVector.fromArray(DOUBLES, values, i));
+        }
+        return super.max(values, i, acc.reduceLanes(VectorOperators.MAX));
+    }
+
+    @Override
+    int countTrue(boolean[] values, int from) {
+        int count = 0;
+        int i = from;
+        for (int bound = BYTES.loopBound(values.length); i < bound; i += BYTES.length()) {
+            count += VectorMask.fromArray(BYTES, values, i).trueCount();
+        }
+        return count + super.countTrue(values, i);
+    }
+
+    /**
+     * Counts below, equal and above with constant comparisons, as the scalar loop does;
+     * a comparison operator passed in as a value is not intrinsified.
+     */
+    @Override
+    int count(int[] values, int from, ArrayKernels.Comparison comparison, int operand) {
+        int less = 0;
+        int equal = 0;
+        int greater = 0;
+        int i = from;
+        for (int bound = INTS.loopBound(values.length); i < bound; i += INTS.length()) {
+            IntVector v = IntVector.fromArray(INTS, values, i);
+            less += v.compare(VectorOperators.LT, operand).trueCount();
+            equal += v.compare(VectorOperators.EQ, operand).trueCount();
+            greater += v.compare(VectorOperators.GT, operand).trueCount();
+        }
+        return comparison.select(less, equal, greater, i - from) + super.count(values, i, comparison, operand);
+    }
+
+    @Override
+    int count(double[] values, int from, ArrayKernels.Comparison comparison, double operand) {
+        int less = 0;
+        int equal = 0;
+        int greater = 0;
+        int i = from;
+        for (int bound = DOUBLES.loopBound(values.length); i < bound; i += DOUBLES.length()) {
+            DoubleVector v = DoubleVector.fromArray(DOUBLES, values, i);
+            less += v.compare(VectorOperators.LT, operand).trueCount();
+            equal += v.compare(VectorOperators.EQ, operand).trueCount();
+            greater += v.compare(VectorOperators.GT, operand).trueCount();
+        }
+        return comparison.select(less, equal, greater, i - from) + super.count(values, i, comparison, operand);
+    }
+
+    @Override
+    double dot(double[] a, double[] b, int from) {
+        int step = DOUBLES.length();
+        DoubleVector s0 = DoubleVector.zero(DOUBLES);
+        DoubleVector s1 = DoubleVector.zero(DOUBLES);
+        int i = from;
+        for (int bound = a.length - 2 * step; i <= bound; i += 2 * step) {
+            s0 = DoubleVector.fromArray(DOUBLES, a, i).fma(DoubleVector.fromArray(DOUBLES, b, i), s0);
+            s1 = DoubleVector.fromArray(DOUBLES, a, i + step).fma(DoubleVector.fromArray(DOUBLES, b, i + step), s1);
+        }
+        for (int bound = DOUBLES.loopBound(a.length); i < bound; i += step) {
+            s0 = DoubleVector.fromArray(DOUBLES, a, i).fma(DoubleVector.fromArray(DOUBLES, b, i), s0);
+        }
+        return s0.add(s1).reduceLanes(VectorOperators.ADD) + super.dot(a, b, i);
+    }
+}
@@ -0,0 +1,203 @@
+package com.javaevolution.scopedvalues;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Flattened request context carrier.
+ *
+ * Instead of one ThreadLocal (or ScopedValue) per context attribute, every attribute
+ * is a {@link Key} registered once at class-initialization time and assigned a small
+ * integer slot. All values of a request live in a single immutable {@link Snapshot}
+ * (one Object[] plus a 64-bit presence mask) that is bound once per request.
+ *
+ * - Binding a request: one bind, regardless of how many attributes it carries
+ * - Reading an attribute: one bit test plus one array load
+ * - Shadowing an attribute: copy-on-write of the small array, parent restored on exit
+ *
+ * In Java 25, the single binding would be a ScopedValue:
+ *
+ * private static final ScopedValue<Snapshot> CURRENT = ScopedValue.newInstance();
+ * ScopedValue.where(CURRENT, snapshot).call(task::get);
+ *
+ * Note: Running on Java 17, so the single binding is simulated with a ThreadLocal.
+ */
+public final class ContextCarrier {
+
+    /**
+     * Presence is tracked in a single long, which caps the number of keys.
+     */
+    public static final int MAX_KEYS = Long.SIZE;
+
+    private static final AtomicInteger NEXT_SLOT = new AtomicInteger();
+
+    /**
+     * Simulated scoped value holding the current snapshot.
+     * In Java 25, would use: ScopedValue<Snapshot> CURRENT = ScopedValue.newInstance();
+     */
+    private static final ThreadLocal<Snapshot> CURRENT = new ThreadLocal<>();
+
+    private ContextCarrier() {
+    }
+
+    /**
+     * A context attribute with a fixed slot. Keys are meant to be static constants.
+     */
+    public static final class Key<T> {
+        private final String name;
+        private final int slot;
+        private final long bit;
+        private final T defaultValue;
+
+        private Key(String name, int slot, T defaultValue) {
+            this.name = name;
+            this.slot = slot;
+            this.bit = 1L << slot;
+            this.defaultValue = defaultValue;
+        }
+
+        public String name() { return name; }
+        public int slot() { return slot; }
+        public T defaultValue() { return defaultValue; }
+
+        @Override
+        public String toString() {
+            return "Key[" + name + "@" + slot + "]";
+        }
+    }
+
+    /**
+     * Registers a new key and assigns it the next free slot.
+     *
+     * @throws IllegalStateException if more than {@link #MAX_KEYS} keys are registered
+     */
+    public static <T> Key<T> register(String name, T defaultValue) {
+        Objects.requireNonNull(name, "name");
+        int slot = NEXT_SLOT.getAndIncrement();
+        if (slot >= MAX_KEYS) {
+            throw new IllegalStateException("Cannot register more than " + MAX_KEYS + " context keys");
+        }
+        return new Key<>(name, slot, defaultValue);
+    }
+
+    /**
+     * Immutable set of context values, indexed by key slot.
+     */
+    public static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new Object[0], 0L);
+
+        private final Object[] values;
+        private final long present;
+
+        private Snapshot(Object[] values, long present) {
+            this.values = values;
+            this.present = present;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T get(Key<T> key) {
+            if ((present & key.bit) == 0) {
+                return key.defaultValue;
+            }
+            return (T) values[key.slot];
+        }
+
+        public boolean contains(Key<?> key) {
+            return (present & key.bit) != 0;
+        }
+
+        /**
+         * Returns a copy of this snapshot with one value replaced (used for shadowing).
+         */
+        public <T> Snapshot with(Key<T> key, T value) {
+            Object[] copy = Arrays.copyOf(values, Math.max(values.length, key.slot + 1));
+            copy[key.slot] = value;
+            return new Snapshot(copy, present | key.bit);
+        }
+
+        public int size() {
+            return Long.bitCount(present);
+        }
+    }
+
+    /**
+     * Collects several values into a single snapshot allocation.
+     */
+    public static final class Builder {
+        private Object[] values;
+        private long present;
+        // Set once build() has handed values to a snapshot; the next with() copies them
+        private boolean shared;
+
+        private Builder(Snapshot base) {
+            this.values = base.values.clone();
+            this.present = base.present;
+        }
+
+        public <T> Builder with(Key<T> key, T value) {
+            if (shared || key.slot >= values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length, NEXT_SLOT.get()));
+                shared = false;
+            }
+            values[key.slot] = value;
+            present |= key.bit;
+            return this;
+        }
+
+        /**
+         * The array is shared with the snapshot rather than copied; a builder reused
+         * afterwards copies it on its next {@code with}.
+         */
+        public Snapshot build() {
+            shared = true;
+            return new Snapshot(values, present);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder(Snapshot.EMPTY);
+    }
+
+    /**
+     * Starts a builder from the current snapshot, to add values to an outer scope.
+     */
+    public static Builder builderFromCurrent() {
+        return new Builder(current());
+    }
+
+    /**
+     * Binds the snapshot for the duration of the task and restores the parent afterwards.
+     */
+    public static <T> T callWith(Snapshot snapshot, Supplier<T> task) {
+        Objects.requireNonNull(snapshot, "snapshot");
+        Snapshot parent = CURRENT.get();
+        CURRENT.set(snapshot);
+        try {
+            return task.get();
+        } finally {
+            if (parent == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(parent);
+            }
+        }
+    }
+
+    /**
+     * Binds a single value on top of the current snapshot.
+     */
+    public static <T, R> R callWith(Key<T> key, T value, Supplier<R> task) {
+        return callWith(current().with(key, value), task);
+    }
+
+    public static Snapshot current() {
+        Snapshot snapshot = CURRENT.get();
+        return snapshot != null ? snapshot : Snapshot.EMPTY;
+    }
+
+    public static <T> T get(Key<T> key) {
+        return current().get(key);
+    }
+}
@@ -0,0 +1,218 @@
+package com.javaevolution.scopedvalues;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Interns role and capability names into dense integer IDs and compiles grants into bitsets.
+ *
+ * A {@code Set<String>.contains} check hashes and compares the name on every call.
+ * Authorization checks run many times per request, so this registry moves that work
+ * to the point where a principal's grants are loaded:
+ *
+ * - Every name gets a small, stable ID the first time it is interned
+ * - A principal's grants are compiled once into {@code long[]} bitsets and cached
+ * - A single check is one bit test, "has all of" is a word-wise AND over the bitsets
+ *
+ * The principal and grant-set caches are bounded. When one is full, an arbitrary entry
+ * is evicted, which keeps the caches lock free at the cost of exact LRU ordering.
+ */
+public final class PermissionRegistry {
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final ConcurrentHashMap<String, CompiledPermissions> principals = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Grants, CompiledPermissions> grantSets = new ConcurrentHashMap<>();
+    private final int maxCachedPrincipals;
+
+    public PermissionRegistry(int maxCachedPrincipals) {
+        if (maxCachedPrincipals <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxCachedPrincipals = maxCachedPrincipals;
+    }
+
+    /**
+     * Returns the ID of the name, assigning the next free ID on first use.
+     */
+    public int intern(String name) {
+        Objects.requireNonNull(name, "name");
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        // Interning is rare, so IDs are assigned under a lock to keep them dense
+        synchronized (names) {
+            id = ids.get(name);
+            if (id == null) {
+                id = names.size();
+                names.add(name);
+                ids.put(name, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Returns the ID of an already interned name, or -1 without interning it.
+     */
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : -1;
+    }
+
+    public String nameOf(int id) {
+        synchronized (names) {
+            return names.get(id);
+        }
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Compiles a set of names into a bitset, interning unknown names.
+     */
+    public long[] compile(Collection<String> grants) {
+        int[] grantIds = new int[grants.size()];
+        int max = -1;
+        int i = 0;
+        for (String grant : grants) {
+            grantIds[i] = intern(grant);
+            max = Math.max(max, grantIds[i++]);
+        }
+        long[] bits = new long[(max >> 6) + 1];
+        for (int id : grantIds) {
+            bits[id >> 6] |= 1L << id;
+        }
+        return bits;
+    }
+
+    /**
+     * Precompiles a requirement for {@link CompiledPermissions#hasAllRoles(long[])}
+     * and {@link CompiledPermissions#hasAllCapabilities(long[])}.
+     */
+    public long[] requirement(String... required) {
+        return compile(Arrays.asList(required));
+    }
+
+    public CompiledPermissions compile(Set<String> roles, Set<String> capabilities) {
+        return new CompiledPermissions(this, compile(roles), compile(capabilities));
+    }
+
+    /**
+     * Returns the cached grants of the principal, loading and compiling them on a miss.
+     */
+    public CompiledPermissions forPrincipal(String principal, Supplier<Grants> loader) {
+        CompiledPermissions cached = principals.get(principal);
+        if (cached != null) {
+            return cached;
+        }
+        Grants grants = loader.get();
+        CompiledPermissions compiled = compile(grants.roles(), grants.capabilities());
+        if (principals.size() >= maxCachedPrincipals) {
+            evictOne(principals);
+        }
+        CompiledPermissions raced = principals.putIfAbsent(principal, compiled);
+        return raced != null ? raced : compiled;
+    }
+
+    /**
+     * Returns the compiled form of these grants, compiling them only the first time the
+     * same roles and capabilities are seen. The sets are copied before they are cached.
+     */
+    public CompiledPermissions forGrants(Set<String> roles, Set<String> capabilities) {
+        CompiledPermissions cached = grantSets.get(new Grants(roles, capabilities));
+        if (cached != null) {
+            return cached;
+        }
+        CompiledPermissions compiled = compile(roles, capabilities);
+        if (grantSets.size() >= maxCachedPrincipals) {
+            evictOne(grantSets);
+        }
+        CompiledPermissions raced = grantSets.putIfAbsent(
+            new Grants(Set.copyOf(roles), Set.copyOf(capabilities)), compiled);
+        return raced != null ? raced : compiled;
+    }
+
+    public void invalidate(String principal) {
+        principals.remove(principal);
+    }
+
+    public int cachedPrincipals() {
+        return principals.size();
+    }
+
+    private static void evictOne(ConcurrentHashMap<?, CompiledPermissions> cache) {
+        Iterator<?> keys = cache.keySet().iterator();
+        if (keys.hasNext()) {
+            cache.remove(keys.next());
+        }
+    }
+
+    /**
+     * Raw grants of a principal, as loaded from the identity store.
+     */
+    public record Grants(Set<String> roles, Set<String> capabilities) {}
+
+    /**
+     * A principal's grants compiled to bitsets. Immutable and safe to share.
+     */
+    public static final class CompiledPermissions {
+        private final PermissionRegistry registry;
+        private final long[] roles;
+        private final long[] capabilities;
+
+        private CompiledPermissions(PermissionRegistry registry, long[] roles, long[] capabilities) {
+            this.registry = registry;
+            this.roles = roles;
+            this.capabilities = capabilities;
+        }
+
+        public boolean hasRole(int id) {
+            return test(roles, id);
+        }
+
+        public boolean hasCapability(int id) {
+            return test(capabilities, id);
+        }
+
+        public boolean hasRole(String role) {
+            return hasRole(registry.idOf(role));
+        }
+
+        public boolean hasCapability(String capability) {
+            return hasCapability(registry.idOf(capability));
+        }
+
+        public boolean hasAllRoles(long[] required) {
+            return containsAll(roles, required);
+        }
+
+        public boolean hasAllCapabilities(long[] required) {
+            return containsAll(capabilities, required);
+        }
+
+        private static boolean test(long[] bits, int id) {
+            int word = id >> 6;
+            return id >= 0 && word < bits.length && (bits[word] & (1L << id)) != 0;
+        }
+
+        /**
+         * Branch-free over the common words, so the JIT can vectorize the AND loop.
+         */
+        private static boolean containsAll(long[] granted, long[] required) {
+            int common = Math.min(granted.length, required.length);
+            long missing = 0;
+            for (int i = 0; i < common; i++) {
+                missing |= required[i] & ~granted[i];
+            }
+            for (int i = common; i < required.length; i++) {
+                missing |= required[i];
+            }
+            return missing == 0;
+        }
+    }
+}
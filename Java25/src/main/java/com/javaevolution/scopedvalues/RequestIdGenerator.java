@@ -0,0 +1,116 @@
+package com.javaevolution.scopedvalues;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Fast, non-cryptographic request ID generator with a Snowflake-style layout.
+ *
+ * {@code UUID.randomUUID()} draws from a shared SecureRandom, which contends under load.
+ * Request IDs only need to be unique, not unpredictable, so an ID is built from the
+ * clock, a node ID and a sequence:
+ *
+ * - 42 high bits: milliseconds since {@value #EPOCH_MILLIS} (2025-01-01T00:00Z)
+ * - 10 bits: node ID, random per JVM unless configured
+ * - 12 low bits: sequence within the millisecond
+ *
+ * The timestamp keeps a restarted JVM from repeating the IDs of its previous run, and
+ * two JVMs that share a node ID only collide within the same millisecond. Random node
+ * IDs are for single instances; give every instance of a fleet its own node ID.
+ *
+ * Threads reserve {@value #BLOCK_SIZE} sequence numbers at a time with one CAS and then
+ * count locally, so a thread touches shared state once per block. When more than 4096
+ * IDs are reserved in one millisecond, the sequence borrows from the next millisecond
+ * instead of waiting, so IDs stay unique but may run slightly ahead of the clock.
+ */
+public final class RequestIdGenerator {
+
+    static final int BLOCK_SIZE = 64;
+    static final long EPOCH_MILLIS = 1_735_689_600_000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long NODE_MASK = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final long nodeBits;
+    private final LongSupplier clock;
+    // Milliseconds since the epoch and sequence of the next unreserved ID, as one long:
+    // (millis << SEQUENCE_BITS) | sequence
+    private final AtomicLong nextTick = new AtomicLong();
+    private final ThreadLocal<long[]> block = ThreadLocal.withInitial(() -> new long[] {0, 0});
+
+    private static final RequestIdGenerator DEFAULT =
+        new RequestIdGenerator(ThreadLocalRandom.current().nextInt(1 << NODE_BITS));
+
+    public RequestIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    RequestIdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId >= (1 << NODE_BITS)) {
+            throw new IllegalArgumentException("Node ID must be in [0, " + (1 << NODE_BITS) + ")");
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    public static RequestIdGenerator getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the next ID. block[0] is the next tick, block[1] the end of the reservation.
+     */
+    public long nextId() {
+        long[] range = block.get();
+        if (range[0] == range[1]) {
+            long start = reserve();
+            range[0] = start;
+            range[1] = start + BLOCK_SIZE;
+        }
+        long tick = range[0]++;
+        return (tick >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS) | nodeBits | (tick & SEQUENCE_MASK);
+    }
+
+    /**
+     * Reserves the next block, starting no earlier than the current millisecond.
+     */
+    private long reserve() {
+        while (true) {
+            long next = nextTick.get();
+            long start = Math.max(next, (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS);
+            if (nextTick.compareAndSet(next, start + BLOCK_SIZE)) {
+                return start;
+            }
+        }
+    }
+
+    public String nextIdString() {
+        return format(nextId());
+    }
+
+    public static int nodeOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & NODE_MASK);
+    }
+
+    /**
+     * The epoch milliseconds an ID was reserved in (later if the sequence ran ahead).
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    /**
+     * Formats an ID as 16 lower-case hex digits.
+     */
+    public static String format(long id) {
+        char[] chars = new char[16];
+        for (int i = 15; i >= 0; i--) {
+            chars[i] = HEX[(int) (id & 0xF)];
+            id >>>= 4;
+        }
+        return new String(chars);
+    }
+}
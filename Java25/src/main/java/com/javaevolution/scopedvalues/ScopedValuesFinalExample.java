@@ -23,13 +23,16 @@ import java.util.function.Supplier;
 public class ScopedValuesFinalExample {
 
     /**
-     * Simulated scoped values using ThreadLocal for demonstration.
-     * In Java 25, would use: ScopedValue<T> VALUE = ScopedValue.newInstance();
+     * Context keys of the flattened {@link ContextCarrier}.
+     * All values of a request share one snapshot, so a request is bound once
+     * instead of once per attribute.
      */
-    private static final ThreadLocal<String> USER_ID = new ThreadLocal<>();
-    private static final ThreadLocal<String> REQUEST_ID = new ThreadLocal<>();
-    private static final ThreadLocal<String> TENANT_ID = new ThreadLocal<>();
-    private static final ThreadLocal<RequestContext> REQUEST_CONTEXT = new ThreadLocal<>();
+    private static final ContextCarrier.Key<String> USER_ID = ContextCarrier.register("userId", "anonymous");
+    private static final ContextCarrier.Key<String> REQUEST_ID = ContextCarrier.register("requestId", "no-request");
+    private static final ContextCarrier.Key<String> TENANT_ID = ContextCarrier.register("tenantId", "default");
+    private static final ContextCarrier.Key<Long> REQUEST_START = ContextCarrier.register("requestStart", 0L);
+    private static final ContextCarrier.Key<RequestContext> REQUEST_CONTEXT =
+        ContextCarrier.register("requestContext", null);
 
     /**
      * Request context record for multi-value scoping
@@ -46,12 +49,7 @@ public class ScopedValuesFinalExample {
      * Sets a value for a specific scope and executes a task
      */
     public <T> T runWithUserId(String userId, Supplier<T> task) {
-        try {
-            USER_ID.set(userId);
-            return task.get();
-        } finally {
-            USER_ID.remove();
-        }
+        return ContextCarrier.callWith(USER_ID, userId, task);
     }
 
     /**
@@ -59,26 +57,23 @@ public class ScopedValuesFinalExample {
      * Retrieves the current value or returns a default
      */
     public String getCurrentUserId() {
-        String userId = USER_ID.get();
-        return userId != null ? userId : "anonymous";
+        return ContextCarrier.get(USER_ID);
     }
 
     /**
      * Example 3: Multiple scoped values
-     * Demonstrates setting multiple values in nested scopes
+     * Demonstrates setting multiple values with a single binding.
+     * The same fields are bound pre-encoded for StructuredLogger, so its lines carry them.
      */
     public <T> T runWithMultipleValues(String userId, String requestId, 
                                        String tenantId, Supplier<T> task) {
-        try {
-            USER_ID.set(userId);
-            REQUEST_ID.set(requestId);
-            TENANT_ID.set(tenantId);
-            return task.get();
-        } finally {
-            TENANT_ID.remove();
-            REQUEST_ID.remove();
-            USER_ID.remove();
-        }
+        ContextCarrier.Snapshot snapshot = ContextCarrier.builderFromCurrent()
+            .with(USER_ID, userId)
+            .with(REQUEST_ID, requestId)
+            .with(TENANT_ID, tenantId)
+            .with(StructuredLogger.CONTEXT, StructuredLogger.EncodedContext.of(tenantId, userId, requestId))
+            .build();
+        return ContextCarrier.callWith(snapshot, task);
     }
 
     /**
@@ -86,19 +81,14 @@ public class ScopedValuesFinalExample {
      * Shows using a context object for multiple related values
      */
     public <T> T runWithRequestContext(RequestContext context, Supplier<T> task) {
-        try {
-            REQUEST_CONTEXT.set(context);
-            return task.get();
-        } finally {
-            REQUEST_CONTEXT.remove();
-        }
+        return ContextCarrier.callWith(REQUEST_CONTEXT, context, task);
     }
 
     /**
      * Example 5: Accessing complex context
      */
     public RequestContext getCurrentRequestContext() {
-        RequestContext context = REQUEST_CONTEXT.get();
+        RequestContext context = ContextCarrier.get(REQUEST_CONTEXT);
         return context != null ? context : 
             new RequestContext("anonymous", "no-request", "default", System.currentTimeMillis());
     }
@@ -128,13 +118,11 @@ public class ScopedValuesFinalExample {
     }
 
     private String getCurrentRequestId() {
-        String requestId = REQUEST_ID.get();
-        return requestId != null ? requestId : "no-request";
+        return ContextCarrier.get(REQUEST_ID);
     }
 
     private String getCurrentTenantId() {
-        String tenantId = TENANT_ID.get();
-        return tenantId != null ? tenantId : "default";
+        return ContextCarrier.get(TENANT_ID);
     }
 
     /**
@@ -151,11 +139,13 @@ public class ScopedValuesFinalExample {
                 ExecutorService executor = Executors.newFixedThreadPool(4);
                 try {
                     List<Future<String>> futures = new ArrayList<>();
+                    // The whole context is one snapshot, so inheriting it is one capture
+                    ContextCarrier.Snapshot inherited = ContextCarrier.current();
                     
                     for (String item : items) {
                         // Each virtual thread inherits the scoped value
                         futures.add(executor.submit(() -> 
-                            processItem(item, getCurrentUserId())
+                            ContextCarrier.callWith(inherited, () -> processItem(item, getCurrentUserId()))
                         ));
                     }
                     
@@ -217,24 +207,31 @@ public class ScopedValuesFinalExample {
     /**
      * Example 10: Performance comparison simulation
      * Demonstrates why scoped values are more efficient than ThreadLocal
+     *
+     * This is a quick smoke measurement only. It has no warm-up or forking, so use
+     * the JMH suite for real numbers: ./gradlew :Java25:jmh -PjmhIncludes='Context(Fork)?Benchmark'
      */
     public static class PerformanceDemo {
-        
+
         public record Stats(long operations, long durationMs, double opsPerSecond) {}
-        
+
         public Stats benchmarkScopedValueOperations(int iterations) {
-            long start = System.currentTimeMillis();
-            
+            String user = "user-benchmark";
+            Supplier<String> read = () -> ContextCarrier.get(USER_ID);
+            int hits = 0;
+            long start = System.nanoTime();
+
             for (int i = 0; i < iterations; i++) {
-                USER_ID.set("user-" + i);
-                String value = USER_ID.get();
-                USER_ID.remove();
+                if (ContextCarrier.callWith(USER_ID, user, read) == user) {
+                    hits++;
+                }
             }
-            
-            long duration = System.currentTimeMillis() - start;
-            double opsPerSecond = (iterations * 1000.0) / duration;
-            
-            return new Stats(iterations, duration, opsPerSecond);
+
+            // Never report zero elapsed time, short loops finish under the timer resolution
+            long durationNanos = Math.max(1, System.nanoTime() - start);
+            double opsPerSecond = hits * 1_000_000_000.0 / durationNanos;
+
+            return new Stats(iterations, TimeUnit.NANOSECONDS.toMillis(durationNanos), opsPerSecond);
         }
     }
 
@@ -249,24 +246,26 @@ public class ScopedValuesFinalExample {
             this.scopedValues = new ScopedValuesFinalExample();
         }
         
+        /**
+         * Binds the request with one snapshot. The request ID comes from a Snowflake-style
+         * generator instead of UUID.randomUUID(), which contends on SecureRandom.
+         */
         public String processRequest(String tenantId, String userId, String operation) {
-            RequestContext context = new RequestContext(
-                userId,
-                UUID.randomUUID().toString(),
-                tenantId,
-                System.currentTimeMillis()
-            );
+            ContextCarrier.Snapshot snapshot = ContextCarrier.builder()
+                .with(TENANT_ID, tenantId)
+                .with(USER_ID, userId)
+                .with(REQUEST_ID, RequestIdGenerator.getDefault().nextIdString())
+                .with(REQUEST_START, System.currentTimeMillis())
+                .build();
             
-            return scopedValues.runWithRequestContext(context, () -> {
-                return executeOperation(operation);
-            });
+            return ContextCarrier.callWith(snapshot, () -> executeOperation(operation));
         }
         
         private String executeOperation(String operation) {
-            RequestContext ctx = scopedValues.getCurrentRequestContext();
+            ContextCarrier.Snapshot ctx = ContextCarrier.current();
             return String.format(
                 "Tenant %s, User %s executed %s at %d",
-                ctx.tenantId(), ctx.userId(), operation, ctx.timestamp()
+                ctx.get(TENANT_ID), ctx.get(USER_ID), operation, ctx.get(REQUEST_START)
             );
         }
     }
@@ -274,6 +273,9 @@ public class ScopedValuesFinalExample {
     /**
      * Example 12: Logging integration pattern
      * Shows how scoped values simplify contextual logging
+     *
+     * Formats and prints every line; see {@link StructuredLogger} for the
+     * pre-encoded, lock-free variant used on hot paths.
      */
     public static class ContextualLogger {
         private final ScopedValuesFinalExample scopedValues;
@@ -300,31 +302,75 @@ public class ScopedValuesFinalExample {
     /**
      * Example 13: Security context pattern
      * Demonstrates using scoped values for security permissions
+     *
+     * Grants are compiled into bitsets by a {@link PermissionRegistry} when they are
+     * bound, so each check is a bit test instead of a Set lookup.
      */
     public static class SecurityContext {
         
-        public record Permissions(Set<String> roles, Set<String> capabilities) {}
+        private static final PermissionRegistry REGISTRY = new PermissionRegistry(10_000);
+        
+        private static final ContextCarrier.Key<PermissionRegistry.CompiledPermissions> PERMISSIONS =
+            ContextCarrier.register("permissions", null);
         
-        private static final ThreadLocal<Permissions> PERMISSIONS = new ThreadLocal<>();
+        public static PermissionRegistry registry() {
+            return REGISTRY;
+        }
         
+        /**
+         * Binds the grants, compiled once per distinct set of roles and capabilities.
+         */
         public <T> T runWithPermissions(Set<String> roles, Set<String> capabilities, 
                                        Supplier<T> task) {
-            try {
-                PERMISSIONS.set(new Permissions(roles, capabilities));
-                return task.get();
-            } finally {
-                PERMISSIONS.remove();
-            }
+            return ContextCarrier.callWith(PERMISSIONS, REGISTRY.forGrants(roles, capabilities), task);
         }
         
+        /**
+         * Binds the principal's cached grants, loading them only on a cache miss.
+         */
+        public <T> T runAsPrincipal(String principal, Supplier<PermissionRegistry.Grants> loader,
+                                    Supplier<T> task) {
+            return ContextCarrier.callWith(PERMISSIONS, REGISTRY.forPrincipal(principal, loader), task);
+        }
+        
+        /**
+         * Looks the name up in the registry first; hot checks should use
+         * {@link #hasRole(int)} with an ID interned once.
+         */
         public boolean hasRole(String role) {
-            Permissions perms = PERMISSIONS.get();
-            return perms != null && perms.roles().contains(role);
+            return hasRole(REGISTRY.idOf(role));
+        }
+        
+        /**
+         * Checks a role ID from {@code registry().intern(name)}: a single bit test.
+         */
+        public boolean hasRole(int roleId) {
+            PermissionRegistry.CompiledPermissions perms = ContextCarrier.get(PERMISSIONS);
+            return perms != null && perms.hasRole(roleId);
         }
         
+        /**
+         * Looks the name up in the registry first; hot checks should use
+         * {@link #hasCapability(int)} with an ID interned once.
+         */
         public boolean hasCapability(String capability) {
-            Permissions perms = PERMISSIONS.get();
-            return perms != null && perms.capabilities().contains(capability);
+            return hasCapability(REGISTRY.idOf(capability));
+        }
+        
+        /**
+         * Checks a capability ID from {@code registry().intern(name)}: a single bit test.
+         */
+        public boolean hasCapability(int capabilityId) {
+            PermissionRegistry.CompiledPermissions perms = ContextCarrier.get(PERMISSIONS);
+            return perms != null && perms.hasCapability(capabilityId);
+        }
+        
+        /**
+         * Checks a requirement precompiled with {@link PermissionRegistry#requirement(String...)}.
+         */
+        public boolean hasAllCapabilities(long[] required) {
+            PermissionRegistry.CompiledPermissions perms = ContextCarrier.get(PERMISSIONS);
+            return perms != null && perms.hasAllCapabilities(required);
         }
     }
 }
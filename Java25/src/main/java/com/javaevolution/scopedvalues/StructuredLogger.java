@@ -0,0 +1,326 @@
+package com.javaevolution.scopedvalues;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Zero-garbage structured logger for request-scoped context.
+ *
+ * {@code ContextualLogger.logWithContext} looks up three values, formats a string
+ * and prints to a synchronized stream for every line. This logger moves all of that
+ * work off the hot path:
+ *
+ * - Tenant, user and request fields are UTF-8 encoded once, when the context is bound
+ * - A log call copies the pre-encoded prefix and the message into a buffer stripe
+ * - Stripes are claimed with a single CAS, so there is no lock and no ThreadLocal
+ *   (safe for virtual threads, which would otherwise each get their own buffer).
+ *   When every stripe stays taken, for example while one is draining to a slow
+ *   sink, a caller spins briefly and then parks, so a virtual thread gives its
+ *   carrier back instead of burning it
+ * - The sink is only called when a stripe fills up or on {@link #flush()}
+ *
+ * Line format: {@code <epochMillis> <LEVEL> tenant=<t> user=<u> request=<r> <message>\n}
+ *
+ * Lines longer than a stripe are truncated and end with "...", so a line is never
+ * split across two sink writes. A context too long for half a stripe is cut the same
+ * way, so a line always keeps its timestamp, level and message. Buffered lines are
+ * only written on flush, so long-running services should call {@link #flush()}
+ * periodically.
+ */
+public final class StructuredLogger implements AutoCloseable {
+
+    public enum Level {
+        TRACE, DEBUG, INFO, WARN, ERROR;
+
+        private final byte[] encoded = (name() + " ").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Destination of complete lines. Writes are batched, so implementations may lock.
+     */
+    @FunctionalInterface
+    public interface Sink {
+        void write(byte[] bytes, int offset, int length);
+    }
+
+    /**
+     * Context fields encoded once per request.
+     */
+    public static final class EncodedContext {
+        static final EncodedContext EMPTY = new EncodedContext(new byte[0]);
+
+        private final byte[] prefix;
+
+        private EncodedContext(byte[] prefix) {
+            this.prefix = prefix;
+        }
+
+        public static EncodedContext of(String tenantId, String userId, String requestId) {
+            String prefix = "tenant=" + tenantId + " user=" + userId + " request=" + requestId + " ";
+            return new EncodedContext(prefix.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public int length() {
+            return prefix.length;
+        }
+    }
+
+    /**
+     * Context key holding the encoded fields of the current request.
+     *
+     * Encoding happens when the context is bound, so this is a key of its own:
+     * the plain userId, requestId and tenantId keys are not read on each log
+     * call. Bind it with {@link #runWithContext}, or next to those keys as
+     * {@code ScopedValuesFinalExample.runWithMultipleValues} does.
+     */
+    public static final ContextCarrier.Key<EncodedContext> CONTEXT =
+        ContextCarrier.register("structuredLogger.context", EncodedContext.EMPTY);
+
+    private static final byte[] TRUNCATED = "...".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_TIMESTAMP_DIGITS = 19;
+    private static final int SPIN_ROUNDS = 64;
+    private static final int MAX_PARK_SHIFT = 10;
+
+    private static final class Stripe {
+        final AtomicInteger owner = new AtomicInteger();
+        final byte[] buffer;
+        int position;
+
+        Stripe(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+    }
+
+    private final Sink sink;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final Level threshold;
+
+    public StructuredLogger(Sink sink) {
+        this(sink, Level.INFO, Runtime.getRuntime().availableProcessors() * 2, 64 * 1024);
+    }
+
+    public StructuredLogger(Sink sink, Level threshold, int stripeCount, int stripeCapacity) {
+        this.sink = Objects.requireNonNull(sink, "sink");
+        this.threshold = Objects.requireNonNull(threshold, "threshold");
+        if (stripeCapacity < 256) {
+            throw new IllegalArgumentException("Stripe capacity must be at least 256 bytes");
+        }
+        int count = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(stripeCapacity);
+        }
+        this.stripeMask = count - 1;
+    }
+
+    /**
+     * Sink writing to an output stream, serialized on the stream.
+     */
+    public static Sink outputStreamSink(OutputStream out) {
+        Objects.requireNonNull(out, "out");
+        return (bytes, offset, length) -> {
+            synchronized (out) {
+                try {
+                    out.write(bytes, offset, length);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Encodes the context once and binds it for the duration of the task.
+     */
+    public static <T> T runWithContext(String tenantId, String userId, String requestId, Supplier<T> task) {
+        return ContextCarrier.callWith(CONTEXT, EncodedContext.of(tenantId, userId, requestId), task);
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.ordinal() >= threshold.ordinal();
+    }
+
+    public void info(CharSequence message) {
+        log(Level.INFO, message);
+    }
+
+    public void warn(CharSequence message) {
+        log(Level.WARN, message);
+    }
+
+    public void error(CharSequence message) {
+        log(Level.ERROR, message);
+    }
+
+    public void log(Level level, CharSequence message) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        EncodedContext context = ContextCarrier.get(CONTEXT);
+        long timestamp = System.currentTimeMillis();
+        Stripe stripe = acquire();
+        try {
+            append(stripe, timestamp, level, context, message);
+        } finally {
+            stripe.owner.set(0);
+        }
+    }
+
+    /**
+     * Writes all buffered lines to the sink.
+     */
+    public void flush() {
+        for (Stripe stripe : stripes) {
+            for (int round = 0; !stripe.owner.compareAndSet(0, 1); round++) {
+                backOff(round);
+            }
+            try {
+                drain(stripe);
+            } finally {
+                stripe.owner.set(0);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private Stripe acquire() {
+        int index = (int) mix(Thread.currentThread().getId());
+        for (int round = 0; ; round++) {
+            for (int i = 0; i <= stripeMask; i++) {
+                Stripe stripe = stripes[(index + i) & stripeMask];
+                if (stripe.owner.get() == 0 && stripe.owner.compareAndSet(0, 1)) {
+                    return stripe;
+                }
+            }
+            backOff(round);
+        }
+    }
+
+    /**
+     * Spins for the first rounds, then parks for 1us doubling up to about 1ms.
+     * A stripe owner may be inside the sink, so waiting for it must not hold a
+     * carrier thread.
+     */
+    private static void backOff(int round) {
+        if (round < SPIN_ROUNDS) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(1_000L << Math.min(round - SPIN_ROUNDS, MAX_PARK_SHIFT));
+        }
+    }
+
+    private void append(Stripe stripe, long timestamp, Level level, EncodedContext context, CharSequence message) {
+        byte[] buffer = stripe.buffer;
+        int length = message.length();
+        byte[] prefix = context.prefix;
+        int prefixLength = prefix.length;
+        int maxPrefix = buffer.length / 2 - TRUNCATED.length - 1;
+        boolean prefixTruncated = prefixLength > maxPrefix;
+        if (prefixTruncated) {
+            // Keep half the stripe for the message; cut at a character boundary
+            prefixLength = maxPrefix;
+            while (prefixLength > 0 && (prefix[prefixLength] & 0xC0) == 0x80) {
+                prefixLength--;
+            }
+        }
+        int header = MAX_TIMESTAMP_DIGITS + 1 + level.encoded.length + prefixLength
+            + (prefixTruncated ? TRUNCATED.length + 1 : 0);
+        // At most 3 bytes per char (a surrogate pair is 4 bytes for 2 chars)
+        if (stripe.position > 0 && stripe.position + header + length * 3L + 1 > buffer.length) {
+            drain(stripe);
+        }
+
+        int pos = stripe.position;
+        pos = writeDecimal(buffer, pos, timestamp);
+        buffer[pos++] = ' ';
+        pos = copy(level.encoded, buffer, pos);
+        System.arraycopy(prefix, 0, buffer, pos, prefixLength);
+        pos += prefixLength;
+        if (prefixTruncated) {
+            pos = copy(TRUNCATED, buffer, pos);
+            buffer[pos++] = ' ';
+        }
+
+        int messageStart = pos;
+        int limit = buffer.length - 1;
+        boolean truncated = false;
+        for (int i = 0; i < length; i++) {
+            char c = message.charAt(i);
+            if (pos + (c < 0x80 ? 1 : 4) > limit) {
+                truncated = true;
+                break;
+            }
+            if (c < 0x80) {
+                buffer[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[pos++] = (byte) (0xC0 | (c >> 6));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(message.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, message.charAt(++i));
+                buffer[pos++] = (byte) (0xF0 | (cp >> 18));
+                buffer[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer[pos++] = '?';
+            } else {
+                buffer[pos++] = (byte) (0xE0 | (c >> 12));
+                buffer[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        if (truncated) {
+            int written = pos;
+            pos = Math.max(messageStart, Math.min(pos, limit - TRUNCATED.length));
+            // Never cut a multi-byte sequence in half. Only bytes written for this
+            // line are looked at: buffer[written] is left over from an earlier line.
+            while (pos > messageStart && pos < written && (buffer[pos] & 0xC0) == 0x80) {
+                pos--;
+            }
+            pos = copy(TRUNCATED, buffer, pos);
+        }
+        buffer[pos++] = '\n';
+        stripe.position = pos;
+    }
+
+    private void drain(Stripe stripe) {
+        if (stripe.position > 0) {
+            sink.write(stripe.buffer, 0, stripe.position);
+            stripe.position = 0;
+        }
+    }
+
+    private static int copy(byte[] source, byte[] target, int pos) {
+        System.arraycopy(source, 0, target, pos, source.length);
+        return pos + source.length;
+    }
+
+    private static int writeDecimal(byte[] buffer, int pos, long value) {
+        int digits = 1;
+        for (long v = value / 10; v > 0; v /= 10) {
+            digits++;
+        }
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            buffer[i] = (byte) ('0' + (value % 10));
+            value /= 10;
+        }
+        return pos + digits;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        return value ^ (value >>> 33);
+    }
+}
@@ -0,0 +1,136 @@
+package com.javaevolution.classfileapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessorGeneratorTest {
+
+    record Person(String name, int age, double score, long id, boolean active) {}
+
+    private record Secret(String value) {}
+
+    public static class Account {
+        private String owner;
+        private long balance;
+        private boolean frozen;
+        private int version;
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public void setOwner(String owner) {
+            this.owner = owner;
+        }
+
+        public long getBalance() {
+            return balance;
+        }
+
+        public Account setBalance(long balance) {
+            this.balance = balance;
+            return this;
+        }
+
+        public boolean isFrozen() {
+            return frozen;
+        }
+
+        public void setFrozen(boolean frozen) {
+            this.frozen = frozen;
+        }
+
+        public int getVersion() {
+            return version;
+        }
+    }
+
+    @Test
+    void recordAccessors_shouldReadEveryComponentType() {
+        AccessorGenerator.Accessors<Person> accessors = AccessorGenerator.accessors(Person.class);
+        Person person = new Person("Ada", 36, 9.5, 1L << 40, true);
+
+        assertEquals("Ada", accessors.property("name").get(person));
+        assertEquals(36, accessors.property("age").get(person));
+        assertEquals(9.5, accessors.property("score").get(person));
+        assertEquals(1L << 40, accessors.property("id").get(person));
+        assertEquals(true, accessors.property("active").get(person));
+        assertEquals(List.of("name", "age", "score", "id", "active"),
+            accessors.properties().stream().map(AccessorGenerator.Property::name).collect(Collectors.toList()));
+    }
+
+    @Test
+    void recordConstructor_shouldCallCanonicalConstructor() {
+        AccessorGenerator.Accessors<Person> accessors = AccessorGenerator.accessors(Person.class);
+
+        Person person = accessors.newInstance("Grace", 45, 7.25, 42L, false);
+
+        assertEquals(new Person("Grace", 45, 7.25, 42L, false), person);
+        assertNull(accessors.property("name").setter());
+        assertThrows(UnsupportedOperationException.class, () -> accessors.property("name").set(person, "x"));
+    }
+
+    @Test
+    void privateRecord_shouldBeAccessibleAsNestmate() {
+        AccessorGenerator.Accessors<Secret> accessors = AccessorGenerator.accessors(Secret.class);
+
+        Secret secret = accessors.newInstance("hidden");
+
+        assertEquals("hidden", accessors.property("value").get(secret));
+    }
+
+    @Test
+    void beanAccessors_shouldReadAndWriteProperties() {
+        AccessorGenerator.Accessors<Account> accessors = AccessorGenerator.accessors(Account.class);
+        Account account = accessors.newInstance();
+
+        accessors.property("owner").set(account, "Linus");
+        accessors.property("balance").set(account, 1_000L);
+        accessors.property("frozen").set(account, true);
+
+        assertEquals("Linus", account.getOwner());
+        assertEquals(1_000L, account.getBalance());
+        assertTrue(account.isFrozen());
+        assertEquals(Map.of("balance", 1_000L, "frozen", true, "owner", "Linus", "version", 0),
+            accessors.toMap(account));
+        assertNull(accessors.property("version").setter());
+    }
+
+    @Test
+    void setter_withWrongType_shouldFailLikeACast() {
+        AccessorGenerator.Accessors<Account> accessors = AccessorGenerator.accessors(Account.class);
+        Account account = new Account();
+
+        assertThrows(ClassCastException.class, () -> accessors.property("balance").set(account, "lots"));
+        assertThrows(NullPointerException.class, () -> accessors.property("balance").set(account, null));
+    }
+
+    @Test
+    void accessors_shouldBeCachedPerClass() {
+        assertSame(AccessorGenerator.accessors(Person.class), AccessorGenerator.accessors(Person.class));
+        assertNotSame(AccessorGenerator.accessors(Person.class),
+            AccessorGenerator.generate(Person.class, MethodHandles.lookup()));
+    }
+
+    @Test
+    void generatedClasses_shouldBeHidden() {
+        Object getter = AccessorGenerator.accessors(Person.class).property("age").getter();
+
+        assertTrue(getter.getClass().isHidden());
+        assertEquals(Person.class.getPackageName(), getter.getClass().getPackageName());
+    }
+
+    @Test
+    void unknownProperty_shouldBeRejected() {
+        AccessorGenerator.Accessors<Person> accessors = AccessorGenerator.accessors(Person.class);
+
+        assertThrows(IllegalArgumentException.class, () -> accessors.property("email"));
+        assertThrows(IllegalArgumentException.class, () -> AccessorGenerator.accessors(Runnable.class));
+    }
+}
@@ -0,0 +1,204 @@
+package com.javaevolution.classfileapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttributeReaderTest {
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Entity {
+        String table() default "";
+    }
+
+    @Retention(RetentionPolicy.CLASS)
+    @interface Marker {
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Everything {
+        byte b();
+        char c();
+        short s();
+        int i();
+        long j();
+        float f();
+        double d();
+        boolean z();
+        String text();
+        TimeUnit unit();
+        Class<?> type();
+        Entity nested();
+        int[] numbers();
+    }
+
+    @Entity(table = "people")
+    @Marker
+    static class Person {
+        int add(int a, int b) {
+            int sum = a + b;
+            return sum;
+        }
+
+        int currentLine() {
+            return new Throwable().getStackTrace()[0].getLineNumber();
+        }
+
+        String guarded(Runnable action) {
+            try {
+                action.run();
+                return "ok";
+            } catch (IllegalStateException e) {
+                return "failed";
+            } finally {
+                Thread.yield();
+            }
+        }
+    }
+
+    @Everything(b = 1, c = 'x', s = 2, i = 3, j = 1L << 40, f = 1.5f, d = 2.25, z = true, text = "hi",
+        unit = TimeUnit.SECONDS, type = String.class, nested = @Entity(table = "inner"), numbers = {4, 5})
+    static class Annotated {
+    }
+
+    static class Plain {
+    }
+
+    private static final String ENTITY = "L" + Entity.class.getName().replace('.', '/') + ";";
+    private static final String MARKER = "L" + Marker.class.getName().replace('.', '/') + ";";
+
+    private static ClassFileView view(Class<?> type) throws Exception {
+        return ClassFileView.of(ClassFileTestSupport.classBytes(type));
+    }
+
+    private static ClassFileView.Member method(ClassFileView view, String name) {
+        return view.methods().stream().filter(m -> view.name(m).equals(name)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void code_shouldDecodeHeaderAndHandlers() throws Exception {
+        ClassFileView view = view(Person.class);
+        AttributeReader reader = new AttributeReader(view);
+
+        AttributeReader.Code code = reader.code(method(view, "guarded"));
+
+        assertTrue(code.maxLocals() >= 2);
+        // action.run() starts with aload_1
+        assertEquals(0x2B, view.u1(code.codeOffset()));
+        List<String> catchTypes = code.handlers().stream()
+            .map(AttributeReader.ExceptionHandler::catchType).collect(Collectors.toList());
+        assertTrue(catchTypes.contains("java/lang/IllegalStateException"));
+        assertTrue(catchTypes.contains(null));
+        assertNotNull(view.findAttribute(code.attributes(), AttributeReader.LINE_NUMBER_TABLE));
+    }
+
+    @Test
+    void lineNumbers_shouldMapBytecodeToSource() throws Exception {
+        ClassFileView view = view(Person.class);
+        AttributeReader reader = new AttributeReader(view);
+        AttributeReader.Code code = reader.code(method(view, "currentLine"));
+
+        int line = new Person().currentLine();
+
+        List<AttributeReader.LineNumber> lines = reader.lineNumbers(code);
+        assertEquals(List.of(new AttributeReader.LineNumber(0, line)), lines);
+        assertEquals(line, reader.lineAt(code, code.codeLength() - 1));
+    }
+
+    @Test
+    void localVariables_shouldNameSlots() throws Exception {
+        ClassFileView view = view(Person.class);
+        AttributeReader reader = new AttributeReader(view);
+
+        List<AttributeReader.LocalVariable> variables = reader.localVariables(reader.code(method(view, "add")));
+
+        assertEquals(List.of("this", "a", "b", "sum"),
+            variables.stream().map(AttributeReader.LocalVariable::name).collect(Collectors.toList()));
+        assertEquals(List.of(0, 1, 2, 3),
+            variables.stream().map(AttributeReader.LocalVariable::slot).collect(Collectors.toList()));
+        assertEquals("I", variables.get(3).descriptor());
+    }
+
+    @Test
+    void code_ofAbstractMethod_shouldBeNull() throws Exception {
+        ClassFileView view = view(Runnable.class);
+
+        assertNull(new AttributeReader(view).code(method(view, "run")));
+    }
+
+    @Test
+    void annotationTypes_shouldIncludeInvisibleAnnotations() throws Exception {
+        ClassFileView view = view(Person.class);
+
+        assertEquals(List.of(ENTITY, MARKER), new AttributeReader(view).annotationTypes(view.attributes()));
+    }
+
+    @Test
+    void annotations_shouldDecodeEveryElementKind() throws Exception {
+        ClassFileView view = view(Annotated.class);
+
+        List<AttributeReader.Annotation> annotations = new AttributeReader(view).annotations(view.attributes());
+
+        assertEquals(1, annotations.size());
+        Map<String, Object> elements = annotations.get(0).elements();
+        assertEquals((byte) 1, elements.get("b"));
+        assertEquals('x', elements.get("c"));
+        assertEquals((short) 2, elements.get("s"));
+        assertEquals(3, elements.get("i"));
+        assertEquals(1L << 40, elements.get("j"));
+        assertEquals(1.5f, elements.get("f"));
+        assertEquals(2.25, elements.get("d"));
+        assertEquals(true, elements.get("z"));
+        assertEquals("hi", elements.get("text"));
+        assertEquals(new AttributeReader.EnumConstant("Ljava/util/concurrent/TimeUnit;", "SECONDS"),
+            elements.get("unit"));
+        assertEquals(new AttributeReader.ClassLiteral("Ljava/lang/String;"), elements.get("type"));
+        assertEquals(new AttributeReader.Annotation(ENTITY, Map.of("table", "inner")), elements.get("nested"));
+        assertEquals(List.of(4, 5), elements.get("numbers"));
+    }
+
+    @Test
+    void isAnnotatedWith_shouldOnlyMatchClassAnnotations() throws Exception {
+        assertTrue(AttributeReader.isAnnotatedWith(view(Person.class), ENTITY));
+        assertFalse(AttributeReader.isAnnotatedWith(view(Plain.class), ENTITY));
+        // Entity is in the pool, but only nested inside another annotation
+        assertFalse(AttributeReader.isAnnotatedWith(view(Annotated.class), ENTITY));
+    }
+
+    @Test
+    void attributeHandler_shouldFindAnnotatedClassesInAJar() throws Exception {
+        Path dir = Files.createTempDirectory("annotations");
+        try {
+            Path jar = ClassFileTestSupport.writeJar(dir.resolve("app.jar"),
+                Person.class, Annotated.class, Plain.class, String.class);
+
+            List<String> found = new ClassFileAPIExample.AttributeHandler()
+                .findAnnotatedClasses(List.of(jar), Entity.class.getName());
+
+            assertEquals(List.of(Person.class.getName().replace('.', '/')), found);
+        } finally {
+            ClassFileTestSupport.deleteRecursively(dir);
+        }
+    }
+
+    @Test
+    void attributeHandler_shouldListClassAttributes() throws Exception {
+        List<ClassFileAPIExample.AttributeHandler.AttributeInfo> attributes =
+            new ClassFileAPIExample.AttributeHandler().listAttributes(ClassFileTestSupport.classBytes(Person.class));
+
+        List<String> names = attributes.stream()
+            .map(ClassFileAPIExample.AttributeHandler.AttributeInfo::name).collect(Collectors.toList());
+        assertTrue(names.contains("RuntimeVisibleAnnotations"));
+        assertTrue(names.contains("RuntimeInvisibleAnnotations"));
+        assertTrue(names.contains("SourceFile"));
+    }
+}
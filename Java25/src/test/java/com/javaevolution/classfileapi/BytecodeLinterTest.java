@@ -0,0 +1,273 @@
+package com.javaevolution.classfileapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BytecodeLinterTest {
+
+    interface Shape {
+        double area();
+    }
+
+    static final class Circle implements Shape {
+        double radius = 1;
+
+        @Override
+        public double area() {
+            return Math.PI * radius * radius;
+        }
+    }
+
+    static final class Square implements Shape {
+        double side = 2;
+
+        @Override
+        public double area() {
+            return side * side;
+        }
+    }
+
+    static final class Triangle implements Shape {
+        double base = 3;
+        double height = 4;
+
+        @Override
+        public double area() {
+            return base * height / 2;
+        }
+    }
+
+    interface Pair {
+        int value();
+    }
+
+    static final class One implements Pair {
+        @Override
+        public int value() {
+            return 1;
+        }
+    }
+
+    static final class Two implements Pair {
+        @Override
+        public int value() {
+            return 2;
+        }
+    }
+
+    static class Caller {
+        static double total(Shape[] shapes) {
+            double total = 0;
+            for (Shape shape : shapes) {
+                total += shape.area();
+            }
+            return total;
+        }
+
+        static int sum(Pair first, Pair second) {
+            return first.value() + second.value();
+        }
+
+        static double circle(Circle circle) {
+            return circle.area();
+        }
+
+        static int small(int x) {
+            return x + 1;
+        }
+
+        static int medium(int a, int b, int c) {
+            int x = a * 31 + b;
+            x ^= x >>> 7;
+            x += c * 17;
+            x ^= x << 3;
+            x += a - b;
+            x ^= x >>> 11;
+            x *= 0x9E3779B9;
+            return x ^ c;
+        }
+
+        static String dense(int day) {
+            switch (day) {
+                case 1: return "mon";
+                case 2: return "tue";
+                case 3: return "wed";
+                default: return "other";
+            }
+        }
+
+        static String sparse(int code) {
+            switch (code) {
+                case 200: return "ok";
+                case 404: return "missing";
+                case 500000: return "odd";
+                default: return "unknown";
+            }
+        }
+    }
+
+    private static final String PREFIX = BytecodeLinterTest.class.getName().replace('.', '/') + "$";
+
+    private static final Class<?>[] FIXTURES = {
+        Shape.class, Circle.class, Square.class, Triangle.class, Pair.class, One.class, Two.class, Caller.class
+    };
+
+    private static BytecodeLinter linter() throws Exception {
+        BytecodeLinter linter = new BytecodeLinter();
+        for (Class<?> type : FIXTURES) {
+            linter.addClass(ClassFileView.of(ClassFileTestSupport.classBytes(type)));
+        }
+        return linter;
+    }
+
+    private static byte[] nops(ConstantPoolBuilder pool, int count) {
+        CodeBuilder code = new CodeBuilder(pool);
+        for (int i = 0; i < count; i++) {
+            code.op(0x00);
+        }
+        code.op(CodeBuilder.RETURN);
+        return code.toAttribute(0, 0);
+    }
+
+    /**
+     * nop, wide iload, wide iinc, tableswitch, lookupswitch (padded by 3), return.
+     */
+    private static byte[] variableLengthCode(ConstantPoolBuilder pool) {
+        CodeBuilder code = new CodeBuilder(pool);
+        code.op(0x00);
+        code.op(CodeBuilder.WIDE).op(CodeBuilder.ILOAD).u2(300);
+        code.op(CodeBuilder.WIDE).op(CodeWalker.IINC).u2(300).u2(1000);
+        code.op(CodeWalker.TABLESWITCH).u4(53).u4(0).u4(2).u4(53).u4(53).u4(53);
+        code.op(CodeWalker.LOOKUPSWITCH).u1(0).u1(0).u1(0).u4(28).u4(2).u4(7).u4(28).u4(99).u4(28);
+        code.op(CodeBuilder.RETURN);
+        return code.toAttribute(1, 301);
+    }
+
+    private static ClassFileView generated() {
+        ConstantPoolBuilder pool = new ConstantPoolBuilder();
+        ClassFileWriter writer = new ClassFileWriter(61, 0, pool);
+        writer.header(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_SUPER, "gen/Sizes", "java/lang/Object",
+            List.of());
+        int access = ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_STATIC;
+        writer.method(access, "big", "()V", List.of(nops(pool, 400)));
+        writer.method(access, "huge", "()V", List.of(nops(pool, 8100)));
+        writer.method(access, "mixed", "()V", List.of(variableLengthCode(pool)));
+        return ClassFileView.of(writer.toByteArray());
+    }
+
+    private static ClassFileView.Attribute code(ClassFileView view, String method) {
+        for (ClassFileView.Member member : view.methods()) {
+            if (view.name(member).equals(method)) {
+                return view.findAttribute(member.attributes(), "Code");
+            }
+        }
+        throw new AssertionError("No method " + method);
+    }
+
+    @Test
+    void walker_shouldHandleWideAndSwitchPadding() {
+        ClassFileView view = generated();
+        ClassFileView.Attribute code = code(view, "mixed");
+        int start = CodeWalker.codeStart(code);
+        List<Integer> offsets = new ArrayList<>();
+        List<Integer> opcodes = new ArrayList<>();
+
+        CodeWalker.walk(view, code, (offset, opcode) -> {
+            offsets.add(offset - start);
+            opcodes.add(opcode);
+        });
+
+        assertEquals(List.of(0, 1, 5, 11, 36, 64), offsets);
+        assertEquals(List.of(0x00, CodeBuilder.WIDE, CodeBuilder.WIDE, CodeWalker.TABLESWITCH,
+            CodeWalker.LOOKUPSWITCH, CodeBuilder.RETURN), opcodes);
+    }
+
+    @Test
+    void walker_shouldReachTheEndOfEveryJdkMethod() throws Exception {
+        for (Class<?> type : List.of(String.class, Character.class, java.util.regex.Pattern.class)) {
+            ClassFileView view = ClassFileView.of(ClassFileTestSupport.classBytes(type));
+            for (ClassFileView.Member method : view.methods()) {
+                ClassFileView.Attribute code = view.findAttribute(method.attributes(), "Code");
+                if (code != null) {
+                    assertDoesNotThrow(() -> CodeWalker.walk(view, code, (offset, opcode) -> { }),
+                        type.getName() + "." + view.name(method));
+                }
+            }
+        }
+    }
+
+    @Test
+    void sizeKind_shouldFollowJitLimits() {
+        assertNull(BytecodeLinter.sizeKind(35));
+        assertEquals(BytecodeLinter.Kind.INLINED_ONLY_WHEN_HOT, BytecodeLinter.sizeKind(36));
+        assertEquals(BytecodeLinter.Kind.INLINED_ONLY_WHEN_HOT, BytecodeLinter.sizeKind(325));
+        assertEquals(BytecodeLinter.Kind.NOT_INLINED_WHEN_HOT, BytecodeLinter.sizeKind(326));
+        assertEquals(BytecodeLinter.Kind.NOT_INLINED_WHEN_HOT, BytecodeLinter.sizeKind(8000));
+        assertEquals(BytecodeLinter.Kind.HUGE_METHOD, BytecodeLinter.sizeKind(8001));
+    }
+
+    @Test
+    void report_shouldFlagMethodSizes() throws Exception {
+        BytecodeLinter.Report report = linter().report();
+
+        List<String> mediumOnly = report.findings().stream()
+            .filter(f -> f.kind() == BytecodeLinter.Kind.INLINED_ONLY_WHEN_HOT)
+            .map(BytecodeLinter.Finding::methodName)
+            .collect(Collectors.toList());
+        assertTrue(mediumOnly.contains("medium"), mediumOnly.toString());
+        assertFalse(mediumOnly.contains("small"));
+        assertEquals(0, report.count(BytecodeLinter.Kind.HUGE_METHOD));
+    }
+
+    @Test
+    void report_shouldFlagOnlyMegamorphicCallSites() throws Exception {
+        BytecodeLinter.Report report = linter().report();
+
+        List<BytecodeLinter.Finding> calls = report.findings().stream()
+            .filter(f -> f.kind() == BytecodeLinter.Kind.MEGAMORPHIC_CALL)
+            .collect(Collectors.toList());
+        assertEquals(1, calls.size());
+        BytecodeLinter.Finding call = calls.get(0);
+        assertEquals(PREFIX + "Caller", call.className());
+        assertEquals("total", call.methodName());
+        assertEquals(PREFIX + "Shape.area()D", call.target());
+        assertEquals(3, call.receiverTypes());
+        assertTrue(call.offset() >= 0 && call.offset() < call.codeLength());
+    }
+
+    @Test
+    void report_shouldRankBySeverity() throws Exception {
+        BytecodeLinter.Report report = linter().addClass(generated()).report();
+
+        List<BytecodeLinter.Finding> top = report.top(3);
+        assertEquals(BytecodeLinter.Kind.HUGE_METHOD, top.get(0).kind());
+        assertEquals("huge", top.get(0).methodName());
+        assertEquals(8101, top.get(0).codeLength());
+        assertEquals(BytecodeLinter.Kind.MEGAMORPHIC_CALL, top.get(1).kind());
+        assertEquals(BytecodeLinter.Kind.NOT_INLINED_WHEN_HOT, top.get(2).kind());
+        assertEquals("big", top.get(2).methodName());
+        assertTrue(report.format(2).contains("more"));
+    }
+
+    @Test
+    void lint_shouldReadAJar() throws Exception {
+        Path dir = Files.createTempDirectory("linter");
+        try {
+            Path jar = ClassFileTestSupport.writeJar(dir.resolve("app.jar"), FIXTURES);
+
+            BytecodeLinter.Report report = new ClassFileAPIExample.StackMapHandler().lint(jar);
+
+            assertEquals(FIXTURES.length, report.classes());
+            assertEquals(1, report.count(BytecodeLinter.Kind.MEGAMORPHIC_CALL));
+        } finally {
+            ClassFileTestSupport.deleteRecursively(dir);
+        }
+    }
+}
@@ -3,19 +3,57 @@ package com.javaevolution.classfileapi;
 import com.javaevolution.classfileapi.ClassFileAPIExample.*;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class ClassFileAPIExampleTest {
 
     @Test
-    void classFileReader_shouldReadClassInfo() {
+    void classFileReader_shouldReadClassInfo() throws IOException {
         ClassFileReader reader = new ClassFileReader();
-        byte[] dummyBytes = new byte[0];
-        ClassFileReader.ClassInfo info = reader.readClassFile(dummyBytes);
+        byte[] classBytes = ClassFileTestSupport.classBytes(ClassFileReader.class);
+        ClassFileReader.ClassInfo info = reader.readClassFile(classBytes);
         
         assertNotNull(info);
-        assertEquals("ExampleClass", info.name());
-        assertEquals(65, info.version());
+        assertEquals("com/javaevolution/classfileapi/ClassFileAPIExample$ClassFileReader", info.name());
+        assertTrue(info.version() >= 61);
+        assertEquals(ClassFileTestSupport.declaredMethodCount(ClassFileReader.class), info.methodCount());
+    }
+
+    @Test
+    void classFileReader_withInvalidBytes_shouldThrow() {
+        ClassFileReader reader = new ClassFileReader();
+        assertThrows(IllegalArgumentException.class, () -> reader.readClassFile(new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> reader.readClassFile(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10}));
+    }
+
+    @Test
+    void classFileReader_shouldScanJarAndDirectory() throws IOException {
+        Path dir = Files.createTempDirectory("classfile");
+        try {
+            scanJarAndDirectory(dir);
+        } finally {
+            ClassFileTestSupport.deleteRecursively(dir);
+        }
+    }
+
+    private void scanJarAndDirectory(Path dir) throws IOException {
+        Path jar = ClassFileTestSupport.writeJar(dir.resolve("sample.jar"),
+            ClassFileAPIExample.class, ClassFileReader.class, ClassFileView.class);
+        Path classes = Files.createDirectories(dir.resolve("classes/pkg"));
+        Files.write(classes.resolve("MappedJar.class"), ClassFileTestSupport.classBytes(MappedJar.class));
+        ClassFileReader reader = new ClassFileReader();
+        
+        List<ClassFileReader.ClassInfo> fromJar = reader.scanJar(jar);
+        List<ClassFileReader.ClassInfo> all = reader.scanClasspath(List.of(jar, dir.resolve("classes")));
+        
+        assertEquals(3, fromJar.size());
+        assertEquals(4, all.size());
+        assertTrue(all.stream().anyMatch(info -> info.name().endsWith("/MappedJar")));
     }
 
     @Test
@@ -47,6 +85,16 @@ class ClassFileAPIExampleTest {
         assertEquals("hello", info.methodName());
     }
 
+    @Test
+    void classGenerator_shouldDefineRunnableClass() throws Exception {
+        ClassGenerator generator = new ClassGenerator();
+
+        Class<?> generated = generator.defineSimpleClass();
+
+        assertTrue(generated.isHidden());
+        assertEquals("Hello, World!", generated.getMethod("hello").invoke(null));
+    }
+
     @Test
     void classTransformer_shouldTransform() {
         ClassTransformer transformer = new ClassTransformer();
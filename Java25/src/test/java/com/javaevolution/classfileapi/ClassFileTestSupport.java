@@ -0,0 +1,75 @@
+package com.javaevolution.classfileapi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+/**
+ * Shared helpers for class-file tests: real class bytes from the test classpath and small JARs.
+ */
+final class ClassFileTestSupport {
+
+    private ClassFileTestSupport() {
+    }
+
+    static byte[] classBytes(Class<?> type) throws IOException {
+        String resource = "/" + type.getName().replace('.', '/') + ".class";
+        try (InputStream in = type.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Class file not found: " + resource);
+            }
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Methods as counted in the class file, for classes without a static initializer.
+     * Reflection includes synthetic lambda bodies, which the class file also contains.
+     */
+    static int declaredMethodCount(Class<?> type) {
+        return type.getDeclaredMethods().length + type.getDeclaredConstructors().length;
+    }
+
+    /**
+     * Writes the classes to a JAR, alternating deflated and stored entries.
+     */
+    static Path writeJar(Path jar, Class<?>... classes) throws IOException {
+        try (OutputStream file = Files.newOutputStream(jar);
+             JarOutputStream out = new JarOutputStream(file)) {
+            boolean stored = false;
+            for (Class<?> type : classes) {
+                byte[] bytes = classBytes(type);
+                JarEntry entry = new JarEntry(type.getName().replace('.', '/') + ".class");
+                if (stored) {
+                    CRC32 crc = new CRC32();
+                    crc.update(bytes);
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(bytes.length);
+                    entry.setCompressedSize(bytes.length);
+                    entry.setCrc(crc.getValue());
+                }
+                out.putNextEntry(entry);
+                out.write(bytes);
+                out.closeEntry();
+                stored = !stored;
+            }
+        }
+        return jar;
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.javaevolution.classfileapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassFileViewTest {
+
+    static class Sample implements Serializable, Comparable<Sample> {
+        private static final long serialVersionUID = 1L;
+        static final long BIG = 1L << 40;
+        static final double RATIO = 0.75;
+        String name = "caf\u00E9 \uD83D\uDE00";
+        int count;
+
+        @Override
+        public int compareTo(Sample other) {
+            return Integer.compare(count, other.count);
+        }
+    }
+
+    @Test
+    void of_shouldReadHeader() throws IOException {
+        ClassFileView view = ClassFileView.of(ClassFileTestSupport.classBytes(Sample.class));
+
+        assertEquals("com/javaevolution/classfileapi/ClassFileViewTest$Sample", view.thisClass());
+        assertEquals("java/lang/Object", view.superClass());
+        assertEquals(List.of("java/io/Serializable", "java/lang/Comparable"), view.interfaces());
+        assertTrue(view.majorVersion() >= 61);
+    }
+
+    @Test
+    void fieldAndMethodCounts_shouldSkipAttributesByLength() throws IOException {
+        ClassFileView view = ClassFileView.of(ClassFileTestSupport.classBytes(Sample.class));
+
+        assertEquals(5, view.fieldCount());
+        // constructor, compareTo and the compareTo(Object) bridge
+        assertEquals(3, view.methodCount());
+        assertTrue(view.attributesOffset() < view.length());
+    }
+
+    @Test
+    void constantPool_shouldHandleWideEntriesAndUtf8() throws IOException {
+        ClassFileView view = ClassFileView.of(ClassFileTestSupport.classBytes(Sample.class));
+        boolean foundLong = false;
+        boolean foundText = false;
+
+        for (int i = 1; i < view.constantPoolCount(); i++) {
+            int tag = view.tag(i);
+            if (tag == ClassFileView.CONSTANT_LONG && view.u8(view.entryOffset(i) + 1) == 1L << 40) {
+                foundLong = true;
+                assertEquals(0, view.tag(i + 1));
+            }
+            if (tag == ClassFileView.CONSTANT_UTF8 && view.utf8(i).equals("caf\u00E9 \uD83D\uDE00")) {
+                foundText = true;
+            }
+        }
+
+        assertTrue(foundLong);
+        assertTrue(foundText);
+    }
+
+    @Test
+    void utf8Equals_shouldCompareWithoutDecoding() throws IOException {
+        ClassFileView view = ClassFileView.of(ClassFileTestSupport.classBytes(Sample.class));
+        int codeIndex = -1;
+        for (int i = 1; i < view.constantPoolCount(); i++) {
+            if (view.tag(i) == ClassFileView.CONSTANT_UTF8 && view.utf8(i).equals("Code")) {
+                codeIndex = i;
+            }
+        }
+
+        assertTrue(view.utf8Equals(codeIndex, "Code"));
+        assertFalse(view.utf8Equals(codeIndex, "Cod"));
+        assertFalse(view.utf8Equals(codeIndex, "Coda"));
+    }
+
+    @Test
+    void of_sliceOfLargerBuffer_shouldUseSliceBounds() throws IOException {
+        byte[] bytes = ClassFileTestSupport.classBytes(Sample.class);
+        ByteBuffer padded = ByteBuffer.allocate(bytes.length + 20);
+        padded.position(10);
+        padded.put(bytes);
+
+        ClassFileView view = ClassFileView.of(padded.slice(10, bytes.length));
+
+        assertEquals(bytes.length, view.length());
+        assertEquals("com/javaevolution/classfileapi/ClassFileViewTest$Sample", view.thisClass());
+    }
+
+    @Test
+    void of_withBadMagic_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> ClassFileView.of(new byte[16]));
+    }
+}
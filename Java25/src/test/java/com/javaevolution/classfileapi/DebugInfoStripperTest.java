@@ -0,0 +1,82 @@
+package com.javaevolution.classfileapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DebugInfoStripperTest {
+
+    public static class Fixture {
+        public static int sum(int[] values) {
+            int total = 0;
+            for (int value : values) {
+                total += value;
+            }
+            return total;
+        }
+
+        public static List<String> upper(List<String> names) {
+            return names.stream().map(String::toUpperCase).collect(Collectors.toList());
+        }
+    }
+
+    private static final String NAME = Fixture.class.getName();
+
+    private static List<String> codeAttributes(byte[] bytes, String method) {
+        ClassFileView view = ClassFileView.of(bytes);
+        ClassFileView.Member member = view.methods().stream()
+            .filter(m -> view.name(m).equals(method)).findFirst().orElseThrow();
+        return new AttributeReader(view).code(member).attributes().stream()
+            .map(view::name).collect(Collectors.toList());
+    }
+
+    private static List<String> classAttributes(byte[] bytes) {
+        ClassFileView view = ClassFileView.of(bytes);
+        return view.attributes().stream().map(view::name).collect(Collectors.toList());
+    }
+
+    @Test
+    void strip_shouldRemoveLocalVariablesAndKeepLineNumbers() throws Exception {
+        byte[] original = ClassFileTestSupport.classBytes(Fixture.class);
+        assertTrue(codeAttributes(original, "sum").contains("LocalVariableTable"));
+
+        byte[] stripped = new DebugInfoStripper(false).strip(original);
+
+        assertFalse(codeAttributes(stripped, "sum").contains("LocalVariableTable"));
+        assertFalse(codeAttributes(stripped, "upper").contains("LocalVariableTypeTable"));
+        assertTrue(codeAttributes(stripped, "sum").contains("LineNumberTable"));
+        assertTrue(classAttributes(stripped).contains("SourceFile"));
+        assertTrue(stripped.length < original.length);
+    }
+
+    @Test
+    void strip_withLineNumbers_shouldAlsoRemoveSourceFile() throws Exception {
+        byte[] stripped = new DebugInfoStripper(true).strip(ClassFileTestSupport.classBytes(Fixture.class));
+
+        assertFalse(codeAttributes(stripped, "sum").contains("LineNumberTable"));
+        assertFalse(classAttributes(stripped).contains("SourceFile"));
+        // The StackMapTable of the loop is kept
+        assertTrue(codeAttributes(stripped, "sum").contains("StackMapTable"));
+    }
+
+    @Test
+    void strippedClass_shouldStillVerifyAndRun() throws Exception {
+        byte[] stripped = new DebugInfoStripper(true).strip(ClassFileTestSupport.classBytes(Fixture.class));
+
+        Class<?> type = new TimingInstrumentorTest.BytesClassLoader(NAME, stripped).loadClass(NAME);
+
+        assertEquals(6, type.getMethod("sum", int[].class).invoke(null, (Object) new int[] {1, 2, 3}));
+        assertEquals(List.of("A", "B"), type.getMethod("upper", List.class).invoke(null, List.of("a", "b")));
+    }
+
+    @Test
+    void strip_withoutDebugAttributes_shouldReturnNull() throws Exception {
+        byte[] once = new DebugInfoStripper(true).strip(ClassFileTestSupport.classBytes(Fixture.class));
+
+        assertNull(new DebugInfoStripper(true).strip(once));
+        assertNull(new DebugInfoStripper(false).strip(once));
+    }
+}
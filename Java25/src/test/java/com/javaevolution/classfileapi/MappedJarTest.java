@@ -0,0 +1,64 @@
+package com.javaevolution.classfileapi;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedJarTest {
+
+    private Path dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("mappedjar");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        ClassFileTestSupport.deleteRecursively(dir);
+    }
+
+    @Test
+    void open_shouldListCentralDirectory() throws IOException {
+        Path jar = ClassFileTestSupport.writeJar(dir.resolve("a.jar"), MappedJar.class, ClassFileView.class);
+
+        MappedJar mapped = MappedJar.open(jar);
+
+        List<MappedJar.Entry> classes = mapped.classEntries();
+        assertEquals(2, classes.size());
+        assertEquals("com/javaevolution/classfileapi/MappedJar.class", classes.get(0).name());
+        assertEquals(2, mapped.entries().size());
+    }
+
+    @Test
+    void read_shouldReturnOriginalBytesForDeflatedAndStoredEntries() throws IOException {
+        Path jar = ClassFileTestSupport.writeJar(dir.resolve("b.jar"), MappedJar.class, ClassFileView.class);
+        MappedJar mapped = MappedJar.open(jar);
+
+        List<MappedJar.Entry> classes = mapped.classEntries();
+        assertEquals(8, classes.get(0).method());
+        assertEquals(0, classes.get(1).method());
+        assertArrayEquals(ClassFileTestSupport.classBytes(MappedJar.class), toArray(mapped.read(classes.get(0))));
+        assertArrayEquals(ClassFileTestSupport.classBytes(ClassFileView.class), toArray(mapped.read(classes.get(1))));
+    }
+
+    @Test
+    void open_nonZipFile_shouldThrow() throws IOException {
+        Path file = Files.write(dir.resolve("not.jar"), new byte[100]);
+        assertThrows(IOException.class, () -> MappedJar.open(file));
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
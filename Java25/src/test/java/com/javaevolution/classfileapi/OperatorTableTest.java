@@ -0,0 +1,142 @@
+package com.javaevolution.classfileapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntBinaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperatorTableTest {
+
+    public static final class Rules {
+        public static double divideOrNaN(double a, double b) {
+            return b != 0 ? a / b : Double.NaN;
+        }
+
+        public static int clamp(int a, int b) {
+            return Math.max(-b, Math.min(a, b));
+        }
+    }
+
+    private static int calculateValue(String operator, int a, int b) {
+        return switch (operator) {
+            case "+" -> a + b;
+            case "-" -> a - b;
+            case "*" -> a * b;
+            case "/" -> a / b;
+            default -> throw new IllegalArgumentException("Unknown operator: " + operator);
+        };
+    }
+
+    private static OperatorTable named() {
+        Map<String, OperatorTable.Operation> operators = new LinkedHashMap<>();
+        operators.put("add", OperatorTable.Operation.ADD);
+        operators.put("subtract", OperatorTable.Operation.SUBTRACT);
+        operators.put("multiply", OperatorTable.Operation.MULTIPLY);
+        operators.put("divide", OperatorTable.Operation.invoking(Rules.class, "divideOrNaN"));
+        return OperatorTable.compile(operators);
+    }
+
+    @Test
+    void ids_shouldBeDenseInTableOrder() {
+        OperatorTable table = OperatorTable.ARITHMETIC;
+
+        assertEquals(4, table.size());
+        assertEquals(0, table.id("+"));
+        assertEquals(3, table.id("/"));
+        assertEquals("*", table.symbol(2));
+        assertSame(OperatorTable.Operation.SUBTRACT, table.operation(1));
+        assertThrows(IllegalArgumentException.class, () -> table.id("^"));
+    }
+
+    @Test
+    void intOperators_shouldMatchStringSwitch() {
+        int[][] operands = {{2, 3}, {-7, 2}, {Integer.MAX_VALUE, 1}, {Integer.MIN_VALUE, -1}, {0, 5}};
+        for (String symbol : new String[] {"+", "-", "*", "/"}) {
+            IntBinaryOperator operator = OperatorTable.ARITHMETIC.intOperator(symbol);
+            for (int[] pair : operands) {
+                assertEquals(calculateValue(symbol, pair[0], pair[1]), operator.applyAsInt(pair[0], pair[1]),
+                    symbol + " " + pair[0] + " " + pair[1]);
+            }
+        }
+    }
+
+    @Test
+    void intDispatcher_shouldMatchStringSwitch() {
+        OperatorTable table = OperatorTable.ARITHMETIC;
+        OperatorTable.IntDispatcher dispatcher = table.intDispatcher();
+        for (int id = 0; id < table.size(); id++) {
+            assertEquals(calculateValue(table.symbol(id), 12, 5), dispatcher.apply(id, 12, 5));
+        }
+    }
+
+    @Test
+    void intDivisionByZero_shouldThrowArithmeticException() {
+        OperatorTable table = OperatorTable.ARITHMETIC;
+
+        assertThrows(ArithmeticException.class, () -> table.intOperator("/").applyAsInt(1, 0));
+        assertThrows(ArithmeticException.class, () -> table.intDispatcher().apply(table.id("/"), 1, 0));
+    }
+
+    @Test
+    void dispatcher_shouldRejectUnknownIds() {
+        OperatorTable table = OperatorTable.ARITHMETIC;
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> table.intDispatcher().apply(4, 1, 2));
+        assertEquals("Unknown operator id: 4", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> table.doubleDispatcher().apply(-1, 1, 2));
+        assertThrows(IllegalArgumentException.class, () -> table.intOperator(9));
+    }
+
+    @Test
+    void doubleOperators_shouldSupportStaticMethods() {
+        OperatorTable table = named();
+        DoubleBinaryOperator divide = table.doubleOperator("divide");
+
+        assertEquals(2.5, divide.applyAsDouble(5, 2));
+        assertTrue(Double.isNaN(divide.applyAsDouble(5, 0)));
+        assertEquals(7.0, table.doubleOperator("add").applyAsDouble(3, 4));
+
+        OperatorTable.DoubleDispatcher dispatcher = table.doubleDispatcher();
+        assertEquals(-1.0, dispatcher.apply(table.id("subtract"), 3, 4));
+        assertEquals(12.0, dispatcher.apply(table.id("multiply"), 3, 4));
+        assertTrue(Double.isNaN(dispatcher.apply(table.id("divide"), 3, 0)));
+    }
+
+    @Test
+    void operationsWithoutForm_shouldFailForThatTypeOnly() {
+        Map<String, OperatorTable.Operation> operators = new LinkedHashMap<>();
+        operators.put("&", OperatorTable.Operation.AND);
+        operators.put("min", OperatorTable.Operation.MIN);
+        operators.put("clamp", OperatorTable.Operation.invoking(Rules.class, "clamp"));
+        OperatorTable table = OperatorTable.compile(operators);
+
+        assertEquals(0b1000, table.intOperator("&").applyAsInt(0b1100, 0b1010));
+        assertEquals(-3, table.intDispatcher().apply(table.id("min"), 4, -3));
+        assertEquals(5, table.intOperator("clamp").applyAsInt(9, 5));
+        assertThrows(IllegalArgumentException.class, table::doubleDispatcher);
+    }
+
+    @Test
+    void invoking_shouldRejectMissingMethods() {
+        assertThrows(IllegalArgumentException.class, () -> OperatorTable.Operation.invoking(Rules.class, "nope"));
+        assertThrows(IllegalArgumentException.class,
+            () -> OperatorTable.Operation.invoking(String.class, "valueOf"));
+        assertThrows(IllegalArgumentException.class, () -> OperatorTable.compile(Map.of()));
+    }
+
+    @Test
+    void operators_shouldBeCachedHiddenClassesOnePerOperator() {
+        OperatorTable table = named();
+        DoubleBinaryOperator add = table.doubleOperator("add");
+
+        assertSame(add, table.doubleOperator(0));
+        assertSame(table.doubleDispatcher(), table.doubleDispatcher());
+        assertTrue(add.getClass().isHidden());
+        assertNotSame(add.getClass(), table.doubleOperator("subtract").getClass());
+    }
+}
@@ -0,0 +1,145 @@
+package com.javaevolution.classfileapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferenceIndexTest {
+
+    static class LegacyCaller {
+        @SuppressWarnings("deprecation")
+        static void run(Thread thread) {
+            thread.setDaemon(true);
+            System.out.println("reference-index-marker");
+            StringBuilder text = new StringBuilder();
+            text.append(1).append("x");
+        }
+    }
+
+    static class ModernCaller {
+        static String run() {
+            return Thread.currentThread().getName() + new StringBuilder("y").reverse();
+        }
+    }
+
+    private static final String LEGACY = LegacyCaller.class.getName().replace('.', '/');
+    private static final String MODERN = ModernCaller.class.getName().replace('.', '/');
+
+    private static ReferenceIndex index() throws Exception {
+        return ReferenceIndex.builder()
+            .addClass("test-a", ClassFileView.of(ClassFileTestSupport.classBytes(LegacyCaller.class)))
+            .addClass("test-b", ClassFileView.of(ClassFileTestSupport.classBytes(ModernCaller.class)))
+            .build();
+    }
+
+    private static List<String> names(List<ReferenceIndex.Reference> references) {
+        return references.stream().map(ReferenceIndex.Reference::className).collect(Collectors.toList());
+    }
+
+    @Test
+    void callersOf_shouldFindExactMethod() throws Exception {
+        ReferenceIndex index = index();
+
+        List<ReferenceIndex.Reference> callers = index.callersOf("java/lang/Thread", "setDaemon", "(Z)V");
+
+        assertEquals(List.of(new ReferenceIndex.Reference(LEGACY, "test-a")), callers);
+        assertEquals(List.of(MODERN), names(index.callersOf("java/lang/Thread", "currentThread", "()Ljava/lang/Thread;")));
+    }
+
+    @Test
+    void callersOf_withoutDescriptor_shouldMatchAllOverloads() throws Exception {
+        ReferenceIndex index = index();
+
+        // append(int) and append(String) in one class, one constructor each
+        assertEquals(List.of(LEGACY), names(index.callersOf("java/lang/StringBuilder", "append")));
+        assertEquals(List.of(LEGACY, MODERN), names(index.callersOf("java/lang/StringBuilder", "<init>")));
+        assertTrue(index.callersOf("java/lang/StringBuilder", "app").isEmpty());
+    }
+
+    @Test
+    void classFieldAndStringReferences_shouldBeIndexed() throws Exception {
+        ReferenceIndex index = index();
+
+        assertEquals(List.of(LEGACY, MODERN), names(index.referencesToClass("java/lang/Thread")));
+        assertEquals(List.of(LEGACY), names(index.accessorsOf("java/lang/System", "out", "Ljava/io/PrintStream;")));
+        assertEquals(List.of(LEGACY), names(index.usersOfString("reference-index-marker")));
+        assertTrue(index.referencesToClass("java/util/concurrent/Phaser").isEmpty());
+    }
+
+    @Test
+    void symbols_shouldBeSortedAndDeduplicated() throws Exception {
+        ReferenceIndex index = index();
+
+        List<String> methods = index.symbols(ReferenceIndex.Kind.METHOD, "java/lang/StringBuilder.");
+
+        assertEquals(methods.stream().sorted().distinct().collect(Collectors.toList()), methods);
+        assertTrue(methods.contains("java/lang/StringBuilder.append(I)Ljava/lang/StringBuilder;"));
+        assertEquals(2, index.classCount());
+    }
+
+    @Test
+    void writeAndOpen_shouldAnswerTheSameQueries() throws Exception {
+        Path dir = Files.createTempDirectory("refindex");
+        try {
+            ReferenceIndex built = index();
+            Path file = dir.resolve("refs.idx");
+            built.write(file);
+
+            ReferenceIndex opened = ReferenceIndex.open(file);
+
+            assertEquals(built.symbolCount(), opened.symbolCount());
+            assertEquals(built.callersOf("java/lang/Thread", "setDaemon"), opened.callersOf("java/lang/Thread", "setDaemon"));
+            assertEquals(List.of("test-a", "test-b"), opened.sources());
+        } finally {
+            ClassFileTestSupport.deleteRecursively(dir);
+        }
+    }
+
+    @Test
+    void openOrBuild_shouldReuseCurrentIndexAndRebuildForNewClasspath() throws Exception {
+        Path dir = Files.createTempDirectory("refindex");
+        try {
+            Path jarA = ClassFileTestSupport.writeJar(dir.resolve("a.jar"), LegacyCaller.class);
+            Path jarB = ClassFileTestSupport.writeJar(dir.resolve("b.jar"), ModernCaller.class);
+            Path file = dir.resolve("refs.idx");
+            // Keep the JARs clearly older than the index on coarse-grained file systems
+            FileTime old = FileTime.fromMillis(System.currentTimeMillis() - 60_000);
+            Files.setLastModifiedTime(jarA, old);
+            Files.setLastModifiedTime(jarB, old);
+
+            ReferenceIndex first = ReferenceIndex.openOrBuild(file, List.of(jarA));
+            FileTime written = Files.getLastModifiedTime(file);
+            ReferenceIndex reused = ReferenceIndex.openOrBuild(file, List.of(jarA));
+
+            assertEquals(written, Files.getLastModifiedTime(file));
+            assertEquals(first.symbolCount(), reused.symbolCount());
+            assertEquals(List.of(LEGACY), names(reused.referencesToClass("java/lang/Thread")));
+
+            ReferenceIndex rebuilt = ReferenceIndex.openOrBuild(file, List.of(jarA, jarB));
+
+            assertEquals(List.of(LEGACY, MODERN), names(rebuilt.referencesToClass("java/lang/Thread")));
+            assertEquals(jarB.toAbsolutePath().normalize().toString(),
+                rebuilt.callersOf("java/lang/Thread", "currentThread").get(0).source());
+        } finally {
+            ClassFileTestSupport.deleteRecursively(dir);
+        }
+    }
+
+    @Test
+    void open_shouldRejectOtherFiles() throws Exception {
+        Path dir = Files.createTempDirectory("refindex");
+        try {
+            Path file = Files.write(dir.resolve("bogus.idx"), new byte[64]);
+
+            assertThrows(java.io.IOException.class, () -> ReferenceIndex.open(file));
+        } finally {
+            ClassFileTestSupport.deleteRecursively(dir);
+        }
+    }
+}
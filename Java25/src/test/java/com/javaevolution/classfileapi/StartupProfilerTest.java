@@ -0,0 +1,100 @@
+package com.javaevolution.classfileapi;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.jar.JarFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartupProfilerTest {
+
+    public static class TrainingApp {
+        public static void main(String[] args) {
+            int total = 0;
+            for (String arg : args) {
+                total += Helper.length(arg);
+            }
+            System.out.println("total=" + total);
+        }
+    }
+
+    static class Helper {
+        static int length(String text) {
+            int length = text.length();
+            return length;
+        }
+    }
+
+    private static final String APP = TrainingApp.class.getName();
+    private static final String HELPER = Helper.class.getName().replace('.', '/');
+
+    private Path dir;
+    private Path jar;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dir = Files.createTempDirectory("startup-profiler");
+        jar = ClassFileTestSupport.writeJar(dir.resolve("app.jar"), TrainingApp.class, Helper.class);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ClassFileTestSupport.deleteRecursively(dir);
+    }
+
+    @Test
+    void parseClassList_shouldSkipCommentsAndDirectives() {
+        List<String> classes = StartupProfiler.parseClassList(List.of(
+            "# NOTE: Do not modify this file.",
+            "java/lang/Object id: 0",
+            "com/example/App id: 512",
+            "@lambda-proxy com/example/App run ()Ljava/lang/Runnable;",
+            "",
+            "java/lang/String"));
+
+        assertEquals(List.of("java/lang/Object", "com/example/App", "java/lang/String"), classes);
+    }
+
+    @Test
+    void commands_shouldShareClassListArchiveAndJar() {
+        StartupProfiler profiler = new StartupProfiler(jar, APP, List.of("x"), dir.resolve("work"));
+
+        StartupProfiler.Commands commands = profiler.commands();
+
+        String jarPath = profiler.optimizedJar().toString();
+        assertTrue(commands.dump().contains(jarPath));
+        assertTrue(commands.archivedRun().contains(jarPath));
+        assertEquals(List.of(APP, "x"), commands.archivedRun().subList(commands.archivedRun().size() - 2,
+            commands.archivedRun().size()));
+        assertTrue(commands.format().contains("-XX:AOTCache="));
+        assertThrows(IllegalArgumentException.class,
+            () -> new StartupProfiler(dir, APP, List.of(), dir.resolve("work")));
+    }
+
+    @Test
+    void profile_shouldRecordStripArchiveAndTime() throws Exception {
+        StartupProfiler profiler = new StartupProfiler(jar, APP, List.of("ab", "cde"), dir.resolve("work"));
+
+        StartupProfiler.Report report = profiler.profile(1);
+
+        assertEquals(2, report.applicationClasses());
+        assertTrue(report.loadedClasses() > 100);
+        assertTrue(report.classBytesAfter() < report.classBytesBefore());
+        assertTrue(Files.size(report.archive()) > 0);
+        assertTrue(report.baseline().toNanos() > 0 && report.archived().toNanos() > 0);
+        try (JarFile optimized = new JarFile(report.jar().toFile())) {
+            byte[] helper = optimized.getInputStream(optimized.getEntry(HELPER + ".class")).readAllBytes();
+            ClassFileView view = ClassFileView.of(helper);
+            AttributeReader reader = new AttributeReader(view);
+            for (ClassFileView.Member method : view.methods()) {
+                assertTrue(reader.localVariables(reader.code(method)).isEmpty());
+            }
+        }
+        assertTrue(report.format().contains("Startup:"));
+    }
+}
@@ -0,0 +1,226 @@
+package com.javaevolution.classfileapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingInstrumentorTest {
+
+    public static class Fixture {
+        private final String prefix;
+
+        public Fixture() {
+            this("v");
+        }
+
+        Fixture(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public static int add(int a, int b) {
+            return a + b;
+        }
+
+        public String describe(long id, double weight, String... tags) {
+            return prefix + id + ":" + weight + ":" + String.join(",", tags);
+        }
+
+        public synchronized long sum(long[] values) {
+            long total = 0;
+            for (long value : values) {
+                total += value;
+            }
+            return total;
+        }
+
+        public void fail(String message) {
+            throw new IllegalStateException(message);
+        }
+
+        public static int fibonacci(int n) {
+            return n < 2 ? n : fibonacci(n - 1) + fibonacci(n - 2);
+        }
+    }
+
+    /**
+     * Defines the given classes from bytes instead of delegating to the parent.
+     */
+    static final class BytesClassLoader extends ClassLoader {
+        private final String name;
+        private final byte[] bytes;
+
+        BytesClassLoader(String name, byte[] bytes) {
+            super(TimingInstrumentorTest.class.getClassLoader());
+            this.name = name;
+            this.bytes = bytes;
+        }
+
+        @Override
+        protected Class<?> loadClass(String className, boolean resolve) throws ClassNotFoundException {
+            if (!className.equals(name)) {
+                return super.loadClass(className, resolve);
+            }
+            synchronized (getClassLoadingLock(className)) {
+                Class<?> loaded = findLoadedClass(className);
+                return loaded != null ? loaded : defineClass(className, bytes, 0, bytes.length);
+            }
+        }
+    }
+
+    private static String probe(String method, String descriptor) {
+        return TimingInstrumentor.probeName(Fixture.class.getName().replace('.', '/'), method, descriptor);
+    }
+
+    private static Class<?> instrumentedFixture(boolean offline) throws Exception {
+        byte[] bytes = new TimingInstrumentor(TimingInstrumentor.MethodFilter.all(), offline)
+            .instrument(ClassFileTestSupport.classBytes(Fixture.class));
+        assertNotNull(bytes);
+        return new BytesClassLoader(Fixture.class.getName(), bytes).loadClass(Fixture.class.getName());
+    }
+
+    @Test
+    void instrumentedMethods_shouldBehaveAsBeforeAndRecordCalls() throws Exception {
+        Class<?> type = instrumentedFixture(false);
+        Object fixture = type.getConstructor().newInstance();
+        long addBefore = countOf(probe("add", "(II)I"));
+
+        assertEquals(5, type.getMethod("add", int.class, int.class).invoke(null, 2, 3));
+        assertEquals(7, type.getMethod("add", int.class, int.class).invoke(null, 3, 4));
+        Method describe = type.getMethod("describe", long.class, double.class, String[].class);
+        assertEquals("v7:1.5:a,b", describe.invoke(fixture, 7L, 1.5, new String[] {"a", "b"}));
+        assertEquals(6L, type.getMethod("sum", long[].class).invoke(fixture, (Object) new long[] {1, 2, 3}));
+
+        assertEquals(addBefore + 2, countOf(probe("add", "(II)I")));
+        ProbeRegistry.Stats stats = ProbeRegistry.stats(probe("describe", "(JD[Ljava/lang/String;)Ljava/lang/String;"));
+        assertTrue(stats.count() >= 1);
+        assertTrue(stats.totalNanos() > 0);
+        assertEquals(stats.count(), Arrays.stream(stats.histogram()).sum());
+    }
+
+    @Test
+    void wrapper_shouldKeepSignatureAndFlags() throws Exception {
+        Class<?> type = instrumentedFixture(false);
+        Method describe = type.getMethod("describe", long.class, double.class, String[].class);
+        assertTrue(describe.isVarArgs());
+        assertTrue(Modifier.isPublic(describe.getModifiers()));
+
+        Method original = type.getDeclaredMethod("describe" + TimingInstrumentor.SUFFIX,
+            long.class, double.class, String[].class);
+        assertTrue(Modifier.isPrivate(original.getModifiers()));
+        assertTrue(original.isSynthetic());
+        assertTrue(Modifier.isSynchronized(
+            type.getDeclaredMethod("sum" + TimingInstrumentor.SUFFIX, long[].class).getModifiers()));
+    }
+
+    @Test
+    void exceptions_shouldPropagateAndStillBeRecorded() throws Exception {
+        Class<?> type = instrumentedFixture(false);
+        Object fixture = type.getConstructor().newInstance();
+        long before = countOf(probe("fail", "(Ljava/lang/String;)V"));
+
+        InvocationTargetException thrown = assertThrows(InvocationTargetException.class,
+            () -> type.getMethod("fail", String.class).invoke(fixture, "boom"));
+
+        assertInstanceOf(IllegalStateException.class, thrown.getCause());
+        assertEquals("boom", thrown.getCause().getMessage());
+        assertEquals(before + 1, countOf(probe("fail", "(Ljava/lang/String;)V")));
+    }
+
+    @Test
+    void recursiveCalls_shouldEachBeRecorded() throws Exception {
+        Class<?> type = instrumentedFixture(false);
+        long before = countOf(probe("fibonacci", "(I)I"));
+
+        assertEquals(8, type.getMethod("fibonacci", int.class).invoke(null, 6));
+
+        // fib(6) makes 25 calls in total
+        assertEquals(before + 25, countOf(probe("fibonacci", "(I)I")));
+    }
+
+    @Test
+    void offlineRewrite_shouldResolveProbesWhenLoaded() throws Exception {
+        Class<?> type = instrumentedFixture(true);
+        long before = countOf(probe("add", "(II)I"));
+
+        assertEquals(9, type.getMethod("add", int.class, int.class).invoke(null, 4, 5));
+
+        assertEquals(before + 1, countOf(probe("add", "(II)I")));
+    }
+
+    @Test
+    void instrumentJar_shouldRewriteSelectedClassesOnly() throws Exception {
+        Path dir = Files.createTempDirectory("timing");
+        try {
+            Path input = ClassFileTestSupport.writeJar(dir.resolve("in.jar"), Fixture.class, ClassFileView.class);
+            Path output = dir.resolve("out.jar");
+            TimingInstrumentor instrumentor = new TimingInstrumentor(
+                TimingInstrumentor.classPrefixFilter(List.of(Fixture.class.getName())), true);
+
+            assertEquals(1, instrumentor.instrumentJar(input, output));
+
+            MappedJar jar = MappedJar.open(output);
+            assertEquals(2, jar.entries().size());
+            for (MappedJar.Entry entry : jar.entries()) {
+                ByteBuffer data = jar.read(entry);
+                ClassFileView view = ClassFileView.of(data);
+                boolean timed = view.methods().stream()
+                    .anyMatch(m -> view.name(m).endsWith(TimingInstrumentor.SUFFIX));
+                assertEquals(entry.name().contains("Fixture"), timed, entry.name());
+            }
+        } finally {
+            ClassFileTestSupport.deleteRecursively(dir);
+        }
+    }
+
+    @Test
+    void instrument_shouldSkipInterfacesAndInstrumentedClasses() throws Exception {
+        TimingInstrumentor instrumentor = new TimingInstrumentor(TimingInstrumentor.MethodFilter.all(), false);
+
+        assertNull(instrumentor.instrument(ClassFileTestSupport.classBytes(TimingInstrumentor.MethodFilter.class)));
+        byte[] once = instrumentor.instrument(ClassFileTestSupport.classBytes(Fixture.class));
+        assertNull(instrumentor.instrument(once));
+    }
+
+    @Test
+    void exampleInstrumentor_shouldOnlyWrapNamedMethods() throws Exception {
+        byte[] bytes = new ClassFileAPIExample.Instrumentor()
+            .instrument(ClassFileTestSupport.classBytes(Fixture.class), Set.of("add"));
+
+        ClassFileView view = ClassFileView.of(bytes);
+        long timed = view.methods().stream().filter(m -> view.name(m).endsWith(TimingInstrumentor.SUFFIX)).count();
+        assertEquals(1, timed);
+    }
+
+    @Test
+    void report_shouldListCalledMethods() {
+        ProbeRegistry.record(ProbeRegistry.register("report.Test.method()V"), 1500);
+
+        assertTrue(ProbeRegistry.report().contains("report.Test.method()V"));
+    }
+
+    @Test
+    void percentile_shouldReturnBucketUpperBound() {
+        long[] histogram = new long[ProbeRegistry.BUCKETS];
+        histogram[11] = 99;  // [1024, 2048) ns
+        histogram[21] = 1;   // [1 ms, 2 ms)
+        ProbeRegistry.Stats stats = new ProbeRegistry.Stats("m", 100, 0, histogram);
+
+        assertEquals(2047, stats.percentileNanos(0.5));
+        assertEquals((1L << 21) - 1, stats.percentileNanos(1.0));
+    }
+
+    private static long countOf(String probe) {
+        ProbeRegistry.Stats stats = ProbeRegistry.stats(probe);
+        return stats == null ? 0 : stats.count();
+    }
+}
@@ -0,0 +1,234 @@
+package com.javaevolution.classfileapi;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransformPipelineTest {
+
+    static class Alpha {
+        int value() {
+            return 1;
+        }
+    }
+
+    static class Beta {
+        int value() {
+            return 2;
+        }
+    }
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private Path dir;
+    private Path input;
+    private Path output;
+    private Path cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dir = Files.createTempDirectory("transform-pipeline");
+        input = Files.createDirectories(dir.resolve("in"));
+        output = dir.resolve("out");
+        cache = dir.resolve("cache.bin");
+        writeClass(Alpha.class);
+        writeClass(Beta.class);
+        Files.createDirectories(input.resolve("META-INF"));
+        Files.writeString(input.resolve("META-INF/app.properties"), "name=demo\n");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ClassFileTestSupport.deleteRecursively(dir);
+    }
+
+    private void writeClass(Class<?> type) throws Exception {
+        Path file = input.resolve(entryName(type));
+        Files.createDirectories(file.getParent());
+        Files.write(file, ClassFileTestSupport.classBytes(type));
+    }
+
+    private static String entryName(Class<?> type) {
+        return type.getName().replace('.', '/') + ".class";
+    }
+
+    /**
+     * Appends a byte to Alpha, leaves everything else unchanged.
+     */
+    private ClassTransform marker(String id) {
+        return new ClassTransform() {
+            @Override
+            public String id() {
+                return id;
+            }
+
+            @Override
+            public byte[] transform(String className, byte[] classBytes) {
+                calls.incrementAndGet();
+                return className.endsWith("$Alpha") ? Arrays.copyOf(classBytes, classBytes.length + 1) : null;
+            }
+        };
+    }
+
+    private TransformPipeline pipeline(String id) {
+        return new TransformPipeline(List.of(marker(id)), cache);
+    }
+
+    @Test
+    void firstRun_shouldTransformClassesAndCopyTheRest() throws Exception {
+        TransformPipeline.Result result = pipeline("v1").run(input, output);
+
+        assertEquals(3, result.inputs());
+        assertEquals(1, result.transformed());
+        assertEquals(2, result.copied());
+        assertEquals(0, result.upToDate());
+        assertEquals(2, calls.get());
+        byte[] alpha = ClassFileTestSupport.classBytes(Alpha.class);
+        assertEquals(alpha.length + 1, Files.size(output.resolve(entryName(Alpha.class))));
+        assertArrayEquals(ClassFileTestSupport.classBytes(Beta.class),
+            Files.readAllBytes(output.resolve(entryName(Beta.class))));
+        assertEquals("name=demo\n", Files.readString(output.resolve("META-INF/app.properties")));
+    }
+
+    @Test
+    void rerun_shouldSkipEverything() throws Exception {
+        pipeline("v1").run(input, output);
+        calls.set(0);
+
+        TransformPipeline.Result result = pipeline("v1").run(input, output);
+
+        assertEquals(3, result.upToDate());
+        assertEquals(0, result.transformed() + result.copied());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void changedInput_shouldBeTheOnlyOneReprocessed() throws Exception {
+        pipeline("v1").run(input, output);
+        calls.set(0);
+        Files.writeString(input.resolve("META-INF/app.properties"), "name=changed\n");
+
+        TransformPipeline.Result result = pipeline("v1").run(input, output);
+
+        assertEquals(2, result.upToDate());
+        assertEquals(1, result.copied());
+        assertEquals(0, calls.get());
+        assertEquals("name=changed\n", Files.readString(output.resolve("META-INF/app.properties")));
+    }
+
+    @Test
+    void touchedInput_withSameContent_shouldNotBeTransformedAgain() throws Exception {
+        pipeline("v1").run(input, output);
+        calls.set(0);
+        Path alpha = input.resolve(entryName(Alpha.class));
+        Files.setLastModifiedTime(alpha, FileTime.fromMillis(Files.getLastModifiedTime(alpha).toMillis() + 60_000));
+
+        TransformPipeline.Result result = pipeline("v1").run(input, output);
+
+        assertEquals(3, result.upToDate());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void deletedOutput_shouldBeWrittenAgain() throws Exception {
+        pipeline("v1").run(input, output);
+        Files.delete(output.resolve(entryName(Alpha.class)));
+
+        TransformPipeline.Result result = pipeline("v1").run(input, output);
+
+        assertEquals(1, result.transformed());
+        assertTrue(Files.exists(output.resolve(entryName(Alpha.class))));
+    }
+
+    @Test
+    void changedChain_shouldInvalidateTheCache() throws Exception {
+        pipeline("v1").run(input, output);
+        calls.set(0);
+
+        TransformPipeline.Result result = pipeline("v2").run(input, output);
+
+        assertEquals(0, result.upToDate());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void removedInput_shouldRemoveItsOutput() throws Exception {
+        pipeline("v1").run(input, output);
+        Files.delete(input.resolve(entryName(Beta.class)));
+
+        TransformPipeline.Result result = pipeline("v1").run(input, output);
+
+        assertEquals(1, result.removed());
+        assertEquals(2, result.inputs());
+        assertFalse(Files.exists(output.resolve(entryName(Beta.class))));
+    }
+
+    @Test
+    void jarInput_shouldCopyStoredAndDeflatedEntries() throws Exception {
+        Path jar = ClassFileTestSupport.writeJar(dir.resolve("app.jar"), Alpha.class, Beta.class, String.class);
+
+        TransformPipeline.Result first = pipeline("v1").run(jar, output);
+        TransformPipeline.Result second = pipeline("v1").run(jar, output);
+
+        assertEquals(1, first.transformed());
+        assertEquals(2, first.copied());
+        assertEquals(3, second.upToDate());
+        // Beta is a stored entry, String a deflated one
+        assertArrayEquals(ClassFileTestSupport.classBytes(Beta.class),
+            Files.readAllBytes(output.resolve(entryName(Beta.class))));
+        assertArrayEquals(ClassFileTestSupport.classBytes(String.class),
+            Files.readAllBytes(output.resolve("java/lang/String.class")));
+    }
+
+    @Test
+    void jarEntryOutsideTheOutputDirectory_shouldBeRejected() throws Exception {
+        for (String name : new String[]{"../escaped.txt", "a/../../escaped.txt", "/escaped.txt"}) {
+            Path jar = dir.resolve("evil.jar");
+            try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+                out.putNextEntry(new JarEntry(name));
+                out.write("gotcha".getBytes(StandardCharsets.US_ASCII));
+                out.closeEntry();
+            }
+
+            IOException e = assertThrows(IOException.class, () -> pipeline("v1").run(jar, output), name);
+
+            assertTrue(e.getMessage().contains("outside the output directory"), e.getMessage());
+            assertFalse(Files.exists(dir.resolve("escaped.txt")), name);
+            assertFalse(Files.exists(Path.of("/escaped.txt")), name);
+        }
+    }
+
+    @Test
+    void target_shouldStayInsideTheOutputDirectory() throws Exception {
+        assertEquals(output.toAbsolutePath().resolve("a/B.class"), TransformPipeline.target(output, "a/./B.class"));
+        assertEquals(output.toAbsolutePath().resolve("B.class"), TransformPipeline.target(output, "a/../B.class"));
+        assertThrows(IOException.class, () -> TransformPipeline.target(output, ".."));
+        assertThrows(IOException.class, () -> TransformPipeline.target(output, "."));
+        assertThrows(IOException.class, () -> TransformPipeline.target(output, "../out2/x"));
+    }
+
+    @Test
+    void failingTransform_shouldNameTheClass() {
+        ClassTransform failing = ClassTransform.of("broken", bytes -> {
+            throw new IllegalArgumentException("bad class");
+        });
+        TransformPipeline pipeline = new TransformPipeline(List.of(failing), cache);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> pipeline.run(input, output));
+
+        assertTrue(e.getMessage().contains("broken"));
+        assertFalse(Files.exists(cache));
+    }
+}
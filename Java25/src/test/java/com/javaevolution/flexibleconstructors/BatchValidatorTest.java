@@ -0,0 +1,160 @@
+package com.javaevolution.flexibleconstructors;
+
+import com.javaevolution.flexibleconstructors.FlexibleConstructorsFinalExample.*;
+import com.javaevolution.flexibleconstructors.ValidationResult.Reason;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntFunction;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchValidatorTest {
+
+    private static final int ROWS = BatchValidator.CHUNK * 3 + 100;
+
+    @Test
+    void validatePeople_shouldMatchTheBuilder() {
+        Random random = new Random(1);
+        String[] names = {null, "", "Ann", "Bob"};
+        String[] emails = {null, "", "ann@example.com", "ann.example.com"};
+        String[] firstNames = new String[ROWS];
+        String[] lastNames = new String[ROWS];
+        int[] ages = new int[ROWS];
+        String[] emailColumn = new String[ROWS];
+        for (int row = 0; row < ROWS; row++) {
+            firstNames[row] = names[random.nextInt(names.length)];
+            lastNames[row] = names[random.nextInt(names.length)];
+            ages[row] = random.nextInt(200) - 20;
+            emailColumn[row] = emails[random.nextInt(emails.length)];
+        }
+
+        ValidationResult result = BatchValidator.validatePeople(firstNames, lastNames, ages, emailColumn);
+
+        assertMatches(result, row -> () -> new Person.Builder()
+            .firstName(firstNames[row]).lastName(lastNames[row]).age(ages[row]).email(emailColumn[row]).build());
+    }
+
+    @Test
+    void validateRectangles_shouldMatchTheConstructor() {
+        Random random = new Random(2);
+        double[] samples = {-1, 0, 0.5, 1, 9999.5, 10000, 10000.5, Double.NaN, Double.POSITIVE_INFINITY};
+        double[] widths = new double[ROWS];
+        double[] heights = new double[ROWS];
+        for (int row = 0; row < ROWS; row++) {
+            widths[row] = samples[random.nextInt(samples.length)];
+            heights[row] = samples[random.nextInt(samples.length)];
+        }
+
+        ValidationResult result = BatchValidator.validateRectangles(widths, heights);
+
+        assertMatches(result, row -> () -> new Rectangle(widths[row], heights[row]));
+    }
+
+    @Test
+    void validateBoundedIntegers_shouldMatchTheConstructor() {
+        Random random = new Random(3);
+        int[] values = new int[ROWS];
+        int[] mins = new int[ROWS];
+        int[] maxes = new int[ROWS];
+        for (int row = 0; row < ROWS; row++) {
+            values[row] = random.nextInt(40) - 20;
+            mins[row] = random.nextInt(30) - 15;
+            maxes[row] = random.nextInt(30) - 10;
+        }
+        values[0] = Integer.MIN_VALUE;
+        values[1] = Integer.MAX_VALUE;
+
+        ValidationResult perRow = BatchValidator.validateBoundedIntegers(values, mins, maxes);
+        assertMatches(perRow, row -> () -> new BoundedInteger(values[row], mins[row], maxes[row]),
+            row -> perRow.reason(row).message(values[row], mins[row], maxes[row]));
+        ValidationResult narrow = BatchValidator.validateBoundedIntegers(values, -5, 5);
+        assertMatches(narrow, row -> () -> new BoundedInteger(values[row], -5, 5),
+            row -> narrow.reason(row).message(values[row], -5, 5));
+        ValidationResult full = BatchValidator.validateBoundedIntegers(values, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        assertMatches(full, row -> () -> new BoundedInteger(values[row], Integer.MIN_VALUE, Integer.MAX_VALUE),
+            row -> full.reason(row).message(values[row], Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void validateBoundedIntegers_shouldReportAnInvalidRangeOnEveryRow() {
+        ValidationResult result = BatchValidator.validateBoundedIntegers(new int[]{1, 2, 3}, 5, 4);
+
+        assertEquals(3, result.failureCount());
+        assertEquals(Map.of(Reason.INVALID_RANGE, 3), result.countsByReason());
+    }
+
+    @Test
+    void validatePasswords_shouldMatchTheConstructor() {
+        Random random = new Random(4);
+        char[] alphabet = "aZ9#\n\r\u0085\u2028\u2029\u00c4".toCharArray();
+        String[] passwords = new String[ROWS];
+        for (int row = 0; row < ROWS; row++) {
+            char[] chars = new char[random.nextInt(12)];
+            for (int i = 0; i < chars.length; i++) {
+                // Mostly plain characters, so that most rows get past the length rule
+                chars[i] = alphabet[random.nextInt(8) < 7 ? random.nextInt(3) : random.nextInt(alphabet.length)];
+            }
+            passwords[row] = row == 0 ? null : new String(chars);
+        }
+
+        ValidationResult result = BatchValidator.validatePasswords(passwords);
+
+        assertMatches(result, row -> () -> new SecurePassword(passwords[row]));
+    }
+
+    @Test
+    void passwordScan_shouldAgreeWithTheRegexAroundLineTerminators() {
+        Pattern uppercase = Pattern.compile(".*[A-Z].*");
+        for (String terminator : new String[]{"\n", "\r", "\r\n", "\u0085", "\u2028", "\u2029", "\u000b", "\t"}) {
+            String password = "Abcdefg1" + terminator;
+            boolean expected = uppercase.matcher(password).matches();
+
+            assertEquals(expected, BatchValidator.passwordReason(password) != Reason.PASSWORD_NO_UPPERCASE.code(),
+                () -> "terminator " + (int) terminator.charAt(0));
+        }
+    }
+
+    @Test
+    void shouldRejectColumnsOfDifferentLengths() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> BatchValidator.validateRectangles(new double[2], new double[3]));
+        assertEquals("Column lengths differ: [2, 3]", exception.getMessage());
+    }
+
+    @Test
+    void shouldHandleEmptyColumns() {
+        ValidationResult result = BatchValidator.validatePasswords(new String[0]);
+
+        assertEquals(0, result.rows());
+        assertTrue(result.allValid());
+        assertEquals(-1, result.nextFailure(0));
+    }
+
+    private static void assertMatches(ValidationResult result, IntFunction<Runnable> constructor) {
+        assertMatches(result, constructor, row -> result.reason(row).message());
+    }
+
+    /**
+     * {@code message} gives the expected message of a failing row.
+     */
+    private static void assertMatches(ValidationResult result, IntFunction<Runnable> constructor,
+                                      IntFunction<String> message) {
+        int failures = 0;
+        for (int row = 0; row < result.rows(); row++) {
+            String expected = null;
+            try {
+                constructor.apply(row).run();
+            } catch (IllegalArgumentException e) {
+                expected = e.getMessage();
+                failures++;
+            }
+            Reason reason = result.reason(row);
+            assertEquals(expected == null, result.isValid(row), "row " + row);
+            assertEquals(expected, reason == null ? null : message.apply(row), "row " + row);
+        }
+        assertEquals(failures, result.failureCount());
+    }
+}
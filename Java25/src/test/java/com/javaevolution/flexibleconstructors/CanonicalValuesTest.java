@@ -0,0 +1,105 @@
+package com.javaevolution.flexibleconstructors;
+
+import com.javaevolution.flexibleconstructors.FlexibleConstructorsFinalExample.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CanonicalValuesTest {
+
+    @BeforeEach
+    void setUp() {
+        CanonicalValues.clearRanges();
+    }
+
+    @Test
+    void positiveNumber_shouldShareSmallValues() {
+        assertSame(CanonicalValues.positiveNumber(1), CanonicalValues.positiveNumber(1));
+        assertSame(CanonicalValues.positiveNumber(1024), CanonicalValues.positiveNumber(1024));
+        assertEquals(1024, CanonicalValues.positiveNumber(1024).getValue());
+        assertNotSame(CanonicalValues.positiveNumber(1025), CanonicalValues.positiveNumber(1025));
+        assertEquals(1025, CanonicalValues.positiveNumber(1025).getValue());
+    }
+
+    @Test
+    void positiveNumber_shouldValidateLikeTheConstructor() {
+        assertThrows(IllegalArgumentException.class, () -> CanonicalValues.positiveNumber(0));
+        assertThrows(IllegalArgumentException.class, () -> CanonicalValues.positiveNumber(Long.MIN_VALUE));
+    }
+
+    @Test
+    void boundedInteger_shouldShareValuesOfSmallRanges() {
+        BoundedInteger percent = CanonicalValues.boundedInteger(42, 0, 100);
+
+        assertSame(percent, CanonicalValues.boundedInteger(42, 0, 100));
+        assertEquals(42, percent.getValue());
+        assertEquals(-5, CanonicalValues.boundedInteger(-5, -10, 10).getValue());
+        assertNotSame(percent, CanonicalValues.boundedInteger(42, 0, 101));
+    }
+
+    @Test
+    void boundedInteger_shouldSurviveCollidingRanges() {
+        for (int round = 0; round < 2; round++) {
+            for (int min = 0; min < 500; min++) {
+                BoundedInteger value = CanonicalValues.boundedInteger(min + 3, min, min + 7);
+                assertEquals(min + 3, value.getValue());
+                assertEquals(min + 3, CanonicalValues.boundedInteger(min + 3, min, min + 7).getValue());
+            }
+        }
+        // The first ranges keep their sets
+        assertSame(CanonicalValues.boundedInteger(3, 0, 7), CanonicalValues.boundedInteger(3, 0, 7));
+    }
+
+    @Test
+    void boundedInteger_alternatingCollidingRanges_shouldNotRebuildTables() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int ranges = 200;
+        for (int round = 0; round < 3; round++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 1000; i++) {
+                // Wide ranges: a rebuilt table would cost 1024 objects per call
+                int min = (i % ranges) * 2000;
+                assertEquals(min + i, CanonicalValues.boundedInteger(min + i, min, min + 1023).getValue());
+            }
+            long perCall = (threads.getCurrentThreadAllocatedBytes() - before) / 1000;
+            if (round > 0) {
+                assertTrue(perCall < 1024, "allocated " + perCall + " bytes per call");
+            }
+        }
+    }
+
+    @Test
+    void boundedInteger_shouldNotTableWideRanges() {
+        BoundedInteger value = CanonicalValues.boundedInteger(5, Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+        assertEquals(5, value.getValue());
+        assertNotSame(value, CanonicalValues.boundedInteger(5, Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertNotSame(CanonicalValues.boundedInteger(0, 0, 1024), CanonicalValues.boundedInteger(0, 0, 1024));
+        assertSame(CanonicalValues.boundedInteger(0, 0, 1023), CanonicalValues.boundedInteger(0, 0, 1023));
+    }
+
+    @Test
+    void boundedInteger_shouldValidateLikeTheConstructor() {
+        IllegalArgumentException outside = assertThrows(IllegalArgumentException.class,
+            () -> CanonicalValues.boundedInteger(101, 0, 100));
+        assertEquals("Value 101 outside range [0, 100]", outside.getMessage());
+        IllegalArgumentException inverted = assertThrows(IllegalArgumentException.class,
+            () -> CanonicalValues.boundedInteger(5, 10, 0));
+        assertEquals("min must be <= max", inverted.getMessage());
+    }
+
+    @Test
+    void normalizedString_shouldInternByInput() {
+        NormalizedString hello = CanonicalValues.normalizedString("  HeLLo ");
+
+        assertEquals("hello", hello.getValue());
+        assertSame(hello, CanonicalValues.normalizedString(new String("  HeLLo ")));
+        assertEquals("hello", CanonicalValues.normalizedString("hello").getValue());
+        assertSame(CanonicalValues.normalizedString(null), CanonicalValues.normalizedString(null));
+        assertEquals("", CanonicalValues.normalizedString(null).getValue());
+        assertTrue(CanonicalValues.internedStrings() >= 2);
+    }
+}
@@ -0,0 +1,154 @@
+package com.javaevolution.flexibleconstructors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CredentialStoreTest {
+
+    private static final int COST = 1024;
+
+    private CredentialStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new CredentialStore(8, COST, 8, 1, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void verify_shouldAcceptOnlyTheEnrolledPassword() {
+        int alice = store.enroll("Password123");
+        int bob = store.enroll("Secret\u00e9\ud83d\udd112Xy");
+
+        assertTrue(store.verify(alice, "Password123"));
+        assertTrue(store.verify(bob, new StringBuilder("Secret\u00e9\ud83d\udd112Xy")));
+        assertFalse(store.verify(alice, "Password124"));
+        assertFalse(store.verify(alice, "Password1234"));
+        assertFalse(store.verify(alice, ""));
+        assertFalse(store.verify(alice, null));
+        assertFalse(store.verify(bob, "Password123"));
+        assertFalse(store.verify(alice, "x".repeat(CredentialStore.MAX_PASSWORD_LENGTH + 1)));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void enroll_shouldStoreSaltAndScryptHash() {
+        String password = "Secret\u00e9\ud83d\udd112Xy";
+        int id = store.enroll(password);
+
+        ByteBuffer records = store.records();
+        byte[] salt = new byte[CredentialStore.SALT_LENGTH];
+        byte[] hash = new byte[CredentialStore.HASH_LENGTH];
+        records.get(id * CredentialStore.RECORD_LENGTH, salt);
+        records.get(id * CredentialStore.RECORD_LENGTH + CredentialStore.SALT_LENGTH, hash);
+
+        assertArrayEquals(Scrypt.derive(password.getBytes(StandardCharsets.UTF_8), salt, COST, 8, 1, 32), hash);
+    }
+
+    @Test
+    void enroll_shouldSaltEachCredential() {
+        store.enroll("Password123");
+        store.enroll("Password123");
+
+        ByteBuffer records = store.records();
+        assertNotEquals(records.slice(0, CredentialStore.RECORD_LENGTH),
+            records.slice(CredentialStore.RECORD_LENGTH, CredentialStore.RECORD_LENGTH));
+    }
+
+    @Test
+    void enroll_shouldApplyTheSecurePasswordRules() {
+        IllegalArgumentException weak = assertThrows(IllegalArgumentException.class, () -> store.enroll("password1"));
+        assertEquals("Password must contain uppercase letter", weak.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> store.enroll(null));
+        assertThrows(IllegalArgumentException.class, () -> store.enroll("Aa1" + "x".repeat(300)));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void enroll_shouldFailWhenFull() {
+        for (int i = 0; i < store.capacity(); i++) {
+            store.enroll("Password" + i);
+        }
+
+        assertThrows(IllegalStateException.class, () -> store.enroll("Password123"));
+    }
+
+    @Test
+    void verifyAll_shouldMatchVerify() {
+        int[] ids = new int[4];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = store.enroll("Password" + i);
+        }
+        int[] attempts = {0, 1, 2, 3, 0, 1, 2, 3, 3, 3};
+        CharSequence[] passwords = new CharSequence[attempts.length];
+        for (int i = 0; i < attempts.length; i++) {
+            passwords[i] = i % 3 == 0 ? "Password" + (attempts[i] + 1) : "Password" + attempts[i];
+        }
+        passwords[9] = null;
+
+        boolean[] results = store.verifyAll(attempts, passwords);
+
+        for (int i = 0; i < attempts.length; i++) {
+            assertEquals(store.verify(attempts[i], passwords[i]), results[i], "attempt " + i);
+        }
+        assertTrue(results[1]);
+        assertFalse(results[0]);
+        assertArrayEquals(new boolean[0], store.verifyAll(new int[0], new CharSequence[0]));
+    }
+
+    @Test
+    void shouldRejectUnknownIds() {
+        store.enroll("Password123");
+
+        assertThrows(IllegalArgumentException.class, () -> store.verify(1, "Password123"));
+        assertThrows(IllegalArgumentException.class, () -> store.verify(-1, "Password123"));
+        assertThrows(IllegalArgumentException.class,
+            () -> store.verifyAll(new int[]{0, 5}, new CharSequence[]{"a", "b"}));
+    }
+
+    @Test
+    void shouldBeConfinedToTheOwnerThread() throws InterruptedException {
+        int id = store.enroll("Password123");
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+
+        Thread other = new Thread(() -> {
+            try {
+                store.verify(id, "Password123");
+            } catch (Throwable t) {
+                thrown.set(t);
+            }
+        });
+        other.start();
+        other.join();
+
+        assertInstanceOf(IllegalStateException.class, thrown.get());
+    }
+
+    @Test
+    void close_shouldZeroTheCredentials() {
+        store.enroll("Password123");
+        store.enroll("Password456");
+        store.verifyAll(new int[]{0, 1}, new CharSequence[]{"Password123", "x"});
+
+        store.close();
+        store.close();
+
+        ByteBuffer records = store.records();
+        for (int i = 0; i < records.capacity(); i++) {
+            assertEquals(0, records.get(i));
+        }
+        assertThrows(IllegalStateException.class, () -> store.verify(0, "Password123"));
+        assertThrows(IllegalStateException.class, () -> store.size());
+    }
+}
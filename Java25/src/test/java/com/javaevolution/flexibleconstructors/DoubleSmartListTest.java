@@ -0,0 +1,38 @@
+package com.javaevolution.flexibleconstructors;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoubleSmartListTest {
+
+    @Test
+    void shouldHoldDoublesUnderEveryPolicy() {
+        double[] expected = IntStream.range(0, 1000).mapToDouble(i -> i / 8.0).toArray();
+        for (GrowthPolicy policy : new GrowthPolicy[]{
+                GrowthPolicy.ONE_AND_A_HALF, GrowthPolicy.DOUBLING, GrowthPolicy.segmented(32)}) {
+            DoubleSmartList list = new DoubleSmartList(3, policy);
+            list.addAll(expected, 0, 10);
+            for (int i = 10; i < expected.length; i++) {
+                list.add(expected[i]);
+            }
+
+            assertArrayEquals(expected, list.toArray(), policy.toString());
+            assertEquals(IntStream.range(0, 1000).sum() / 8.0, list.stream().sum(), policy.toString());
+            double[] sum = new double[1];
+            list.forEach(value -> sum[0] += value);
+            assertEquals(list.stream().sum(), sum[0]);
+        }
+    }
+
+    @Test
+    void shouldKeepNaNAndSignedZero() {
+        DoubleSmartList list = DoubleSmartList.of(Double.NaN, -0.0);
+
+        assertTrue(Double.isNaN(list.get(0)));
+        assertEquals(Double.doubleToRawLongBits(-0.0), Double.doubleToRawLongBits(list.get(1)));
+        assertEquals("[NaN, -0.0]", list.toString());
+    }
+}
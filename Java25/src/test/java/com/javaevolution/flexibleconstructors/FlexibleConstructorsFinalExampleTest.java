@@ -119,6 +119,15 @@ class FlexibleConstructorsFinalExampleTest {
         assertTrue(pwd.verify("Password123"));
     }
 
+    @Test
+    void securePassword_verify_shouldRejectOtherPasswords() {
+        SecurePassword pwd = new SecurePassword("Password123");
+        assertFalse(pwd.verify("Password124"));
+        assertFalse(pwd.verify("Password12"));
+        assertFalse(pwd.verify("Password1234"));
+        assertFalse(pwd.verify(null));
+    }
+
     @Test
     void securePassword_withWeakPassword_shouldThrow() {
         assertThrows(IllegalArgumentException.class, () -> new SecurePassword("weak"));
@@ -0,0 +1,35 @@
+package com.javaevolution.flexibleconstructors;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GrowthPolicyTest {
+
+    @Test
+    void grow_shouldApplyTheFactor() {
+        assertEquals(15, GrowthPolicy.ONE_AND_A_HALF.grow(10, 11));
+        assertEquals(20, GrowthPolicy.DOUBLING.grow(10, 11));
+        assertEquals(GrowthPolicy.DEFAULT_CAPACITY, GrowthPolicy.DOUBLING.grow(0, 1));
+        assertEquals(500, GrowthPolicy.ONE_AND_A_HALF.grow(10, 500));
+    }
+
+    @Test
+    void grow_shouldCapAtTheLargestArray() {
+        assertEquals(Integer.MAX_VALUE - 8, GrowthPolicy.DOUBLING.grow(1 << 30, (1 << 30) + 1));
+        assertThrows(OutOfMemoryError.class, () -> GrowthPolicy.ONE_AND_A_HALF.grow(Integer.MAX_VALUE - 8, Integer.MIN_VALUE));
+    }
+
+    @Test
+    void segmented_shouldTakePowersOfTwo() {
+        assertTrue(GrowthPolicy.segmented(1024).isSegmented());
+        assertEquals(1024, GrowthPolicy.segmented(1024).segmentSize());
+        assertEquals(GrowthPolicy.DEFAULT_SEGMENT_SIZE, GrowthPolicy.SEGMENTED.segmentSize());
+        assertFalse(GrowthPolicy.DOUBLING.isSegmented());
+        assertEquals(0, GrowthPolicy.DOUBLING.segmentSize());
+        assertEquals("segmented(64)", GrowthPolicy.segmented(64).toString());
+        assertEquals("1.5x", GrowthPolicy.ONE_AND_A_HALF.toString());
+        assertThrows(IllegalArgumentException.class, () -> GrowthPolicy.segmented(1000));
+        assertThrows(IllegalArgumentException.class, () -> GrowthPolicy.segmented(8));
+    }
+}
@@ -0,0 +1,122 @@
+package com.javaevolution.flexibleconstructors;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntSmartListTest {
+
+    private static final GrowthPolicy[] POLICIES = {
+        GrowthPolicy.ONE_AND_A_HALF, GrowthPolicy.DOUBLING, GrowthPolicy.segmented(16), GrowthPolicy.SEGMENTED
+    };
+
+    @Test
+    void shouldBehaveLikeArrayListUnderEveryPolicy() {
+        for (GrowthPolicy policy : POLICIES) {
+            Random random = new Random(50);
+            IntSmartList list = new IntSmartList(0, policy);
+            List<Integer> expected = new ArrayList<>();
+            for (int step = 0; step < 3000; step++) {
+                if (random.nextInt(10) == 0) {
+                    int[] values = random.ints(random.nextInt(40)).toArray();
+                    int from = values.length == 0 ? 0 : random.nextInt(values.length);
+                    list.addAll(values, from, values.length);
+                    for (int i = from; i < values.length; i++) {
+                        expected.add(values[i]);
+                    }
+                } else {
+                    int value = random.nextInt();
+                    list.add(value);
+                    expected.add(value);
+                }
+                if (random.nextInt(50) == 0) {
+                    int index = random.nextInt(expected.size());
+                    list.set(index, -step);
+                    expected.set(index, -step);
+                }
+            }
+
+            assertEquals(expected.size(), list.size(), policy.toString());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i), list.get(i), policy + " at " + i);
+            }
+            int[] array = expected.stream().mapToInt(Integer::intValue).toArray();
+            assertArrayEquals(array, list.toArray(), policy.toString());
+            assertArrayEquals(array, list.stream().toArray(), policy.toString());
+            List<Integer> visited = new ArrayList<>();
+            list.forEach(visited::add);
+            assertEquals(expected, visited, policy.toString());
+        }
+    }
+
+    @Test
+    void shouldKeepTheCapacityAskedFor() {
+        assertEquals(0, new IntSmartList(0).capacity());
+        assertEquals(5, new IntSmartList(5).capacity());
+        assertEquals(GrowthPolicy.DEFAULT_CAPACITY, new IntSmartList().capacity());
+        assertEquals(32, new IntSmartList(17, GrowthPolicy.segmented(16)).capacity());
+        assertEquals(0, new IntSmartList(0, GrowthPolicy.segmented(16)).capacity());
+    }
+
+    @Test
+    void shouldGrowByThePolicy() {
+        IntSmartList halves = new IntSmartList(100, GrowthPolicy.ONE_AND_A_HALF);
+        IntSmartList doubles = new IntSmartList(100, GrowthPolicy.DOUBLING);
+        IntSmartList segments = new IntSmartList(100, GrowthPolicy.segmented(64));
+        for (int i = 0; i <= 100; i++) {
+            halves.add(i);
+            doubles.add(i);
+            segments.add(i);
+        }
+
+        assertEquals(150, halves.capacity());
+        assertEquals(200, doubles.capacity());
+        assertEquals(128, segments.capacity());
+        assertEquals(GrowthPolicy.DEFAULT_CAPACITY, new IntSmartList(0).add(1).capacity());
+    }
+
+    @Test
+    void clear_shouldKeepCapacity() {
+        IntSmartList list = new IntSmartList(0, GrowthPolicy.segmented(16));
+        for (int i = 0; i < 40; i++) {
+            list.add(i);
+        }
+
+        list.clear();
+        list.add(7);
+
+        assertTrue(new IntSmartList().isEmpty());
+        assertEquals(1, list.size());
+        assertEquals(48, list.capacity());
+        assertEquals(7, list.get(0));
+        assertEquals("[7]", list.toString());
+    }
+
+    @Test
+    void of_shouldCopyTheValues() {
+        int[] values = {3, 1, 2};
+        IntSmartList list = IntSmartList.of(values);
+        values[0] = 9;
+
+        assertEquals("[3, 1, 2]", list.toString());
+        assertEquals(3, list.capacity());
+        assertSame(GrowthPolicy.ONE_AND_A_HALF, list.growthPolicy());
+    }
+
+    @Test
+    void shouldRejectBadArguments() {
+        IntSmartList list = IntSmartList.of(1, 2);
+
+        assertThrows(IllegalArgumentException.class, () -> new IntSmartList(-1));
+        assertThrows(NullPointerException.class, () -> new IntSmartList(1, null));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.set(2, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.addAll(new int[3], 2, 4));
+        assertEquals(2, list.size());
+    }
+}
@@ -0,0 +1,35 @@
+package com.javaevolution.flexibleconstructors;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongSmartListTest {
+
+    @Test
+    void shouldHoldLongsUnderEveryPolicy() {
+        long[] expected = LongStream.range(0, 1000).map(i -> i * 0x1_0000_0001L).toArray();
+        for (GrowthPolicy policy : new GrowthPolicy[]{
+                GrowthPolicy.ONE_AND_A_HALF, GrowthPolicy.DOUBLING, GrowthPolicy.segmented(32)}) {
+            LongSmartList list = new LongSmartList(0, policy);
+            for (int i = 0; i < 500; i++) {
+                list.add(expected[i]);
+            }
+            list.addAll(expected, 500, expected.length);
+
+            assertArrayEquals(expected, list.toArray(), policy.toString());
+            assertArrayEquals(expected, list.stream().toArray(), policy.toString());
+            assertEquals(expected[999], list.get(999));
+            list.set(999, Long.MIN_VALUE);
+            assertEquals(Long.MIN_VALUE, list.get(999));
+        }
+    }
+
+    @Test
+    void shouldFormatAndCopy() {
+        assertEquals("[1, -2, 9223372036854775807]", LongSmartList.of(1, -2, Long.MAX_VALUE).toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> new LongSmartList().get(0));
+    }
+}
@@ -0,0 +1,100 @@
+package com.javaevolution.flexibleconstructors;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerfectHashConfigurationTest {
+
+    @Test
+    void getProperty_shouldIgnoreCase() {
+        PerfectHashConfiguration config = new PerfectHashConfiguration(Map.of("Server.Port", "8080", "mode", "fast"));
+
+        assertEquals("8080", config.getProperty("server.port"));
+        assertEquals("8080", config.getProperty("SERVER.PORT"));
+        assertEquals("fast", config.getProperty(new StringBuilder("MoDe")));
+        assertNull(config.getProperty("server.host"));
+        assertEquals("none", config.getProperty("server", "none"));
+        assertTrue(config.containsKey("Mode"));
+        assertFalse(config.containsKey("modes"));
+    }
+
+    @Test
+    void everyKey_shouldHaveItsOwnSlot() {
+        for (int size : new int[] {1, 2, 3, 10, 100, 1000, 20_000}) {
+            Map<String, String> properties = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                properties.put("key." + i, "value" + i);
+            }
+
+            PerfectHashConfiguration config = new PerfectHashConfiguration(properties);
+
+            assertEquals(size, config.size());
+            for (int i = 0; i < size; i++) {
+                assertEquals("value" + i, config.getProperty("KEY." + i), "size " + size);
+                assertEquals("value" + i, config.getProperty("key." + i), "size " + size);
+            }
+            for (int i = size; i < size + 100; i++) {
+                assertNull(config.getProperty("key." + i));
+                assertNull(config.getProperty("Key." + i));
+            }
+        }
+    }
+
+    @Test
+    void nonAsciiKeys_shouldFoldPerChar() {
+        PerfectHashConfiguration config = new PerfectHashConfiguration(Map.of("\u00c9T\u00c9", "summer"));
+
+        assertEquals("summer", config.getProperty("\u00e9t\u00e9"));
+        assertEquals(Map.of("\u00e9t\u00e9", "summer"), config.asMap());
+    }
+
+    @Test
+    void typedGetters_shouldUsePreParsedValues() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("threads", "16");
+        properties.put("timeout.ms", "3000000000");
+        properties.put("ratio", "0.75");
+        properties.put("enabled", "TRUE");
+        properties.put("name", "api");
+        PerfectHashConfiguration config = new PerfectHashConfiguration(properties);
+
+        assertEquals(16, config.getInt("Threads", 1));
+        assertEquals(16L, config.getLong("threads", 1));
+        assertEquals(16.0, config.getDouble("threads", 1));
+        assertEquals(-1, config.getInt("timeout.ms", -1));
+        assertEquals(3_000_000_000L, config.getLong("timeout.ms", -1));
+        assertEquals(0.75, config.getDouble("ratio", 0));
+        assertEquals(7, config.getLong("ratio", 7));
+        assertTrue(config.getBoolean("enabled", false));
+        assertTrue(config.getBoolean("name", true));
+        assertFalse(config.getBoolean("missing", false));
+        assertEquals(5, config.getInt("name", 5));
+    }
+
+    @Test
+    void keysEqualAfterFolding_shouldKeepTheLastValue() {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("Key", "first");
+        properties.put("KEY", "second");
+
+        PerfectHashConfiguration config = new PerfectHashConfiguration(properties);
+
+        assertEquals(1, config.size());
+        assertEquals("second", config.getProperty("key"));
+    }
+
+    @Test
+    void invalidProperties_shouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new PerfectHashConfiguration(Map.of()));
+        assertThrows(IllegalArgumentException.class, () -> new PerfectHashConfiguration(null));
+        assertThrows(IllegalArgumentException.class, () -> new PerfectHashConfiguration(Map.of("", "x")));
+        Map<String, String> nullValue = new HashMap<>();
+        nullValue.put("key", null);
+        assertThrows(IllegalArgumentException.class, () -> new PerfectHashConfiguration(nullValue));
+    }
+}
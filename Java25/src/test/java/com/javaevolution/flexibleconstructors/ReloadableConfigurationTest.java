@@ -0,0 +1,48 @@
+package com.javaevolution.flexibleconstructors;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReloadableConfigurationTest {
+
+    @Test
+    void reload_shouldSwapTheSnapshot() {
+        ReloadableConfiguration config = new ReloadableConfiguration(Map.of("limit", "10"));
+        PerfectHashConfiguration before = config.snapshot();
+
+        PerfectHashConfiguration previous = config.reload(Map.of("limit", "20", "mode", "strict"));
+
+        assertSame(before, previous);
+        assertEquals(20, config.getInt("LIMIT", 0));
+        assertEquals("strict", config.getProperty("mode"));
+        assertEquals(10, before.getInt("limit", 0));
+    }
+
+    @Test
+    void invalidReload_shouldKeepTheCurrentSnapshot() {
+        ReloadableConfiguration config = new ReloadableConfiguration(Map.of("limit", "10"));
+        PerfectHashConfiguration before = config.snapshot();
+
+        assertThrows(IllegalArgumentException.class, () -> config.reload(Map.of()));
+
+        assertSame(before, config.snapshot());
+        assertEquals("10", config.getProperty("limit"));
+    }
+
+    @Test
+    void conditionalReload_shouldFailAfterAConcurrentReload() {
+        ReloadableConfiguration config = new ReloadableConfiguration(Map.of("limit", "10"));
+        PerfectHashConfiguration seen = config.snapshot();
+        config.reload(Map.of("limit", "30"));
+
+        assertFalse(config.reload(seen, Map.of("limit", "11")));
+        assertEquals(30L, config.getLong("limit", 0));
+        assertTrue(config.reload(config.snapshot(), Map.of("limit", "31", "on", "true")));
+        assertEquals(31.0, config.getDouble("limit", 0));
+        assertTrue(config.getBoolean("ON", false));
+        assertEquals("x", config.getProperty("off", "x"));
+    }
+}
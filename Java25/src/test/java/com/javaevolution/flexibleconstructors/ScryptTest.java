@@ -0,0 +1,64 @@
+package com.javaevolution.flexibleconstructors;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScryptTest {
+
+    // Test vectors from RFC 7914, section 12
+
+    @Test
+    void derive_shouldMatchEmptyPasswordVector() {
+        assertEquals("77d6576238657b203b19ca42c18a0497f16b4844e3074ae8dfdffa3fede21442"
+                + "fcd0069ded0948f8326a753a0fc81f17e8d3e0fb2e0d3628cf35e20c38d18906",
+            derive("", "", 16, 1, 1));
+    }
+
+    @Test
+    void derive_shouldMatchParallelVector() {
+        assertEquals("fdbabe1c9d3472007856e7190d01e9fe7c6ad7cbc8237830e77376634b373162"
+                + "2eaf30d92e22a3886ff109279d9830dac727afb94a83ee6d8360cbdfa2cc0640",
+            derive("password", "NaCl", 1024, 8, 16));
+    }
+
+    @Test
+    void derive_shouldMatchInteractiveLoginVector() {
+        assertEquals("7023bdcb3afd7348461c06cd81fd38ebfda8fbba904f8e3ea9b543f6545da1f2"
+                + "d5432955613f0fcf62d49705242a9af9e61e85dc0d651e40dfcf017b45575887",
+            derive("pleaseletmein", "SodiumChloride", 16384, 8, 1));
+    }
+
+    @Test
+    void derive_shouldBeRepeatableOnOneWorkspace() {
+        Scrypt scrypt = new Scrypt(16, 1, 1);
+        byte[] first = new byte[64];
+        byte[] second = new byte[64];
+        byte[] longPassword = new byte[100];
+        byte[] salt = "NaCl".getBytes(StandardCharsets.US_ASCII);
+
+        scrypt.derive(longPassword, longPassword.length, salt, 0, salt.length, first, 0, 64);
+        scrypt.derive(new byte[0], 0, new byte[0], 0, 0, second, 0, 64);
+        scrypt.derive(longPassword, longPassword.length, salt, 0, salt.length, second, 0, 64);
+
+        assertArrayEquals(first, second);
+        assertArrayEquals(Scrypt.derive(longPassword, salt, 16, 1, 1, 64), first);
+    }
+
+    @Test
+    void shouldRejectInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new Scrypt(1, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Scrypt(1000, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Scrypt(16, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Scrypt(16, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new Scrypt(1 << 30, 8, 1));
+    }
+
+    private static String derive(String password, String salt, int cost, int blockSize, int parallelization) {
+        return HexFormat.of().formatHex(Scrypt.derive(password.getBytes(StandardCharsets.US_ASCII),
+            salt.getBytes(StandardCharsets.US_ASCII), cost, blockSize, parallelization, 64));
+    }
+}
@@ -0,0 +1,76 @@
+package com.javaevolution.flexibleconstructors;
+
+import com.javaevolution.flexibleconstructors.ValidationResult.Reason;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidationResultTest {
+
+    @Test
+    void shouldExposeBitmapAndReasons() {
+        byte[] reasons = new byte[130];
+        long[] failures = new long[3];
+        fail(failures, reasons, 3, Reason.INVALID_AGE);
+        fail(failures, reasons, 64, Reason.INVALID_EMAIL);
+        fail(failures, reasons, 129, Reason.INVALID_AGE);
+
+        ValidationResult result = new ValidationResult(130, failures, reasons);
+
+        assertEquals(130, result.rows());
+        assertEquals(3, result.failureCount());
+        assertFalse(result.allValid());
+        assertTrue(result.isValid(0));
+        assertFalse(result.isValid(64));
+        assertNull(result.reason(0));
+        assertEquals(Reason.INVALID_EMAIL, result.reason(64));
+        assertEquals(Map.of(Reason.INVALID_AGE, 2, Reason.INVALID_EMAIL, 1), result.countsByReason());
+        assertArrayEquals(failures, result.failureBitmap());
+        assertArrayEquals(reasons, result.reasonCodes());
+    }
+
+    @Test
+    void nextFailure_shouldWalkTheFailingRows() {
+        byte[] reasons = new byte[200];
+        long[] failures = new long[4];
+        fail(failures, reasons, 0, Reason.OUT_OF_RANGE);
+        fail(failures, reasons, 63, Reason.OUT_OF_RANGE);
+        fail(failures, reasons, 191, Reason.OUT_OF_RANGE);
+        ValidationResult result = new ValidationResult(200, failures, reasons);
+
+        assertEquals(0, result.nextFailure(0));
+        assertEquals(63, result.nextFailure(1));
+        assertEquals(191, result.nextFailure(64));
+        assertEquals(-1, result.nextFailure(192));
+        assertEquals(-1, result.nextFailure(500));
+        assertThrows(IndexOutOfBoundsException.class, () -> result.nextFailure(-1));
+    }
+
+    @Test
+    void shouldReturnCopies() {
+        ValidationResult result = new ValidationResult(1, new long[]{1}, new byte[]{Reason.INVALID_AGE.code()});
+
+        result.failureBitmap()[0] = 0;
+        result.reasonCodes()[0] = 0;
+
+        assertFalse(result.isValid(0));
+        assertEquals(Reason.INVALID_AGE, result.reason(0));
+    }
+
+    @Test
+    void reasonCodes_shouldRoundTrip() {
+        for (Reason reason : Reason.values()) {
+            assertSame(reason, Reason.ofCode(reason.code()));
+        }
+        assertThrows(IllegalArgumentException.class, () -> Reason.ofCode((byte) 0));
+        assertThrows(IllegalArgumentException.class, () -> Reason.ofCode((byte) 100));
+        assertThrows(IndexOutOfBoundsException.class, () -> new ValidationResult(0, new long[0], new byte[0]).isValid(0));
+    }
+
+    private static void fail(long[] failures, byte[] reasons, int row, Reason reason) {
+        failures[row >>> 6] |= 1L << row;
+        reasons[row] = reason.code();
+    }
+}
@@ -0,0 +1,112 @@
+package com.javaevolution.flexibleconstructors;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeakInternCacheTest {
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final Function<String, StringBuilder> factory = key -> {
+        created.incrementAndGet();
+        return new StringBuilder(key);
+    };
+
+    @Test
+    void intern_shouldCreateOncePerKey() {
+        WeakInternCache<String, StringBuilder> cache = new WeakInternCache<>(10);
+
+        StringBuilder first = cache.intern("a", factory);
+
+        assertSame(first, cache.intern("a", factory));
+        assertNotSame(first, cache.intern("b", factory));
+        assertEquals(2, created.get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void intern_shouldNotCacheFailures() {
+        WeakInternCache<String, String> cache = new WeakInternCache<>(10);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.intern("bad", key -> {
+            throw new IllegalArgumentException(key);
+        }));
+
+        assertEquals(0, cache.size());
+        assertEquals("ok", cache.intern("bad", key -> "ok"));
+    }
+
+    @Test
+    void intern_shouldStayWithinMaximumSize() {
+        WeakInternCache<String, StringBuilder> cache = new WeakInternCache<>(8);
+        StringBuilder[] held = new StringBuilder[100];
+
+        for (int i = 0; i < held.length; i++) {
+            held[i] = cache.intern("key" + i, factory);
+        }
+
+        assertTrue(cache.size() <= 8, "size " + cache.size());
+        assertEquals(100, created.get());
+    }
+
+    @Test
+    void collectedValues_shouldLeaveTheCache() throws InterruptedException {
+        WeakInternCache<String, StringBuilder> cache = new WeakInternCache<>(1000);
+        StringBuilder kept = cache.intern("kept", factory);
+        for (int i = 0; i < 100; i++) {
+            cache.intern("dropped" + i, factory);
+        }
+
+        for (int attempt = 0; attempt < 50 && cache.size() > 1; attempt++) {
+            System.gc();
+            // Under -XX:+DisableExplicitGC only allocation triggers a collection
+            churn();
+            Thread.sleep(20);
+        }
+
+        assertEquals(1, cache.size());
+        assertSame(kept, cache.intern("kept", factory));
+    }
+
+    @Test
+    void concurrentInterns_shouldAgreeOnOneValue() throws Exception {
+        WeakInternCache<String, StringBuilder> cache = new WeakInternCache<>(100);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<StringBuilder>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> cache.intern("shared", factory)));
+            }
+            for (Future<StringBuilder> result : results) {
+                assertSame(results.get(0).get(), result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void invalidMaximumSize_shouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new WeakInternCache<String, String>(0));
+    }
+
+    /**
+     * Allocates 16 MB of short-lived arrays, enough to fill a young generation now and then.
+     */
+    private static long churn() {
+        long sum = 0;
+        for (int i = 0; i < 256; i++) {
+            byte[] garbage = new byte[64 * 1024];
+            sum += garbage[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,143 @@
+package com.javaevolution.primitivetypes;
+
+import com.javaevolution.primitivetypes.ArrayKernels.Comparison;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the selected kernels (vector when the build adds jdk.incubator.vector) against
+ * the scalar loops, over lengths that leave every possible tail.
+ */
+class ArrayKernelsTest {
+
+    private static final int[] LENGTHS = {0, 1, 3, 7, 8, 15, 16, 31, 33, 64, 100, 1023, 4099};
+
+    private final Random random = new Random(11);
+    private final ScalarKernels scalar = ArrayKernels.SCALAR;
+
+    @Test
+    void implementation_shouldMatchBootLayer() {
+        boolean vector = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        assertEquals(vector, ArrayKernels.implementation().startsWith("vector"), ArrayKernels.implementation());
+    }
+
+    @Test
+    void intReductions_shouldMatchScalarLoops() {
+        for (int length : LENGTHS) {
+            int[] values = random.ints(length).toArray();
+            assertEquals(scalar.sum(values, 0), ArrayKernels.sum(values), "sum " + length);
+            if (length > 0) {
+                assertEquals(scalar.min(values, 0, Integer.MAX_VALUE), ArrayKernels.min(values), "min " + length);
+                assertEquals(scalar.max(values, 0, Integer.MIN_VALUE), ArrayKernels.max(values), "max " + length);
+            }
+            int operand = length > 0 ? values[length / 2] : 0;
+            for (Comparison comparison : Comparison.values()) {
+                assertEquals(scalar.count(values, 0, comparison, operand),
+                    ArrayKernels.count(values, comparison, operand), comparison + " " + length);
+            }
+        }
+    }
+
+    @Test
+    void intSum_shouldNotOverflow() {
+        int[] values = new int[1000];
+        Arrays.fill(values, Integer.MAX_VALUE);
+
+        assertEquals(1000L * Integer.MAX_VALUE, ArrayKernels.sum(values));
+    }
+
+    @Test
+    void doubleReductions_shouldMatchScalarLoops() {
+        for (int length : LENGTHS) {
+            double[] values = random.doubles(length, -1000, 1000).toArray();
+            double[] other = random.doubles(length, -1, 1).toArray();
+            assertEquals(scalar.sum(values, 0), ArrayKernels.sum(values), 1e-9 * Math.max(1, length), "sum " + length);
+            assertEquals(scalar.dot(values, other, 0), ArrayKernels.dot(values, other), 1e-9 * Math.max(1, length),
+                "dot " + length);
+            if (length > 0) {
+                assertEquals(scalar.min(values, 0, Double.POSITIVE_INFINITY), ArrayKernels.min(values));
+                assertEquals(scalar.max(values, 0, Double.NEGATIVE_INFINITY), ArrayKernels.max(values));
+            }
+            double operand = length > 0 ? values[length / 3] : 0;
+            for (Comparison comparison : Comparison.values()) {
+                assertEquals(scalar.count(values, 0, comparison, operand),
+                    ArrayKernels.count(values, comparison, operand), comparison + " " + length);
+            }
+        }
+    }
+
+    @Test
+    void doubleMinMax_shouldFollowMath() {
+        double[] values = new double[40];
+        values[37] = -0.0;
+        assertEquals(Double.doubleToRawLongBits(-0.0), Double.doubleToRawLongBits(ArrayKernels.min(values)));
+
+        values[5] = Double.NaN;
+        assertTrue(Double.isNaN(ArrayKernels.min(values)));
+        assertTrue(Double.isNaN(ArrayKernels.max(values)));
+    }
+
+    @Test
+    void count_shouldTreatNaNAsUnordered() {
+        double[] values = new double[20];
+        values[3] = Double.NaN;
+        values[19] = Double.NaN;
+
+        assertEquals(18, ArrayKernels.count(values, Comparison.EQ, 0.0));
+        assertEquals(2, ArrayKernels.count(values, Comparison.NE, 0.0));
+        assertEquals(0, ArrayKernels.count(values, Comparison.GE, Double.NaN));
+        assertEquals(20, ArrayKernels.count(values, Comparison.NE, Double.NaN));
+    }
+
+    @Test
+    void countTrue_shouldMatchScalarLoop() {
+        for (int length : LENGTHS) {
+            boolean[] values = new boolean[length];
+            for (int i = 0; i < length; i++) {
+                values[i] = random.nextInt(3) == 0;
+            }
+            assertEquals(scalar.countTrue(values, 0), ArrayKernels.countTrue(values), "length " + length);
+        }
+    }
+
+    @Test
+    void histogram_shouldCountHalfOpenRange() {
+        double[] values = {0, 0.999, 1, 2.5, 3.9999999999999996, 4, -0.1, Double.NaN, 3, 3, 3, 3, 3, 3, 3, 3, 3};
+
+        int[] bins = ArrayKernels.histogram(values, 0, 4, 4);
+
+        assertArrayEquals(new int[] {2, 1, 1, 10}, bins);
+    }
+
+    @Test
+    void histogram_shouldMatchScalarLoop() {
+        for (int length : LENGTHS) {
+            double[] values = random.doubles(length, -10, 110).toArray();
+            int[] expected = new int[7];
+            scalar.histogram(values, 0, 0, 100, expected);
+            assertArrayEquals(expected, ArrayKernels.histogram(values, 0, 100, 7), "length " + length);
+        }
+    }
+
+    @Test
+    void invalidArguments_shouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ArrayKernels.min(new int[0]));
+        assertThrows(IllegalArgumentException.class, () -> ArrayKernels.max(new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> ArrayKernels.dot(new double[2], new double[3]));
+        assertThrows(IllegalArgumentException.class, () -> ArrayKernels.histogram(new double[1], 1, 1, 4));
+        assertThrows(IllegalArgumentException.class, () -> ArrayKernels.histogram(new double[1], 0, 1, 0));
+    }
+
+    @Test
+    void analyzeArray_shouldKeepIntWrapAround() {
+        PrimitiveTypesFinalExample example = new PrimitiveTypesFinalExample();
+
+        assertEquals("Int array with sum: " + (Integer.MAX_VALUE + 1),
+            example.analyzeArray(new int[] {Integer.MAX_VALUE, 1}));
+        assertEquals("Boolean array: 2 true values", example.analyzeArray(new boolean[] {true, false, true}));
+    }
+}
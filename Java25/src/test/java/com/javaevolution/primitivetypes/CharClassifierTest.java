@@ -0,0 +1,60 @@
+package com.javaevolution.primitivetypes;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CharClassifierTest {
+
+    @Test
+    void classOf_shouldMatchCharacterForEveryChar() {
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            char ch = (char) c;
+            byte expected = Character.isDigit(ch) ? CharClassifier.DIGIT
+                : Character.isLetter(ch) ? CharClassifier.LETTER
+                : Character.isWhitespace(ch) ? CharClassifier.WHITESPACE
+                : CharClassifier.OTHER;
+            assertEquals(expected, CharClassifier.classOf(ch), "U+" + Integer.toHexString(c));
+        }
+    }
+
+    @Test
+    void classify_shouldWriteOneClassPerChar() {
+        byte[] out = new byte[6];
+
+        CharClassifier.classify("xa1 \u0663$y", 1, 6, out, 1);
+
+        assertArrayEquals(new byte[] {0, CharClassifier.LETTER, CharClassifier.DIGIT, CharClassifier.WHITESPACE,
+            CharClassifier.DIGIT, CharClassifier.OTHER}, out);
+        char[] chars = {'Z', '\t'};
+        CharClassifier.classify(chars, 0, 2, out, 0);
+        assertEquals(CharClassifier.LETTER, out[0]);
+        assertEquals(CharClassifier.WHITESPACE, out[1]);
+    }
+
+    @Test
+    void counts_shouldHistogramTheText() {
+        String text = "Order 66 shipped: 3 items!";
+
+        assertArrayEquals(new int[] {2, 3, 17, 4}, CharClassifier.counts(text));
+        assertEquals(3, CharClassifier.count(text, CharClassifier.DIGIT));
+        assertEquals(0, CharClassifier.counts("")[CharClassifier.LETTER]);
+    }
+
+    @Test
+    void invalidArguments_shouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> CharClassifier.count("a", (byte) 4));
+        assertThrows(IndexOutOfBoundsException.class, () -> CharClassifier.classify("abc", 0, 3, new byte[2], 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> CharClassifier.classify("abc", 2, 1, new byte[3], 0));
+    }
+
+    @Test
+    void classifyCharacter_shouldKeepItsMessages() {
+        PrimitiveTypesFinalExample example = new PrimitiveTypesFinalExample();
+
+        assertEquals("Digit: 7", example.classifyCharacter('7'));
+        assertEquals("Letter: \u00e9", example.classifyCharacter('\u00e9'));
+        assertEquals("Whitespace", example.classifyCharacter('\n'));
+        assertEquals("Special character: #", example.classifyCharacter('#'));
+    }
+}
@@ -0,0 +1,88 @@
+package com.javaevolution.primitivetypes;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks GroupedFormatter against String.format(Locale.ROOT, "%,d").
+ */
+class GroupedFormatterTest {
+
+    private static final long[] EDGES = {
+        0, 1, -1, 9, 10, 99, 100, 999, 1000, -1000, 9999, 10000, 999_999, 1_000_000, -1_000_001,
+        Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1
+    };
+
+    @Test
+    void format_shouldMatchFormatterOnEdges() {
+        for (long value : EDGES) {
+            assertFormats(value);
+        }
+    }
+
+    @Test
+    void format_shouldMatchFormatterOnRandomValues() {
+        Random random = new Random(45);
+        for (int i = 0; i < 20_000; i++) {
+            assertFormats(random.nextLong() >> random.nextInt(64));
+        }
+    }
+
+    @Test
+    void format_shouldWriteAtOffsetAndReturnEnd() {
+        byte[] out = "xxxxxxxxxxxx".getBytes(StandardCharsets.US_ASCII);
+
+        int end = GroupedFormatter.format(-12345, (byte) '.', out, 2);
+
+        assertEquals(9, end);
+        assertEquals("xx-12.345xxx", new String(out, StandardCharsets.US_ASCII));
+        assertThrows(IndexOutOfBoundsException.class, () -> GroupedFormatter.format(1_000_000, new byte[8], 0));
+    }
+
+    @Test
+    void bulkFormat_shouldDelimitEachValue() {
+        byte[] out = new byte[3 * (GroupedFormatter.MAX_LENGTH + 1)];
+
+        int end = GroupedFormatter.format(new int[] {1234, -5, 1_000_000}, (byte) '\n', out, 0);
+
+        assertEquals("1,234\n-5\n1,000,000\n", new String(out, 0, end, StandardCharsets.US_ASCII));
+        end = GroupedFormatter.format(new long[] {Long.MIN_VALUE}, (byte) ';', out, 0);
+        assertEquals("-9,223,372,036,854,775,808;", new String(out, 0, end, StandardCharsets.US_ASCII));
+        assertThrows(IndexOutOfBoundsException.class,
+            () -> GroupedFormatter.format(new long[] {123}, (byte) ';', new byte[3], 0));
+    }
+
+    @Test
+    void append_shouldReuseTheBuilder() {
+        StringBuilder builder = new StringBuilder("total=");
+
+        GroupedFormatter.append(builder, 9_876_543).append(' ');
+        GroupedFormatter.append(builder, -1234, '\'');
+
+        assertEquals("total=9,876,543 -1'234", builder.toString());
+    }
+
+    @Test
+    void formatNumber_shouldKeepItsOutput() {
+        PrimitiveTypesFinalExample example = new PrimitiveTypesFinalExample();
+
+        // Grouped as "%,d" groups in the default locale
+        assertEquals(String.format("Integer: %,d", 1000), example.formatNumber(1000));
+        assertEquals(String.format("Long: %,d", Long.MIN_VALUE), example.formatNumber(Long.MIN_VALUE));
+    }
+
+    private static void assertFormats(long value) {
+        String expected = String.format(Locale.ROOT, "%,d", value);
+        byte[] out = new byte[GroupedFormatter.MAX_LENGTH];
+        int end = GroupedFormatter.format(value, out, 0);
+
+        assertEquals(expected, new String(out, 0, end, StandardCharsets.US_ASCII));
+        assertEquals(expected.length(), GroupedFormatter.length(value));
+        assertEquals(expected, GroupedFormatter.toString(value));
+    }
+}
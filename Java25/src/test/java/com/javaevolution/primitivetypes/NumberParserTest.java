@@ -0,0 +1,215 @@
+package com.javaevolution.primitivetypes;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks NumberParser against Integer.parseInt, Long.parseLong and Double.parseDouble,
+ * bit for bit, on hand-picked edge cases and random input.
+ */
+class NumberParserTest {
+
+    private final NumberParser parser = new NumberParser();
+    private final Random random = new Random(44);
+
+    @Test
+    void parseInt_shouldMatchIntegerParseInt() {
+        String[] inputs = {"0", "-0", "+7", "123", "-2147483648", "2147483647", "000042", "-000"};
+        for (String input : inputs) {
+            assertEquals(Integer.parseInt(input), parser.parseInt(input), input);
+            assertEquals(NumberParser.OK, parser.status(), input);
+        }
+    }
+
+    @Test
+    void parseInt_shouldReportStatusInsteadOfThrowing() {
+        assertStatus(NumberParser.EMPTY, "");
+        assertStatus(NumberParser.INVALID, "-");
+        assertStatus(NumberParser.INVALID, "+");
+        assertStatus(NumberParser.INVALID, " 1");
+        assertStatus(NumberParser.INVALID, "1.0");
+        assertStatus(NumberParser.INVALID, "12a");
+        assertStatus(NumberParser.OVERFLOW, "2147483648");
+        assertStatus(NumberParser.OVERFLOW, "-2147483649");
+        assertStatus(NumberParser.OVERFLOW, "99999999999999999999");
+        assertStatus(NumberParser.INVALID, "99999999999999999999x");
+    }
+
+    @Test
+    void parseLong_shouldCoverTheLongRange() {
+        assertEquals(Long.MIN_VALUE, parser.parseLong("-9223372036854775808"));
+        assertEquals(Long.MAX_VALUE, parser.parseLong("9223372036854775807"));
+        parser.parseLong("9223372036854775808");
+        assertEquals(NumberParser.OVERFLOW, parser.status());
+
+        for (int i = 0; i < 10_000; i++) {
+            long value = random.nextLong() >> random.nextInt(64);
+            assertEquals(value, parser.parseLong(Long.toString(value)));
+        }
+    }
+
+    @Test
+    void parseDouble_shouldMatchDoubleParseDoubleOnEdgeCases() {
+        String[] inputs = {
+            "0", "-0", "0.0", "-0.0", ".5", "5.", "1e10", "1E-10", "+1.5e+3", "  42.5\t", "1.5f", "2D",
+            "NaN", "-NaN", "Infinity", "-Infinity", "+Infinity",
+            "1.7976931348623157e308", "1.7976931348623158e308", "1.7976931348623159e308", "1e309",
+            "4.9e-324", "2.4703282292062327e-324", "2.4703282292062328e-324", "2.2250738585072011e-308",
+            "2.2250738585072014e-308", "1e-400", "-1e-400", "1e400", "0e999999999", "1e-999999999",
+            "9007199254740993", "9007199254740992.5", "9007199254740993.0000000000001",
+            "123456789012345678901234567890", "0.000000000000000000000000000000000001234567890123456789012",
+            "0.1", "0.2", "0.3", "3.141592653589793", "2.718281828459045", "1e22", "1e23", "8.41e21",
+            "0x1p3", "-0x1.8p1", "0X.8P-1f", "0xAbp0d", "7.2057594037927933e16", "4.35679e-10", "1.00000000000000011102230246251565404236316680908203125",
+            "1.00000000000000011102230246251565404236316680908203124", "00000000000000000000000000000.1"
+        };
+        for (String input : inputs) {
+            assertSameDouble(input);
+        }
+    }
+
+    @Test
+    void parseDouble_shouldReportStatusInsteadOfThrowing() {
+        String[] invalid = {"-", ".", "e5", "1e", "1e+", "1.2.3", "1,5", "NaNx", "nan", "Inf", "1 2", "0x", "1ff", "--1",
+            "0x1", "0xp1", "0x.p1", "0x1p", "0x1p+", "0xg1p1", "0x1p1x", "0x\uff11p1"};
+        for (String input : invalid) {
+            assertThrows(NumberFormatException.class, () -> Double.parseDouble(input), input);
+            assertEquals(0.0, parser.parseDouble(input), input);
+            assertEquals(NumberParser.INVALID, parser.status(), input);
+        }
+        parser.parseDouble("  ");
+        assertEquals(NumberParser.EMPTY, parser.status());
+    }
+
+    @Test
+    void parseDouble_shouldMatchDoubleParseDoubleOnRandomValues() {
+        for (int i = 0; i < 100_000; i++) {
+            double value = Double.longBitsToDouble(random.nextLong());
+            assertSameDouble(Double.toString(value));
+            assertSameDouble(String.valueOf(random.nextDouble() * Math.pow(10, random.nextInt(40) - 20)));
+        }
+    }
+
+    @Test
+    void parseDouble_shouldMatchDoubleParseDoubleOnRandomDecimals() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            text.setLength(0);
+            int digits = 1 + random.nextInt(25);
+            for (int d = 0; d < digits; d++) {
+                text.append((char) ('0' + random.nextInt(10)));
+            }
+            text.insert(random.nextInt(digits + 1), '.');
+            if (text.length() == 1) {
+                text.append('0');
+            }
+            text.append('e').append(random.nextInt(700) - 350);
+            assertSameDouble(text.toString());
+        }
+    }
+
+    @Test
+    void byteRanges_shouldParseLikeStrings() {
+        byte[] data = "x|-17|3.25e2|oops|".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(-17, parser.parseInt(data, 2, 5));
+        assertEquals(325.0, parser.parseDouble(data, 6, 12));
+        parser.parseDouble(data, 13, 17);
+        assertEquals(NumberParser.INVALID, parser.status());
+        assertEquals(17, parser.parseInt("a17b", 1, 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> parser.parseInt(data, 5, 2));
+    }
+
+    @Test
+    void nonAsciiBytes_shouldBeInvalid() {
+        byte[] data = "1\u00b72".getBytes(StandardCharsets.UTF_8);
+
+        parser.parseDouble(data, 0, data.length);
+
+        assertEquals(NumberParser.INVALID, parser.status());
+    }
+
+    @Test
+    void bulkDelimited_shouldFillValuesAndStatus() {
+        byte[] data = "1.5\r\n-2\n\nabc\n1e3\n".getBytes(StandardCharsets.US_ASCII);
+        double[] out = new double[5];
+        byte[] status = new byte[5];
+
+        int fields = NumberParser.parseDoubles(data, 0, data.length, (byte) '\n', out, status);
+
+        assertEquals(5, fields);
+        assertArrayEquals(new double[] {1.5, -2, 0, 0, 1000}, out);
+        assertArrayEquals(new byte[] {NumberParser.OK, NumberParser.OK, NumberParser.EMPTY, NumberParser.INVALID,
+            NumberParser.OK}, status);
+        assertThrows(IllegalArgumentException.class,
+            () -> NumberParser.parseDoubles(data, 0, data.length, (byte) '\n', new double[4], new byte[4]));
+    }
+
+    @Test
+    void bulkRanges_shouldCountSuccesses() {
+        byte[] data = "12,x,-3,".getBytes(StandardCharsets.US_ASCII);
+        int[] out = new int[4];
+        byte[] status = new byte[4];
+
+        int ok = NumberParser.parseInts(data, new int[] {0, 3, 5, 8}, new int[] {2, 4, 7, 8}, out, status);
+
+        assertEquals(2, ok);
+        assertArrayEquals(new int[] {12, 0, -3, 0}, out);
+        assertArrayEquals(new byte[] {NumberParser.OK, NumberParser.INVALID, NumberParser.OK, NumberParser.EMPTY},
+            status);
+    }
+
+    @Test
+    void bulkFields_shouldTreatNullAsEmpty() {
+        CharSequence[] fields = {"1", null, new StringBuilder("2.5"), "z"};
+        double[] doubles = new double[4];
+        int[] ints = new int[4];
+        byte[] status = new byte[4];
+
+        assertEquals(2, NumberParser.parseDoubles(fields, doubles, status));
+        assertArrayEquals(new double[] {1, 0, 2.5, 0}, doubles);
+        assertEquals(NumberParser.EMPTY, status[1]);
+        assertEquals(1, NumberParser.parseInts(fields, ints, status));
+        assertArrayEquals(new byte[] {NumberParser.OK, NumberParser.EMPTY, NumberParser.INVALID, NumberParser.INVALID},
+            status);
+        assertThrows(IllegalArgumentException.class, () -> NumberParser.parseInts(fields, new int[3], new byte[3]));
+    }
+
+    @Test
+    void defaults_shouldReplaceFailures() {
+        assertEquals(-1, NumberParser.parseInt("bad", -1));
+        assertEquals(7, NumberParser.parseInt("7", -1));
+        assertEquals(0.5, NumberParser.parseDouble(" 0.5 ", 1.0));
+        assertEquals(1.0, NumberParser.parseDouble("", 1.0));
+    }
+
+    @Test
+    void extractAsInt_shouldKeepZeroForBadStrings() {
+        PrimitiveTypesFinalExample example = new PrimitiveTypesFinalExample();
+
+        assertEquals(0, example.extractAsInt("12.5"));
+        assertEquals(0, example.extractAsInt("99999999999"));
+        assertEquals(-5, example.extractAsInt("-5"));
+        assertEquals(4.0, example.performMathOperation("1.5", " 2.5 ", "add"));
+        assertEquals(2.0, example.performMathOperation("oops", "2", "add"));
+    }
+
+    private void assertStatus(byte expected, String input) {
+        assertEquals(0, parser.parseInt(input), input);
+        assertEquals(expected, parser.status(), input);
+    }
+
+    private void assertSameDouble(String input) {
+        double expected = Double.parseDouble(input);
+        double actual = parser.parseDouble(input);
+        assertEquals(NumberParser.OK, parser.status(), input);
+        assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual), input);
+
+        byte[] bytes = input.getBytes(StandardCharsets.US_ASCII);
+        assertEquals(Double.doubleToRawLongBits(expected),
+            Double.doubleToRawLongBits(parser.parseDouble(bytes, 0, bytes.length)), input);
+    }
+}
@@ -0,0 +1,159 @@
+package com.javaevolution.primitivetypes;
+
+import com.javaevolution.primitivetypes.NumericBatch.Operation;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NumericBatchTest {
+
+    private static final String[] OPERATIONS = {"add", "subtract", "multiply", "divide"};
+
+    private final PrimitiveTypesFinalExample example = new PrimitiveTypesFinalExample();
+
+    @Test
+    void applyDoubles_shouldMatchPerformMathOperation() {
+        double[] a = {1.5, -2, 0, 7, Double.NaN, 1e300};
+        double[] b = {0.5, 4, 0, 0, 1, 1e10};
+        double[] out = new double[a.length];
+        for (String name : OPERATIONS) {
+            NumericBatch.apply(Operation.of(name), a, b, out);
+            for (int i = 0; i < a.length; i++) {
+                assertEquals(example.performMathOperation(a[i], b[i], name), out[i], name + " at " + i);
+            }
+        }
+    }
+
+    @Test
+    void applyInts_shouldWidenBeforeTheOperation() {
+        int[] a = {Integer.MAX_VALUE, -7, 9, 5};
+        int[] b = {Integer.MAX_VALUE, 2, 0, -5};
+        double[] out = new double[a.length];
+        for (String name : OPERATIONS) {
+            NumericBatch.apply(Operation.of(name), a, b, out);
+            for (int i = 0; i < a.length; i++) {
+                assertEquals(example.performMathOperation(a[i], b[i], name), out[i], name + " at " + i);
+            }
+        }
+    }
+
+    @Test
+    void applyLongs_shouldMatchPerformMathOperation() {
+        long[] a = {1L << 40, -3, 10};
+        long[] b = {3, 0, 4};
+        double[] out = new double[a.length];
+        for (String name : OPERATIONS) {
+            NumericBatch.apply(Operation.of(name), a, b, out);
+            for (int i = 0; i < a.length; i++) {
+                assertEquals(example.performMathOperation(a[i], b[i], name), out[i], name + " at " + i);
+            }
+        }
+    }
+
+    @Test
+    void applyMixed_shouldMatchBoxedValuesAcrossBlocks() {
+        Random random = new Random(7);
+        int rows = NumericBatch.BLOCK * 2 + 17;
+        Object[] boxedA = new Object[rows];
+        Object[] boxedB = new Object[rows];
+        byte[] tagsA = new byte[rows];
+        byte[] tagsB = new byte[rows];
+        long[] a = new long[rows];
+        long[] b = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            tagsA[i] = randomValue(random, i, boxedA, a);
+            tagsB[i] = randomValue(random, i, boxedB, b);
+        }
+        double[] out = new double[rows];
+        int[] comparisons = new int[rows];
+        for (String name : OPERATIONS) {
+            NumericBatch.apply(Operation.of(name), tagsA, a, tagsB, b, out);
+            for (int i = 0; i < rows; i++) {
+                assertEquals(example.performMathOperation(boxedA[i], boxedB[i], name), out[i], name + " at " + i);
+            }
+        }
+        NumericBatch.compare(tagsA, a, tagsB, b, comparisons);
+        for (int i = 0; i < rows; i++) {
+            assertEquals(example.compareNumbers(boxedA[i], boxedB[i]), comparisons[i], "compare at " + i);
+        }
+    }
+
+    @Test
+    void toDoubles_shouldDecodeEveryTag() {
+        byte[] tags = {NumericBatch.INT, NumericBatch.LONG, NumericBatch.FLOAT, NumericBatch.DOUBLE, NumericBatch.NONE};
+        long[] payload = {NumericBatch.encode(-5), NumericBatch.encode(1L << 50), NumericBatch.encode(0.25f),
+            NumericBatch.encode(-1.5), 12345};
+        double[] out = new double[tags.length];
+
+        NumericBatch.toDoubles(tags, payload, out);
+
+        assertArrayEquals(new double[] {-5, 1L << 50, 0.25, -1.5, 0.0}, out);
+    }
+
+    @Test
+    void compare_shouldReturnSignsPerRow() {
+        int[] out = new int[3];
+
+        NumericBatch.compare(new double[] {1, 2, Double.NaN}, new double[] {2, 2, 0}, out);
+        assertArrayEquals(new int[] {-1, 0, 1}, out);
+
+        NumericBatch.compare(new int[] {5, 2, Integer.MIN_VALUE}, new int[] {2, 2, 0}, out);
+        assertArrayEquals(new int[] {1, 0, -1}, out);
+
+        // 2^53 + 1 and 2^53 are equal as doubles, not as longs
+        NumericBatch.compare(new long[] {(1L << 53) + 1, 0, -1}, new long[] {1L << 53, 0, 1}, out);
+        assertArrayEquals(new int[] {1, 0, -1}, out);
+    }
+
+    @Test
+    void differentLengths_shouldBeRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> NumericBatch.apply(Operation.ADD, new double[2], new double[3], new double[2]));
+        assertThrows(IllegalArgumentException.class,
+            () -> NumericBatch.compare(new byte[1], new long[1], new byte[1], new long[2], new int[1]));
+        assertThrows(IllegalArgumentException.class, () -> Operation.of("modulo"));
+    }
+
+    @Test
+    void performMathOperationOnColumns_shouldApplyToEveryRow() {
+        double[] result = example.performMathOperation(new double[] {6, 1}, new double[] {3, 0}, "divide");
+
+        assertEquals(2.0, result[0]);
+        assertTrue(Double.isNaN(result[1]));
+    }
+
+    private static byte randomValue(Random random, int i, Object[] boxed, long[] payload) {
+        switch (random.nextInt(5)) {
+            case 0 -> {
+                int value = random.nextInt(200) - 100;
+                boxed[i] = value;
+                payload[i] = NumericBatch.encode(value);
+                return NumericBatch.INT;
+            }
+            case 1 -> {
+                long value = random.nextLong() >> random.nextInt(64);
+                boxed[i] = value;
+                payload[i] = NumericBatch.encode(value);
+                return NumericBatch.LONG;
+            }
+            case 2 -> {
+                float value = random.nextFloat() * 10 - 5;
+                boxed[i] = value;
+                payload[i] = NumericBatch.encode(value);
+                return NumericBatch.FLOAT;
+            }
+            case 3 -> {
+                double value = random.nextGaussian();
+                boxed[i] = value;
+                payload[i] = NumericBatch.encode(value);
+                return NumericBatch.DOUBLE;
+            }
+            default -> {
+                boxed[i] = null;
+                return NumericBatch.NONE;
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.javaevolution.primitivetypes;
+
+import com.javaevolution.primitivetypes.PrimitiveValue.Kind;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrimitiveValueTest {
+
+    private static final List<Object> SAMPLES = List.of(
+        0, 7, 42, 999, 12345, -5, Integer.MIN_VALUE,
+        5L, 999_999L, 5_000_000L, -1L, Long.MAX_VALUE,
+        0.25, -0.5, 3.75, 1e300, Double.NaN, Double.POSITIVE_INFINITY, -0.0,
+        1.5f, -2.5f, Float.NaN,
+        (byte) -3, (short) 300, 'x', true, false);
+
+    private final PrimitiveTypesFinalExample example = new PrimitiveTypesFinalExample();
+
+    @Test
+    void from_shouldRoundTripEveryWrapper() {
+        for (Object sample : SAMPLES) {
+            PrimitiveValue value = PrimitiveValue.from(sample);
+            assertEquals(sample, value.toObject(), sample.getClass().getSimpleName());
+        }
+        assertSame(PrimitiveValue.NONE, PrimitiveValue.from("12"));
+        assertSame(PrimitiveValue.NONE, PrimitiveValue.from(null));
+        assertNull(PrimitiveValue.NONE.toObject());
+    }
+
+    @Test
+    void classifications_shouldMatchBoxedVersions() {
+        for (Object sample : SAMPLES) {
+            PrimitiveValue value = PrimitiveValue.from(sample);
+            assertEquals(example.classifyInteger(sample), example.classifyInteger(value), sample.toString());
+            assertEquals(example.describeLong(sample), example.describeLong(value), sample.toString());
+            assertEquals(example.classifyDouble(sample), example.classifyDouble(value), sample.toString());
+            if (sample instanceof Number number) {
+                assertEquals(example.checkRange(number), example.checkRange(value), sample.toString());
+            }
+            assertEquals(example.safeExtractInt(sample, -99), example.safeExtractInt(value, -99), sample.toString());
+        }
+    }
+
+    @Test
+    void nullValue_shouldBehaveAsNone() {
+        PrimitiveValue missing = null;
+
+        assertEquals(42, example.safeExtractInt(missing, 42));
+        assertEquals("Not an integer", example.classifyInteger(missing));
+        assertEquals("Other number type", example.checkRange(missing));
+        assertEquals(42, example.safeExtractInt(PrimitiveValue.NONE, 42));
+    }
+
+    @Test
+    void numericAccessors_shouldConvertAsNumberDoes() {
+        assertEquals(3, PrimitiveValue.of(3.9).intValue());
+        assertEquals(-3, PrimitiveValue.of(-3.9f).intValue());
+        assertEquals((int) Long.MAX_VALUE, PrimitiveValue.of(Long.MAX_VALUE).intValue());
+        assertEquals(0.25, PrimitiveValue.of(0.25f).doubleValue());
+        assertEquals(-3.0, PrimitiveValue.of((byte) -3).doubleValue());
+        assertEquals(300L, PrimitiveValue.of((short) 300).longValue());
+        assertEquals(1.5f, PrimitiveValue.of(1.5f).floatValue());
+        assertEquals(0, PrimitiveValue.of('x').intValue());
+        assertEquals('x', PrimitiveValue.of('x').charValue());
+        assertTrue(PrimitiveValue.of(true).booleanValue());
+        assertThrows(IllegalStateException.class, () -> PrimitiveValue.of(1).booleanValue());
+    }
+
+    @Test
+    void kinds_shouldShareNumericBatchTags() {
+        assertEquals(NumericBatch.INT, Kind.INT.tag());
+        assertEquals(NumericBatch.DOUBLE, Kind.DOUBLE.tag());
+        for (Kind kind : Kind.values()) {
+            assertSame(kind, Kind.ofTag(kind.tag()));
+        }
+        assertThrows(IllegalArgumentException.class, () -> Kind.ofTag((byte) 9));
+        assertTrue(Kind.SHORT.isNumber());
+        assertFalse(Kind.CHAR.isNumber());
+        assertEquals(NumericBatch.decode(Kind.FLOAT.tag(), PrimitiveValue.of(2.5f).bits()), 2.5);
+    }
+
+    @Test
+    void equality_shouldFollowWrapperEquals() {
+        assertEquals(PrimitiveValue.of(Double.NaN), PrimitiveValue.of(Double.NaN));
+        assertNotEquals(PrimitiveValue.of(0.0), PrimitiveValue.of(-0.0));
+        assertNotEquals(PrimitiveValue.of(1), PrimitiveValue.of(1L));
+        assertThrows(IllegalArgumentException.class, () -> new PrimitiveValue(null, 0));
+    }
+}
@@ -0,0 +1,75 @@
+package com.javaevolution.primitivetypes;
+
+import com.javaevolution.primitivetypes.PrimitiveValue.Kind;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrimitiveValuesTest {
+
+    @Test
+    void add_shouldPackKindsAndPayloads() {
+        PrimitiveValues values = new PrimitiveValues(1)
+            .add(7).add(1L << 40).add(0.5f).add(-2.25).add((byte) 3).add('z').add(true);
+
+        assertEquals(7, values.size());
+        assertEquals(Kind.LONG, values.kind(1));
+        assertEquals(1L << 40, values.bits(1));
+        assertEquals(PrimitiveValue.of(0.5f), values.get(2));
+        assertEquals(-2, values.intValue(3, 0));
+        assertEquals(3.0, values.doubleValue(4, 0));
+        assertEquals(-1, values.intValue(5, -1));
+        assertEquals(PrimitiveValue.of(true), values.get(6));
+        assertThrows(IndexOutOfBoundsException.class, () -> values.get(7));
+    }
+
+    @Test
+    void sum_shouldMatchCalculateSum() {
+        // calculateSum adds Integer, Long, Double and Float and skips everything else
+        PrimitiveValues values = new PrimitiveValues()
+            .add(1).add(2L).add(0.5).add(0.25f).add((short) 100).add('a').add(PrimitiveValue.NONE);
+
+        assertEquals(3.75, values.sum());
+        assertEquals(0.0, new PrimitiveValues().sum());
+    }
+
+    @Test
+    void columns_shouldFeedNumericBatch() {
+        PrimitiveValues left = new PrimitiveValues().add(6).add(1.5).add(10L);
+        PrimitiveValues right = new PrimitiveValues().add(2).add(0.5f).add(0);
+        double[] out = new double[3];
+
+        NumericBatch.apply(NumericBatch.Operation.DIVIDE, left.tags(), left.payload(), right.tags(), right.payload(), out);
+
+        assertEquals(3.0, out[0]);
+        assertEquals(3.0, out[1]);
+        assertTrue(Double.isNaN(out[2]));
+    }
+
+    @Test
+    void bytesAndShorts_shouldWidenInNumericBatch() {
+        PrimitiveValues values = new PrimitiveValues().add((byte) 3).add((short) -7).add(5).add('a').add(true);
+        double[] out = new double[values.size()];
+
+        NumericBatch.toDoubles(values.tags(), values.payload(), out);
+
+        // As doubleValue; chars and booleans are not numbers
+        assertArrayEquals(new double[] {3.0, -7.0, 5.0, 0.0, 0.0}, out);
+        assertEquals(values.doubleValue(0, Double.NaN), out[0]);
+        assertEquals(values.doubleValue(1, Double.NaN), out[1]);
+    }
+
+    @Test
+    void wrap_shouldShareArraysAndValidateTags() {
+        byte[] tags = {NumericBatch.INT, NumericBatch.DOUBLE};
+        long[] payload = {5, NumericBatch.encode(2.5)};
+
+        PrimitiveValues values = PrimitiveValues.wrap(tags, payload);
+
+        assertEquals(2, values.size());
+        assertSame(tags, values.tags());
+        assertEquals(7.5, values.sum());
+        assertThrows(IllegalArgumentException.class, () -> PrimitiveValues.wrap(new byte[] {42}, new long[1]));
+        assertThrows(IllegalArgumentException.class, () -> PrimitiveValues.wrap(new byte[1], new long[2]));
+    }
+}
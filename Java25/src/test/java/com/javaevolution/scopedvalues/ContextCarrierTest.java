@@ -0,0 +1,117 @@
+package com.javaevolution.scopedvalues;
+
+import com.javaevolution.scopedvalues.ContextCarrier.Key;
+import com.javaevolution.scopedvalues.ContextCarrier.Snapshot;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContextCarrierTest {
+
+    private static final Key<String> TENANT = ContextCarrier.register("test.tenant", "none");
+    private static final Key<String> USER = ContextCarrier.register("test.user", "anonymous");
+    private static final Key<Integer> ATTEMPT = ContextCarrier.register("test.attempt", 0);
+
+    @Test
+    void register_shouldAssignDistinctSlots() {
+        assertNotEquals(TENANT.slot(), USER.slot());
+        assertNotEquals(USER.slot(), ATTEMPT.slot());
+        assertTrue(ATTEMPT.slot() < ContextCarrier.MAX_KEYS);
+    }
+
+    @Test
+    void get_withoutBinding_shouldReturnDefault() {
+        assertEquals("none", ContextCarrier.get(TENANT));
+        assertEquals(0, ContextCarrier.current().size());
+    }
+
+    @Test
+    void callWith_shouldExposeAllValuesOfSnapshot() {
+        Snapshot snapshot = ContextCarrier.builder()
+            .with(TENANT, "acme")
+            .with(USER, "alice")
+            .build();
+
+        String result = ContextCarrier.callWith(snapshot,
+            () -> ContextCarrier.get(TENANT) + "/" + ContextCarrier.get(USER) + "/" + ContextCarrier.get(ATTEMPT));
+
+        assertEquals("acme/alice/0", result);
+        assertFalse(snapshot.contains(ATTEMPT));
+    }
+
+    @Test
+    void callWith_nested_shouldShadowAndRestoreParent() {
+        Snapshot outer = ContextCarrier.builder().with(USER, "outer").with(TENANT, "acme").build();
+
+        String result = ContextCarrier.callWith(outer, () -> {
+            String inner = ContextCarrier.callWith(USER, "inner",
+                () -> ContextCarrier.get(USER) + "@" + ContextCarrier.get(TENANT));
+            return inner + " " + ContextCarrier.get(USER);
+        });
+
+        assertEquals("inner@acme outer", result);
+        assertEquals("anonymous", ContextCarrier.get(USER));
+    }
+
+    @Test
+    void callWith_whenTaskThrows_shouldRestoreParent() {
+        Snapshot outer = ContextCarrier.builder().with(USER, "outer").build();
+
+        String result = ContextCarrier.callWith(outer, () -> {
+            assertThrows(IllegalStateException.class, () -> ContextCarrier.callWith(USER, "inner", () -> {
+                throw new IllegalStateException("boom");
+            }));
+            return ContextCarrier.get(USER);
+        });
+
+        assertEquals("outer", result);
+    }
+
+    @Test
+    void with_shouldNotModifyOriginalSnapshot() {
+        Snapshot original = ContextCarrier.builder().with(USER, "alice").build();
+        Snapshot changed = original.with(USER, "bob").with(ATTEMPT, 2);
+
+        assertEquals("alice", original.get(USER));
+        assertEquals("bob", changed.get(USER));
+        assertEquals(2, changed.get(ATTEMPT));
+        assertEquals(1, original.size());
+        assertEquals(2, changed.size());
+    }
+
+    @Test
+    void builder_reusedAfterBuild_shouldNotChangeBuiltSnapshot() {
+        ContextCarrier.Builder builder = ContextCarrier.builder().with(USER, "alice").with(TENANT, "acme");
+        Snapshot first = builder.build();
+
+        Snapshot second = builder.with(USER, "bob").build();
+        Snapshot third = builder.with(TENANT, "globex").build();
+
+        assertEquals("alice", first.get(USER));
+        assertEquals("acme", first.get(TENANT));
+        assertEquals("bob", second.get(USER));
+        assertEquals("acme", second.get(TENANT));
+        assertEquals("bob", third.get(USER));
+        assertEquals("globex", third.get(TENANT));
+    }
+
+    @Test
+    void snapshot_capturedInParent_shouldBeUsableInChildThread() throws Exception {
+        Snapshot snapshot = ContextCarrier.builder().with(USER, "alice").build();
+        String[] seen = new String[1];
+
+        ContextCarrier.callWith(snapshot, () -> {
+            Snapshot inherited = ContextCarrier.current();
+            Thread child = new Thread(() -> seen[0] = ContextCarrier.callWith(inherited, () -> ContextCarrier.get(USER)));
+            child.start();
+            try {
+                child.join();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return null;
+        });
+
+        assertEquals("alice", seen[0]);
+    }
+}
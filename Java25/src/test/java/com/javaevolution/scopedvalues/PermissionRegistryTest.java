@@ -0,0 +1,147 @@
+package com.javaevolution.scopedvalues;
+
+import com.javaevolution.scopedvalues.PermissionRegistry.CompiledPermissions;
+import com.javaevolution.scopedvalues.PermissionRegistry.Grants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PermissionRegistryTest {
+
+    private PermissionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new PermissionRegistry(2);
+    }
+
+    @Test
+    void intern_shouldAssignDenseStableIds() {
+        assertEquals(0, registry.intern("admin"));
+        assertEquals(1, registry.intern("user"));
+        assertEquals(0, registry.intern("admin"));
+        assertEquals("user", registry.nameOf(1));
+        assertEquals(2, registry.size());
+    }
+
+    @Test
+    void idOf_unknownName_shouldNotIntern() {
+        assertEquals(-1, registry.idOf("ghost"));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void compile_shouldSetOneBitPerGrant() {
+        CompiledPermissions perms = registry.compile(Set.of("admin", "user"), Set.of("read"));
+
+        assertTrue(perms.hasRole("admin"));
+        assertTrue(perms.hasRole("user"));
+        assertFalse(perms.hasRole("read"));
+        assertTrue(perms.hasCapability("read"));
+        assertFalse(perms.hasCapability("unknown"));
+    }
+
+    @Test
+    void compile_beyondOneWord_shouldTestCorrectWord() {
+        for (int i = 0; i < 130; i++) {
+            registry.intern("cap" + i);
+        }
+        CompiledPermissions perms = registry.compile(Set.of(), Set.of("cap3", "cap64", "cap129"));
+
+        assertTrue(perms.hasCapability("cap3"));
+        assertTrue(perms.hasCapability("cap64"));
+        assertTrue(perms.hasCapability("cap129"));
+        assertFalse(perms.hasCapability("cap65"));
+        assertFalse(perms.hasCapability("cap1"));
+    }
+
+    @Test
+    void hasAllCapabilities_shouldRequireEveryBit() {
+        CompiledPermissions perms = registry.compile(Set.of(), Set.of("read", "write"));
+
+        assertTrue(perms.hasAllCapabilities(registry.requirement("read")));
+        assertTrue(perms.hasAllCapabilities(registry.requirement("read", "write")));
+        assertFalse(perms.hasAllCapabilities(registry.requirement("read", "delete")));
+    }
+
+    @Test
+    void hasAllCapabilities_withRequirementLongerThanGrants_shouldFail() {
+        CompiledPermissions perms = registry.compile(Set.of(), Set.of("read"));
+        for (int i = 0; i < 100; i++) {
+            registry.intern("later" + i);
+        }
+
+        assertFalse(perms.hasAllCapabilities(registry.requirement("read", "later99")));
+        assertTrue(perms.hasAllCapabilities(new long[] {1L << registry.idOf("read"), 0L}));
+    }
+
+    @Test
+    void forPrincipal_shouldLoadOnlyOnMiss() {
+        AtomicInteger loads = new AtomicInteger();
+        Grants grants = new Grants(Set.of("admin"), Set.of("read"));
+
+        CompiledPermissions first = registry.forPrincipal("alice", () -> {
+            loads.incrementAndGet();
+            return grants;
+        });
+        CompiledPermissions second = registry.forPrincipal("alice", () -> {
+            loads.incrementAndGet();
+            return grants;
+        });
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void forPrincipal_shouldEvictWhenFull() {
+        Grants grants = new Grants(Set.of("user"), Set.of());
+        registry.forPrincipal("a", () -> grants);
+        registry.forPrincipal("b", () -> grants);
+        registry.forPrincipal("c", () -> grants);
+
+        assertEquals(2, registry.cachedPrincipals());
+    }
+
+    @Test
+    void invalidate_shouldForceReload() {
+        AtomicInteger loads = new AtomicInteger();
+        registry.forPrincipal("alice", () -> {
+            loads.incrementAndGet();
+            return new Grants(Set.of("user"), Set.of());
+        });
+        registry.invalidate("alice");
+        CompiledPermissions reloaded = registry.forPrincipal("alice", () -> {
+            loads.incrementAndGet();
+            return new Grants(Set.of("admin"), Set.of());
+        });
+
+        assertEquals(2, loads.get());
+        assertTrue(reloaded.hasRole("admin"));
+    }
+
+    @Test
+    void forGrants_sameSets_shouldCompileOnce() {
+        Set<String> roles = new HashSet<>(Set.of("admin"));
+        CompiledPermissions first = registry.forGrants(roles, Set.of("read"));
+
+        assertSame(first, registry.forGrants(Set.of("admin"), Set.of("read")));
+        assertNotSame(first, registry.forGrants(Set.of("admin"), Set.of("write")));
+    }
+
+    @Test
+    void forGrants_callerChangingItsSet_shouldNotChangeCachedEntry() {
+        Set<String> roles = new HashSet<>(Set.of("admin"));
+        CompiledPermissions admin = registry.forGrants(roles, Set.of());
+        roles.add("user");
+
+        CompiledPermissions adminAndUser = registry.forGrants(roles, Set.of());
+        assertNotSame(admin, adminAndUser);
+        assertTrue(adminAndUser.hasRole("user"));
+        assertSame(admin, registry.forGrants(Set.of("admin"), Set.of()));
+    }
+}
@@ -0,0 +1,107 @@
+package com.javaevolution.scopedvalues;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestIdGeneratorTest {
+
+    @Test
+    void nextId_shouldEmbedNodeId() {
+        RequestIdGenerator generator = new RequestIdGenerator(42);
+        assertEquals(42, RequestIdGenerator.nodeOf(generator.nextId()));
+    }
+
+    @Test
+    void nextId_shouldEmbedTimestamp() {
+        long now = RequestIdGenerator.EPOCH_MILLIS + 123_456_789L;
+        RequestIdGenerator generator = new RequestIdGenerator(1023, () -> now);
+
+        long id = generator.nextId();
+        assertEquals(now, RequestIdGenerator.timestampOf(id));
+        assertEquals(1023, RequestIdGenerator.nodeOf(id));
+    }
+
+    @Test
+    void nextId_beyondSequenceInOneMillisecond_shouldBorrowTheNext() {
+        long now = RequestIdGenerator.EPOCH_MILLIS + 1000;
+        RequestIdGenerator generator = new RequestIdGenerator(3, () -> now);
+        Set<Long> ids = new HashSet<>();
+        long last = 0;
+        for (int i = 0; i < 3 * 4096; i++) {
+            long id = generator.nextId();
+            assertTrue(ids.add(id));
+            assertTrue(id > last);
+            last = id;
+        }
+        assertEquals(now + 2, RequestIdGenerator.timestampOf(last));
+    }
+
+    @Test
+    void generatorsWithSameNode_shouldNotRepeatIdsAfterRestart() {
+        AtomicLong clock = new AtomicLong(RequestIdGenerator.EPOCH_MILLIS + 5000);
+        RequestIdGenerator before = new RequestIdGenerator(9, clock::get);
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(before.nextId());
+        }
+
+        // A restart: same node ID, fresh state, a little later
+        clock.addAndGet(10);
+        RequestIdGenerator after = new RequestIdGenerator(9, clock::get);
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(ids.add(after.nextId()));
+        }
+    }
+
+    @Test
+    void nextId_shouldBeUniqueAcrossBlocks() {
+        RequestIdGenerator generator = new RequestIdGenerator(1);
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < RequestIdGenerator.BLOCK_SIZE * 3; i++) {
+            assertTrue(ids.add(generator.nextId()));
+        }
+    }
+
+    @Test
+    void nextId_shouldBeUniqueAcrossThreads() throws Exception {
+        RequestIdGenerator generator = new RequestIdGenerator(7);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    List<Long> ids = new ArrayList<>();
+                    for (int i = 0; i < 5000; i++) {
+                        ids.add(generator.nextId());
+                    }
+                    return ids;
+                }));
+            }
+            Set<Long> all = new HashSet<>();
+            for (Future<List<Long>> future : futures) {
+                all.addAll(future.get());
+            }
+            assertEquals(20000, all.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void format_shouldProduceFixedWidthHex() {
+        assertEquals("000000000000002a", RequestIdGenerator.format(42));
+        assertEquals("ffffffffffffffff", RequestIdGenerator.format(-1));
+        assertEquals(16, RequestIdGenerator.getDefault().nextIdString().length());
+    }
+
+    @Test
+    void constructor_withInvalidNode_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new RequestIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class, () -> new RequestIdGenerator(1 << 10));
+    }
+}
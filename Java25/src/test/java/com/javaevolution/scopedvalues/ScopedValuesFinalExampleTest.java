@@ -87,6 +87,20 @@ class ScopedValuesFinalExampleTest {
         assertTrue(result.contains("Restored:"));
     }
 
+    @Test
+    void processWithNestedScopes_shouldRestoreOuterValue() {
+        String result = example.processWithNestedScopes("outer", "inner");
+        assertEquals("Outer: outer, Inner: inner, Restored: outer", result);
+    }
+
+    @Test
+    void processWithInheritance_shouldPropagateUserToWorkers() throws Exception {
+        List<String> results = example.processWithInheritance("user1", List.of("item1", "item2"));
+        for (String result : results) {
+            assertTrue(result.endsWith("processed by user1"));
+        }
+    }
+
     @Test
     void processWithExceptionHandling_success_shouldReturn() {
         String result = example.processWithExceptionHandling("user1", false);
@@ -147,6 +161,30 @@ class ScopedValuesFinalExampleTest {
         assertFalse(result);
     }
 
+    @Test
+    void securityContext_runAsPrincipal_shouldCheckCachedGrants() {
+        SecurityContext ctx = new SecurityContext();
+        long[] readWrite = SecurityContext.registry().requirement("read", "write");
+        
+        Boolean result = ctx.runAsPrincipal("principal-1",
+            () -> new PermissionRegistry.Grants(Set.of("user"), Set.of("read", "write")),
+            () -> ctx.hasRole("user") && !ctx.hasRole("admin") && ctx.hasAllCapabilities(readWrite));
+        
+        assertTrue(result);
+    }
+
+    @Test
+    void securityContext_withInternedIds_shouldCheckBits() {
+        SecurityContext ctx = new SecurityContext();
+        int auditor = SecurityContext.registry().intern("auditor");
+        int export = SecurityContext.registry().intern("export");
+        
+        Boolean result = ctx.runWithPermissions(Set.of("auditor"), Set.of("read"),
+            () -> ctx.hasRole(auditor) && !ctx.hasCapability(export) && !ctx.hasRole(-1));
+        
+        assertTrue(result);
+    }
+
     @Test
     void securityContext_withoutContext_shouldReturnFalse() {
         SecurityContext ctx = new SecurityContext();
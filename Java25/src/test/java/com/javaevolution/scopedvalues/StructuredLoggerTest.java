@@ -0,0 +1,189 @@
+package com.javaevolution.scopedvalues;
+
+import com.javaevolution.scopedvalues.StructuredLogger.Level;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StructuredLoggerTest {
+
+    private ByteArrayOutputStream out;
+    private StructuredLogger logger;
+
+    @BeforeEach
+    void setUp() {
+        out = new ByteArrayOutputStream();
+        logger = new StructuredLogger(StructuredLogger.outputStreamSink(out), Level.INFO, 4, 1024);
+    }
+
+    private List<String> lines() {
+        logger.flush();
+        String text = out.toString(StandardCharsets.UTF_8);
+        return text.isEmpty() ? List.of() : List.of(text.split("\n"));
+    }
+
+    @Test
+    void log_withContext_shouldPrefixEncodedFields() {
+        StructuredLogger.runWithContext("acme", "alice", "req-1", () -> {
+            logger.info("order placed");
+            return null;
+        });
+
+        List<String> lines = lines();
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).matches("\\d+ INFO tenant=acme user=alice request=req-1 order placed"));
+    }
+
+    @Test
+    void log_withoutContext_shouldWriteMessageOnly() {
+        logger.warn("no request");
+        assertTrue(lines().get(0).matches("\\d+ WARN no request"));
+    }
+
+    @Test
+    void log_belowThreshold_shouldBeDropped() {
+        logger.log(Level.DEBUG, "hidden");
+        assertTrue(lines().isEmpty());
+    }
+
+    @Test
+    void log_shouldNotWriteBeforeFlush() {
+        logger.info("buffered");
+        assertEquals(0, out.size());
+        assertEquals(1, lines().size());
+    }
+
+    @Test
+    void log_shouldEncodeNonAsciiAsUtf8() {
+        StructuredLogger.runWithContext("caf\u00E9", "\u30E6\u30FC\u30B6\u30FC", "r", () -> {
+            logger.info("na\u00EFve \uD83D\uDE00 ok");
+            return null;
+        });
+
+        assertTrue(lines().get(0).endsWith("tenant=caf\u00E9 user=\u30E6\u30FC\u30B6\u30FC request=r na\u00EFve \uD83D\uDE00 ok"));
+    }
+
+    @Test
+    void log_whenStripeFills_shouldDrainCompleteLines() {
+        for (int i = 0; i < 200; i++) {
+            logger.info("message number " + i);
+        }
+        assertTrue(out.size() > 0);
+
+        List<String> lines = lines();
+        assertEquals(200, lines.size());
+        for (String line : lines) {
+            assertTrue(line.matches("\\d+ INFO message number \\d+"));
+        }
+    }
+
+    @Test
+    void log_longerThanStripe_shouldTruncate() {
+        logger.error("x".repeat(5000));
+
+        List<String> lines = lines();
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).endsWith("..."));
+        assertTrue(lines.get(0).length() < 1024);
+    }
+
+    @Test
+    void log_withContextLongerThanStripe_shouldTruncateContext() {
+        StructuredLogger.runWithContext("t".repeat(2000), "alice", "req-1", () -> {
+            logger.info("order placed");
+            return null;
+        });
+
+        List<String> lines = lines();
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).matches("\\d+ INFO tenant=t+\\.\\.\\. order placed"), lines.get(0));
+        assertTrue(lines.get(0).length() < 1024);
+    }
+
+    @Test
+    void log_truncatedAfterEarlierLine_shouldKeepEveryCharacterThatFits() {
+        StructuredLogger small = new StructuredLogger(StructuredLogger.outputStreamSink(out), Level.INFO, 1, 256);
+        int header = String.valueOf(System.currentTimeMillis()).length() + " INFO ".length();
+        // Leaves the second byte of a '\u00E9' behind in the stripe, just where the
+        // next line stops writing
+        int ascii = 256 - 4 - header;
+        small.info((ascii % 2 == 0 ? "x" : "") + "\u00E9".repeat((ascii + 1) / 2));
+        small.flush();
+        out.reset();
+
+        small.info("x".repeat(ascii) + "\u00E9");
+        small.flush();
+
+        String line = out.toString(StandardCharsets.UTF_8);
+        assertTrue(line.endsWith(" INFO " + "x".repeat(ascii) + "...\n"), line);
+    }
+
+    @Test
+    void flush_whileStripeIsDraining_shouldWaitForIt() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        StructuredLogger slow = new StructuredLogger((bytes, offset, length) -> {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            written.add(new String(bytes, offset, length, StandardCharsets.UTF_8));
+        }, Level.INFO, 1, 256);
+        slow.info("first");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> draining = executor.submit(slow::flush);
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+            // Past the spin rounds, so this flush parks until the stripe is released
+            Future<?> waiting = executor.submit(slow::flush);
+            assertThrows(TimeoutException.class, () -> waiting.get(50, TimeUnit.MILLISECONDS));
+
+            release.countDown();
+            draining.get(5, TimeUnit.SECONDS);
+            waiting.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, written.size());
+        assertTrue(written.get(0).endsWith(" INFO first\n"));
+    }
+
+    @Test
+    void log_fromManyThreads_shouldKeepLinesIntact() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                String user = "user" + t;
+                futures.add(executor.submit(() -> StructuredLogger.runWithContext("acme", user, "r", () -> {
+                    for (int i = 0; i < 500; i++) {
+                        logger.info("event");
+                    }
+                    return null;
+                })));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<String> lines = lines();
+        assertEquals(4000, lines.size());
+        for (String line : lines) {
+            assertTrue(line.matches("\\d+ INFO tenant=acme user=user\\d request=r event"), line);
+        }
+    }
+}